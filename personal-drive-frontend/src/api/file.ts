@@ -9,8 +9,10 @@ import type {
   FileItem,
   FileUploadResponse,
   ChunkUploadResponse,
+  ChunkUploadStatusResponse,
   MergeChunksRequest,
-  SearchRequest
+  SearchRequest,
+  DownloadTicket
 } from './types'
 
 /**
@@ -61,6 +63,13 @@ export function uploadChunk(formData: FormData): Promise<ApiResponse<ChunkUpload
   })
 }
 
+/**
+ * 查询分片上传进度
+ */
+export function getChunkUploadStatus(sessionId: string): Promise<ApiResponse<ChunkUploadStatusResponse>> {
+  return get(`/api/v1/files/chunk-upload/${sessionId}`)
+}
+
 /**
  * 合并分片
  */
@@ -68,12 +77,29 @@ export function mergeChunks(data: MergeChunksRequest): Promise<ApiResponse<FileI
   return post('/api/v1/files/merge-chunks', data)
 }
 
+/**
+ * 获取下载票据
+ */
+export function getDownloadTicket(id: string): Promise<ApiResponse<DownloadTicket>> {
+  return get(`/api/v1/files/${id}/download-ticket`)
+}
+
+/**
+ * 获取携带下载票据的下载地址，供 a、video 等无法携带请求头的标签使用
+ * 地址中不包含登录令牌，票据只对该文件有效
+ */
+export async function getDownloadUrl(id: string, inline = false): Promise<string> {
+  const res = await getDownloadTicket(id)
+  const baseURL = import.meta.env.VITE_API_BASE_URL || 'http://localhost:8080'
+  return `${baseURL}${res.data.url}${inline ? '&inline=true' : ''}`
+}
+
 /**
  * 下载文件
  * Mock环境：如果文件有base64Content，直接触发下载
  * 真实环境：返回下载URL
  */
-export function downloadFile(id: string): string | void {
+export async function downloadFile(id: string): Promise<string | void> {
   // Mock环境下，检查文件是否有base64内容
   if (MOCK_CONFIG.enabled) {
     const file = mockFiles.find(f => f.id === id)
@@ -88,10 +114,8 @@ export function downloadFile(id: string): string | void {
     }
   }
   
-  // 真实环境：返回下载URL
-  const token = localStorage.getItem('access_token')
-  const baseURL = import.meta.env.VITE_API_BASE_URL || 'http://localhost:8080'
-  return `${baseURL}/api/v1/files/${id}/download?token=${token}`
+  // 真实环境：返回携带下载票据的下载URL
+  return getDownloadUrl(id)
 }
 
 /**
@@ -82,6 +82,15 @@ export interface FileItem {
   base64Content?: string // ✨ 新增：文件的base64内容（用于Mock环境）
 }
 
+/**
+ * 下载票据，只对一个文件有效，过期后需重新获取
+ */
+export interface DownloadTicket {
+  ticket: string
+  url: string
+  expireAt: string
+}
+
 /**
  * 文件上传响应
  */
@@ -99,6 +108,15 @@ export interface ChunkUploadResponse {
   isComplete: boolean
 }
 
+/**
+ * 分片上传进度（断点续传）
+ */
+export interface ChunkUploadStatusResponse {
+  sessionId: string
+  totalChunks: number | null
+  uploadedChunkIndexes: number[]
+}
+
 /**
  * 合并分片请求
  */
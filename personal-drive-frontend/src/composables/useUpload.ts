@@ -1,7 +1,7 @@
 // 文件上传组合式函数
 
 import { ref } from 'vue'
-import { uploadFile, uploadChunk, mergeChunks } from '@/api/file'
+import { uploadFile, uploadChunk, mergeChunks, getChunkUploadStatus } from '@/api/file'
 import { UPLOAD_CONFIG } from '@/utils/constants'
 import { ElMessage } from 'element-plus'
 
@@ -12,6 +12,25 @@ export interface UploadProgress {
   error?: string
 }
 
+const UPLOAD_SESSION_PREFIX = 'upload-session:'
+
+/**
+ * 同一文件使用固定的会话ID，页面刷新或网络中断后可以继续上传
+ */
+function getUploadSessionId(file: File): string {
+  const key = `${UPLOAD_SESSION_PREFIX}${file.name}:${file.size}:${file.lastModified}`
+  let sessionId = localStorage.getItem(key)
+  if (!sessionId) {
+    sessionId = crypto.randomUUID()
+    localStorage.setItem(key, sessionId)
+  }
+  return sessionId
+}
+
+function clearUploadSessionId(file: File) {
+  localStorage.removeItem(`${UPLOAD_SESSION_PREFIX}${file.name}:${file.size}:${file.lastModified}`)
+}
+
 export function useUpload() {
   const uploadList = ref<UploadProgress[]>([])
   const uploading = ref(false)
@@ -61,26 +80,46 @@ export function useUpload() {
 
     try {
       const totalChunks = Math.ceil(file.size / UPLOAD_CONFIG.CHUNK_SIZE)
-      const sessionId = crypto.randomUUID()
-      let uploadedChunks = 0
-
-      // 上传所有分片
-      for (let i = 0; i < totalChunks; i++) {
-        const start = i * UPLOAD_CONFIG.CHUNK_SIZE
-        const end = Math.min(start + UPLOAD_CONFIG.CHUNK_SIZE, file.size)
-        const chunk = file.slice(start, end)
-
-        const formData = new FormData()
-        formData.append('chunk', chunk)
-        formData.append('sessionId', sessionId)
-        formData.append('chunkIndex', i.toString())
-        formData.append('totalChunks', totalChunks.toString())
-
-        await uploadChunk(formData)
-
-        uploadedChunks++
-        progress.percent = Math.round((uploadedChunks / totalChunks) * 95) // 留5%给合并
+      const sessionId = getUploadSessionId(file)
+
+      // 断点续传：跳过服务端已收到的分片
+      const uploaded = new Set<number>()
+      try {
+        const status = await getChunkUploadStatus(sessionId)
+        if (status.data?.totalChunks === totalChunks) {
+          status.data.uploadedChunkIndexes.forEach(index => uploaded.add(index))
+        }
+      } catch {
+        // 查询失败时全部重新上传
+      }
+      let uploadedChunks = uploaded.size
+
+      // 上传剩余分片，多个分片并发上传；带上目标文件夹和文件名，对象存储的分片可以直接上传到存储源
+      const pending = Array.from({ length: totalChunks }, (_, i) => i).filter(i => !uploaded.has(i))
+      const uploadNext = async () => {
+        let i: number | undefined
+        while ((i = pending.shift()) !== undefined) {
+          const start = i * UPLOAD_CONFIG.CHUNK_SIZE
+          const end = Math.min(start + UPLOAD_CONFIG.CHUNK_SIZE, file.size)
+          const chunk = file.slice(start, end)
+
+          const formData = new FormData()
+          formData.append('chunk', chunk)
+          formData.append('sessionId', sessionId)
+          formData.append('chunkIndex', i.toString())
+          formData.append('totalChunks', totalChunks.toString())
+          formData.append('folderId', folderId)
+          formData.append('fileName', file.name)
+          formData.append('fileSize', file.size.toString())
+
+          await uploadChunk(formData)
+
+          uploadedChunks++
+          progress.percent = Math.round((uploadedChunks / totalChunks) * 95) // 留5%给合并
+        }
       }
+      const workers = Math.min(UPLOAD_CONFIG.MAX_CONCURRENT_CHUNKS, pending.length)
+      await Promise.all(Array.from({ length: workers }, () => uploadNext()))
 
       // 合并分片
       await mergeChunks({
@@ -88,6 +127,7 @@ export function useUpload() {
         fileName: file.name,
         folderId
       })
+      clearUploadSessionId(file)
 
       progress.status = 'success'
       progress.percent = 100
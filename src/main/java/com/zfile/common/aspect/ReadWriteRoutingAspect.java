@@ -0,0 +1,100 @@
+package com.zfile.common.aspect;
+
+import com.baomidou.dynamic.datasource.toolkit.DynamicDataSourceContextHolder;
+import com.zfile.common.datasource.ReadWriteRoutingProperties;
+import com.zfile.common.datasource.ReadYourWritesTracker;
+import com.zfile.common.datasource.ReplicaLagMonitor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.interceptor.TransactionAttribute;
+import org.springframework.transaction.interceptor.TransactionAttributeSource;
+
+/**
+ * 读写分离切面
+ * 事务规则为只读的方法路由到从库，其余方法路由到主库。
+ * 必须先于事务切面执行，事务开启时获取的连接才会来自选定的数据源。
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ReadWriteRoutingAspect {
+
+    private final ReadWriteRoutingProperties properties;
+
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    private final ReplicaLagMonitor replicaLagMonitor;
+
+    private final TransactionAttributeSource transactionAttributeSource;
+
+    private final Counter masterCounter;
+
+    private final Counter replicaCounter;
+
+    @Autowired
+    public ReadWriteRoutingAspect(ReadWriteRoutingProperties properties,
+                                  ReadYourWritesTracker readYourWritesTracker,
+                                  ReplicaLagMonitor replicaLagMonitor,
+                                  @Qualifier("serviceTransactionAttributeSource")
+                                  TransactionAttributeSource transactionAttributeSource,
+                                  MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.replicaLagMonitor = replicaLagMonitor;
+        this.transactionAttributeSource = transactionAttributeSource;
+        this.masterCounter = Counter.builder("zfile.datasource.route").tag("target", "master").register(meterRegistry);
+        this.replicaCounter = Counter.builder("zfile.datasource.route").tag("target", "replica").register(meterRegistry);
+    }
+
+    /**
+     * 与事务切面使用相同的拦截范围
+     */
+    @Around(TransactionAspect.POINTCUT_EXPRESSION)
+    public Object route(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!properties.isEnabled()) {
+            return joinPoint.proceed();
+        }
+
+        boolean read = isReadOnly(joinPoint);
+        // 嵌套的查询沿用外层已选定的数据源，保证外层事务内读写使用同一连接
+        if (read && DynamicDataSourceContextHolder.peek() != null) {
+            return joinPoint.proceed();
+        }
+
+        String dataSource = read && canReadFromReplica() ? properties.getReplica() : properties.getMaster();
+        (properties.getReplica().equals(dataSource) ? replicaCounter : masterCounter).increment();
+        DynamicDataSourceContextHolder.push(dataSource);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            DynamicDataSourceContextHolder.poll();
+            if (!read) {
+                readYourWritesTracker.markWritten();
+            }
+        }
+    }
+
+    private boolean canReadFromReplica() {
+        return !readYourWritesTracker.hasRecentWrite() && replicaLagMonitor.isReplicaAvailable();
+    }
+
+    /**
+     * 与事务切面共用同一套事务规则，方法上的 @Transactional 注解同样会影响路由
+     */
+    private boolean isReadOnly(ProceedingJoinPoint joinPoint) {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        TransactionAttribute attribute = transactionAttributeSource.getTransactionAttribute(
+                signature.getMethod(), AopUtils.getTargetClass(joinPoint.getTarget()));
+        return attribute != null && attribute.isReadOnly();
+    }
+}
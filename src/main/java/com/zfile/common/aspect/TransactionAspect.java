@@ -1,14 +1,15 @@
 package com.zfile.common.aspect;
 
 import org.aspectj.lang.annotation.Aspect;
-import org.springframework.aop.Pointcut;
 import org.springframework.aop.aspectj.AspectJExpressionPointcut;
 import org.springframework.aop.support.DefaultPointcutAdvisor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
 import org.springframework.transaction.interceptor.*;
 
 import java.util.Collections;
@@ -24,21 +25,31 @@ public class TransactionAspect {
      * 配置事务切面拦截范围
      * 拦截service包下所有类的所有方法，包括子包中的类
      */
-    private static final String POINTCUT_EXPRESSION = "execution(* com.zfile.module..service.*.*(..))";
+    public static final String POINTCUT_EXPRESSION = "execution(* com.zfile.module..service.*.*(..))";
 
     @Autowired
     private PlatformTransactionManager transactionManager;
 
+    /**
+     * service 方法的事务规则
+     * 方法上的 @Transactional 注解优先，可以为单个方法覆盖按方法名匹配的规则，
+     * 例如需要一致性快照的查询可以声明 @Transactional(readOnly = true)
+     */
     @Bean
-    public DefaultPointcutAdvisor defaultPointcutAdvisor() {
+    public TransactionAttributeSource serviceTransactionAttributeSource() {
         // 配置事务规则
         NameMatchTransactionAttributeSource source = new NameMatchTransactionAttributeSource();
-        
+
         // 配置事务传播特性
         RuleBasedTransactionAttribute requiredTx = new RuleBasedTransactionAttribute();
         requiredTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRED);
         requiredTx.setRollbackRules(Collections.singletonList(new RollbackRuleAttribute(Exception.class)));
-        
+
+        // 查询方法不开启事务，只标记为只读：已在事务中时加入外层事务，否则以自动提交方式执行
+        RuleBasedTransactionAttribute readOnlyTx = new RuleBasedTransactionAttribute();
+        readOnlyTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_SUPPORTS);
+        readOnlyTx.setReadOnly(true);
+
         // 对不同的方法设置不同的事务规则
         source.addTransactionalMethod("add*", requiredTx);
         source.addTransactionalMethod("save*", requiredTx);
@@ -49,17 +60,29 @@ public class TransactionAspect {
         source.addTransactionalMethod("delete*", requiredTx);
         source.addTransactionalMethod("remove*", requiredTx);
         source.addTransactionalMethod("batch*", requiredTx);
-        source.addTransactionalMethod("page*", requiredTx);
-        source.addTransactionalMethod("list*", requiredTx);
-        source.addTransactionalMethod("*", requiredTx); // 默认所有方法都开启事务
+        source.addTransactionalMethod("get*", readOnlyTx);
+        source.addTransactionalMethod("find*", readOnlyTx);
+        source.addTransactionalMethod("query*", readOnlyTx);
+        source.addTransactionalMethod("count*", readOnlyTx);
+        source.addTransactionalMethod("page*", readOnlyTx);
+        source.addTransactionalMethod("list*", readOnlyTx);
+        source.addTransactionalMethod("export*", readOnlyTx);
+        source.addTransactionalMethod("*", requiredTx); // 其余方法默认开启读写事务
 
+        return new CompositeTransactionAttributeSource(
+                new AnnotationTransactionAttributeSource(), source);
+    }
+
+    @Bean
+    public DefaultPointcutAdvisor defaultPointcutAdvisor(
+            @Qualifier("serviceTransactionAttributeSource") TransactionAttributeSource serviceTransactionAttributeSource) {
         // 创建切面
         AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut();
         pointcut.setExpression(POINTCUT_EXPRESSION);
 
         // 配置事务拦截器
-        TransactionInterceptor txAdvice = new TransactionInterceptor(transactionManager, source);
-        
+        TransactionInterceptor txAdvice = new TransactionInterceptor(transactionManager, serviceTransactionAttributeSource);
+
         // 创建通知器
         return new DefaultPointcutAdvisor(pointcut, txAdvice);
     }
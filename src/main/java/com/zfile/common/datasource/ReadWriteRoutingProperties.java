@@ -0,0 +1,46 @@
+package com.zfile.common.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 读写分离配置
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "zfile.datasource.read-write")
+public class ReadWriteRoutingProperties {
+
+    /**
+     * 是否启用读写分离
+     */
+    private boolean enabled = true;
+
+    /**
+     * 主库数据源名称
+     */
+    private String master = "master";
+
+    /**
+     * 从库数据源名称
+     */
+    private String replica = "slave";
+
+    /**
+     * 写入后同一用户的读请求继续访问主库的时间，保证读到自己的写入
+     */
+    private Duration stickyWindow = Duration.ofSeconds(5);
+
+    /**
+     * 从库允许的最大复制延迟，超过后读请求回退到主库
+     */
+    private Duration maxReplicaLag = Duration.ofSeconds(3);
+
+    /**
+     * 复制延迟检测间隔（毫秒）
+     */
+    private long lagCheckInterval = 5000;
+}
\ No newline at end of file
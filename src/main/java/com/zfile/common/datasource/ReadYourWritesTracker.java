@@ -0,0 +1,73 @@
+package com.zfile.common.datasource;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * 读己之写跟踪
+ * 当前请求发生过写操作后，该请求剩余的读操作都走主库；
+ * 同一登录用户在写入后的一段时间内，后续请求的读操作也走主库，避免读到从库上尚未同步的旧数据。
+ */
+@Component
+public class ReadYourWritesTracker {
+
+    private static final String REQUEST_WRITTEN_ATTRIBUTE = ReadYourWritesTracker.class.getName() + ".WRITTEN";
+
+    /**
+     * 最近发生过写操作的用户，过期后恢复从库读取
+     */
+    private final Cache<String, Boolean> recentWriters;
+
+    @Autowired
+    public ReadYourWritesTracker(ReadWriteRoutingProperties properties) {
+        this.recentWriters = CacheBuilder.newBuilder()
+                .expireAfterWrite(properties.getStickyWindow())
+                .maximumSize(100000)
+                .build();
+    }
+
+    /**
+     * 记录当前请求和当前用户发生了写操作
+     */
+    public void markWritten() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(REQUEST_WRITTEN_ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+        }
+        String principal = currentPrincipal();
+        if (principal != null) {
+            recentWriters.put(principal, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * 当前请求或当前用户是否需要从主库读取
+     *
+     * @return 最近发生过写操作时返回 true
+     */
+    public boolean hasRecentWrite() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null
+                && attributes.getAttribute(REQUEST_WRITTEN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null) {
+            return true;
+        }
+        String principal = currentPrincipal();
+        return principal != null && recentWriters.getIfPresent(principal) != null;
+    }
+
+    private String currentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
\ No newline at end of file
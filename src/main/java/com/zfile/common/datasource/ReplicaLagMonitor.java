@@ -0,0 +1,106 @@
+package com.zfile.common.datasource;
+
+import com.baomidou.dynamic.datasource.DynamicRoutingDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 从库复制延迟监控
+ * 定期查询从库的复制状态，延迟超过阈值、复制中断或无法检测时，读请求全部回退到主库
+ */
+@Slf4j
+@Component
+public class ReplicaLagMonitor {
+
+    /**
+     * 复制状态未知时的延迟值
+     */
+    private static final long UNKNOWN_LAG = -1;
+
+    private final DataSource dataSource;
+
+    private final ReadWriteRoutingProperties properties;
+
+    /**
+     * 最近一次检测到的复制延迟（秒），-1 表示未知
+     */
+    private volatile long lagSeconds = UNKNOWN_LAG;
+
+    @Autowired
+    public ReplicaLagMonitor(DataSource dataSource, ReadWriteRoutingProperties properties,
+                             MeterRegistry meterRegistry) {
+        this.dataSource = dataSource;
+        this.properties = properties;
+        Gauge.builder("zfile.datasource.replica.lag", this, monitor -> monitor.lagSeconds)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 从库是否可以承担读请求
+     *
+     * @return 复制延迟在阈值以内时返回 true
+     */
+    public boolean isReplicaAvailable() {
+        long lag = lagSeconds;
+        return lag != UNKNOWN_LAG && lag <= properties.getMaxReplicaLag().toSeconds();
+    }
+
+    @Scheduled(fixedDelayString = "${zfile.datasource.read-write.lag-check-interval:5000}")
+    public void checkLag() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        DataSource replica = getReplicaDataSource();
+        if (replica == null) {
+            lagSeconds = UNKNOWN_LAG;
+            return;
+        }
+        try (Connection connection = replica.getConnection()) {
+            lagSeconds = queryLag(connection);
+        } catch (SQLException e) {
+            lagSeconds = UNKNOWN_LAG;
+            log.warn("检测从库复制延迟失败，读请求将回退到主库: {}", e.getMessage());
+        }
+    }
+
+    private DataSource getReplicaDataSource() {
+        if (dataSource instanceof DynamicRoutingDataSource routingDataSource) {
+            return routingDataSource.getDataSources().get(properties.getReplica());
+        }
+        return null;
+    }
+
+    private long queryLag(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            try (ResultSet resultSet = statement.executeQuery("SHOW REPLICA STATUS")) {
+                return readLag(resultSet, "Seconds_Behind_Source");
+            } catch (SQLException e) {
+                // MySQL 8.0.22 之前的版本
+                try (ResultSet resultSet = statement.executeQuery("SHOW SLAVE STATUS")) {
+                    return readLag(resultSet, "Seconds_Behind_Master");
+                }
+            }
+        }
+    }
+
+    private long readLag(ResultSet resultSet, String column) throws SQLException {
+        if (!resultSet.next()) {
+            // 未配置复制（例如开发环境主从指向同一个库），视为没有延迟
+            return 0;
+        }
+        long lag = resultSet.getLong(column);
+        // 值为 NULL 说明复制线程已停止
+        return resultSet.wasNull() ? UNKNOWN_LAG : lag;
+    }
+}
\ No newline at end of file
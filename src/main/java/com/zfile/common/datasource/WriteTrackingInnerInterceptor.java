@@ -0,0 +1,25 @@
+package com.zfile.common.datasource;
+
+import com.baomidou.mybatisplus.extension.plugins.inner.InnerInterceptor;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+
+/**
+ * 写操作跟踪插件
+ * 读写分离切面只能根据服务方法名判断写操作，继承自 IService 的 save、updateById、removeById 等方法
+ * 以及控制器中直接调用的写方法不经过该判断。所有 INSERT、UPDATE、DELETE 语句最终都会经过此处，
+ * 在执行前记录写操作，保证同一请求和同一用户随后的读取走主库。
+ */
+public class WriteTrackingInnerInterceptor implements InnerInterceptor {
+
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    public WriteTrackingInnerInterceptor(ReadYourWritesTracker readYourWritesTracker) {
+        this.readYourWritesTracker = readYourWritesTracker;
+    }
+
+    @Override
+    public void beforeUpdate(Executor executor, MappedStatement ms, Object parameter) {
+        readYourWritesTracker.markWritten();
+    }
+}
\ No newline at end of file
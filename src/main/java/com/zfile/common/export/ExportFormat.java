@@ -0,0 +1,53 @@
+package com.zfile.common.export;
+
+/**
+ * 流式导出格式
+ */
+public enum ExportFormat {
+
+    /**
+     * 每行一个 JSON 对象
+     */
+    NDJSON("ndjson", "application/x-ndjson;charset=UTF-8"),
+
+    /**
+     * 逗号分隔，首行为表头
+     */
+    CSV("csv", "text/csv;charset=UTF-8");
+
+    private final String code;
+
+    private final String contentType;
+
+    ExportFormat(String code, String contentType) {
+        this.code = code;
+        this.contentType = contentType;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * 根据格式编码获取导出格式
+     *
+     * @param code 格式编码，为空时默认 NDJSON
+     * @return 导出格式
+     * @throws IllegalArgumentException 不支持的格式
+     */
+    public static ExportFormat fromCode(String code) {
+        if (code == null || code.isBlank()) {
+            return NDJSON;
+        }
+        for (ExportFormat format : values()) {
+            if (format.code.equalsIgnoreCase(code.trim())) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("不支持的导出格式: " + code);
+    }
+}
\ No newline at end of file
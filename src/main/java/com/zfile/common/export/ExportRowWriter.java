@@ -0,0 +1,122 @@
+package com.zfile.common.export;
+
+import com.alibaba.fastjson2.JSON;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 流式导出行写入器
+ * 作为 MyBatis 的 ResultHandler 使用，数据库每返回一行就立即写到输出流，内存占用与导出行数无关
+ */
+public class ExportRowWriter<T> implements ResultHandler<T> {
+
+    /**
+     * 每写入多少行刷新一次输出流，让客户端尽早收到数据
+     */
+    private static final int FLUSH_INTERVAL = 500;
+
+    private final Writer writer;
+
+    private final ExportFormat format;
+
+    private final Function<T, Object> jsonMapper;
+
+    private final Function<T, List<Object>> csvMapper;
+
+    private long rowCount;
+
+    private IOException failure;
+
+    /**
+     * @param outputStream 输出流，由调用方负责关闭
+     * @param format       导出格式
+     * @param csvHeaders   CSV 表头
+     * @param jsonMapper   NDJSON 每行输出的对象
+     * @param csvMapper    CSV 每行输出的列，顺序与表头一致
+     */
+    public ExportRowWriter(OutputStream outputStream, ExportFormat format, List<String> csvHeaders,
+                           Function<T, Object> jsonMapper, Function<T, List<Object>> csvMapper) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        this.format = format;
+        this.jsonMapper = jsonMapper;
+        this.csvMapper = csvMapper;
+        if (format == ExportFormat.CSV) {
+            try {
+                // UTF-8 BOM，便于 Excel 正确识别中文
+                writer.write('\uFEFF');
+                writeCsvLine(List.<Object>copyOf(csvHeaders));
+            } catch (IOException e) {
+                throw new UncheckedIOException("写入导出表头失败", e);
+            }
+        }
+    }
+
+    @Override
+    public void handleResult(ResultContext<? extends T> resultContext) {
+        try {
+            T row = resultContext.getResultObject();
+            if (format == ExportFormat.CSV) {
+                writeCsvLine(csvMapper.apply(row));
+            } else {
+                writer.write(JSON.toJSONString(jsonMapper.apply(row)));
+                writer.write('\n');
+            }
+            if (++rowCount % FLUSH_INTERVAL == 0) {
+                writer.flush();
+            }
+        } catch (IOException e) {
+            // 客户端断开时停止读取剩余的行
+            failure = e;
+            resultContext.stop();
+        }
+    }
+
+    /**
+     * 刷新剩余数据，导出过程中写入失败时抛出异常
+     *
+     * @return 导出行数
+     * @throws IOException 写入失败
+     */
+    public long finish() throws IOException {
+        if (failure != null) {
+            throw failure;
+        }
+        writer.flush();
+        return rowCount;
+    }
+
+    private void writeCsvLine(List<Object> columns) throws IOException {
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(escapeCsv(columns.get(i)));
+        }
+        writer.write("\r\n");
+    }
+
+    private static String escapeCsv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = String.valueOf(value);
+        // 防止表格软件把单元格当作公式执行
+        if (!text.isEmpty() && "=+-@".indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+}
\ No newline at end of file
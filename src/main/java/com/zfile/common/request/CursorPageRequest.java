@@ -0,0 +1,43 @@
+package com.zfile.common.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import org.springframework.util.StringUtils;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+@Data
+@Schema(description = "游标分页请求")
+public class CursorPageRequest implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 是否使用游标分页，传入 cursor 时自动启用
+     */
+    @Schema(description = "是否使用游标分页，传入 cursor 时自动启用", example = "false")
+    private Boolean cursorMode = false;
+
+    /**
+     * 分页游标，取上一页返回的 nextCursor，查询第一页时不传
+     */
+    @Schema(description = "分页游标，取上一页返回的 nextCursor，查询第一页时不传")
+    private String cursor;
+
+    /**
+     * 是否跳过总数统计，跳过时返回的 total 为空
+     */
+    @Schema(description = "是否跳过总数统计，跳过时返回的 total 为空", example = "false")
+    private Boolean skipCount = false;
+
+    /**
+     * 是否按游标分页查询
+     *
+     * @return 指定了游标模式或传入了游标时返回 true
+     */
+    public boolean cursorEnabled() {
+        return Boolean.TRUE.equals(cursorMode) || StringUtils.hasText(cursor);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,76 @@
+package com.zfile.common.result;
+
+import com.zfile.common.util.CursorCodec;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 游标分页结果
+ */
+@Data
+@Schema(description = "游标分页结果")
+public class CursorPageResult<T> implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "总记录数，跳过总数统计时为空")
+    private Long total;
+
+    @Schema(description = "每页大小")
+    private Integer pageSize;
+
+    @Schema(description = "下一页游标，没有下一页时为空")
+    private String nextCursor;
+
+    @Schema(description = "是否还有下一页")
+    private Boolean hasMore;
+
+    @Schema(description = "数据列表")
+    private List<T> list;
+
+    /**
+     * 根据多查询一条的结果构造分页结果
+     *
+     * @param records     按ID降序查询的记录，最多 pageSize + 1 条
+     * @param pageSize    每页大小
+     * @param idExtractor 记录ID获取方法
+     * @param total       总记录数，可为空
+     * @return 游标分页结果
+     */
+    public static <T> CursorPageResult<T> fromRecords(List<T> records, int pageSize,
+                                                      Function<T, ? extends Number> idExtractor, Long total) {
+        boolean hasMore = records.size() > pageSize;
+        List<T> list = hasMore ? new ArrayList<>(records.subList(0, pageSize)) : records;
+
+        CursorPageResult<T> result = new CursorPageResult<>();
+        result.setTotal(total);
+        result.setPageSize(pageSize);
+        result.setHasMore(hasMore);
+        result.setNextCursor(hasMore ? CursorCodec.encode(idExtractor.apply(list.get(list.size() - 1)).longValue()) : null);
+        result.setList(list);
+        return result;
+    }
+
+    /**
+     * 转换数据列表，分页信息保持不变
+     *
+     * @param converter 列表转换方法
+     * @return 新的游标分页结果
+     */
+    public <R> CursorPageResult<R> convert(Function<List<T>, List<R>> converter) {
+        CursorPageResult<R> result = new CursorPageResult<>();
+        result.setTotal(total);
+        result.setPageSize(pageSize);
+        result.setHasMore(hasMore);
+        result.setNextCursor(nextCursor);
+        result.setList(converter.apply(list));
+        return result;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,52 @@
+package com.zfile.common.util;
+
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 分页游标编解码
+ * 游标对调用方不透明，内容为上一页最后一条记录的ID
+ */
+public final class CursorCodec {
+
+    private static final String ID_PREFIX = "id:";
+
+    private CursorCodec() {
+    }
+
+    /**
+     * 将最后一条记录的ID编码为游标
+     *
+     * @param lastId 最后一条记录的ID
+     * @return 游标
+     */
+    public static String encode(long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((ID_PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标
+     *
+     * @param cursor 游标
+     * @return 上一页最后一条记录的ID，游标为空时返回 null
+     * @throws IllegalArgumentException 游标格式不正确
+     */
+    public static Long decode(String cursor) {
+        if (!StringUtils.hasText(cursor)) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!value.startsWith(ID_PREFIX)) {
+                throw new IllegalArgumentException("无效的分页游标");
+            }
+            return Long.parseLong(value.substring(ID_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException 也是 IllegalArgumentException
+            throw new IllegalArgumentException("无效的分页游标", e);
+        }
+    }
+}
\ No newline at end of file
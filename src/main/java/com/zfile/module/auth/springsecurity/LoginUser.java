@@ -0,0 +1,98 @@
+package com.zfile.module.auth.springsecurity;
+
+import com.zfile.module.user.userenum.UserPermissionEnum;
+import com.zfile.module.user.userenum.UserStatusEnum;
+import lombok.Getter;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.io.Serial;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 登录用户信息
+ * 除用户名和权限外，还携带用户ID、权限枚举、启用状态和令牌版本，
+ * 以便直接从 JWT 声明中还原认证信息，无需查询数据库
+ */
+@Getter
+public class LoginUser implements UserDetails, CredentialsContainer {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 用户ID
+     */
+    private final Integer userId;
+
+    /**
+     * 用户名
+     */
+    private final String username;
+
+    /**
+     * 密码凭证，登录时为密码哈希和盐值的组合，认证完成后清除
+     */
+    private String password;
+
+    /**
+     * 默认权限
+     */
+    private final UserPermissionEnum permission;
+
+    /**
+     * 启用状态
+     */
+    private final UserStatusEnum status;
+
+    /**
+     * 令牌版本，用户信息变更后递增，旧版本的令牌随即失效
+     */
+    private final int tokenVersion;
+
+    public LoginUser(Integer userId, String username, String password,
+                     UserPermissionEnum permission, UserStatusEnum status, int tokenVersion) {
+        this.userId = userId;
+        this.username = username;
+        this.password = password;
+        this.permission = permission;
+        this.status = status;
+        this.tokenVersion = tokenVersion;
+    }
+
+    /**
+     * 认证完成后清除密码凭证，避免哈希值随认证信息传递
+     */
+    @Override
+    public void eraseCredentials() {
+        this.password = null;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + permission.getCode().toUpperCase()));
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return status == UserStatusEnum.ENABLE;
+    }
+}
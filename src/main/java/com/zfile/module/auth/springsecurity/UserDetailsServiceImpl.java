@@ -1,31 +1,33 @@
 package com.zfile.module.auth.springsecurity;
 
+import com.zfile.module.auth.springsecurity.config.CustomPasswordEncoder;
+import com.zfile.module.auth.springsecurity.token.TokenVersionRegistry;
 import com.zfile.module.user.entity.User;
 import com.zfile.module.user.service.UserService;
 import com.zfile.module.user.userenum.UserStatusEnum;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * 自定义用户详情服务实现类
  * 用于Spring Security认证过程中加载用户信息
  */
 @Slf4j
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private TokenVersionRegistry tokenVersionRegistry;
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         log.info("开始加载用户信息，用户名: {}", username);
@@ -49,22 +51,40 @@ public class UserDetailsServiceImpl implements UserDetailsService {
             throw new UsernameNotFoundException("用户已被禁用");
         }
 
-        // 获取用户权限
-        List<SimpleGrantedAuthority> authorities = new ArrayList<>();
-        authorities.add(new SimpleGrantedAuthority("ROLE_" + user.getDefaultPermissions().getCode().toUpperCase()));
-
         log.info("用户信息加载成功，用户名: {}", username);
-        // 返回Spring Security的UserDetails对象
-        // 注意：这里我们将用户名作为"密码"传递给Spring Security，
-        // 实际的密码验证将在CustomPasswordEncoder中通过用户名查询用户并验证密码
-        return org.springframework.security.core.userdetails.User
-                .withUsername(user.getUsername())
-                .password(user.getUsername()) // 关键修改：传递用户名而非密码
-                .authorities(authorities)
-                .accountExpired(false)
-                .accountLocked(false)
-                .credentialsExpired(false)
-                .disabled(user.getEnable() != UserStatusEnum.ENABLE)
-                .build();
+        // 返回携带用户ID、权限和令牌版本的登录用户对象
+        // 密码哈希和盐值一并放入凭证中，CustomPasswordEncoder 直接校验，无需再次查询用户
+        return new LoginUser(
+                user.getId(),
+                user.getUsername(),
+                CustomPasswordEncoder.toCredentials(user.getPassword(), user.getSalt()),
+                user.getDefaultPermissions(),
+                user.getEnable(),
+                tokenVersionRegistry.current(user.getId()));
+    }
+
+    /**
+     * 登录成功后，若密码为旧格式或哈希参数已变更，由 Spring Security 调用此方法保存重新哈希后的密码
+     *
+     * @param user        登录用户
+     * @param newPassword 新的密码凭证（盐值和密码哈希的组合）
+     * @return 更新后的登录用户
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        if (!(user instanceof LoginUser loginUser)) {
+            return user;
+        }
+        User updateUser = new User();
+        updateUser.setId(loginUser.getUserId());
+        updateUser.setPassword(CustomPasswordEncoder.passwordOf(newPassword));
+        updateUser.setSalt(CustomPasswordEncoder.saltOf(newPassword));
+        if (userService.updateById(updateUser)) {
+            log.info("用户密码已按当前参数重新哈希，用户名: {}", loginUser.getUsername());
+        } else {
+            log.warn("用户密码重新哈希保存失败，用户名: {}", loginUser.getUsername());
+        }
+        return new LoginUser(loginUser.getUserId(), loginUser.getUsername(), newPassword,
+                loginUser.getPermission(), loginUser.getStatus(), loginUser.getTokenVersion());
     }
 }
\ No newline at end of file
@@ -0,0 +1,74 @@
+package com.zfile.module.auth.springsecurity.cache;
+
+import com.zfile.module.auth.springsecurity.LoginUser;
+import com.zfile.module.user.userenum.UserPermissionEnum;
+import com.zfile.module.user.userenum.UserStatusEnum;
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * 缓存中的认证主体信息
+ * 只保存构建认证信息所需的字段，不包含密码等敏感信息
+ */
+@Data
+public class CachedPrincipal implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 用户ID
+     */
+    private Integer userId;
+
+    /**
+     * 用户名
+     */
+    private String username;
+
+    /**
+     * 权限代码
+     */
+    private String permission;
+
+    /**
+     * 启用状态代码
+     */
+    private Integer enable;
+
+    /**
+     * 令牌版本
+     */
+    private Integer tokenVersion;
+
+    /**
+     * 根据登录用户构建缓存对象
+     *
+     * @param loginUser 登录用户
+     * @return 缓存对象
+     */
+    public static CachedPrincipal from(LoginUser loginUser) {
+        CachedPrincipal principal = new CachedPrincipal();
+        principal.setUserId(loginUser.getUserId());
+        principal.setUsername(loginUser.getUsername());
+        principal.setPermission(loginUser.getPermission().getCode());
+        principal.setEnable(loginUser.getStatus().getCode());
+        principal.setTokenVersion(loginUser.getTokenVersion());
+        return principal;
+    }
+
+    /**
+     * 还原为登录用户
+     *
+     * @return 登录用户
+     */
+    public LoginUser toLoginUser() {
+        UserStatusEnum status = UserStatusEnum.ENABLE.getCode().equals(enable)
+                ? UserStatusEnum.ENABLE : UserStatusEnum.DISABLE;
+        // 缓存中不保存密码，JWT 认证阶段也不需要密码
+        return new LoginUser(userId, username, "", UserPermissionEnum.fromCode(permission), status,
+                tokenVersion == null ? 0 : tokenVersion);
+    }
+}
@@ -0,0 +1,196 @@
+package com.zfile.module.auth.springsecurity.cache;
+
+import com.alibaba.fastjson2.JSONObject;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.zfile.module.auth.springsecurity.LoginUser;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 认证主体两级缓存
+ * 一级为进程内有界缓存，二级为 Redis 缓存，过期时间与 jwt.expiration 一致。
+ * 用户信息变更时通过 Redis 发布订阅通知所有节点清除一级缓存。
+ */
+@Slf4j
+@Component
+public class PrincipalCache {
+
+    /**
+     * Redis 缓存 key 前缀
+     */
+    private static final String KEY_PREFIX = "zfile:auth:principal:";
+
+    /**
+     * 缓存失效通知频道
+     */
+    private static final String INVALIDATE_CHANNEL = "zfile:auth:principal:invalidate";
+
+    private final Cache<String, CachedPrincipal> localCache;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    /**
+     * 失效通知以纯字符串发布，redisTemplate 的 FastJSON 序列化会给用户名加上引号，
+     * 订阅端按原始消息体取用户名时将无法命中
+     */
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final long ttlSeconds;
+
+    private final Counter redisHitCounter;
+
+    private final Counter redisMissCounter;
+
+    private final Counter invalidateCounter;
+
+    @Autowired
+    public PrincipalCache(RedisTemplate<String, Object> redisTemplate,
+                          StringRedisTemplate stringRedisTemplate,
+                          RedisMessageListenerContainer listenerContainer,
+                          MeterRegistry meterRegistry,
+                          @Value("${jwt.expiration}") long ttlSeconds,
+                          @Value("${zfile.auth.principal-cache.maximum-size:10000}") long maximumSize) {
+        this.redisTemplate = redisTemplate;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.ttlSeconds = ttlSeconds;
+        this.localCache = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+
+        // 一级缓存的命中、未命中、淘汰指标
+        GuavaCacheMetrics.monitor(meterRegistry, localCache, "principal.local");
+        this.redisHitCounter = Counter.builder("zfile.auth.principal.redis")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.redisMissCounter = Counter.builder("zfile.auth.principal.redis")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.invalidateCounter = Counter.builder("zfile.auth.principal.invalidate")
+                .register(meterRegistry);
+
+        // 其他节点修改或删除用户后，清除本节点的一级缓存
+        listenerContainer.addMessageListener((message, pattern) -> {
+            String username = new String(message.getBody(), StandardCharsets.UTF_8);
+            localCache.invalidate(username);
+            log.debug("收到认证缓存失效通知，用户名: {}", username);
+        }, new ChannelTopic(INVALIDATE_CHANNEL));
+    }
+
+    /**
+     * 获取用户认证信息，依次查询本地缓存、Redis 缓存，均未命中时调用 loader 加载
+     *
+     * @param username 用户名
+     * @param loader   缓存未命中时的加载方法
+     * @return 用户详情
+     */
+    public UserDetails get(String username, Function<String, UserDetails> loader) {
+        CachedPrincipal principal = localCache.getIfPresent(username);
+        if (principal != null) {
+            return principal.toLoginUser();
+        }
+
+        principal = getFromRedis(username);
+        if (principal != null) {
+            redisHitCounter.increment();
+            localCache.put(username, principal);
+            return principal.toLoginUser();
+        }
+        redisMissCounter.increment();
+
+        UserDetails userDetails = loader.apply(username);
+        if (!(userDetails instanceof LoginUser loginUser)) {
+            return userDetails;
+        }
+        principal = CachedPrincipal.from(loginUser);
+        localCache.put(username, principal);
+        putToRedis(username, principal);
+        // 返回不含密码凭证的对象
+        return principal.toLoginUser();
+    }
+
+    /**
+     * 清除指定用户的缓存，并通知其他节点
+     *
+     * @param username 用户名
+     */
+    public void evict(String username) {
+        if (!StringUtils.hasText(username)) {
+            return;
+        }
+        invalidateCounter.increment();
+        localCache.invalidate(username);
+        try {
+            redisTemplate.delete(KEY_PREFIX + username);
+            stringRedisTemplate.convertAndSend(INVALIDATE_CHANNEL, username);
+        } catch (Exception e) {
+            log.warn("清除Redis认证缓存失败，用户名: {}", username, e);
+        }
+        log.debug("已清除认证缓存，用户名: {}", username);
+    }
+
+    /**
+     * 在当前事务提交后清除缓存，没有事务时立即清除
+     * 避免事务提交前其他请求把旧数据重新加载进缓存
+     *
+     * @param usernames 用户名列表
+     */
+    public void evictAfterCommit(Collection<String> usernames) {
+        if (usernames == null || usernames.isEmpty()) {
+            return;
+        }
+        List<String> targets = List.copyOf(usernames);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    targets.forEach(PrincipalCache.this::evict);
+                }
+            });
+        } else {
+            targets.forEach(this::evict);
+        }
+    }
+
+    private CachedPrincipal getFromRedis(String username) {
+        try {
+            Object value = redisTemplate.opsForValue().get(KEY_PREFIX + username);
+            if (value instanceof JSONObject json) {
+                return json.toJavaObject(CachedPrincipal.class);
+            }
+        } catch (Exception e) {
+            // Redis 不可用时降级为直接加载，不影响认证
+            log.warn("读取Redis认证缓存失败，用户名: {}", username, e);
+        }
+        return null;
+    }
+
+    private void putToRedis(String username, CachedPrincipal principal) {
+        try {
+            redisTemplate.opsForValue().set(KEY_PREFIX + username, principal, ttlSeconds, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            log.warn("写入Redis认证缓存失败，用户名: {}", username, e);
+        }
+    }
+}
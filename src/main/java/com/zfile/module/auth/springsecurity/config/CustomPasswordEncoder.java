@@ -1,54 +1,115 @@
 package com.zfile.module.auth.springsecurity.config;
 
-import com.zfile.module.user.entity.User;
-import com.zfile.module.user.service.UserService;
+import com.zfile.module.user.util.PasswordHashEngine;
 import com.zfile.module.user.util.PasswordUtil;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.AuthenticationServiceException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.RejectedExecutionException;
+
 /**
  * 自定义密码编码器
  * 适配系统现有的PasswordUtil工具类
  */
+@Slf4j
 @Component
 public class CustomPasswordEncoder implements PasswordEncoder {
-    
+
+    /**
+     * 凭证中盐值与密码哈希的分隔符
+     */
+    private static final char CREDENTIALS_SEPARATOR = '$';
+
     @Autowired
-    private UserService userService;
+    private PasswordHashEngine passwordHashEngine;
 
     /**
-     * 由于我们不直接使用此方法进行编码，这里简单返回null
-     * 实际的密码编码在UserService中完成
+     * 使用新盐值和当前哈希参数编码密码，用于登录成功后的自动重新哈希
      *
      * @param rawPassword 原始密码
-     * @return null
+     * @return 密码凭证（盐值和密码哈希的组合）
      */
     @Override
     public String encode(CharSequence rawPassword) {
-        return null;
+        String salt = PasswordUtil.generateSalt();
+        return toCredentials(passwordHashEngine.encode(rawPassword.toString(), salt), salt);
     }
 
     /**
      * 使用系统现有的密码验证逻辑进行密码匹配
      *
      * @param rawPassword     原始密码
-     * @param encodedPassword 加密后的密码（实际上是用户名）
+     * @param encodedPassword 登录用户的密码凭证（盐值和密码哈希的组合）
      * @return 是否匹配
      */
     @Override
     public boolean matches(CharSequence rawPassword, String encodedPassword) {
-        // 由于Spring Security的UserDetailsService实现中，我们将用户的加密密码设置为用户名
-        // 所以encodedPassword实际上是用户名
-        String username = encodedPassword;
-        
-        // 根据用户名查询用户信息
-        User user = userService.getUserByUsername(username);
-        if (user == null) {
+        // UserDetailsServiceImpl 已经把密码哈希和盐值放入凭证中，这里直接校验，不再查询用户
+        if (rawPassword == null || encodedPassword == null) {
+            return false;
+        }
+        int index = encodedPassword.indexOf(CREDENTIALS_SEPARATOR);
+        if (index < 0) {
+            return false;
+        }
+        String salt = encodedPassword.substring(0, index);
+        String password = encodedPassword.substring(index + 1);
+
+        try {
+            return passwordHashEngine.matches(rawPassword.toString(), password, salt);
+        } catch (RejectedExecutionException e) {
+            // 哈希线程池繁忙时快速失败，不占用请求线程
+            log.warn("密码校验繁忙，拒绝本次登录: {}", e.getMessage());
+            throw new AuthenticationServiceException("系统繁忙，请稍后重试", e);
+        }
+    }
+
+    /**
+     * 旧格式或哈希参数已变更的密码需要在登录成功后重新哈希
+     *
+     * @param encodedPassword 登录用户的密码凭证
+     * @return 是否需要重新哈希
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
             return false;
         }
-        
-        // 使用系统现有的密码验证逻辑
-        return PasswordUtil.matches(rawPassword.toString(), user.getPassword(), user.getSalt());
+        int index = encodedPassword.indexOf(CREDENTIALS_SEPARATOR);
+        return index >= 0 && passwordHashEngine.needsRehash(encodedPassword.substring(index + 1));
+    }
+
+    /**
+     * 将密码哈希和盐值组合为登录用户的密码凭证
+     *
+     * @param password 密码哈希
+     * @param salt     盐值
+     * @return 密码凭证
+     */
+    public static String toCredentials(String password, String salt) {
+        return salt + CREDENTIALS_SEPARATOR + password;
+    }
+
+    /**
+     * 从密码凭证中取出盐值
+     *
+     * @param credentials 密码凭证
+     * @return 盐值
+     */
+    public static String saltOf(String credentials) {
+        return credentials.substring(0, credentials.indexOf(CREDENTIALS_SEPARATOR));
+    }
+
+    /**
+     * 从密码凭证中取出密码哈希
+     *
+     * @param credentials 密码凭证
+     * @return 密码哈希
+     */
+    public static String passwordOf(String credentials) {
+        return credentials.substring(credentials.indexOf(CREDENTIALS_SEPARATOR) + 1);
     }
-}
\ No newline at end of file
+}
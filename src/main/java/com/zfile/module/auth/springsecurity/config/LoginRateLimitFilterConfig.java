@@ -0,0 +1,34 @@
+package com.zfile.module.auth.springsecurity.config;
+
+import com.zfile.module.auth.springsecurity.filter.LoginRateLimitFilter;
+import com.zfile.module.auth.springsecurity.ratelimit.LoginRateLimiter;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 登录限流过滤器注册
+ */
+@Configuration
+public class LoginRateLimitFilterConfig {
+
+    /**
+     * 顺序排在 Spring Security 过滤器链之前，只拦截登录和注册路径
+     */
+    @Bean
+    public FilterRegistrationBean<LoginRateLimitFilter> loginRateLimitFilterRegistration(LoginRateLimiter loginRateLimiter,
+                                                                                         LoginRateLimitProperties properties) {
+        FilterRegistrationBean<LoginRateLimitFilter> registration =
+                new FilterRegistrationBean<>(new LoginRateLimitFilter(loginRateLimiter, properties));
+        List<String> paths = new ArrayList<>(properties.getLoginPaths());
+        paths.addAll(properties.getRegisterPaths());
+        registration.setUrlPatterns(paths);
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        registration.setName("loginRateLimitFilter");
+        return registration;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,105 @@
+package com.zfile.module.auth.springsecurity.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 登录、注册、分享访问密码限流配置
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "zfile.auth.rate-limit")
+public class LoginRateLimitProperties {
+
+    /**
+     * 是否启用限流
+     */
+    private boolean enabled = true;
+
+    /**
+     * 登录接口路径
+     */
+    private List<String> loginPaths = List.of("/spring-security/auth/login");
+
+    /**
+     * 注册接口路径
+     */
+    private List<String> registerPaths = List.of("/spring-security/auth/register");
+
+    /**
+     * 登录按 IP 限流
+     */
+    private Limit loginIp = new Limit(20, Duration.ofMinutes(1), 60);
+
+    /**
+     * 登录按用户名限流
+     */
+    private Limit loginUsername = new Limit(5, Duration.ofMinutes(1), 10);
+
+    /**
+     * 注册按 IP 限流
+     */
+    private Limit registerIp = new Limit(10, Duration.ofHours(1), 20);
+
+    /**
+     * 分享访问密码按 IP 限流
+     */
+    private Limit sharePasswordIp = new Limit(10, Duration.ofMinutes(1), 30);
+
+    /**
+     * 分享访问密码按分享码限流，限制针对同一分享的分布式猜测
+     */
+    private Limit sharePasswordCode = new Limit(20, Duration.ofMinutes(1), 60);
+
+    /**
+     * 集群计数窗口
+     */
+    private Duration clusterWindow = Duration.ofMinutes(1);
+
+    /**
+     * 本地计数同步到 Redis 的间隔（毫秒）
+     */
+    private long reconcileInterval = 1000;
+
+    /**
+     * 本地最多跟踪的限流 key 数量，超出后淘汰最久未访问的 key
+     */
+    private long maxTrackedKeys = 100000;
+
+    /**
+     * 读取请求体解析用户名时的最大长度
+     */
+    private int maxBodySize = 16 * 1024;
+
+    @Data
+    public static class Limit {
+
+        /**
+         * 令牌桶容量，即允许的突发请求数
+         */
+        private int capacity;
+
+        /**
+         * 令牌桶填满所需时间，平均速率为 capacity / period
+         */
+        private Duration period;
+
+        /**
+         * 整个集群在一个计数窗口内允许的请求数
+         */
+        private long clusterLimit;
+
+        public Limit() {
+        }
+
+        public Limit(int capacity, Duration period, long clusterLimit) {
+            this.capacity = capacity;
+            this.period = period;
+            this.clusterLimit = clusterLimit;
+        }
+    }
+}
\ No newline at end of file
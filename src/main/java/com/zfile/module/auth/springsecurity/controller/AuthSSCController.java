@@ -1,12 +1,17 @@
 package com.zfile.module.auth.springsecurity.controller;
 
 import com.zfile.common.result.Result;
+import com.zfile.module.auth.satoken.response.LoginResponse;
+import com.zfile.module.auth.springsecurity.LoginUser;
 import com.zfile.module.auth.springsecurity.request.LoginRequest;
 import com.zfile.module.auth.springsecurity.request.RegisterRequest;
 import com.zfile.module.auth.springsecurity.service.UserSSCService;
+import com.zfile.module.auth.springsecurity.token.TokenRevocationRegistry;
+import com.zfile.module.auth.springsecurity.util.JwtClaimsUtil;
 import com.zfile.module.user.response.UserResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -31,6 +36,12 @@ public class AuthSSCController {
     @Autowired
     private UserSSCService userSSCService;
 
+    @Autowired
+    private TokenRevocationRegistry tokenRevocationRegistry;
+
+    @Autowired
+    private JwtClaimsUtil jwtClaimsUtil;
+
     /**
      * 用户注册接口
      */
@@ -69,9 +80,15 @@ public class AuthSSCController {
      */
     @Operation(summary = "用户登出")
     @PostMapping("/logout")
-    public Result<?> logout() {
+    public Result<?> logout(HttpServletRequest request) {
         try {
             log.info("开始处理用户登出请求");
+
+            // 注销当前令牌，令牌过期前在所有节点上都无法再使用
+            String requestTokenHeader = request.getHeader("Authorization");
+            if (requestTokenHeader != null && requestTokenHeader.startsWith("Bearer ")) {
+                tokenRevocationRegistry.revoke(requestTokenHeader.substring(7));
+            }
             
             // 清除SecurityContext中的认证信息
             SecurityContextHolder.clearContext();
@@ -84,6 +101,36 @@ public class AuthSSCController {
         }
     }
 
+    /**
+     * 刷新令牌接口
+     * 为当前登录用户签发新的声明令牌并注销旧令牌，旧格式令牌也可通过此接口换成声明令牌
+     */
+    @Operation(summary = "刷新令牌")
+    @PostMapping("/refresh")
+    @PreAuthorize("isAuthenticated()")
+    public Result<?> refresh(HttpServletRequest request) {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication == null || !(authentication.getPrincipal() instanceof LoginUser loginUser)) {
+                log.warn("刷新令牌失败，当前认证信息不是LoginUser");
+                return Result.fail("刷新令牌失败");
+            }
+
+            String token = jwtClaimsUtil.generateToken(loginUser);
+            String requestTokenHeader = request.getHeader("Authorization");
+            if (requestTokenHeader != null && requestTokenHeader.startsWith("Bearer ")) {
+                tokenRevocationRegistry.revoke(requestTokenHeader.substring(7));
+            }
+
+            log.info("刷新令牌成功，用户名: {}", loginUser.getUsername());
+            return Result.success(new LoginResponse(true, "刷新成功", token,
+                    jwtClaimsUtil.getExpirationSeconds(), loginUser.getUserId(), loginUser.getUsername()));
+        } catch (Exception e) {
+            log.error("刷新令牌时发生异常", e);
+            return Result.fail("刷新令牌失败: " + e.getMessage());
+        }
+    }
+
     /**
      * 获取当前登录用户信息
      */
@@ -0,0 +1,109 @@
+package com.zfile.module.auth.springsecurity.filter;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.SequenceInputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 预读请求体的请求包装
+ * 过滤器提前读取请求体的前一部分后，后续的过滤器和控制器仍能读到完整的请求体
+ */
+public class CachedBodyHttpServletRequest extends HttpServletRequestWrapper {
+
+    private final byte[] cachedBody;
+
+    private final boolean fullyCached;
+
+    private final ServletInputStream inputStream;
+
+    /**
+     * @param request  原始请求
+     * @param maxBytes 最多预读的字节数
+     */
+    public CachedBodyHttpServletRequest(HttpServletRequest request, int maxBytes) throws IOException {
+        super(request);
+        InputStream original = request.getInputStream();
+        // 多读一个字节用于判断请求体是否超过预读长度
+        byte[] head = original.readNBytes(maxBytes + 1);
+        this.fullyCached = head.length <= maxBytes;
+        this.cachedBody = fullyCached ? head : Arrays.copyOf(head, maxBytes);
+        this.inputStream = new CachedServletInputStream(new SequenceInputStream(new ByteArrayInputStream(head), original));
+    }
+
+    /**
+     * @return 预读的请求体，请求体超过预读长度时只包含前一部分
+     */
+    public byte[] getCachedBody() {
+        return cachedBody;
+    }
+
+    /**
+     * @return 请求体是否已完整预读
+     */
+    public boolean isFullyCached() {
+        return fullyCached;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() {
+        return inputStream;
+    }
+
+    @Override
+    public BufferedReader getReader() {
+        String encoding = getCharacterEncoding();
+        Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+        return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+    }
+
+    private static class CachedServletInputStream extends ServletInputStream {
+
+        private final InputStream delegate;
+
+        private boolean finished;
+
+        private CachedServletInputStream(InputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = delegate.read();
+            finished = b < 0;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = delegate.read(b, off, len);
+            finished = n < 0;
+            return n;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            throw new UnsupportedOperationException("不支持异步读取");
+        }
+    }
+}
\ No newline at end of file
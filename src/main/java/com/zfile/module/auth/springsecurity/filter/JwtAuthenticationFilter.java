@@ -1,12 +1,22 @@
 package com.zfile.module.auth.springsecurity.filter;
 
+import com.zfile.module.auth.springsecurity.LoginUser;
+import com.zfile.module.auth.springsecurity.cache.PrincipalCache;
+import com.zfile.module.auth.springsecurity.token.FileTicketSigner;
+import com.zfile.module.auth.springsecurity.token.TokenRevocationRegistry;
+import com.zfile.module.auth.springsecurity.token.TokenVersionRegistry;
+import com.zfile.module.auth.springsecurity.util.JwtClaimsUtil;
 import com.zfile.module.auth.springsecurity.util.JwtUtil;
+import com.zfile.module.user.userenum.UserPermissionEnum;
+import com.zfile.module.user.userenum.UserStatusEnum;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -15,8 +25,11 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
 
 import java.io.IOException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * JWT认证过滤器
@@ -32,11 +45,49 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private JwtClaimsUtil jwtClaimsUtil;
+
+    @Autowired
+    private TokenVersionRegistry tokenVersionRegistry;
+
+    @Autowired
+    private TokenRevocationRegistry tokenRevocationRegistry;
+
+    @Autowired
+    private FileTicketSigner fileTicketSigner;
+
+    /**
+     * 允许通过 ticket 参数携带文件访问票据的接口，供 a、video 等标签直接引用；
+     * 按解码并去除分号参数后的完整路径匹配，票据不能用于其他接口
+     */
+    private static final Pattern TICKET_PATH_PATTERN = Pattern.compile("/api/v1/files/(\\d+)/(download|thumbnail)");
+
+    private static final UrlPathHelper URL_PATH_HELPER = new UrlPathHelper();
+
+    static {
+        URL_PATH_HELPER.setUrlDecode(true);
+        URL_PATH_HELPER.setRemoveSemicolonContent(true);
+    }
+
+    /**
+     * 是否启用携带声明的令牌
+     */
+    @Value("${jwt.claims-mode.enabled:true}")
+    private boolean claimsModeEnabled;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
                                     FilterChain chain) throws ServletException, IOException {
         final String requestTokenHeader = request.getHeader("Authorization");
+        if (requestTokenHeader == null && authenticateByTicket(request)) {
+            chain.doFilter(request, response);
+            return;
+        }
 
         String username = null;
         String jwtToken = null;
@@ -44,7 +95,23 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // JWT Token的格式为 "Bearer token"
         if (requestTokenHeader != null && requestTokenHeader.startsWith("Bearer ")) {
             jwtToken = requestTokenHeader.substring(7);
-            if (StringUtils.hasText(jwtToken)) {
+            // 携带声明的令牌只需校验一次签名，无需查询数据库或 Redis
+            if (claimsModeEnabled && StringUtils.hasText(jwtToken)) {
+                Claims claims = jwtClaimsUtil.parseClaimsToken(jwtToken);
+                if (claims != null) {
+                    if (tokenRevocationRegistry.isRevoked(tokenRevocationRegistry.resolveTokenId(jwtToken, claims))) {
+                        log.warn("JWT Token已注销，用户名: {}", claims.getSubject());
+                    } else {
+                        authenticateByClaims(claims, request);
+                    }
+                    chain.doFilter(request, response);
+                    return;
+                }
+            }
+            if (StringUtils.hasText(jwtToken)
+                    && tokenRevocationRegistry.isRevoked(tokenRevocationRegistry.resolveTokenId(jwtToken, null))) {
+                log.warn("JWT Token已注销");
+            } else if (StringUtils.hasText(jwtToken)) {
                 try {
                     username = jwtUtil.getUsernameFromToken(jwtToken);
                     // 检查解析出的用户名是否有效
@@ -68,7 +135,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // 只有在用户名有效且SecurityContext中没有认证信息时才进行认证
         if (username != null && StringUtils.hasText(username) && SecurityContextHolder.getContext().getAuthentication() == null) {
             try {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+                // 优先从缓存中获取用户信息，避免每次请求都查询数据库
+                UserDetails userDetails = principalCache.get(username, this.userDetailsService::loadUserByUsername);
 
                 // 如果token有效，配置Spring Security
                 if (jwtUtil.validateToken(jwtToken, userDetails)) {
@@ -93,4 +161,75 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         chain.doFilter(request, response);
     }
+
+    /**
+     * 使用文件访问票据认证
+     * 票据只对路径中的文件和用途有效，认证结果只用于本次 GET、HEAD 请求；会话令牌不接受通过查询参数传递
+     *
+     * @return 请求携带了票据时返回 true，无论票据是否有效都不再按令牌认证
+     */
+    private boolean authenticateByTicket(HttpServletRequest request) {
+        String ticket = request.getParameter("ticket");
+        if (!StringUtils.hasText(ticket)
+                || !("GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod()))) {
+            return false;
+        }
+        Matcher matcher = TICKET_PATH_PATTERN.matcher(URL_PATH_HELPER.getPathWithinApplication(request));
+        if (!matcher.matches()) {
+            return false;
+        }
+
+        FileTicketSigner.Purpose purpose = FileTicketSigner.Purpose.fromCode(matcher.group(2));
+        Long fileId;
+        try {
+            fileId = Long.valueOf(matcher.group(1));
+        } catch (NumberFormatException e) {
+            return true;
+        }
+        FileTicketSigner.Ticket verified = fileTicketSigner.verify(ticket, purpose, fileId);
+        if (verified == null) {
+            log.warn("文件访问票据无效或已过期，文件ID: {}", fileId);
+            return true;
+        }
+        if (verified.tokenVersion() != tokenVersionRegistry.current(verified.userId())) {
+            log.warn("文件访问票据的令牌版本已失效，用户ID: {}", verified.userId());
+            return true;
+        }
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            // 票据用户只能访问票据对应的文件，按普通用户权限认证
+            LoginUser loginUser = new LoginUser(verified.userId(), "", "", UserPermissionEnum.USER,
+                    UserStatusEnum.ENABLE, verified.tokenVersion());
+            UsernamePasswordAuthenticationToken authenticationToken =
+                    new UsernamePasswordAuthenticationToken(loginUser, null, loginUser.getAuthorities());
+            authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+            log.debug("文件访问票据验证通过，用户ID: {}，文件ID: {}", verified.userId(), fileId);
+        }
+        return true;
+    }
+
+    /**
+     * 根据令牌声明直接构建认证信息
+     * 令牌版本与内存中的版本不一致时说明用户已被禁用、删除或修改了权限，拒绝认证
+     */
+    private void authenticateByClaims(Claims claims, HttpServletRequest request) {
+        if (SecurityContextHolder.getContext().getAuthentication() != null) {
+            return;
+        }
+        LoginUser loginUser = jwtClaimsUtil.toLoginUser(claims);
+        if (!loginUser.isEnabled()) {
+            log.warn("JWT Token中的用户已被禁用，用户名: {}", loginUser.getUsername());
+            return;
+        }
+        if (loginUser.getTokenVersion() != tokenVersionRegistry.current(loginUser.getUserId())) {
+            log.warn("JWT Token版本已失效，用户名: {}", loginUser.getUsername());
+            return;
+        }
+
+        UsernamePasswordAuthenticationToken authenticationToken =
+                new UsernamePasswordAuthenticationToken(loginUser, null, loginUser.getAuthorities());
+        authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+        log.debug("JWT声明令牌验证通过，用户名: {}", loginUser.getUsername());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,123 @@
+package com.zfile.module.auth.springsecurity.filter;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONObject;
+import com.zfile.common.result.Result;
+import com.zfile.module.auth.springsecurity.config.LoginRateLimitProperties;
+import com.zfile.module.auth.springsecurity.ratelimit.LoginRateLimiter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * 登录、注册限流过滤器
+ * 注册在 Spring Security 过滤器链之前，超限的请求在查询数据库和计算密码哈希之前就被拒绝
+ */
+@Slf4j
+public class LoginRateLimitFilter extends OncePerRequestFilter {
+
+    /**
+     * 按解码、去除分号参数和合并多余斜杠后的路径匹配，与 Spring MVC 的路由结果一致，
+     * 避免 /auth/%6cogin、;jsessionid=、// 等写法绕过限流
+     */
+    private static final UrlPathHelper URL_PATH_HELPER = new UrlPathHelper();
+
+    static {
+        URL_PATH_HELPER.setUrlDecode(true);
+        URL_PATH_HELPER.setRemoveSemicolonContent(true);
+    }
+
+    private final LoginRateLimiter loginRateLimiter;
+
+    private final LoginRateLimitProperties properties;
+
+    public LoginRateLimitFilter(LoginRateLimiter loginRateLimiter, LoginRateLimitProperties properties) {
+        this.loginRateLimiter = loginRateLimiter;
+        this.properties = properties;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || !"POST".equalsIgnoreCase(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        String path = URL_PATH_HELPER.getPathWithinApplication(request);
+        String ip = request.getRemoteAddr();
+
+        if (properties.getRegisterPaths().contains(path)) {
+            if (reject(response, loginRateLimiter.tryAcquire(LoginRateLimiter.Rule.REGISTER_IP, ip), ip)) {
+                return;
+            }
+            chain.doFilter(request, response);
+            return;
+        }
+        if (!properties.getLoginPaths().contains(path)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        if (reject(response, loginRateLimiter.tryAcquire(LoginRateLimiter.Rule.LOGIN_IP, ip), ip)) {
+            return;
+        }
+
+        HttpServletRequest target = request;
+        String username = null;
+        String contentType = request.getContentType();
+        if (contentType != null && contentType.toLowerCase(Locale.ROOT).startsWith(MediaType.APPLICATION_FORM_URLENCODED_VALUE)) {
+            username = request.getParameter("username");
+        } else if (contentType != null && contentType.toLowerCase(Locale.ROOT).contains("json")) {
+            CachedBodyHttpServletRequest cachedRequest = new CachedBodyHttpServletRequest(request, properties.getMaxBodySize());
+            target = cachedRequest;
+            username = readUsername(cachedRequest);
+        }
+
+        if (StringUtils.hasText(username)) {
+            String key = username.trim().toLowerCase(Locale.ROOT);
+            if (reject(response, loginRateLimiter.tryAcquire(LoginRateLimiter.Rule.LOGIN_USERNAME, key), key)) {
+                return;
+            }
+        }
+        chain.doFilter(target, response);
+    }
+
+    private static String readUsername(CachedBodyHttpServletRequest request) {
+        if (!request.isFullyCached() || request.getCachedBody().length == 0) {
+            return null;
+        }
+        try {
+            JSONObject body = JSON.parseObject(request.getCachedBody());
+            return body == null ? null : body.getString("username");
+        } catch (Exception e) {
+            // 请求体格式错误交给后续处理，这里只按 IP 限流
+            return null;
+        }
+    }
+
+    private static boolean reject(HttpServletResponse response, long retryAfterSeconds, String key) throws IOException {
+        if (retryAfterSeconds <= 0) {
+            return false;
+        }
+        log.warn("请求过于频繁，已拒绝: {}, {} 秒后可重试", key, retryAfterSeconds);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType("application/json;charset=UTF-8");
+        Result<?> result = Result.fail(HttpStatus.TOO_MANY_REQUESTS.value(), "请求过于频繁，请 " + retryAfterSeconds + " 秒后再试");
+        response.getWriter().println(JSON.toJSONString(result));
+        return true;
+    }
+}
\ No newline at end of file
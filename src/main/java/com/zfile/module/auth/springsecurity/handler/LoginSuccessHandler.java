@@ -0,0 +1,48 @@
+package com.zfile.module.auth.springsecurity.handler;
+
+import com.alibaba.fastjson2.JSON;
+import com.zfile.common.result.Result;
+import com.zfile.module.auth.satoken.response.LoginResponse;
+import com.zfile.module.auth.springsecurity.LoginUser;
+import com.zfile.module.auth.springsecurity.util.JwtClaimsUtil;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * 登录成功处理器
+ * 签发携带用户声明的令牌，之后的请求只需校验签名即可完成认证
+ */
+@Slf4j
+@Component
+public class LoginSuccessHandler implements AuthenticationSuccessHandler {
+
+    @Autowired
+    private JwtClaimsUtil jwtClaimsUtil;
+
+    @Override
+    public void onAuthenticationSuccess(HttpServletRequest request,
+                                        HttpServletResponse response,
+                                        Authentication authentication) throws IOException {
+        response.setContentType("application/json;charset=UTF-8");
+
+        if (!(authentication.getPrincipal() instanceof LoginUser loginUser)) {
+            log.error("登录成功但认证信息不是LoginUser: {}", authentication.getPrincipal().getClass().getName());
+            response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            response.getWriter().println(JSON.toJSONString(Result.fail("登录失败")));
+            return;
+        }
+
+        String token = jwtClaimsUtil.generateToken(loginUser);
+        LoginResponse loginResponse = new LoginResponse(true, "登录成功", token,
+                jwtClaimsUtil.getExpirationSeconds(), loginUser.getUserId(), loginUser.getUsername());
+        log.info("用户登录成功，用户名: {}", loginUser.getUsername());
+        response.getWriter().println(JSON.toJSONString(Result.success(loginResponse)));
+    }
+}
\ No newline at end of file
@@ -2,9 +2,11 @@ package com.zfile.module.auth.springsecurity.handler;
 
 import com.alibaba.fastjson2.JSON;
 import com.zfile.common.result.Result;
+import com.zfile.module.auth.springsecurity.token.TokenRevocationRegistry;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.web.authentication.logout.LogoutHandler;
 import org.springframework.stereotype.Component;
@@ -19,10 +21,19 @@ import java.io.IOException;
 @Component
 public class LogoutSuccessHandler implements LogoutHandler {
 
+    @Autowired
+    private TokenRevocationRegistry tokenRevocationRegistry;
+
     @Override
     public void logout(HttpServletRequest request,
                        HttpServletResponse response,
                        Authentication authentication) {
+        // 注销当前令牌，令牌过期前在所有节点上都无法再使用
+        String requestTokenHeader = request.getHeader("Authorization");
+        if (requestTokenHeader != null && requestTokenHeader.startsWith("Bearer ")) {
+            tokenRevocationRegistry.revoke(requestTokenHeader.substring(7));
+        }
+
         if (authentication != null) {
             String username = authentication.getName();
             log.info("用户登出成功，用户名: {}", username);
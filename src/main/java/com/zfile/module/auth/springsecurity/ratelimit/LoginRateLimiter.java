@@ -0,0 +1,283 @@
+package com.zfile.module.auth.springsecurity.ratelimit;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.zfile.module.auth.springsecurity.config.LoginRateLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 登录、注册、分享访问密码限流器
+ * 本地使用 GCRA 令牌桶，每个 key 只保存一个“理论到达时间”，通过 CAS 更新，不加锁；
+ * 桶保存在分段的 Guava Cache 中，数量有上限，大量伪造 IP 或用户名也不会撑爆内存。
+ * 本地放行的请求数定期批量累加到 Redis 的固定窗口计数器，
+ * 某个 key 在整个集群的计数超过上限后，各节点在窗口结束前直接拒绝该 key。
+ * 请求路径上只访问内存，不访问 Redis。
+ */
+@Slf4j
+@Component
+public class LoginRateLimiter {
+
+    /**
+     * 集群窗口计数 key 前缀，格式: 前缀 + 规则:key:窗口序号
+     */
+    private static final String CLUSTER_KEY_PREFIX = "zfile:auth:rate-limit:";
+
+    private final LoginRateLimitProperties properties;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final Map<Rule, RuleState> states = new EnumMap<>(Rule.class);
+
+    /**
+     * 本地已放行但尚未同步到 Redis 的请求数，key 为 规则:key
+     */
+    private final Map<String, LongAdder> pendingCounts = new ConcurrentHashMap<>();
+
+    /**
+     * 集群计数已超限的 key -> 解除时间戳（毫秒）
+     */
+    private final Map<String, Long> clusterBlocked = new ConcurrentHashMap<>();
+
+    private final Counter reconcileFailureCounter;
+
+    @Autowired
+    public LoginRateLimiter(LoginRateLimitProperties properties,
+                            StringRedisTemplate stringRedisTemplate,
+                            MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.stringRedisTemplate = stringRedisTemplate;
+        for (Rule rule : Rule.values()) {
+            RuleState state = new RuleState(rule.limitOf(properties), properties.getMaxTrackedKeys());
+            state.allowedCounter = Counter.builder("zfile.auth.rate-limit.requests")
+                    .tag("rule", rule.code).tag("result", "allowed").register(meterRegistry);
+            state.rejectedCounter = Counter.builder("zfile.auth.rate-limit.requests")
+                    .tag("rule", rule.code).tag("result", "rejected").register(meterRegistry);
+            Gauge.builder("zfile.auth.rate-limit.buckets", state.buckets, Cache::size)
+                    .tag("rule", rule.code).register(meterRegistry);
+            states.put(rule, state);
+        }
+        Gauge.builder("zfile.auth.rate-limit.cluster-blocked", clusterBlocked, Map::size).register(meterRegistry);
+        Gauge.builder("zfile.auth.rate-limit.pending", pendingCounts, Map::size).register(meterRegistry);
+        this.reconcileFailureCounter = Counter.builder("zfile.auth.rate-limit.reconcile.failures").register(meterRegistry);
+    }
+
+    /**
+     * 尝试获取一次请求许可
+     *
+     * @param rule 限流规则
+     * @param key  限流 key，如 IP 或用户名
+     * @return 需要等待的秒数，0 表示放行
+     */
+    public long tryAcquire(Rule rule, String key) {
+        if (!properties.isEnabled()) {
+            return 0;
+        }
+        RuleState state = states.get(rule);
+        String clusterKey = rule.code + ":" + key;
+
+        Long blockedUntil = clusterBlocked.get(clusterKey);
+        long nowMillis = System.currentTimeMillis();
+        if (blockedUntil != null && blockedUntil > nowMillis) {
+            state.rejectedCounter.increment();
+            return toSeconds(TimeUnit.MILLISECONDS.toNanos(blockedUntil - nowMillis));
+        }
+
+        long waitNanos = state.acquire(key);
+        if (waitNanos > 0) {
+            state.rejectedCounter.increment();
+            return toSeconds(waitNanos);
+        }
+        state.allowedCounter.increment();
+        pendingCounts.computeIfAbsent(clusterKey, k -> new LongAdder()).increment();
+        return 0;
+    }
+
+    /**
+     * 把本地计数累加到 Redis 当前窗口，并根据集群总数更新超限 key
+     */
+    @Scheduled(fixedDelayString = "${zfile.auth.rate-limit.reconcile-interval:1000}")
+    public void reconcile() {
+        long nowMillis = System.currentTimeMillis();
+        clusterBlocked.values().removeIf(until -> until <= nowMillis);
+        if (pendingCounts.isEmpty()) {
+            return;
+        }
+
+        List<String> keys = new ArrayList<>();
+        List<Long> deltas = new ArrayList<>();
+        for (String key : pendingCounts.keySet()) {
+            // 移除期间并发的少量计数可能丢失，对限流结果影响可以忽略
+            LongAdder adder = pendingCounts.remove(key);
+            long delta = adder == null ? 0 : adder.sum();
+            if (delta > 0) {
+                keys.add(key);
+                deltas.add(delta);
+            }
+        }
+        if (keys.isEmpty()) {
+            return;
+        }
+
+        long windowMillis = properties.getClusterWindow().toMillis();
+        long window = nowMillis / windowMillis;
+        long windowEnd = (window + 1) * windowMillis;
+        long ttlSeconds = Math.max(1, TimeUnit.MILLISECONDS.toSeconds(windowMillis * 2));
+        try {
+            List<Object> results = stringRedisTemplate.executePipelined(
+                    (RedisCallback<Object>) connection -> {
+                        StringRedisConnection stringConnection = (StringRedisConnection) connection;
+                        for (int i = 0; i < keys.size(); i++) {
+                            String redisKey = CLUSTER_KEY_PREFIX + keys.get(i) + ":" + window;
+                            stringConnection.incrBy(redisKey, deltas.get(i));
+                            stringConnection.expire(redisKey, ttlSeconds);
+                        }
+                        return null;
+                    });
+            for (int i = 0; i < keys.size(); i++) {
+                Object total = results.get(i * 2);
+                String key = keys.get(i);
+                Rule rule = Rule.fromKey(key);
+                if (rule != null && total instanceof Long count && count > states.get(rule).limit.getClusterLimit()) {
+                    clusterBlocked.put(key, windowEnd);
+                    log.warn("限流 key 在集群内超出上限，窗口结束前拒绝请求: {}, 当前计数: {}", key, count);
+                }
+            }
+        } catch (Exception e) {
+            // Redis 不可用时只依赖本地限流
+            reconcileFailureCounter.increment();
+            log.warn("同步限流计数到 Redis 失败: {}", e.getMessage());
+        }
+    }
+
+    private static long toSeconds(long nanos) {
+        return Math.max(1, (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    /**
+     * 限流规则
+     */
+    public enum Rule {
+
+        LOGIN_IP("login-ip"),
+
+        LOGIN_USERNAME("login-username"),
+
+        REGISTER_IP("register-ip"),
+
+        SHARE_PASSWORD_IP("share-password-ip"),
+
+        SHARE_PASSWORD_CODE("share-password-code");
+
+        private final String code;
+
+        Rule(String code) {
+            this.code = code;
+        }
+
+        public String getCode() {
+            return code;
+        }
+
+        private LoginRateLimitProperties.Limit limitOf(LoginRateLimitProperties properties) {
+            return switch (this) {
+                case LOGIN_IP -> properties.getLoginIp();
+                case LOGIN_USERNAME -> properties.getLoginUsername();
+                case REGISTER_IP -> properties.getRegisterIp();
+                case SHARE_PASSWORD_IP -> properties.getSharePasswordIp();
+                case SHARE_PASSWORD_CODE -> properties.getSharePasswordCode();
+            };
+        }
+
+        private static Rule fromKey(String clusterKey) {
+            for (Rule rule : values()) {
+                if (clusterKey.startsWith(rule.code + ":")) {
+                    return rule;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 单条规则的本地令牌桶
+     */
+    private static class RuleState {
+
+        private final LoginRateLimitProperties.Limit limit;
+
+        /**
+         * 每个令牌的生成间隔（纳秒）
+         */
+        private final long emissionInterval;
+
+        /**
+         * 允许理论到达时间领先当前时间的最大值，即桶容量对应的时长
+         */
+        private final long burstTolerance;
+
+        /**
+         * key -> 理论到达时间（System.nanoTime 基准）
+         */
+        private final Cache<String, AtomicLong> buckets;
+
+        private Counter allowedCounter;
+
+        private Counter rejectedCounter;
+
+        private RuleState(LoginRateLimitProperties.Limit limit, long maxTrackedKeys) {
+            this.limit = limit;
+            int capacity = Math.max(1, limit.getCapacity());
+            this.emissionInterval = Math.max(1, limit.getPeriod().toNanos() / capacity);
+            this.burstTolerance = emissionInterval * capacity;
+            // 桶闲置一个完整周期后必然已填满，可以直接淘汰
+            this.buckets = CacheBuilder.newBuilder()
+                    .concurrencyLevel(Runtime.getRuntime().availableProcessors())
+                    .maximumSize(maxTrackedKeys)
+                    .expireAfterAccess(limit.getPeriod().toNanos(), TimeUnit.NANOSECONDS)
+                    .build();
+        }
+
+        /**
+         * @return 0 表示放行，否则为需要等待的纳秒数
+         */
+        private long acquire(String key) {
+            AtomicLong tat;
+            try {
+                tat = buckets.get(key, () -> new AtomicLong(Long.MIN_VALUE));
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e);
+            }
+            while (true) {
+                long now = System.nanoTime();
+                long current = tat.get();
+                long base = current == Long.MIN_VALUE || current - now < 0 ? now : current;
+                long next = base + emissionInterval;
+                if (next - now > burstTolerance) {
+                    return next - now - burstTolerance;
+                }
+                if (tat.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
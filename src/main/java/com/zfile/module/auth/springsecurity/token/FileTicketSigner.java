@@ -0,0 +1,169 @@
+package com.zfile.module.auth.springsecurity.token;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * 文件访问票据
+ * 浏览器直接打开的下载链接、音视频和图片无法携带请求头，这些地址通过查询参数携带票据，而不是会话令牌。
+ * 票据只对一个文件的一种用途有效，有效期很短，泄露到访问日志或 Referer 中也无法访问其他接口；
+ * 票据由 HMAC 签名，不需要保存，各节点都能校验。
+ * 票据记录签发时的令牌版本，用户被禁用、删除或修改权限后随即失效
+ */
+@Component
+public class FileTicketSigner {
+
+    /**
+     * 从 jwt.secret 派生票据密钥时使用的标签，票据密钥与令牌密钥不同
+     */
+    private static final String KEY_LABEL = "zfile:file-ticket";
+
+    @Value("${jwt.secret}")
+    private String secret;
+
+    @Value("${zfile.auth.file-ticket.download-ttl:1h}")
+    private Duration downloadTtl;
+
+    @Value("${zfile.auth.file-ticket.thumbnail-ttl:1h}")
+    private Duration thumbnailTtl;
+
+    private HashFunction hmac;
+
+    @PostConstruct
+    public void init() {
+        byte[] key = Hashing.hmacSha256(secret.getBytes(StandardCharsets.UTF_8))
+                .hashString(KEY_LABEL, StandardCharsets.UTF_8).asBytes();
+        this.hmac = Hashing.hmacSha256(key);
+    }
+
+    /**
+     * 签发票据
+     *
+     * @param purpose      用途
+     * @param userId       用户ID
+     * @param tokenVersion 签发时的令牌版本
+     * @param fileId       文件ID
+     * @return 票据，格式: 用户ID.令牌版本.过期时间戳（秒）.签名
+     */
+    public String issue(Purpose purpose, Integer userId, int tokenVersion, Long fileId) {
+        long expiresAt = expiresAtOf(purpose, Instant.now().getEpochSecond());
+        String payload = userId + "." + tokenVersion + "." + expiresAt;
+        return payload + "." + sign(purpose, fileId, payload);
+    }
+
+    /**
+     * 校验票据
+     *
+     * @param ticket  票据
+     * @param purpose 请求的用途
+     * @param fileId  请求的文件ID
+     * @return 票据内容，签名无效、已过期或与请求的文件和用途不符时返回 null
+     */
+    public Ticket verify(String ticket, Purpose purpose, Long fileId) {
+        if (!StringUtils.hasText(ticket)) {
+            return null;
+        }
+        int index = ticket.lastIndexOf('.');
+        if (index <= 0) {
+            return null;
+        }
+        String payload = ticket.substring(0, index);
+        byte[] expected = sign(purpose, fileId, payload).getBytes(StandardCharsets.US_ASCII);
+        if (!MessageDigest.isEqual(expected, ticket.substring(index + 1).getBytes(StandardCharsets.US_ASCII))) {
+            return null;
+        }
+        String[] parts = payload.split("\\.");
+        if (parts.length != 3) {
+            return null;
+        }
+        try {
+            long expiresAt = Long.parseLong(parts[2]);
+            if (expiresAt <= Instant.now().getEpochSecond()) {
+                return null;
+            }
+            return new Ticket(Integer.valueOf(parts[0]), Integer.parseInt(parts[1]), expiresAt);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 票据有效期
+     *
+     * @param purpose 用途
+     * @return 有效期
+     */
+    public Duration ttlOf(Purpose purpose) {
+        return purpose == Purpose.THUMBNAIL ? thumbnailTtl : downloadTtl;
+    }
+
+    /**
+     * 缩略图票据的过期时间按有效期对齐，同一时段内多次列表返回相同的地址，浏览器缓存的缩略图可以继续使用；
+     * 对齐后的实际有效期在一到两个有效期之间
+     */
+    private long expiresAtOf(Purpose purpose, long now) {
+        long ttlSeconds = Math.max(ttlOf(purpose).getSeconds(), 1);
+        if (purpose != Purpose.THUMBNAIL) {
+            return now + ttlSeconds;
+        }
+        return (now / ttlSeconds + 2) * ttlSeconds;
+    }
+
+    private String sign(Purpose purpose, Long fileId, String payload) {
+        byte[] signature = hmac.hashString(purpose.code + ":" + fileId + ":" + payload, StandardCharsets.UTF_8).asBytes();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+    }
+
+    /**
+     * 票据用途，对应可通过票据访问的接口
+     */
+    public enum Purpose {
+
+        DOWNLOAD("download"),
+
+        THUMBNAIL("thumbnail");
+
+        private final String code;
+
+        Purpose(String code) {
+            this.code = code;
+        }
+
+        public String getCode() {
+            return code;
+        }
+
+        /**
+         * @param code 接口路径中的用途
+         * @return 对应的用途，不存在时返回 null
+         */
+        public static Purpose fromCode(String code) {
+            for (Purpose purpose : values()) {
+                if (purpose.code.equals(code)) {
+                    return purpose;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 校验通过的票据
+     *
+     * @param userId       用户ID
+     * @param tokenVersion 签发时的令牌版本
+     * @param expiresAt    过期时间戳（秒）
+     */
+    public record Ticket(Integer userId, int tokenVersion, long expiresAt) {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,229 @@
+package com.zfile.module.auth.springsecurity.token;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import com.google.common.hash.Hashing;
+import com.zfile.module.auth.springsecurity.util.JwtClaimsUtil;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 已注销令牌注册表
+ * 登出时把令牌ID和过期时间写入 Redis，并通过发布订阅通知所有节点。
+ * 每个节点在内存中保存布隆过滤器和精确集合：绝大多数未注销的令牌由布隆过滤器直接放行，
+ * 命中布隆过滤器时再查精确集合排除误判，整个检查不访问网络。
+ * 记录在令牌本身过期后自动清除，布隆过滤器随定期同步重建。
+ */
+@Slf4j
+@Component
+public class TokenRevocationRegistry {
+
+    /**
+     * 单个已注销令牌的 key 前缀，过期时间与令牌一致
+     */
+    private static final String KEY_PREFIX = "zfile:auth:revoked-token:";
+
+    /**
+     * 已注销令牌索引，成员为令牌ID，分数为过期时间戳（毫秒），用于节点启动和定期全量同步
+     */
+    private static final String INDEX_KEY = "zfile:auth:revoked-token";
+
+    /**
+     * 注销通知频道
+     */
+    private static final String REVOKE_CHANNEL = "zfile:auth:revoked-token:added";
+
+    /**
+     * 旧格式令牌没有 jti，使用令牌摘要作为ID
+     */
+    private static final String DIGEST_ID_PREFIX = "sha256:";
+
+    /**
+     * 令牌ID -> 过期时间戳（毫秒）
+     */
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final JwtClaimsUtil jwtClaimsUtil;
+
+    private final int expectedInsertions;
+
+    private final double falsePositiveProbability;
+
+    private final Counter rejectedCounter;
+
+    private volatile BloomFilter<CharSequence> bloomFilter;
+
+    @Autowired
+    public TokenRevocationRegistry(StringRedisTemplate stringRedisTemplate,
+                                   RedisMessageListenerContainer listenerContainer,
+                                   JwtClaimsUtil jwtClaimsUtil,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${zfile.auth.revocation.expected-insertions:100000}") int expectedInsertions,
+                                   @Value("${zfile.auth.revocation.false-positive-probability:0.01}") double falsePositiveProbability) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.jwtClaimsUtil = jwtClaimsUtil;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.bloomFilter = newBloomFilter();
+
+        Gauge.builder("zfile.auth.revocation.size", revoked, Map::size).register(meterRegistry);
+        this.rejectedCounter = Counter.builder("zfile.auth.revocation.rejected").register(meterRegistry);
+
+        listenerContainer.addMessageListener((message, pattern) -> {
+            // 消息格式: 过期时间戳:令牌ID
+            String body = new String(message.getBody(), StandardCharsets.UTF_8);
+            int index = body.indexOf(':');
+            if (index <= 0) {
+                return;
+            }
+            try {
+                addLocal(body.substring(index + 1), Long.parseLong(body.substring(0, index)));
+            } catch (NumberFormatException e) {
+                log.warn("忽略格式错误的令牌注销通知: {}", body);
+            }
+        }, new ChannelTopic(REVOKE_CHANNEL));
+    }
+
+    /**
+     * 启动时以及定期从 Redis 全量同步，清除已过期的记录并重建布隆过滤器
+     */
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${zfile.auth.revocation.sync-interval:60000}",
+            initialDelayString = "${zfile.auth.revocation.sync-interval:60000}")
+    public void reload() {
+        long now = System.currentTimeMillis();
+        try {
+            stringRedisTemplate.opsForZSet().removeRangeByScore(INDEX_KEY, 0, now);
+            Set<ZSetOperations.TypedTuple<String>> entries =
+                    stringRedisTemplate.opsForZSet().rangeByScoreWithScores(INDEX_KEY, now, Double.MAX_VALUE);
+            if (entries != null) {
+                for (ZSetOperations.TypedTuple<String> entry : entries) {
+                    if (entry.getValue() != null && entry.getScore() != null) {
+                        revoked.putIfAbsent(entry.getValue(), entry.getScore().longValue());
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.warn("从Redis同步已注销令牌失败", e);
+        }
+
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+        rebuildBloomFilter();
+        log.debug("同步已注销令牌完成，共 {} 条记录", revoked.size());
+    }
+
+    /**
+     * 注销令牌，令牌过期前在所有节点上都无法再使用
+     * 签名无效或已过期的令牌本来就无法通过认证，不做记录，避免任意字符串占用内存和 Redis
+     *
+     * @param token JWT 令牌
+     */
+    public void revoke(String token) {
+        if (!StringUtils.hasText(token)) {
+            return;
+        }
+        Claims claims = jwtClaimsUtil.parseSignedToken(token);
+        if (claims == null) {
+            log.debug("令牌无法验证，无需注销");
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long expiresAt = claims.getExpiration() != null
+                ? claims.getExpiration().getTime()
+                : now + jwtClaimsUtil.getExpirationSeconds() * 1000;
+        if (expiresAt <= now) {
+            return;
+        }
+
+        // 关闭声明令牌模式后同一令牌会按摘要检查，两种ID都记录
+        Set<String> tokenIds = new LinkedHashSet<>();
+        tokenIds.add(resolveTokenId(token, claims));
+        tokenIds.add(resolveTokenId(token, null));
+        for (String tokenId : tokenIds) {
+            addLocal(tokenId, expiresAt);
+            try {
+                stringRedisTemplate.opsForValue().set(KEY_PREFIX + tokenId, String.valueOf(expiresAt),
+                        expiresAt - now, TimeUnit.MILLISECONDS);
+                stringRedisTemplate.opsForZSet().add(INDEX_KEY, tokenId, expiresAt);
+                stringRedisTemplate.convertAndSend(REVOKE_CHANNEL, expiresAt + ":" + tokenId);
+                log.info("令牌已注销，令牌ID: {}", tokenId);
+            } catch (Exception e) {
+                // Redis 不可用时至少在本节点上注销
+                log.warn("写入已注销令牌失败，令牌ID: {}", tokenId, e);
+            }
+        }
+    }
+
+    /**
+     * 判断令牌是否已注销，只访问内存
+     *
+     * @param tokenId 令牌ID，见 {@link #resolveTokenId(String, Claims)}
+     * @return 已注销且尚未过期时返回 true
+     */
+    public boolean isRevoked(String tokenId) {
+        if (!bloomFilter.mightContain(tokenId)) {
+            return false;
+        }
+        Long expiresAt = revoked.get(tokenId);
+        boolean result = expiresAt != null && expiresAt > System.currentTimeMillis();
+        if (result) {
+            rejectedCounter.increment();
+        }
+        return result;
+    }
+
+    /**
+     * 获取令牌ID，携带声明的令牌使用 jti，旧格式令牌使用令牌摘要
+     *
+     * @param token  JWT 令牌
+     * @param claims 已解析的令牌声明，可为空
+     * @return 令牌ID
+     */
+    public String resolveTokenId(String token, Claims claims) {
+        if (claims != null && claims.get(JwtClaimsUtil.CLAIM_VERSION) != null && StringUtils.hasText(claims.getId())) {
+            return claims.getId();
+        }
+        return DIGEST_ID_PREFIX + Hashing.sha256().hashString(token, StandardCharsets.UTF_8);
+    }
+
+    private void addLocal(String tokenId, long expiresAt) {
+        // 先写精确集合再写布隆过滤器，重建过滤器时不会漏掉并发写入的记录
+        revoked.merge(tokenId, expiresAt, Math::max);
+        bloomFilter.put(tokenId);
+    }
+
+    private void rebuildBloomFilter() {
+        BloomFilter<CharSequence> filter = newBloomFilter();
+        revoked.keySet().forEach(filter::put);
+        bloomFilter = filter;
+        // 补上构建期间新增的记录
+        revoked.keySet().forEach(filter::put);
+    }
+
+    private BloomFilter<CharSequence> newBloomFilter() {
+        return BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8),
+                Math.max(expectedInsertions, revoked.size() * 2), falsePositiveProbability);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,135 @@
+package com.zfile.module.auth.springsecurity.token;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 用户令牌版本注册表
+ * 每个用户维护一个递增的版本号，签发的 JWT 中携带签发时的版本号。
+ * 用户被禁用、删除或修改权限后版本号递增，旧令牌在内存比对时即被拒绝。
+ * 版本号以 Redis Hash 为准，各节点在内存中保留副本并通过发布订阅同步。
+ */
+@Slf4j
+@Component
+public class TokenVersionRegistry {
+
+    /**
+     * 版本号 Hash key
+     */
+    private static final String VERSION_KEY = "zfile:auth:token-version";
+
+    /**
+     * 版本变更通知频道
+     */
+    private static final String VERSION_CHANNEL = "zfile:auth:token-version:changed";
+
+    /**
+     * 用户ID -> 令牌版本，没有记录的用户版本为 0
+     */
+    private final Map<Integer, Integer> versions = new ConcurrentHashMap<>();
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    public TokenVersionRegistry(StringRedisTemplate stringRedisTemplate,
+                                RedisMessageListenerContainer listenerContainer) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        listenerContainer.addMessageListener((message, pattern) -> {
+            // 消息格式: 用户ID:版本号
+            String body = new String(message.getBody(), StandardCharsets.UTF_8);
+            int index = body.indexOf(':');
+            if (index > 0) {
+                update(Integer.valueOf(body.substring(0, index)), Integer.parseInt(body.substring(index + 1)));
+            }
+        }, new ChannelTopic(VERSION_CHANNEL));
+    }
+
+    /**
+     * 启动时以及定期从 Redis 全量同步，防止错过发布订阅消息
+     */
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${zfile.auth.token-version.sync-interval:60000}",
+            initialDelayString = "${zfile.auth.token-version.sync-interval:60000}")
+    public void reload() {
+        try {
+            Map<Object, Object> entries = stringRedisTemplate.opsForHash().entries(VERSION_KEY);
+            entries.forEach((userId, version) ->
+                    update(Integer.valueOf(userId.toString()), Integer.parseInt(version.toString())));
+            log.debug("同步令牌版本完成，共 {} 条记录", entries.size());
+        } catch (Exception e) {
+            log.warn("从Redis同步令牌版本失败", e);
+        }
+    }
+
+    /**
+     * 获取用户当前的令牌版本
+     *
+     * @param userId 用户ID
+     * @return 令牌版本
+     */
+    public int current(Integer userId) {
+        return versions.getOrDefault(userId, 0);
+    }
+
+    /**
+     * 递增用户的令牌版本，使该用户已签发的令牌全部失效
+     *
+     * @param userId 用户ID
+     */
+    public void bump(Integer userId) {
+        if (userId == null) {
+            return;
+        }
+        try {
+            Long version = stringRedisTemplate.opsForHash().increment(VERSION_KEY, userId.toString(), 1);
+            update(userId, version.intValue());
+            stringRedisTemplate.convertAndSend(VERSION_CHANNEL, userId + ":" + version);
+            log.info("用户令牌版本已递增，用户ID: {}, 版本: {}", userId, version);
+        } catch (Exception e) {
+            // Redis 不可用时至少让本节点的旧令牌失效
+            versions.merge(userId, 1, Integer::sum);
+            log.warn("递增用户令牌版本失败，用户ID: {}", userId, e);
+        }
+    }
+
+    /**
+     * 在当前事务提交后递增令牌版本，没有事务时立即递增
+     *
+     * @param userIds 用户ID列表
+     */
+    public void bumpAfterCommit(Collection<Integer> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            return;
+        }
+        List<Integer> targets = List.copyOf(userIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    targets.forEach(TokenVersionRegistry.this::bump);
+                }
+            });
+        } else {
+            targets.forEach(this::bump);
+        }
+    }
+
+    private void update(Integer userId, int version) {
+        // 只接受更大的版本号，避免乱序消息导致版本回退
+        versions.merge(userId, version, Math::max);
+    }
+}
@@ -0,0 +1,145 @@
+package com.zfile.module.auth.springsecurity.util;
+
+import com.zfile.module.auth.springsecurity.LoginUser;
+import com.zfile.module.user.userenum.UserPermissionEnum;
+import com.zfile.module.user.userenum.UserStatusEnum;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * 携带用户声明的 JWT 工具类
+ * 令牌中包含用户ID、权限、启用状态和令牌版本，验证签名后即可直接构建认证信息
+ */
+@Slf4j
+@Component
+public class JwtClaimsUtil {
+
+    /**
+     * 用户ID
+     */
+    public static final String CLAIM_USER_ID = "uid";
+
+    /**
+     * 权限代码，对应 UserPermissionEnum
+     */
+    public static final String CLAIM_ROLE = "role";
+
+    /**
+     * 启用状态，对应 UserStatusEnum
+     */
+    public static final String CLAIM_ENABLE = "enable";
+
+    /**
+     * 令牌版本
+     */
+    public static final String CLAIM_VERSION = "ver";
+
+    @Value("${jwt.secret}")
+    private String secret;
+
+    @Value("${jwt.expiration}")
+    private Long expiration;
+
+    private Key signingKey;
+
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    public void init() {
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.jwtParser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+    }
+
+    /**
+     * 为登录用户生成携带声明的令牌
+     *
+     * @param loginUser 登录用户
+     * @return JWT 令牌
+     */
+    public String generateToken(LoginUser loginUser) {
+        Date now = new Date();
+        return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
+                .setSubject(loginUser.getUsername())
+                .claim(CLAIM_USER_ID, loginUser.getUserId())
+                .claim(CLAIM_ROLE, loginUser.getPermission().getCode())
+                .claim(CLAIM_ENABLE, loginUser.getStatus().getCode())
+                .claim(CLAIM_VERSION, loginUser.getTokenVersion())
+                .setIssuedAt(now)
+                .setExpiration(new Date(now.getTime() + expiration * 1000))
+                .signWith(signingKey, SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    /**
+     * 解析并校验携带声明的令牌，只解析一次
+     *
+     * @param token JWT 令牌
+     * @return 令牌声明，签名无效、已过期或不是携带声明的令牌时返回 null
+     */
+    public Claims parseClaimsToken(String token) {
+        try {
+            Claims claims = jwtParser.parseClaimsJws(token).getBody();
+            return claims.get(CLAIM_VERSION) != null ? claims : null;
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("不是有效的声明令牌: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 解析本系统签发的任意令牌，不要求携带用户声明，用于登出时读取令牌ID和过期时间
+     *
+     * @param token JWT 令牌
+     * @return 令牌声明，签名无效或已过期时返回 null
+     */
+    public Claims parseSignedToken(String token) {
+        try {
+            return jwtParser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("无法解析令牌: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 令牌的最长有效期（秒）
+     *
+     * @return jwt.expiration
+     */
+    public long getExpirationSeconds() {
+        return expiration;
+    }
+
+    /**
+     * 根据令牌声明还原登录用户
+     *
+     * @param claims 令牌声明
+     * @return 登录用户
+     */
+    public LoginUser toLoginUser(Claims claims) {
+        Integer enable = claims.get(CLAIM_ENABLE, Integer.class);
+        UserStatusEnum status = enable != null && enable.equals(UserStatusEnum.ENABLE.getCode())
+                ? UserStatusEnum.ENABLE : UserStatusEnum.DISABLE;
+        return new LoginUser(
+                claims.get(CLAIM_USER_ID, Integer.class),
+                claims.getSubject(),
+                "",
+                UserPermissionEnum.fromCode(claims.get(CLAIM_ROLE, String.class)),
+                status,
+                claims.get(CLAIM_VERSION, Integer.class));
+    }
+}
@@ -0,0 +1,39 @@
+package com.zfile.module.auth.springsecurity.util;
+
+import com.zfile.module.auth.springsecurity.LoginUser;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * 当前登录用户工具类
+ */
+public final class LoginUserUtil {
+
+    private LoginUserUtil() {
+    }
+
+    /**
+     * 获取当前登录用户ID
+     *
+     * @return 用户ID
+     * @throws AuthenticationCredentialsNotFoundException 未登录
+     */
+    public static Integer getCurrentUserId() {
+        return getCurrentUser().getUserId();
+    }
+
+    /**
+     * 获取当前登录用户
+     *
+     * @return 登录用户
+     * @throws AuthenticationCredentialsNotFoundException 未登录
+     */
+    public static LoginUser getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof LoginUser loginUser) {
+            return loginUser;
+        }
+        throw new AuthenticationCredentialsNotFoundException("用户未登录");
+    }
+}
\ No newline at end of file
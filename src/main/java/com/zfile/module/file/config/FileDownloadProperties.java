@@ -0,0 +1,36 @@
+package com.zfile.module.file.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 文件下载配置
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "zfile.file.download")
+public class FileDownloadProperties {
+
+    /**
+     * 签名下载链接有效期
+     */
+    private Duration presignExpiration = Duration.ofHours(1);
+
+    /**
+     * 签名链接在到期前多久停止复用，保证客户端拿到的链接还有足够的时间完成下载
+     */
+    private Duration presignRefreshBefore = Duration.ofMinutes(10);
+
+    /**
+     * 本地缓存的签名链接数量上限
+     */
+    private long presignCacheSize = 10000;
+
+    /**
+     * 本地缓存用户存储源下载方式的时间，修改下载方式后其他节点最多延迟该时间生效
+     */
+    private Duration modeCacheTtl = Duration.ofSeconds(30);
+}
\ No newline at end of file
@@ -0,0 +1,56 @@
+package com.zfile.module.file.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 文件名搜索索引配置
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "zfile.file.search")
+public class FileSearchProperties {
+
+    /**
+     * 本节点内存中索引的文件总数上限，超过后淘汰最久未搜索的用户，每个文件约占用 300 字节
+     */
+    private long maximumDocuments = 2_000_000;
+
+    /**
+     * 单个用户索引的文件数上限，超过后该用户暂不能搜索；实际上限不超过 maximumDocuments
+     */
+    private int maximumPartitionDocuments = 500_000;
+
+    /**
+     * 索引构建超过该时间后，下次搜索时在后台从数据库重建，修正错过的变更通知
+     */
+    private Duration rebuildInterval = Duration.ofMinutes(30);
+
+    /**
+     * 用户超过该时间没有搜索时释放其索引
+     */
+    private Duration idleTtl = Duration.ofHours(1);
+
+    /**
+     * 后台重建索引的线程数
+     */
+    private int rebuildThreads = 2;
+
+    /**
+     * 每个用户保留的未应用变更数，超出后丢弃最早的变更并在后台重建索引
+     */
+    private int maxPendingEvents = 1000;
+
+    /**
+     * 保留变更记录的用户数上限
+     */
+    private long maximumEventUsers = 100_000;
+
+    /**
+     * 查询词达到该长度且没有前缀匹配时按编辑距离模糊匹配，8 个字符以上允许两处差异
+     */
+    private int fuzzyMinLength = 4;
+}
\ No newline at end of file
@@ -0,0 +1,31 @@
+package com.zfile.module.file.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 回收站配置
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "zfile.file.trash")
+public class FileTrashProperties {
+
+    /**
+     * 文件移入回收站后保留的时间，超过后彻底删除并释放文件内容
+     */
+    private Duration retention = Duration.ofDays(30);
+
+    /**
+     * 清理回收站的间隔（毫秒）
+     */
+    private long purgeInterval = 3600000;
+
+    /**
+     * 每次清理最多处理的文件数，未处理完的留到下次
+     */
+    private int purgeBatchSize = 1000;
+}
\ No newline at end of file
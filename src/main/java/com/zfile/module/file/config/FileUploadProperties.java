@@ -0,0 +1,48 @@
+package com.zfile.module.file.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * 文件上传配置
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "zfile.file.upload")
+public class FileUploadProperties {
+
+    /**
+     * 分片临时目录，多节点部署时需要使用共享目录或让同一会话的请求落在同一节点；
+     * 与本地存储源位于同一文件系统时，合并后的文件可以直接重命名到目标位置
+     */
+    private Path tempDir = Path.of(System.getProperty("java.io.tmpdir"), "zfile-upload");
+
+    /**
+     * 上传会话有效期，每收到一个分片重新计时
+     */
+    private Duration sessionTtl = Duration.ofHours(24);
+
+    /**
+     * 单个文件最多的分片数
+     */
+    private int maxChunks = 10000;
+
+    /**
+     * 清理过期会话临时目录的间隔（毫秒）
+     */
+    private long cleanupInterval = 3600000;
+
+    /**
+     * 同时向对象存储上传分段的最大请求数，超过时请求等待
+     */
+    private int maxConcurrentParts = 32;
+
+    /**
+     * 等待分段上传名额的最长时间，超时后返回失败，由客户端重试
+     */
+    private Duration partAcquireTimeout = Duration.ofSeconds(30);
+}
\ No newline at end of file
@@ -0,0 +1,57 @@
+package com.zfile.module.file.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+
+/**
+ * 缩略图配置
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "zfile.file.thumbnail")
+public class ThumbnailProperties {
+
+    /**
+     * 是否生成缩略图，关闭后所有缩略图请求返回占位图
+     */
+    private boolean enabled = true;
+
+    /**
+     * 缩略图缓存目录，按文件内容 MD5 保存，内容相同的文件共用一张缩略图；多节点部署时建议使用共享目录
+     */
+    private Path cacheDir = Path.of(System.getProperty("java.io.tmpdir"), "zfile-thumbnail");
+
+    /**
+     * 缩略图最长边（像素）
+     */
+    private int size = 256;
+
+    /**
+     * JPEG 压缩质量，0 到 1
+     */
+    private float quality = 0.8f;
+
+    /**
+     * 生成缩略图的线程数
+     */
+    private int workerThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    /**
+     * 等待生成的任务数上限，上传触发的任务最多占用其中的四分之三，剩余名额留给浏览时请求的缩略图
+     */
+    private int queueCapacity = 1000;
+
+    /**
+     * 超过该大小的文件不生成缩略图
+     */
+    private DataSize maxSourceSize = DataSize.ofMegabytes(100);
+
+    /**
+     * 原图像素数上限，超过时不解码，避免恶意构造的超大尺寸图片
+     */
+    private long maxSourcePixels = 100_000_000L;
+}
\ No newline at end of file
@@ -0,0 +1,377 @@
+package com.zfile.module.file.controller;
+
+import com.alibaba.fastjson2.JSON;
+import com.github.xiaoymin.knife4j.annotations.ApiSort;
+import com.zfile.common.result.Result;
+import com.zfile.module.auth.springsecurity.LoginUser;
+import com.zfile.module.auth.springsecurity.token.FileTicketSigner;
+import com.zfile.module.auth.springsecurity.util.LoginUserUtil;
+import com.zfile.module.file.convert.FileInfoConvert;
+import com.zfile.module.file.download.PresignedUrlResolver;
+import com.zfile.module.file.download.RangeDownloadWriter;
+import com.zfile.module.file.entity.FileInfo;
+import com.zfile.module.file.model.StorageObjectLocation;
+import com.zfile.module.file.request.ChunkUploadRequest;
+import com.zfile.module.file.request.FileSearchRequest;
+import com.zfile.module.file.request.InstantUploadCheckRequest;
+import com.zfile.module.file.request.InstantUploadRequest;
+import com.zfile.module.file.request.MergeChunksRequest;
+import com.zfile.module.file.request.MoveFileRequest;
+import com.zfile.module.file.response.ChunkUploadResponse;
+import com.zfile.module.file.response.ChunkUploadStatusResponse;
+import com.zfile.module.file.response.DownloadTicketResponse;
+import com.zfile.module.file.response.FileSearchResponse;
+import com.zfile.module.file.response.InstantUploadCheckResponse;
+import com.zfile.module.file.service.ChunkUploadService;
+import com.zfile.module.file.service.FileInfoService;
+import com.zfile.module.file.service.InstantUploadService;
+import com.zfile.module.file.thumbnail.ThumbnailGenerator;
+import com.zfile.module.file.thumbnail.ThumbnailUrlSigner;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+@Tag(name = "文件接口")
+@ApiSort(3)
+@RequestMapping("/api/v1/files")
+@RestController
+@Validated
+public class FileController {
+    //构造器中注入
+    private final ChunkUploadService chunkUploadService;
+
+    private final InstantUploadService instantUploadService;
+
+    private final FileInfoService fileInfoService;
+
+    private final RangeDownloadWriter rangeDownloadWriter;
+
+    private final PresignedUrlResolver presignedUrlResolver;
+
+    private final ThumbnailGenerator thumbnailGenerator;
+
+    private final FileTicketSigner fileTicketSigner;
+
+    private final ThumbnailUrlSigner thumbnailUrlSigner;
+
+    private static final Logger logger = LoggerFactory.getLogger(FileController.class);
+
+    @Autowired
+    public FileController(ChunkUploadService chunkUploadService, InstantUploadService instantUploadService,
+                          FileInfoService fileInfoService, RangeDownloadWriter rangeDownloadWriter,
+                          PresignedUrlResolver presignedUrlResolver,
+                          ThumbnailGenerator thumbnailGenerator, FileTicketSigner fileTicketSigner,
+                          ThumbnailUrlSigner thumbnailUrlSigner) {
+        this.chunkUploadService = chunkUploadService;
+        this.instantUploadService = instantUploadService;
+        this.fileInfoService = fileInfoService;
+        this.rangeDownloadWriter = rangeDownloadWriter;
+        this.presignedUrlResolver = presignedUrlResolver;
+        this.thumbnailGenerator = thumbnailGenerator;
+        this.fileTicketSigner = fileTicketSigner;
+        this.thumbnailUrlSigner = thumbnailUrlSigner;
+    }
+
+    /**
+     * 获取下载票据
+     * 浏览器直接打开的下载链接和音视频播放无法携带请求头，先获取只对该文件有效的短期票据，
+     * 再通过 ticket 参数访问下载接口，会话令牌不会出现在地址中
+     */
+    @Operation(summary = "获取下载票据")
+    @GetMapping("/{id}/download-ticket")
+    public Result<?> getDownloadTicket(@PathVariable("id") Long id) {
+        try {
+            LoginUser loginUser = LoginUserUtil.getCurrentUser();
+            fileInfoService.getUserFile(loginUser.getUserId(), id);
+            String ticket = fileTicketSigner.issue(FileTicketSigner.Purpose.DOWNLOAD, loginUser.getUserId(),
+                    loginUser.getTokenVersion(), id);
+            DownloadTicketResponse downloadTicketResponse = new DownloadTicketResponse();
+            downloadTicketResponse.setTicket(ticket);
+            downloadTicketResponse.setUrl("/api/v1/files/" + id + "/download?ticket=" + ticket);
+            downloadTicketResponse.setExpireAt(LocalDateTime.now().plus(fileTicketSigner.ttlOf(FileTicketSigner.Purpose.DOWNLOAD)));
+            return Result.success(downloadTicketResponse);
+        } catch (IllegalArgumentException e) {
+            logger.warn("获取下载票据失败，文件ID: {}，原因: {}", id, e.getMessage());
+            return Result.fail("获取下载票据失败: " + e.getMessage());
+        } catch (Exception e) {
+            logger.error("获取下载票据时发生异常，文件ID: {}", id, e);
+            return Result.fail("获取下载票据失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 下载文件
+     * 支持 Range 断点续传和多线程下载，浏览器直接打开时通过 ticket 参数携带下载票据；
+     * 用户存储源配置为重定向下载时返回 302，由客户端直接从对象存储下载
+     */
+    @Operation(summary = "下载文件")
+    @RequestMapping(value = "/{id}/download", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void downloadFile(@PathVariable("id") Long id,
+                             @RequestParam(value = "inline", defaultValue = "false") Boolean inline,
+                             HttpServletRequest request, HttpServletResponse response) {
+        try {
+            Integer userId = LoginUserUtil.getCurrentUserId();
+            FileInfo fileInfo = fileInfoService.getUserFile(userId, id);
+            StorageObjectLocation location = fileInfoService.getStorageObjectLocation(fileInfo);
+            String redirectUrl = presignedUrlResolver.resolve(userId, fileInfo, location, Boolean.TRUE.equals(inline));
+            if (redirectUrl != null) {
+                // 链接包含签名，不能被共享缓存保存
+                response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-store");
+                response.sendRedirect(redirectUrl);
+                return;
+            }
+            rangeDownloadWriter.write(fileInfo, location, Boolean.TRUE.equals(inline), request, response);
+        } catch (IllegalArgumentException e) {
+            logger.warn("下载文件失败，文件ID: {}，原因: {}", id, e.getMessage());
+            writeDownloadFailure(response, HttpServletResponse.SC_NOT_FOUND, "下载失败: " + e.getMessage());
+        } catch (Exception e) {
+            // 客户端中断下载或拖动进度条时连接会被关闭，此时响应已提交
+            if (response.isCommitted()) {
+                logger.debug("下载文件时连接中断，文件ID: {}", id);
+                return;
+            }
+            logger.error("下载文件时发生异常，文件ID: {}", id, e);
+            writeDownloadFailure(response, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "下载失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 获取缩略图
+     * 缩略图已生成时返回 JPEG，否则提交生成任务并立即返回占位图，不等待生成；内容 MD5 未知的文件没有缩略图，返回 404；
+     * 浏览器直接引用时使用列表返回的地址，地址中的 ticket 参数是只对该文件有效的缩略图票据
+     */
+    @Operation(summary = "获取缩略图")
+    @GetMapping("/{id}/thumbnail")
+    public void getThumbnail(@PathVariable("id") Long id, HttpServletRequest request, HttpServletResponse response) {
+        try {
+            Integer userId = LoginUserUtil.getCurrentUserId();
+            FileInfo fileInfo = fileInfoService.getUserFile(userId, id);
+            if (fileInfo.getFileMd5() == null) {
+                // 缩略图以内容 MD5 为缓存键和 ETag，MD5 未知时无法生成，也不能返回永远不会更新的占位图
+                throw new IllegalArgumentException("文件没有缩略图");
+            }
+            response.setHeader("X-Content-Type-Options", "nosniff");
+            Path thumbnail = thumbnailGenerator.getThumbnail(fileInfo);
+            if (thumbnail == null) {
+                thumbnailGenerator.submit(fileInfo, ThumbnailGenerator.Priority.INTERACTIVE);
+                // 占位图不能被缓存，生成完成后再次请求即可拿到缩略图
+                byte[] placeholder = thumbnailGenerator.getPlaceholder();
+                response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+                response.setContentType(ThumbnailGenerator.PLACEHOLDER_CONTENT_TYPE);
+                response.setContentLength(placeholder.length);
+                response.getOutputStream().write(placeholder);
+                return;
+            }
+            // 缩略图只由文件内容决定，内容不变时浏览器可以一直使用缓存
+            String eTag = "\"" + fileInfo.getFileMd5() + "-thumbnail\"";
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "private, max-age=604800");
+            if (new ServletWebRequest(request, response).checkNotModified(eTag)) {
+                return;
+            }
+            response.setContentType(ThumbnailGenerator.CONTENT_TYPE);
+            response.setContentLengthLong(Files.size(thumbnail));
+            Files.copy(thumbnail, response.getOutputStream());
+        } catch (IllegalArgumentException e) {
+            logger.warn("获取缩略图失败，文件ID: {}，原因: {}", id, e.getMessage());
+            writeDownloadFailure(response, HttpServletResponse.SC_NOT_FOUND, "获取缩略图失败: " + e.getMessage());
+        } catch (Exception e) {
+            if (response.isCommitted()) {
+                logger.debug("返回缩略图时连接中断，文件ID: {}", id);
+                return;
+            }
+            logger.error("获取缩略图时发生异常，文件ID: {}", id, e);
+            writeDownloadFailure(response, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "获取缩略图失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 搜索文件
+     * 按文件名中的词前缀匹配，拼写有误时模糊匹配，中日韩文字按子串匹配；可按类型、大小、更新日期和文件夹过滤
+     */
+    @Operation(summary = "搜索文件")
+    @GetMapping("/search")
+    public Result<?> searchFiles(@ModelAttribute @Validated FileSearchRequest fileSearchRequest) {
+        try {
+            LoginUser loginUser = LoginUserUtil.getCurrentUser();
+            FileSearchResponse fileSearchResponse = fileInfoService.pageSearchFiles(loginUser.getUserId(), fileSearchRequest);
+            thumbnailUrlSigner.sign(loginUser, fileSearchResponse.getItems());
+            return Result.success(fileSearchResponse);
+        } catch (IllegalArgumentException e) {
+            logger.warn("搜索文件参数无效，请求参数: {}，原因: {}", fileSearchRequest, e.getMessage());
+            return Result.fail("搜索失败: " + e.getMessage());
+        } catch (Exception e) {
+            logger.error("搜索文件时发生异常，请求参数: {}", fileSearchRequest, e);
+            return Result.fail("搜索失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 秒传检查
+     * 目标存储源中已有相同内容时返回抽样范围，客户端据此计算抽样 MD5 后调用秒传接口
+     */
+    @Operation(summary = "秒传检查")
+    @PostMapping("/instant-upload/check")
+    public Result<?> checkInstantUpload(@RequestBody @Validated InstantUploadCheckRequest instantUploadCheckRequest) {
+        try {
+            Integer userId = LoginUserUtil.getCurrentUserId();
+            InstantUploadCheckResponse instantUploadCheckResponse =
+                    instantUploadService.getInstantUploadChallenge(userId, instantUploadCheckRequest);
+            return Result.success(instantUploadCheckResponse);
+        } catch (Exception e) {
+            logger.error("秒传检查时发生异常，请求参数: {}", instantUploadCheckRequest, e);
+            return Result.fail("秒传检查失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 秒传
+     * 失败时客户端改为正常上传
+     */
+    @Operation(summary = "秒传")
+    @PostMapping("/instant-upload")
+    public Result<?> instantUpload(@RequestBody @Validated InstantUploadRequest instantUploadRequest) {
+        try {
+            LoginUser loginUser = LoginUserUtil.getCurrentUser();
+            FileInfo fileInfo = instantUploadService.instantUpload(loginUser.getUserId(), instantUploadRequest);
+            return Result.success(thumbnailUrlSigner.sign(loginUser,
+                    FileInfoConvert.INSTANCE.convertToFileItemResponse(fileInfo)));
+        } catch (IllegalArgumentException e) {
+            logger.warn("秒传失败，请求参数: {}，原因: {}", instantUploadRequest, e.getMessage());
+            return Result.fail("秒传失败: " + e.getMessage());
+        } catch (Exception e) {
+            logger.error("秒传时发生异常，请求参数: {}", instantUploadRequest, e);
+            return Result.fail("秒传失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 上传分片
+     * 同一分片重复上传会覆盖之前的内容，可传 chunkMd5 校验分片完整性；
+     * 同时传 folderId 和 fileName 时，对象存储的分片直接上传到存储源
+     */
+    @Operation(summary = "上传分片")
+    @PostMapping("/chunk-upload")
+    public Result<?> uploadChunk(@RequestParam("chunk") MultipartFile chunk,
+                                 @ModelAttribute @Validated ChunkUploadRequest chunkUploadRequest) {
+        try {
+            Integer userId = LoginUserUtil.getCurrentUserId();
+            try (InputStream inputStream = chunk.getInputStream()) {
+                ChunkUploadResponse chunkUploadResponse = chunkUploadService.uploadChunk(userId, chunkUploadRequest,
+                        inputStream, chunk.getSize());
+                return Result.success(chunkUploadResponse);
+            }
+        } catch (IllegalArgumentException e) {
+            logger.warn("上传分片参数无效，请求参数: {}，原因: {}", chunkUploadRequest, e.getMessage());
+            return Result.fail("上传分片失败: " + e.getMessage());
+        } catch (Exception e) {
+            logger.error("上传分片时发生异常，请求参数: {}", chunkUploadRequest, e);
+            return Result.fail("上传分片失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 查询分片上传进度
+     * 断点续传时客户端先查询已上传的分片，只上传缺少的分片
+     */
+    @Operation(summary = "查询分片上传进度")
+    @GetMapping("/chunk-upload/{sessionId}")
+    public Result<?> getChunkUploadStatus(@PathVariable("sessionId") String sessionId) {
+        try {
+            Integer userId = LoginUserUtil.getCurrentUserId();
+            ChunkUploadStatusResponse chunkUploadStatusResponse = chunkUploadService.getChunkUploadStatus(userId, sessionId);
+            return Result.success(chunkUploadStatusResponse);
+        } catch (Exception e) {
+            logger.error("查询分片上传进度时发生异常，会话: {}", sessionId, e);
+            return Result.fail("查询失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 合并分片
+     */
+    @Operation(summary = "合并分片")
+    @PostMapping("/merge-chunks")
+    public Result<?> mergeChunks(@RequestBody @Validated MergeChunksRequest mergeChunksRequest) {
+        try {
+            logger.info("开始合并分片，请求参数: {}", mergeChunksRequest);
+            LoginUser loginUser = LoginUserUtil.getCurrentUser();
+            FileInfo fileInfo = chunkUploadService.mergeChunks(loginUser.getUserId(), mergeChunksRequest);
+            return Result.success(thumbnailUrlSigner.sign(loginUser,
+                    FileInfoConvert.INSTANCE.convertToFileItemResponse(fileInfo)));
+        } catch (Exception e) {
+            logger.error("合并分片时发生异常，请求参数: {}", mergeChunksRequest, e);
+            return Result.fail("合并失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 移动文件
+     * 目标文件夹中有同名文件时自动重命名
+     */
+    @Operation(summary = "移动文件")
+    @PostMapping("/{id}/move")
+    public Result<?> moveFile(@PathVariable("id") Long id, @RequestBody @Validated MoveFileRequest moveFileRequest) {
+        try {
+            LoginUser loginUser = LoginUserUtil.getCurrentUser();
+            FileInfo fileInfo = fileInfoService.moveFile(loginUser.getUserId(), id, moveFileRequest.getTargetFolderId());
+            return Result.success(thumbnailUrlSigner.sign(loginUser,
+                    FileInfoConvert.INSTANCE.convertToFileItemResponse(fileInfo)));
+        } catch (IllegalArgumentException e) {
+            logger.warn("移动文件失败，文件ID: {}，原因: {}", id, e.getMessage());
+            return Result.fail("移动失败: " + e.getMessage());
+        } catch (Exception e) {
+            logger.error("移动文件时发生异常，文件ID: {}，请求参数: {}", id, moveFileRequest, e);
+            return Result.fail("移动失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 删除文件（移入回收站）
+     */
+    @Operation(summary = "删除文件")
+    @DeleteMapping("/{id}")
+    public Result<?> deleteFile(@PathVariable("id") Long id) {
+        try {
+            Integer userId = LoginUserUtil.getCurrentUserId();
+            fileInfoService.removeFileTree(userId, id);
+            return Result.success();
+        } catch (IllegalArgumentException e) {
+            logger.warn("删除文件失败，文件ID: {}，原因: {}", id, e.getMessage());
+            return Result.fail("删除失败: " + e.getMessage());
+        } catch (Exception e) {
+            logger.error("删除文件时发生异常，文件ID: {}", id, e);
+            return Result.fail("删除失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 下载失败时写入错误结果，响应已提交时无法再修改
+     */
+    private void writeDownloadFailure(HttpServletResponse response, int status, String msg) {
+        if (response.isCommitted()) {
+            return;
+        }
+        try {
+            response.reset();
+            response.setStatus(status);
+            response.setContentType("application/json;charset=UTF-8");
+            response.getWriter().println(JSON.toJSONString(Result.fail(msg)));
+        } catch (Exception e) {
+            logger.warn("写入下载失败结果时发生异常", e);
+        }
+    }
+}
\ No newline at end of file
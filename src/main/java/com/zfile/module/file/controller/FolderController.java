@@ -0,0 +1,118 @@
+package com.zfile.module.file.controller;
+
+import com.github.xiaoymin.knife4j.annotations.ApiSort;
+import com.zfile.common.result.Result;
+import com.zfile.module.auth.springsecurity.LoginUser;
+import com.zfile.module.auth.springsecurity.util.LoginUserUtil;
+import com.zfile.module.file.convert.FileInfoConvert;
+import com.zfile.module.file.entity.FileInfo;
+import com.zfile.module.file.model.FolderUsage;
+import com.zfile.module.file.request.MoveFileRequest;
+import com.zfile.module.file.service.FileInfoService;
+import com.zfile.module.file.thumbnail.ThumbnailUrlSigner;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@Tag(name = "文件夹接口")
+@ApiSort(4)
+@RequestMapping("/api/v1/folders")
+@RestController
+@Validated
+public class FolderController {
+    //构造器中注入
+    private final FileInfoService fileInfoService;
+
+    private final ThumbnailUrlSigner thumbnailUrlSigner;
+
+    private static final Logger logger = LoggerFactory.getLogger(FolderController.class);
+
+    @Autowired
+    public FolderController(FileInfoService fileInfoService, ThumbnailUrlSigner thumbnailUrlSigner) {
+        this.fileInfoService = fileInfoService;
+        this.thumbnailUrlSigner = thumbnailUrlSigner;
+    }
+
+    /**
+     * 移动文件夹，连同其中的所有内容一起移动
+     */
+    @Operation(summary = "移动文件夹")
+    @PostMapping("/{id}/move")
+    public Result<?> moveFolder(@PathVariable("id") Long id, @RequestBody @Validated MoveFileRequest moveFileRequest) {
+        try {
+            Integer userId = LoginUserUtil.getCurrentUserId();
+            FileInfo fileInfo = fileInfoService.moveFile(userId, id, moveFileRequest.getTargetFolderId());
+            return Result.success(FileInfoConvert.INSTANCE.convertToFileItemResponse(fileInfo));
+        } catch (IllegalArgumentException e) {
+            logger.warn("移动文件夹失败，文件夹ID: {}，原因: {}", id, e.getMessage());
+            return Result.fail("移动失败: " + e.getMessage());
+        } catch (Exception e) {
+            logger.error("移动文件夹时发生异常，文件夹ID: {}，请求参数: {}", id, moveFileRequest, e);
+            return Result.fail("移动失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 删除文件夹（移入回收站），连同其中的所有内容一起删除
+     */
+    @Operation(summary = "删除文件夹")
+    @DeleteMapping("/{id}")
+    public Result<?> deleteFolder(@PathVariable("id") Long id) {
+        try {
+            Integer userId = LoginUserUtil.getCurrentUserId();
+            fileInfoService.removeFileTree(userId, id);
+            return Result.success();
+        } catch (IllegalArgumentException e) {
+            logger.warn("删除文件夹失败，文件夹ID: {}，原因: {}", id, e.getMessage());
+            return Result.fail("删除失败: " + e.getMessage());
+        } catch (Exception e) {
+            logger.error("删除文件夹时发生异常，文件夹ID: {}", id, e);
+            return Result.fail("删除失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 统计文件夹占用的空间，包括子文件夹中的文件
+     */
+    @Operation(summary = "统计文件夹占用空间")
+    @GetMapping("/{id}/usage")
+    public Result<?> getFolderUsage(@PathVariable("id") String id) {
+        try {
+            Integer userId = LoginUserUtil.getCurrentUserId();
+            FolderUsage folderUsage = fileInfoService.getFolderUsage(userId, id);
+            return Result.success(folderUsage);
+        } catch (IllegalArgumentException e) {
+            logger.warn("统计文件夹占用空间失败，文件夹ID: {}，原因: {}", id, e.getMessage());
+            return Result.fail("统计失败: " + e.getMessage());
+        } catch (Exception e) {
+            logger.error("统计文件夹占用空间时发生异常，文件夹ID: {}", id, e);
+            return Result.fail("统计失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 列出文件夹中的所有内容，包括子文件夹中的内容
+     */
+    @Operation(summary = "列出文件夹中的所有内容")
+    @GetMapping("/{id}/tree")
+    public Result<?> listFolderTree(@PathVariable("id") String id) {
+        try {
+            LoginUser loginUser = LoginUserUtil.getCurrentUser();
+            List<FileInfo> fileInfoList = fileInfoService.listSubtree(loginUser.getUserId(), id);
+            return Result.success(thumbnailUrlSigner.sign(loginUser,
+                    FileInfoConvert.INSTANCE.convertToFileItemResponseList(fileInfoList)));
+        } catch (IllegalArgumentException e) {
+            logger.warn("列出文件夹内容失败，文件夹ID: {}，原因: {}", id, e.getMessage());
+            return Result.fail("查询失败: " + e.getMessage());
+        } catch (Exception e) {
+            logger.error("列出文件夹内容时发生异常，文件夹ID: {}", id, e);
+            return Result.fail("查询失败: " + e.getMessage());
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.zfile.module.file.convert;
+
+import com.zfile.module.file.entity.FileInfo;
+import com.zfile.module.file.response.FileItemResponse;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.factory.Mappers;
+
+import java.util.List;
+
+/**
+ * 文件信息对象转换类
+ */
+@Mapper(componentModel = "default")
+public interface FileInfoConvert {
+
+    FileInfoConvert INSTANCE = Mappers.getMapper(FileInfoConvert.class);
+
+    /**
+     * 将 FileInfo 转换为 FileItemResponse
+     *
+     * @param fileInfo 文件信息实体
+     * @return FileItemResponse 响应对象
+     */
+    @Mapping(target = "name", source = "fileName")
+    @Mapping(target = "type", expression = "java(Integer.valueOf(1).equals(fileInfo.getIsFolder()) ? \"folder\" : \"file\")")
+    @Mapping(target = "mimeType", source = "contentType")
+    @Mapping(target = "size", source = "fileSize")
+    @Mapping(target = "path", source = "filePath")
+    @Mapping(target = "hash", source = "fileMd5")
+    @Mapping(target = "starred", constant = "false")
+    @Mapping(target = "deleted", expression = "java(Integer.valueOf(1).equals(fileInfo.getDeleted()))")
+    @Mapping(target = "createdAt", source = "createTime")
+    @Mapping(target = "updatedAt", source = "updateTime")
+    FileItemResponse convertToFileItemResponse(FileInfo fileInfo);
+
+    /**
+     * 将 FileInfo 列表转换为 FileItemResponse 列表
+     *
+     * @param fileInfos 文件信息实体列表
+     * @return FileItemResponse 列表
+     */
+    List<FileItemResponse> convertToFileItemResponseList(List<FileInfo> fileInfos);
+}
\ No newline at end of file
@@ -0,0 +1,106 @@
+package com.zfile.module.file.download;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.zfile.module.file.config.FileDownloadProperties;
+import com.zfile.module.file.entity.FileInfo;
+import com.zfile.module.file.model.StorageObjectLocation;
+import com.zfile.module.storage.driver.PresignedUrlDriver;
+import com.zfile.module.storage.driver.ScopedStorageDriver;
+import com.zfile.module.storage.driver.StorageDriver;
+import com.zfile.module.user.service.UserStorageSourceService;
+import com.zfile.module.user.userenum.DownloadModeEnum;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * 重定向下载的签名链接
+ * 用户存储源配置为 redirect 且存储类型支持签名链接时，下载接口返回 302，客户端直接从对象存储下载。
+ * 签名链接按（存储对象, 用户, 文件名, 打开方式）缓存，在到期前 presignRefreshBefore 重新生成，
+ * 同一热点文件的重复下载不需要每次重新签名。
+ */
+@Slf4j
+@Component
+public class PresignedUrlResolver {
+
+    private final UserStorageSourceService userStorageSourceService;
+
+    private final Duration presignExpiration;
+
+    private final Cache<PresignedUrlKey, String> urlCache;
+
+    private final Cache<Integer, DownloadModeEnum> modeCache;
+
+    @Autowired
+    public PresignedUrlResolver(UserStorageSourceService userStorageSourceService, FileDownloadProperties properties) {
+        this.userStorageSourceService = userStorageSourceService;
+        this.presignExpiration = properties.getPresignExpiration();
+        Duration reuse = properties.getPresignExpiration().minus(properties.getPresignRefreshBefore());
+        if (reuse.isNegative() || reuse.isZero()) {
+            throw new IllegalArgumentException("zfile.file.download.presign-refresh-before 必须小于 presign-expiration");
+        }
+        this.urlCache = CacheBuilder.newBuilder()
+                .maximumSize(properties.getPresignCacheSize())
+                .expireAfterWrite(reuse)
+                .build();
+        this.modeCache = CacheBuilder.newBuilder()
+                .maximumSize(properties.getPresignCacheSize())
+                .expireAfterWrite(properties.getModeCacheTtl())
+                .build();
+    }
+
+    /**
+     * 获取文件的重定向下载链接
+     *
+     * @param userId   当前用户ID
+     * @param fileInfo 文件信息
+     * @param location 文件内容位置
+     * @param inline   是否在浏览器中直接打开
+     * @return 签名下载链接，需要由服务端转发文件内容时返回 null
+     */
+    public String resolve(Integer userId, FileInfo fileInfo, StorageObjectLocation location, boolean inline) throws IOException {
+        StorageDriver driver = location.driver();
+        boolean supported = driver instanceof ScopedStorageDriver scoped
+                ? scoped.isPresignedUrlSupported() : driver instanceof PresignedUrlDriver;
+        if (!supported || getDownloadMode(fileInfo.getStorageSourceId()) != DownloadModeEnum.REDIRECT) {
+            return null;
+        }
+        PresignedUrlDriver presignedUrlDriver = (PresignedUrlDriver) driver;
+        // 秒传的文件共用同一个存储对象，以 file_blob 标识
+        String object = fileInfo.getBlobId() != null ? "blob:" + fileInfo.getBlobId()
+                : "source:" + fileInfo.getStorageSourceId() + ":" + location.path();
+        PresignedUrlKey key = new PresignedUrlKey(object, userId, fileInfo.getFileName(), inline);
+        try {
+            return urlCache.get(key, () -> presignedUrlDriver.presignDownloadUrl(location.path(),
+                    fileInfo.getFileName(), inline, presignExpiration));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException("生成签名下载链接失败", e.getCause());
+        }
+    }
+
+    private DownloadModeEnum getDownloadMode(Integer userStorageSourceId) {
+        try {
+            return modeCache.get(userStorageSourceId, () -> userStorageSourceService.getDownloadMode(userStorageSourceId));
+        } catch (ExecutionException e) {
+            log.warn("查询用户存储源下载方式失败，按服务端转发处理，用户存储源ID: {}", userStorageSourceId, e.getCause());
+            return DownloadModeEnum.PROXY;
+        }
+    }
+
+    /**
+     * @param object   存储对象标识
+     * @param userId   用户ID
+     * @param fileName 下载时的文件名
+     * @param inline   是否在浏览器中直接打开
+     */
+    private record PresignedUrlKey(String object, Integer userId, String fileName, boolean inline) {
+    }
+}
\ No newline at end of file
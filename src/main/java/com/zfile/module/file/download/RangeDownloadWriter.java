@@ -0,0 +1,294 @@
+package com.zfile.module.file.download;
+
+import com.zfile.module.file.entity.FileInfo;
+import com.zfile.module.file.model.ByteRange;
+import com.zfile.module.file.model.StorageObjectLocation;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 支持断点续传的文件下载
+ * 处理 Range、If-Range 和 ETag 条件请求。重叠或相邻的范围先合并，请求的总长度超过文件大小时返回整个文件，
+ * 合并后仍有多段的按 multipart/byteranges 返回。
+ * 本地存储的单段下载交给 Tomcat 的 sendfile，由内核把文件直接发送到 socket，数据不经过 JVM 堆；
+ * 容器不支持 sendfile 时用 FileChannel.transferTo 发送。其他存储按范围读取后转发。
+ * 多段响应要在各段之间写入分段头，只能经过 Servlet 输出流缓冲复制，是少见请求的回退方式，不是零拷贝。
+ * 用户上传的内容与应用同源，只有图片、音视频和 PDF 允许在浏览器中直接打开，其他类型一律作为附件下载，
+ * 并禁止浏览器嗅探内容类型，上传的 HTML、SVG 等文件不能在应用的域名下执行脚本。
+ */
+@Slf4j
+@Component
+public class RangeDownloadWriter {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    /**
+     * 超过该段数的请求忽略 Range 返回整个文件，防止大量小范围请求放大开销
+     */
+    private static final int MAX_RANGES = 16;
+
+    /**
+     * 允许直接打开的内容类型前缀，SVG 可以包含脚本，单独排除
+     */
+    private static final List<String> INLINE_TYPE_PREFIXES = List.of("image/", "audio/", "video/");
+
+    private static final String SVG_CONTENT_TYPE = "image/svg+xml";
+
+    /**
+     * 写出文件内容
+     *
+     * @param fileInfo 文件信息
+     * @param location 文件内容位置
+     * @param inline   是否在浏览器中直接打开，用于音视频播放和预览；不是图片、音视频或 PDF 时忽略
+     */
+    public void write(FileInfo fileInfo, StorageObjectLocation location, boolean inline,
+                      HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path localPath = location.driver().getLocalPath(location.path());
+        long length;
+        long lastModified;
+        if (localPath != null) {
+            BasicFileAttributes attributes = Files.readAttributes(localPath, BasicFileAttributes.class);
+            length = attributes.size();
+            lastModified = attributes.lastModifiedTime().toMillis();
+        } else {
+            length = fileInfo.getFileSize();
+            lastModified = fileInfo.getUpdateTime() == null ? -1
+                    : fileInfo.getUpdateTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        }
+        String eTag = "\"" + (fileInfo.getFileMd5() != null ? fileInfo.getFileMd5()
+                : Long.toHexString(length) + "-" + Long.toHexString(lastModified)) + "\"";
+
+        // 处理 If-None-Match、If-Modified-Since 等条件请求，并写入 ETag 和 Last-Modified
+        if (new ServletWebRequest(request, response).checkNotModified(eTag, lastModified)) {
+            return;
+        }
+
+        String contentType = StringUtils.hasText(fileInfo.getContentType())
+                ? fileInfo.getContentType() : MediaType.APPLICATION_OCTET_STREAM_VALUE;
+        boolean pdf = MediaType.APPLICATION_PDF_VALUE.equalsIgnoreCase(baseType(contentType));
+        ContentDisposition.Builder disposition = inline && (pdf || isInlineMedia(contentType))
+                ? ContentDisposition.inline() : ContentDisposition.attachment();
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                disposition.filename(fileInfo.getFileName(), StandardCharsets.UTF_8).build().toString());
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        if (!pdf) {
+            // 浏览器的 PDF 阅读器在沙箱中无法使用，其他内容即使被直接打开也不能执行脚本或访问本域数据
+            response.setHeader("Content-Security-Policy", "sandbox");
+        }
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        boolean head = "HEAD".equalsIgnoreCase(request.getMethod());
+
+        List<HttpRange> ranges = getRanges(request, eTag, lastModified);
+        if (ranges != null) {
+            for (HttpRange range : ranges) {
+                if (range.getRangeStart(length) >= length) {
+                    response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    return;
+                }
+            }
+        }
+
+        List<ByteRange> byteRanges = ranges == null ? null : mergeRanges(ranges, length);
+        if (byteRanges == null) {
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(contentType);
+            response.setContentLengthLong(length);
+            if (!head && length > 0) {
+                send(location, localPath, 0, length, request, response);
+            }
+            return;
+        }
+
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        if (byteRanges.size() == 1) {
+            long start = byteRanges.get(0).offset();
+            long end = start + byteRanges.get(0).length() - 1;
+            response.setContentType(contentType);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, contentRange(start, end, length));
+            response.setContentLengthLong(end - start + 1);
+            if (!head) {
+                send(location, localPath, start, end - start + 1, request, response);
+            }
+            return;
+        }
+
+        String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        if (head) {
+            return;
+        }
+        // 分段头和内容交替写入输出流，无法使用 sendfile，本地文件也经过缓冲复制
+        OutputStream output = response.getOutputStream();
+        for (ByteRange byteRange : byteRanges) {
+            long start = byteRange.offset();
+            long end = start + byteRange.length() - 1;
+            String partHeader = "\r\n--" + boundary + "\r\n"
+                    + HttpHeaders.CONTENT_TYPE + ": " + contentType + "\r\n"
+                    + HttpHeaders.CONTENT_RANGE + ": " + contentRange(start, end, length) + "\r\n\r\n";
+            output.write(partHeader.getBytes(StandardCharsets.US_ASCII));
+            copy(location, localPath, start, end - start + 1, output);
+        }
+        output.write(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static boolean isInlineMedia(String contentType) {
+        String baseType = baseType(contentType);
+        return !SVG_CONTENT_TYPE.equals(baseType) && INLINE_TYPE_PREFIXES.stream().anyMatch(baseType::startsWith);
+    }
+
+    /**
+     * 去除参数并转为小写的内容类型，如 "Text/HTML; charset=utf-8" -> "text/html"
+     */
+    private static String baseType(String contentType) {
+        int index = contentType.indexOf(';');
+        return (index >= 0 ? contentType.substring(0, index) : contentType).trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 解析 Range 请求头
+     *
+     * @return 请求的范围，需要返回整个文件时返回 null
+     */
+    private static List<HttpRange> getRanges(HttpServletRequest request, String eTag, long lastModified) {
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (!StringUtils.hasText(rangeHeader)) {
+            return null;
+        }
+        // 文件在客户端上次下载后已变化时，If-Range 不匹配，返回整个文件
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (StringUtils.hasText(ifRange) && !ifRangeMatches(request, ifRange, eTag, lastModified)) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+            return ranges.isEmpty() || ranges.size() > MAX_RANGES ? null : ranges;
+        } catch (IllegalArgumentException e) {
+            // 格式错误的 Range 按规范忽略
+            log.debug("忽略无效的 Range 请求头: {}", rangeHeader);
+            return null;
+        }
+    }
+
+    /**
+     * 按起始位置排序并合并重叠或相邻的范围，避免同一段内容被重复发送
+     *
+     * @return 合并后的范围，请求的总长度超过文件大小时返回 null，此时返回整个文件
+     */
+    private static List<ByteRange> mergeRanges(List<HttpRange> ranges, long length) {
+        List<ByteRange> sorted = new ArrayList<>(ranges.size());
+        long requested = 0;
+        for (HttpRange range : ranges) {
+            long start = range.getRangeStart(length);
+            long count = range.getRangeEnd(length) - start + 1;
+            requested += count;
+            sorted.add(new ByteRange(start, count));
+        }
+        if (requested > length) {
+            return null;
+        }
+        sorted.sort(Comparator.comparingLong(ByteRange::offset));
+
+        List<ByteRange> merged = new ArrayList<>(sorted.size());
+        ByteRange current = sorted.get(0);
+        for (int i = 1; i < sorted.size(); i++) {
+            ByteRange next = sorted.get(i);
+            long currentEnd = current.offset() + current.length();
+            if (next.offset() <= currentEnd) {
+                long end = Math.max(currentEnd, next.offset() + next.length());
+                current = new ByteRange(current.offset(), end - current.offset());
+            } else {
+                merged.add(current);
+                current = next;
+            }
+        }
+        merged.add(current);
+        return merged;
+    }
+
+    private static boolean ifRangeMatches(HttpServletRequest request, String ifRange, String eTag, long lastModified) {
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            // If-Range 只能使用强校验，弱 ETag 永远不匹配
+            return ifRange.equals(eTag);
+        }
+        try {
+            long date = request.getDateHeader(HttpHeaders.IF_RANGE);
+            return lastModified >= 0 && date / 1000 == lastModified / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 发送单段内容
+     */
+    private static void send(StorageObjectLocation location, Path localPath, long start, long count,
+                             HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (localPath != null && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat 在请求处理完成后用 sendfile 发送文件，响应体中不能再写入内容
+            request.setAttribute(SENDFILE_FILENAME, localPath.toRealPath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + count);
+            return;
+        }
+        copy(location, localPath, start, count, response.getOutputStream());
+    }
+
+    private static void copy(StorageObjectLocation location, Path localPath, long start, long count,
+                             OutputStream output) throws IOException {
+        if (localPath != null) {
+            try (FileChannel channel = FileChannel.open(localPath, StandardOpenOption.READ)) {
+                WritableByteChannel target = Channels.newChannel(output);
+                long position = start;
+                long end = start + count;
+                while (position < end) {
+                    long transferred = channel.transferTo(position, end - position, target);
+                    if (transferred <= 0) {
+                        throw new IOException("文件在发送过程中被截断: " + localPath);
+                    }
+                    position += transferred;
+                }
+            }
+            return;
+        }
+        try (InputStream input = location.driver().read(location.path(), start, count)) {
+            input.transferTo(output);
+        }
+    }
+
+    private static String contentRange(long start, long end, long length) {
+        return "bytes " + start + "-" + end + "/" + length;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,55 @@
+package com.zfile.module.file.entity;
+
+import com.baomidou.mybatisplus.annotation.FieldFill;
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 文件内容表
+ * 物理文件被多个文件引用，登记后不能移动或重命名
+ * @TableName file_blob
+ */
+@TableName(value = "file_blob")
+@Data
+@Schema(description = "文件内容")
+public class FileBlob implements Serializable {
+
+    @Serial
+    @TableField(exist = false)
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "ID")
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    @Schema(description = "文件MD5值")
+    private String fileMd5;
+
+    @Schema(description = "文件大小（字节）")
+    private Long fileSize;
+
+    @Schema(description = "存储源ID")
+    private Integer storageSourceId;
+
+    @Schema(description = "物理文件路径，相对存储源根目录")
+    private String storagePath;
+
+    @Schema(description = "引用数")
+    private Integer refCount;
+
+    @Schema(description = "创建时间")
+    @TableField(fill = FieldFill.INSERT)
+    private LocalDateTime createTime;
+
+    @Schema(description = "更新时间")
+    @TableField(fill = FieldFill.INSERT_UPDATE)
+    private LocalDateTime updateTime;
+}
\ No newline at end of file
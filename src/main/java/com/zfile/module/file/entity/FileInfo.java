@@ -0,0 +1,109 @@
+package com.zfile.module.file.entity;
+
+import com.baomidou.mybatisplus.annotation.FieldFill;
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableLogic;
+import com.baomidou.mybatisplus.annotation.TableName;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 文件信息表
+ * @TableName file_info
+ */
+@TableName(value = "file_info")
+@Data
+@Schema(description = "文件信息")
+public class FileInfo implements Serializable {
+
+    @Serial
+    @TableField(exist = false)
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 根目录的父文件夹ID
+     */
+    public static final long ROOT_PARENT_ID = 0L;
+
+    @Schema(description = "文件ID")
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    @Schema(description = "文件名")
+    private String fileName;
+
+    @Schema(description = "文件路径（相对路径）")
+    private String filePath;
+
+    @Schema(description = "文件大小（字节）")
+    private Long fileSize;
+
+    @Schema(description = "文件类型（扩展名）")
+    private String fileType;
+
+    @Schema(description = "MIME类型")
+    private String contentType;
+
+    @Schema(description = "文件MD5值")
+    private String fileMd5;
+
+    @Schema(description = "存储类型")
+    private String storageType;
+
+    @Schema(description = "用户存储源ID")
+    private Integer storageSourceId;
+
+    @Schema(description = "实际存储路径，相对用户存储源根路径，秒传的文件为空")
+    private String storagePath;
+
+    @Schema(description = "文件内容ID，不为空时文件内容由 file_blob 定位")
+    private Long blobId;
+
+    @Schema(description = "父文件夹ID，0表示根目录")
+    private Long parentId;
+
+    @Schema(description = "祖先文件夹ID路径，如 /12/57/，根目录下为 /")
+    private String ancestorPath;
+
+    @Schema(description = "是否文件夹：0-否，1-是")
+    private Integer isFolder;
+
+    @Schema(description = "所属用户ID")
+    private Integer userId;
+
+    @Schema(description = "缩略图URL")
+    private String thumbnailUrl;
+
+    @Schema(description = "时长（秒）")
+    private Integer duration;
+
+    @Schema(description = "状态：0-上传中，1-正常，2-损坏")
+    private Integer status;
+
+    @Schema(description = "下载次数")
+    private Integer downloadCount;
+
+    @Schema(description = "是否公开：0-私有，1-公开")
+    private Integer isPublic;
+
+    @Schema(description = "访问密码")
+    private String password;
+
+    @Schema(description = "创建时间")
+    @TableField(fill = FieldFill.INSERT)
+    private LocalDateTime createTime;
+
+    @Schema(description = "更新时间")
+    @TableField(fill = FieldFill.INSERT_UPDATE)
+    private LocalDateTime updateTime;
+
+    @Schema(description = "逻辑删除：0-未删除，1-已删除")
+    @TableLogic
+    private Integer deleted;
+}
\ No newline at end of file
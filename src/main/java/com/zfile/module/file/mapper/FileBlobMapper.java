@@ -0,0 +1,37 @@
+package com.zfile.module.file.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.zfile.module.file.entity.FileBlob;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
+
+/**
+ * 针对表【file_blob(文件内容表)】的数据库操作Mapper
+ */
+public interface FileBlobMapper extends BaseMapper<FileBlob> {
+
+    /**
+     * 增加引用，引用数已降为 0 的内容即将被删除，不能再引用
+     *
+     * @return 更新行数，0 表示内容不存在或即将被删除
+     */
+    @Update("UPDATE file_blob SET ref_count = ref_count + 1 WHERE id = #{id} AND ref_count > 0")
+    int incrementRefCount(@Param("id") Long id);
+
+    /**
+     * 减少引用
+     *
+     * @return 更新行数
+     */
+    @Update("UPDATE file_blob SET ref_count = ref_count - 1 WHERE id = #{id} AND ref_count > 0")
+    int decrementRefCount(@Param("id") Long id);
+
+    /**
+     * 删除没有引用的内容
+     *
+     * @return 删除行数，0 表示仍有引用
+     */
+    @Delete("DELETE FROM file_blob WHERE id = #{id} AND ref_count = 0")
+    int deleteUnreferenced(@Param("id") Long id);
+}
\ No newline at end of file
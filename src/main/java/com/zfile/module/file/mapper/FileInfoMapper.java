@@ -0,0 +1,122 @@
+package com.zfile.module.file.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.zfile.module.file.entity.FileInfo;
+import com.zfile.module.file.model.ContentUsage;
+import com.zfile.module.file.model.FolderUsage;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 针对表【file_info(文件信息表)】的数据库操作Mapper
+ */
+public interface FileInfoMapper extends BaseMapper<FileInfo> {
+
+    /**
+     * 读取文件夹的祖先路径并加行锁，移动该文件夹的事务提交前，在其中创建文件的事务会等待
+     *
+     * @param userId   用户ID
+     * @param folderId 文件夹ID
+     * @return 祖先路径，文件夹不存在时返回 null
+     */
+    @Select("SELECT ancestor_path FROM file_info WHERE id = #{folderId} AND user_id = #{userId} AND is_folder = 1 "
+            + "AND deleted = 0 FOR UPDATE")
+    String selectAncestorPathForUpdate(@Param("userId") Integer userId, @Param("folderId") Long folderId);
+
+    /**
+     * 替换子树中所有行的祖先路径前缀，移动文件夹时使用
+     *
+     * @param userId    用户ID
+     * @param oldPrefix 文件夹原来的子节点祖先路径
+     * @param newPrefix 文件夹新的子节点祖先路径
+     * @return 更新行数
+     */
+    @Update("UPDATE file_info SET ancestor_path = CONCAT(#{newPrefix}, SUBSTRING(ancestor_path, CHAR_LENGTH(#{oldPrefix}) + 1)) "
+            + "WHERE user_id = #{userId} AND ancestor_path LIKE CONCAT(#{oldPrefix}, '%')")
+    int updateAncestorPathPrefix(@Param("userId") Integer userId, @Param("oldPrefix") String oldPrefix,
+                                 @Param("newPrefix") String newPrefix);
+
+    /**
+     * 统计子树中的文件数和总大小
+     *
+     * @param userId 用户ID
+     * @param prefix 文件夹的子节点祖先路径
+     * @return 文件数和总大小
+     */
+    @Select("SELECT COUNT(*) AS file_count, CAST(COALESCE(SUM(file_size), 0) AS SIGNED) AS total_size FROM file_info "
+            + "WHERE user_id = #{userId} AND ancestor_path LIKE CONCAT(#{prefix}, '%') AND is_folder = 0 AND deleted = 0")
+    FolderUsage selectFolderUsage(@Param("userId") Integer userId, @Param("prefix") String prefix);
+
+    /**
+     * 按存储源和 MIME 类型汇总子树的占用空间并锁定这些行，删除文件夹时用于减少存储用量
+     * 锁定后其他事务不能在子树中新建文件，汇总结果与随后删除的行一致
+     *
+     * @param userId 用户ID
+     * @param prefix 文件夹的子节点祖先路径
+     * @return 汇总的占用空间
+     */
+    @Select("SELECT storage_source_id, content_type, is_folder, CAST(COALESCE(SUM(file_size), 0) AS SIGNED) AS used_size, "
+            + "COUNT(*) AS item_count FROM file_info "
+            + "WHERE user_id = #{userId} AND ancestor_path LIKE CONCAT(#{prefix}, '%') AND deleted = 0 "
+            + "GROUP BY storage_source_id, content_type, is_folder FOR UPDATE")
+    List<ContentUsage> selectSubtreeContentUsageForUpdate(@Param("userId") Integer userId, @Param("prefix") String prefix);
+
+    /**
+     * 按存储源和 MIME 类型汇总用户的全部文件，对账存储用量时使用
+     *
+     * @param userId 用户ID
+     * @return 汇总的占用空间
+     */
+    @Select("SELECT storage_source_id, content_type, is_folder, CAST(COALESCE(SUM(file_size), 0) AS SIGNED) AS used_size, "
+            + "COUNT(*) AS item_count FROM file_info WHERE user_id = #{userId} AND deleted = 0 "
+            + "GROUP BY storage_source_id, content_type, is_folder")
+    List<ContentUsage> selectUserContentUsage(@Param("userId") Integer userId);
+
+    /**
+     * 流式查询用户的全部文件，只查询构建搜索索引需要的字段，MySQL 驱动逐行返回结果
+     *
+     * @param userId  用户ID
+     * @param handler 逐行处理结果
+     */
+    @Select("SELECT id, file_name, is_folder, content_type, file_size, ancestor_path, create_time, update_time "
+            + "FROM file_info WHERE user_id = #{userId} AND deleted = 0")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    void streamSearchDocuments(@Param("userId") Integer userId, ResultHandler<FileInfo> handler);
+
+    /**
+     * 查询在指定时间前移入回收站的文件ID，清理回收站时使用
+     *
+     * @param deletedBefore 删除时间上限
+     * @param limit         最多返回条数
+     * @return 文件ID，按ID升序
+     */
+    @Select("SELECT id FROM file_info WHERE deleted = 1 AND update_time < #{deletedBefore} ORDER BY id LIMIT #{limit}")
+    List<Long> selectPurgeableIds(@Param("deletedBefore") LocalDateTime deletedBefore, @Param("limit") int limit);
+
+    /**
+     * 读取已移入回收站的文件并加行锁，多个节点同时清理时只有一个节点能删除该行
+     *
+     * @param id 文件ID
+     * @return 文件信息，不存在或未删除时返回 null
+     */
+    @Select("SELECT id, user_id, is_folder, storage_source_id, storage_path, blob_id FROM file_info "
+            + "WHERE id = #{id} AND deleted = 1 FOR UPDATE")
+    FileInfo selectDeletedForUpdate(@Param("id") Long id);
+
+    /**
+     * 物理删除已移入回收站的文件
+     *
+     * @param id 文件ID
+     * @return 删除行数
+     */
+    @Delete("DELETE FROM file_info WHERE id = #{id} AND deleted = 1")
+    int deletePurged(@Param("id") Long id);
+}
\ No newline at end of file
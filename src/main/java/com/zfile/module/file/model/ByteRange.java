@@ -0,0 +1,10 @@
+package com.zfile.module.file.model;
+
+/**
+ * 文件中的一段字节
+ *
+ * @param offset 起始位置
+ * @param length 长度
+ */
+public record ByteRange(long offset, long length) {
+}
\ No newline at end of file
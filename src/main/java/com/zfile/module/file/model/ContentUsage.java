@@ -0,0 +1,35 @@
+package com.zfile.module.file.model;
+
+import com.zfile.module.file.entity.FileInfo;
+
+/**
+ * 按存储源、MIME 类型和是否文件夹汇总的占用空间，用于增量更新存储用量计数
+ *
+ * @param storageSourceId 用户存储源ID，可为空
+ * @param contentType     MIME 类型，可为空
+ * @param isFolder        是否文件夹：0-否，1-是
+ * @param usedSize        总大小（字节），减少用量时为负数
+ * @param itemCount       文件或文件夹数，减少用量时为负数
+ */
+public record ContentUsage(Integer storageSourceId, String contentType, Integer isFolder, Long usedSize, Long itemCount) {
+
+    /**
+     * 单个文件的占用空间
+     */
+    public static ContentUsage of(FileInfo fileInfo) {
+        return new ContentUsage(fileInfo.getStorageSourceId(), fileInfo.getContentType(), fileInfo.getIsFolder(),
+                fileInfo.getFileSize() == null ? 0L : fileInfo.getFileSize(), 1L);
+    }
+
+    /**
+     * 取反，用于删除文件时减少用量
+     */
+    public ContentUsage negate() {
+        return new ContentUsage(storageSourceId, contentType, isFolder,
+                usedSize == null ? 0L : -usedSize, itemCount == null ? 0L : -itemCount);
+    }
+
+    public boolean folder() {
+        return Integer.valueOf(1).equals(isFolder);
+    }
+}
\ No newline at end of file
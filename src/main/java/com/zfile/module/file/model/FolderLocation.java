@@ -0,0 +1,13 @@
+package com.zfile.module.file.model;
+
+import com.zfile.module.user.entity.UserStorageSource;
+
+/**
+ * 文件夹位置
+ *
+ * @param folderId          文件夹ID，根目录为 0
+ * @param userStorageSource 文件夹所在的用户存储源
+ * @param path              文件夹在用户存储源中的路径，根目录为空字符串
+ */
+public record FolderLocation(Long folderId, UserStorageSource userStorageSource, String path) {
+}
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.zfile.module.file.model;
+
+/**
+ * 文件夹占用空间，包含所有子文件夹中的文件
+ *
+ * @param fileCount 文件数
+ * @param totalSize 总大小（字节）
+ */
+public record FolderUsage(Long fileCount, Long totalSize) {
+}
\ No newline at end of file
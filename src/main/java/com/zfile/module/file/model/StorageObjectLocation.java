@@ -0,0 +1,12 @@
+package com.zfile.module.file.model;
+
+import com.zfile.module.storage.driver.StorageDriver;
+
+/**
+ * 文件内容所在的位置
+ *
+ * @param driver 存储驱动
+ * @param path   相对驱动根目录的路径
+ */
+public record StorageObjectLocation(StorageDriver driver, String path) {
+}
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.zfile.module.file.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import org.hibernate.validator.constraints.Length;
+
+@Data
+@Schema(description = "上传分片请求")
+public class ChunkUploadRequest {
+
+    @Schema(description = "上传会话ID，同一文件续传时保持不变")
+    @NotBlank(message = "上传会话ID不能为空")
+    private String sessionId;
+
+    @Schema(description = "分片序号，从 0 开始")
+    @NotNull(message = "分片序号不能为空")
+    private Integer chunkIndex;
+
+    @Schema(description = "总分片数")
+    @NotNull(message = "总分片数不能为空")
+    private Integer totalChunks;
+
+    @Schema(description = "分片 MD5，不为空时校验分片内容")
+    private String chunkMd5;
+
+    @Schema(description = "目标文件夹ID，与文件名一起提供时，对象存储的分片直接上传到存储源")
+    private String folderId;
+
+    @Schema(description = "文件名")
+    @Length(max = 255, message = "文件名长度不能超过255个字符")
+    private String fileName;
+
+    @Schema(description = "文件总大小（字节），用于开始上传时检查存储配额；为空时按分片大小乘以总分片数估算")
+    @Min(value = 0, message = "文件大小不能小于0")
+    private Long fileSize;
+}
\ No newline at end of file
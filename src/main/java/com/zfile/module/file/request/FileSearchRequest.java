@@ -0,0 +1,53 @@
+package com.zfile.module.file.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+import org.hibernate.validator.constraints.Length;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+@Data
+@Schema(description = "搜索文件请求")
+public class FileSearchRequest {
+
+    @Schema(description = "关键字，按文件名中的词前缀匹配，中日韩文字按子串匹配；为空时只按过滤条件查询")
+    @Length(max = 100, message = "关键字长度不能超过100个字符")
+    private String keyword;
+
+    @Schema(description = "类型：file 或 folder，为空时都查询")
+    private String type;
+
+    @Schema(description = "MIME 类型前缀，如 image/ 或 image/png；也可以是文件分类，如 image、video、document")
+    private String mimeType;
+
+    @Schema(description = "只搜索该文件夹中的内容（包括子文件夹），为空或 root 时搜索全部")
+    private String folderId;
+
+    @Schema(description = "最小文件大小（字节）")
+    @Min(value = 0, message = "文件大小不能小于0")
+    private Long minSize;
+
+    @Schema(description = "最大文件大小（字节）")
+    @Min(value = 0, message = "文件大小不能小于0")
+    private Long maxSize;
+
+    @Schema(description = "更新日期起始，包含当天", example = "2024-01-01")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate startDate;
+
+    @Schema(description = "更新日期截止，包含当天", example = "2024-12-31")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate endDate;
+
+    @Schema(description = "当前页", example = "1")
+    @Min(value = 1, message = "页码不能小于1")
+    private Integer page = 1;
+
+    @Schema(description = "每页大小", example = "20")
+    @Min(value = 1, message = "每页大小不能小于1")
+    @Max(value = 100, message = "每页大小不能超过100")
+    private Integer pageSize = 20;
+}
\ No newline at end of file
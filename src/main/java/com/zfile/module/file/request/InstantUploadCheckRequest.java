@@ -0,0 +1,25 @@
+package com.zfile.module.file.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import lombok.Data;
+
+@Data
+@Schema(description = "秒传检查请求")
+public class InstantUploadCheckRequest {
+
+    @Schema(description = "文件MD5值")
+    @NotNull(message = "文件MD5值不能为空")
+    @Pattern(regexp = "[0-9a-fA-F]{32}", message = "文件MD5值格式不正确")
+    private String fileMd5;
+
+    @Schema(description = "文件大小（字节）")
+    @NotNull(message = "文件大小不能为空")
+    @Min(value = 0, message = "文件大小不能小于0")
+    private Long fileSize;
+
+    @Schema(description = "目标文件夹ID，root 或为空表示根目录")
+    private String folderId;
+}
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.zfile.module.file.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import lombok.Data;
+import org.hibernate.validator.constraints.Length;
+
+@Data
+@Schema(description = "秒传请求")
+public class InstantUploadRequest {
+
+    @Schema(description = "秒传检查返回的挑战ID")
+    @NotBlank(message = "挑战ID不能为空")
+    private String challengeId;
+
+    @Schema(description = "按顺序拼接各抽样范围的内容后计算的 MD5")
+    @NotNull(message = "抽样MD5值不能为空")
+    @Pattern(regexp = "[0-9a-fA-F]{32}", message = "抽样MD5值格式不正确")
+    private String sampleMd5;
+
+    @Schema(description = "文件名")
+    @NotBlank(message = "文件名不能为空")
+    @Length(max = 255, message = "文件名长度不能超过255个字符")
+    private String fileName;
+}
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.zfile.module.file.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+import org.hibernate.validator.constraints.Length;
+
+@Data
+@Schema(description = "合并分片请求")
+public class MergeChunksRequest {
+
+    @Schema(description = "上传会话ID")
+    @NotBlank(message = "上传会话ID不能为空")
+    private String sessionId;
+
+    @Schema(description = "文件名")
+    @NotBlank(message = "文件名不能为空")
+    @Length(max = 255, message = "文件名长度不能超过255个字符")
+    private String fileName;
+
+    @Schema(description = "目标文件夹ID，root 或为空表示根目录")
+    private String folderId;
+}
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.zfile.module.file.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+@Schema(description = "移动文件请求")
+public class MoveFileRequest {
+
+    @Schema(description = "目标文件夹ID，root 表示根目录")
+    @NotBlank(message = "目标文件夹ID不能为空")
+    private String targetFolderId;
+}
\ No newline at end of file
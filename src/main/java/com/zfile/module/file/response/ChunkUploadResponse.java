@@ -0,0 +1,33 @@
+package com.zfile.module.file.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "分片上传结果")
+public class ChunkUploadResponse implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "上传会话ID")
+    private String sessionId;
+
+    @Schema(description = "已上传分片数")
+    private Integer uploadedChunks;
+
+    @Schema(description = "总分片数")
+    private Integer totalChunks;
+
+    @Schema(description = "是否已全部上传")
+    @JsonProperty("isComplete")
+    private Boolean complete;
+}
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.zfile.module.file.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+@Schema(description = "分片上传进度，用于断点续传")
+public class ChunkUploadStatusResponse implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "上传会话ID")
+    private String sessionId;
+
+    @Schema(description = "总分片数，会话不存在时为空")
+    private Integer totalChunks;
+
+    @Schema(description = "已上传的分片序号，客户端只需上传其余分片")
+    private List<Integer> uploadedChunkIndexes;
+}
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.zfile.module.file.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Data
+@Schema(description = "文件下载票据")
+public class DownloadTicketResponse implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "下载票据，通过 ticket 参数传给下载接口，只对该文件有效")
+    private String ticket;
+
+    @Schema(description = "携带票据的下载地址，不含 inline 参数")
+    private String url;
+
+    @Schema(description = "票据过期时间")
+    private LocalDateTime expireAt;
+}
\ No newline at end of file
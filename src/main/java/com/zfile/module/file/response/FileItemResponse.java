@@ -0,0 +1,58 @@
+package com.zfile.module.file.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Data
+@Schema(description = "文件信息")
+public class FileItemResponse implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "文件ID")
+    private String id;
+
+    @Schema(description = "文件名")
+    private String name;
+
+    @Schema(description = "类型：file 或 folder")
+    private String type;
+
+    @Schema(description = "MIME类型")
+    private String mimeType;
+
+    @Schema(description = "文件大小（字节）")
+    private Long size;
+
+    @Schema(description = "文件路径")
+    private String path;
+
+    @Schema(description = "父文件夹ID")
+    private String parentId;
+
+    @Schema(description = "文件MD5")
+    private String hash;
+
+    @Schema(description = "缩略图地址，不支持缩略图的文件为空；缩略图生成前返回占位图")
+    private String thumbnailUrl;
+
+    @Schema(description = "是否收藏")
+    @JsonProperty("isStarred")
+    private Boolean starred;
+
+    @Schema(description = "是否已删除")
+    @JsonProperty("isDeleted")
+    private Boolean deleted;
+
+    @Schema(description = "创建时间")
+    private LocalDateTime createdAt;
+
+    @Schema(description = "更新时间")
+    private LocalDateTime updatedAt;
+}
\ No newline at end of file
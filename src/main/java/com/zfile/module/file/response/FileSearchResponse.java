@@ -0,0 +1,28 @@
+package com.zfile.module.file.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+@Schema(description = "文件搜索结果")
+public class FileSearchResponse implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "当前页的文件，按相关度排序")
+    private List<FileItemResponse> items;
+
+    @Schema(description = "符合条件的文件总数")
+    private Long total;
+
+    @Schema(description = "当前页")
+    private Integer page;
+
+    @Schema(description = "每页大小")
+    private Integer pageSize;
+}
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.zfile.module.file.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.zfile.module.file.model.ByteRange;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+@Schema(description = "秒传检查结果")
+public class InstantUploadCheckResponse implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "存储源中是否已有相同内容，为 false 时需要正常上传")
+    @JsonProperty("isHit")
+    private Boolean hit;
+
+    @Schema(description = "挑战ID，提交秒传时使用")
+    private String challengeId;
+
+    @Schema(description = "抽样范围，按顺序拼接各范围的内容后计算 MD5")
+    private List<ByteRange> ranges;
+}
\ No newline at end of file
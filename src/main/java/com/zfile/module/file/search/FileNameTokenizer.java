@@ -0,0 +1,208 @@
+package com.zfile.module.file.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 文件名分词
+ * 文件名先做 NFKC 规范化（全角转半角等），再按分隔符、文字类别切分：
+ * 拉丁等字母文字和数字按词切分，字母与数字之间、驼峰大小写之间也切开，词转为小写；
+ * 中日韩文字没有分隔符，连续的一段索引单字和相邻两字，查询时用相邻两字匹配，相当于子串匹配。
+ */
+final class FileNameTokenizer {
+
+    private static final int SEPARATOR = 0;
+
+    private static final int LETTER = 1;
+
+    private static final int DIGIT = 2;
+
+    private static final int CJK = 3;
+
+    private static final int MARK = 4;
+
+    /**
+     * 过长的词只保留前面部分
+     */
+    private static final int MAX_WORD_LENGTH = 64;
+
+    /**
+     * 片假名长音符号，Unicode 中不属于片假名，按中日韩文字处理
+     */
+    private static final int KATAKANA_PROLONGED_SOUND_MARK = 0x30FC;
+
+    private FileNameTokenizer() {
+    }
+
+    /**
+     * @param text 词或中日韩文字
+     * @param cjk  是否中日韩文字
+     */
+    record Term(String text, boolean cjk) {
+    }
+
+    /**
+     * 文件名的索引词，已去重
+     */
+    static List<Term> indexTerms(String fileName) {
+        Set<Term> terms = new LinkedHashSet<>();
+        for (Term run : split(fileName)) {
+            if (!run.cjk()) {
+                terms.add(run);
+                continue;
+            }
+            int[] codePoints = run.text().codePoints().toArray();
+            for (int i = 0; i < codePoints.length; i++) {
+                terms.add(new Term(new String(codePoints, i, 1), true));
+                if (i + 1 < codePoints.length) {
+                    terms.add(new Term(new String(codePoints, i, 2), true));
+                }
+            }
+        }
+        return new ArrayList<>(terms);
+    }
+
+    /**
+     * 搜索关键字的查询词，文件需要匹配全部查询词
+     */
+    static List<Term> queryTerms(String keyword) {
+        Set<Term> terms = new LinkedHashSet<>();
+        for (Term run : split(keyword)) {
+            if (!run.cjk()) {
+                terms.add(run);
+                continue;
+            }
+            int[] codePoints = run.text().codePoints().toArray();
+            if (codePoints.length == 1) {
+                terms.add(run);
+                continue;
+            }
+            for (int i = 0; i + 1 < codePoints.length; i++) {
+                terms.add(new Term(new String(codePoints, i, 2), true));
+            }
+        }
+        return new ArrayList<>(terms);
+    }
+
+    /**
+     * 判断查询词与索引词或其前缀的编辑距离是否不超过 maxEdits，相邻字符交换算一处差异
+     */
+    static boolean withinDistance(String query, String term, int maxEdits) {
+        int n = query.length();
+        int m = Math.min(term.length(), n + maxEdits);
+        if (m < n - maxEdits) {
+            return false;
+        }
+        int[] beforePrevious = new int[m + 1];
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= n; i++) {
+            current[0] = i;
+            int rowMin = i;
+            char q = query.charAt(i - 1);
+            for (int j = 1; j <= m; j++) {
+                char t = term.charAt(j - 1);
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + (q == t ? 0 : 1));
+                if (i > 1 && j > 1 && q == term.charAt(j - 2) && query.charAt(i - 2) == t) {
+                    value = Math.min(value, beforePrevious[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > maxEdits) {
+                return false;
+            }
+            int[] recycled = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        // 最后一行是查询词与索引词各个前缀的距离
+        for (int j = Math.max(0, n - maxEdits); j <= m; j++) {
+            if (previous[j] <= maxEdits) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 切分为词和连续的中日韩文字
+     */
+    private static List<Term> split(String text) {
+        List<Term> runs = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return runs;
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC);
+        StringBuilder current = new StringBuilder();
+        int currentKind = SEPARATOR;
+        int previous = -1;
+        for (int i = 0; i < normalized.length(); ) {
+            int codePoint = normalized.codePointAt(i);
+            i += Character.charCount(codePoint);
+            int kind = kindOf(codePoint);
+            if (kind == MARK) {
+                // 组合符号跟随前一个字符
+                if (!current.isEmpty()) {
+                    current.appendCodePoint(codePoint);
+                }
+                continue;
+            }
+            boolean camelCase = kind == LETTER && currentKind == LETTER
+                    && Character.isUpperCase(codePoint) && previous >= 0 && Character.isLowerCase(previous);
+            if (kind != currentKind || camelCase) {
+                flush(runs, current, currentKind);
+                currentKind = kind;
+            }
+            if (kind != SEPARATOR) {
+                current.appendCodePoint(codePoint);
+            }
+            previous = codePoint;
+        }
+        flush(runs, current, currentKind);
+        return runs;
+    }
+
+    private static void flush(List<Term> runs, StringBuilder current, int kind) {
+        if (current.isEmpty()) {
+            return;
+        }
+        String text = current.toString().toLowerCase(Locale.ROOT);
+        current.setLength(0);
+        if (kind != CJK && text.codePointCount(0, text.length()) > MAX_WORD_LENGTH) {
+            text = text.substring(0, text.offsetByCodePoints(0, MAX_WORD_LENGTH));
+        }
+        runs.add(new Term(text, kind == CJK));
+    }
+
+    private static int kindOf(int codePoint) {
+        if (codePoint == KATAKANA_PROLONGED_SOUND_MARK) {
+            return CJK;
+        }
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        if (script == Character.UnicodeScript.HAN || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA || script == Character.UnicodeScript.HANGUL) {
+            return CJK;
+        }
+        if (Character.isLetter(codePoint)) {
+            return LETTER;
+        }
+        if (Character.isDigit(codePoint)) {
+            return DIGIT;
+        }
+        int type = Character.getType(codePoint);
+        if (type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK
+                || type == Character.ENCLOSING_MARK) {
+            return MARK;
+        }
+        return SEPARATOR;
+    }
+}
\ No newline at end of file
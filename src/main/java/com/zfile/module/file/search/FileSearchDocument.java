@@ -0,0 +1,34 @@
+package com.zfile.module.file.search;
+
+import com.zfile.module.file.entity.FileInfo;
+
+import java.time.LocalDateTime;
+
+/**
+ * 索引中的文件，只保留搜索和过滤需要的字段，返回结果时按ID重新读取完整的文件信息
+ *
+ * @param id           文件ID
+ * @param fileName     文件名
+ * @param folder       是否文件夹
+ * @param contentType  MIME 类型
+ * @param fileSize     文件大小（字节）
+ * @param ancestorPath 祖先文件夹ID路径
+ * @param updateTime   更新时间
+ */
+record FileSearchDocument(Long id, String fileName, boolean folder, String contentType, long fileSize,
+                          String ancestorPath, LocalDateTime updateTime) {
+
+    static FileSearchDocument of(FileInfo fileInfo) {
+        return new FileSearchDocument(fileInfo.getId(),
+                fileInfo.getFileName() == null ? "" : fileInfo.getFileName(),
+                Integer.valueOf(1).equals(fileInfo.getIsFolder()),
+                fileInfo.getContentType(),
+                fileInfo.getFileSize() == null ? 0 : fileInfo.getFileSize(),
+                fileInfo.getAncestorPath(),
+                fileInfo.getUpdateTime() != null ? fileInfo.getUpdateTime() : fileInfo.getCreateTime());
+    }
+
+    FileSearchDocument withAncestorPath(String ancestorPath) {
+        return new FileSearchDocument(id, fileName, folder, contentType, fileSize, ancestorPath, updateTime);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.zfile.module.file.search;
+
+/**
+ * 索引变更事件，文件信息的事务提交后记录到本节点，并通过 Redis 通知其他节点
+ * 事件可以重复应用，重建索引时重放快照前后的事件不影响结果
+ *
+ * @param origin           发出事件的节点，节点忽略自己发出的通知
+ * @param userId           用户ID
+ * @param action           变更类型
+ * @param document         新增、改名或移动后的文件，删除时为空
+ * @param fileId           删除的文件ID
+ * @param subtreePrefix    删除或移动的文件夹原来的子节点祖先路径，不是文件夹时为空
+ * @param newSubtreePrefix 移动后文件夹的子节点祖先路径，只在移动文件夹时使用
+ */
+record FileSearchEvent(String origin, Integer userId, Action action, FileSearchDocument document, Long fileId,
+                       String subtreePrefix, String newSubtreePrefix) {
+
+    enum Action {
+        UPSERT,
+        REMOVE
+    }
+}
\ No newline at end of file
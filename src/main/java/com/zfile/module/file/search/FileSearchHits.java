@@ -0,0 +1,16 @@
+package com.zfile.module.file.search;
+
+import java.util.List;
+
+/**
+ * 搜索结果
+ *
+ * @param ids   当前页的文件ID，按相关度排序
+ * @param total 符合条件的文件总数
+ */
+public record FileSearchHits(List<Long> ids, long total) {
+
+    public static FileSearchHits empty() {
+        return new FileSearchHits(List.of(), 0);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,434 @@
+package com.zfile.module.file.search;
+
+import com.alibaba.fastjson2.JSON;
+import com.baomidou.dynamic.datasource.toolkit.DynamicDataSourceContextHolder;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.zfile.common.datasource.ReadWriteRoutingProperties;
+import com.zfile.module.file.config.FileSearchProperties;
+import com.zfile.module.file.entity.FileInfo;
+import com.zfile.module.file.mapper.FileInfoMapper;
+import com.zfile.module.file.request.FileSearchRequest;
+import com.zfile.module.storage.storageenum.FileCategoryEnum;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * 文件名搜索索引
+ * 每个用户一个内存倒排索引，首次搜索时从数据库流式读取该用户的文件构建，长时间不搜索后释放；
+ * 索引总文件数超过上限时淘汰最久未搜索的用户，文件数超过单个用户上限的用户不建立索引。
+ * 文件新增、移动、删除的事务提交后记录变更，并通过 Redis 通知其他节点，索引在搜索前应用新的变更；
+ * 索引构建超过 rebuildInterval 后在后台从数据库重建，期间继续使用旧索引，错过的通知由重建修正
+ */
+@Slf4j
+@Component
+public class FileSearchIndex {
+
+    /**
+     * 索引变更通知频道，消息内容为 {@link FileSearchEvent} 的 JSON
+     */
+    private static final String EVENT_CHANNEL = "zfile:file:search-index";
+
+    private static final String ROOT_FOLDER_ID = "root";
+
+    /**
+     * 本节点标识，用于忽略自己发出的通知
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    /**
+     * 本节点的变更序号
+     */
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * 用户ID -> 索引
+     */
+    private final LoadingCache<Integer, UserFileIndex> partitions;
+
+    /**
+     * 用户ID -> 最近的变更
+     */
+    private final Cache<Integer, SearchEventLog> eventLogs;
+
+    /**
+     * 文件数超过上限、暂不建立索引的用户，重建间隔后再次尝试
+     */
+    private final Cache<Integer, Boolean> oversizedUsers;
+
+    /**
+     * 单个用户索引的文件数上限
+     */
+    private final long partitionLimit;
+
+    private final ExecutorService rebuildExecutor;
+
+    private final FileInfoMapper fileInfoMapper;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final FileSearchProperties properties;
+
+    private final ReadWriteRoutingProperties routingProperties;
+
+    private final Counter buildCounter;
+
+    @Autowired
+    public FileSearchIndex(FileInfoMapper fileInfoMapper, StringRedisTemplate stringRedisTemplate,
+                           RedisMessageListenerContainer listenerContainer, MeterRegistry meterRegistry,
+                           FileSearchProperties properties, ReadWriteRoutingProperties routingProperties) {
+        this.fileInfoMapper = fileInfoMapper;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.properties = properties;
+        this.routingProperties = routingProperties;
+        this.rebuildExecutor = Executors.newFixedThreadPool(Math.max(1, properties.getRebuildThreads()),
+                new ThreadFactoryBuilder().setNameFormat("file-search-rebuild-%d").setDaemon(true).build());
+
+        CacheLoader<Integer, UserFileIndex> loader = new CacheLoader<>() {
+            @Override
+            public UserFileIndex load(Integer userId) {
+                return build(userId);
+            }
+        };
+        // 权重上限按分段平均分配，只用一个分段，单个用户的索引才能用到全部容量；
+        // 应用变更后重新写入以更新权重，写入会推迟 refreshAfterWrite，重建间隔改为在搜索时按构建时间判断
+        this.partitionLimit = Math.min(properties.getMaximumPartitionDocuments(), properties.getMaximumDocuments() - 1);
+        this.partitions = CacheBuilder.newBuilder()
+                .concurrencyLevel(1)
+                .maximumWeight(properties.getMaximumDocuments())
+                .weigher((Integer userId, UserFileIndex index) -> index.size() + 1)
+                .expireAfterAccess(properties.getIdleTtl())
+                .build(CacheLoader.asyncReloading(loader, rebuildExecutor));
+        this.eventLogs = CacheBuilder.newBuilder()
+                .maximumSize(properties.getMaximumEventUsers())
+                .expireAfterAccess(properties.getIdleTtl())
+                .removalListener(this::onEventLogRemoved)
+                .build();
+        this.oversizedUsers = CacheBuilder.newBuilder()
+                .maximumSize(properties.getMaximumEventUsers())
+                .expireAfterWrite(properties.getRebuildInterval())
+                .build();
+
+        Gauge.builder("zfile.file.search.partitions", partitions, LoadingCache::size).register(meterRegistry);
+        this.buildCounter = Counter.builder("zfile.file.search.builds").register(meterRegistry);
+
+        listenerContainer.addMessageListener((message, pattern) -> {
+            try {
+                FileSearchEvent event = JSON.parseObject(new String(message.getBody(), StandardCharsets.UTF_8),
+                        FileSearchEvent.class);
+                if (!nodeId.equals(event.origin())) {
+                    append(event);
+                }
+            } catch (Exception e) {
+                log.warn("处理文件搜索索引变更通知失败", e);
+            }
+        }, new ChannelTopic(EVENT_CHANNEL));
+    }
+
+    /**
+     * 搜索用户的文件
+     *
+     * @param userId  用户ID
+     * @param request 搜索条件
+     * @return 当前页的文件ID和总数
+     * @throws IllegalArgumentException 过滤条件无效或文件夹不存在
+     */
+    public FileSearchHits search(Integer userId, FileSearchRequest request) {
+        Predicate<FileSearchDocument> filter = buildFilter(request);
+        List<FileNameTokenizer.Term> terms = FileNameTokenizer.queryTerms(request.getKeyword());
+        if (StringUtils.hasText(request.getKeyword()) && terms.isEmpty()) {
+            // 关键字只有标点等分隔符
+            return FileSearchHits.empty();
+        }
+
+        if (oversizedUsers.getIfPresent(userId) != null) {
+            // 后台重建时发现超过上限的用户，释放之前加载的索引
+            partitions.invalidate(userId);
+            throw oversized();
+        }
+        UserFileIndex index;
+        try {
+            index = partitions.getUnchecked(userId);
+        } catch (UncheckedExecutionException e) {
+            if (e.getCause() instanceof IllegalArgumentException cause) {
+                throw cause;
+            }
+            throw new RuntimeException("加载文件搜索索引失败", e.getCause());
+        }
+        catchUp(userId, index);
+
+        String folderId = request.getFolderId();
+        if (StringUtils.hasText(folderId) && !ROOT_FOLDER_ID.equals(folderId) && !"0".equals(folderId)) {
+            String subtreePrefix;
+            try {
+                subtreePrefix = index.getSubtreePrefix(Long.parseLong(folderId));
+            } catch (NumberFormatException e) {
+                subtreePrefix = null;
+            }
+            if (subtreePrefix == null) {
+                throw new IllegalArgumentException("文件夹不存在: " + folderId);
+            }
+            String prefix = subtreePrefix;
+            filter = filter.and(document -> document.ancestorPath() != null && document.ancestorPath().startsWith(prefix));
+        }
+
+        int page = request.getPage() == null ? 1 : request.getPage();
+        int pageSize = request.getPageSize() == null ? 20 : request.getPageSize();
+        return index.search(terms, filter, (page - 1) * pageSize, pageSize, properties.getFuzzyMinLength());
+    }
+
+    /**
+     * 新增文件后更新索引，在当前事务提交后生效
+     *
+     * @param fileInfo 已保存的文件信息
+     */
+    public void onSaved(FileInfo fileInfo) {
+        publishAfterCommit(new FileSearchEvent(nodeId, fileInfo.getUserId(), FileSearchEvent.Action.UPSERT,
+                FileSearchDocument.of(fileInfo), null, null, null));
+    }
+
+    /**
+     * 移动或重命名文件后更新索引，在当前事务提交后生效
+     *
+     * @param fileInfo         移动后的文件信息
+     * @param oldSubtreePrefix 文件夹原来的子节点祖先路径，不是文件夹时为空
+     */
+    public void onMoved(FileInfo fileInfo, String oldSubtreePrefix) {
+        String newSubtreePrefix = oldSubtreePrefix == null ? null : fileInfo.getAncestorPath() + fileInfo.getId() + "/";
+        publishAfterCommit(new FileSearchEvent(nodeId, fileInfo.getUserId(), FileSearchEvent.Action.UPSERT,
+                FileSearchDocument.of(fileInfo), null, oldSubtreePrefix, newSubtreePrefix));
+    }
+
+    /**
+     * 删除文件或文件夹后更新索引，在当前事务提交后生效
+     *
+     * @param userId        用户ID
+     * @param fileId        文件或文件夹ID
+     * @param subtreePrefix 文件夹的子节点祖先路径，不是文件夹时为空
+     */
+    public void onRemoved(Integer userId, Long fileId, String subtreePrefix) {
+        publishAfterCommit(new FileSearchEvent(nodeId, userId, FileSearchEvent.Action.REMOVE, null, fileId,
+                subtreePrefix, null));
+    }
+
+    /**
+     * 在后台从数据库重建用户的索引，重建完成前继续使用旧索引；索引尚未加载时不处理
+     *
+     * @param userId 用户ID
+     */
+    public void rebuild(Integer userId) {
+        if (partitions.getIfPresent(userId) != null) {
+            partitions.refresh(userId);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    /**
+     * 从数据库读取用户的全部文件构建索引
+     *
+     * @throws IllegalArgumentException 用户的文件数超过上限
+     */
+    private UserFileIndex build(Integer userId) {
+        long start = System.currentTimeMillis();
+        // 先取序号再读取，读取期间提交的变更会在搜索前重放，重复应用已包含在快照中的变更不影响结果。
+        // 序号来自本节点已提交到主库的变更，从库延迟期间读到的快照可能缺少这些变更且不会再重放，
+        // 因此无论从搜索请求（路由到从库）还是后台重建线程调用，都从主库读取
+        UserFileIndex index = new UserFileIndex(sequence.get());
+        AtomicBoolean truncated = new AtomicBoolean();
+        if (routingProperties.isEnabled()) {
+            DynamicDataSourceContextHolder.push(routingProperties.getMaster());
+        }
+        try {
+            fileInfoMapper.streamSearchDocuments(userId, context -> {
+                if (context.getResultCount() > partitionLimit) {
+                    truncated.set(true);
+                    context.stop();
+                    return;
+                }
+                index.add(FileSearchDocument.of(context.getResultObject()));
+            });
+        } finally {
+            if (routingProperties.isEnabled()) {
+                DynamicDataSourceContextHolder.poll();
+            }
+        }
+        if (truncated.get()) {
+            markOversized(userId);
+            throw oversized();
+        }
+        buildCounter.increment();
+        log.debug("构建文件搜索索引完成，用户ID: {}，文件数: {}，耗时: {} ms", userId, index.size(),
+                System.currentTimeMillis() - start);
+        return index;
+    }
+
+    /**
+     * 应用索引构建后的变更，索引构建超过重建间隔时在后台重建
+     */
+    private void catchUp(Integer userId, UserFileIndex index) {
+        if (System.currentTimeMillis() - index.getBuildTime() > properties.getRebuildInterval().toMillis()) {
+            partitions.refresh(userId);
+        }
+        SearchEventLog eventLog = eventLogs.getIfPresent(userId);
+        if (eventLog == null) {
+            return;
+        }
+        long appliedSequence = index.getAppliedSequence();
+        if (eventLog.hasDropped(appliedSequence)) {
+            // 未搜索期间的变更超出了保留数量，先应用保留的部分，同时在后台重建
+            log.debug("文件搜索索引缺少部分变更，后台重建，用户ID: {}", userId);
+            partitions.refresh(userId);
+        }
+        List<SearchEventLog.Entry> entries = eventLog.after(appliedSequence);
+        if (entries.isEmpty()) {
+            return;
+        }
+        int sizeBefore = index.size();
+        index.apply(entries);
+        int size = index.size();
+        if (size > partitionLimit) {
+            // 本次搜索继续使用已加载的索引，之后的搜索不再建立索引
+            partitions.asMap().remove(userId, index);
+            markOversized(userId);
+        } else if (size != sizeBefore) {
+            // 权重只在写入时计算，文件数变化后重新写入同一索引
+            partitions.asMap().replace(userId, index, index);
+        }
+    }
+
+    private void markOversized(Integer userId) {
+        oversizedUsers.put(userId, Boolean.TRUE);
+        log.info("用户文件数超过搜索索引上限 {}，暂不建立索引，用户ID: {}", partitionLimit, userId);
+    }
+
+    private IllegalArgumentException oversized() {
+        return new IllegalArgumentException("文件数量超过 " + partitionLimit + "，暂不支持搜索");
+    }
+
+    private void publishAfterCommit(FileSearchEvent event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(event);
+                }
+            });
+        } else {
+            publish(event);
+        }
+    }
+
+    private void publish(FileSearchEvent event) {
+        append(event);
+        try {
+            stringRedisTemplate.convertAndSend(EVENT_CHANNEL, JSON.toJSONString(event));
+        } catch (Exception e) {
+            // 其他节点的索引在下次后台重建后恢复一致
+            log.warn("发布文件搜索索引变更通知失败，用户ID: {}", event.userId(), e);
+        }
+    }
+
+    private void append(FileSearchEvent event) {
+        eventLogs.asMap()
+                .computeIfAbsent(event.userId(), userId -> new SearchEventLog(properties.getMaxPendingEvents()))
+                .append(sequence, event);
+    }
+
+    /**
+     * 变更记录被淘汰时，其中还有索引未应用的变更，需要重建索引
+     */
+    private void onEventLogRemoved(RemovalNotification<Integer, SearchEventLog> notification) {
+        if (!notification.wasEvicted() || notification.getKey() == null || notification.getValue() == null) {
+            return;
+        }
+        UserFileIndex index = partitions.getIfPresent(notification.getKey());
+        if (index != null && index.getAppliedSequence() < notification.getValue().lastSequence()) {
+            partitions.refresh(notification.getKey());
+        }
+    }
+
+    /**
+     * 根据请求构造类型、大小、日期过滤条件
+     */
+    private static Predicate<FileSearchDocument> buildFilter(FileSearchRequest request) {
+        Predicate<FileSearchDocument> filter = document -> true;
+        if (StringUtils.hasText(request.getType())) {
+            boolean folder = switch (request.getType().trim().toLowerCase(Locale.ROOT)) {
+                case "folder" -> true;
+                case "file" -> false;
+                default -> throw new IllegalArgumentException("不支持的类型: " + request.getType());
+            };
+            filter = filter.and(document -> document.folder() == folder);
+        }
+        if (StringUtils.hasText(request.getMimeType())) {
+            String mimeType = request.getMimeType().trim().toLowerCase(Locale.ROOT);
+            if (mimeType.contains("/")) {
+                String prefix = mimeType.endsWith("/*") ? mimeType.substring(0, mimeType.length() - 1) : mimeType;
+                filter = filter.and(document -> document.contentType() != null
+                        && document.contentType().toLowerCase(Locale.ROOT).startsWith(prefix));
+            } else {
+                FileCategoryEnum category = FileCategoryEnum.fromCode(mimeType);
+                if (category == null) {
+                    throw new IllegalArgumentException("不支持的文件分类: " + request.getMimeType());
+                }
+                filter = filter.and(document ->
+                        FileCategoryEnum.fromContentType(document.folder(), document.contentType()) == category);
+            }
+        }
+        Long minSize = request.getMinSize();
+        Long maxSize = request.getMaxSize();
+        if (minSize != null && maxSize != null && minSize > maxSize) {
+            throw new IllegalArgumentException("最小文件大小不能大于最大文件大小");
+        }
+        if (minSize != null) {
+            filter = filter.and(document -> document.fileSize() >= minSize);
+        }
+        if (maxSize != null) {
+            filter = filter.and(document -> document.fileSize() <= maxSize);
+        }
+        if (request.getStartDate() != null && request.getEndDate() != null
+                && request.getStartDate().isAfter(request.getEndDate())) {
+            throw new IllegalArgumentException("开始日期不能晚于结束日期");
+        }
+        if (request.getStartDate() != null) {
+            LocalDateTime from = request.getStartDate().atStartOfDay();
+            filter = filter.and(document -> document.updateTime() != null && !document.updateTime().isBefore(from));
+        }
+        if (request.getEndDate() != null) {
+            LocalDateTime to = request.getEndDate().plusDays(1).atStartOfDay();
+            filter = filter.and(document -> document.updateTime() != null && document.updateTime().isBefore(to));
+        }
+        return filter;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,71 @@
+package com.zfile.module.file.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单个用户最近的索引变更
+ * 索引在搜索前应用序号大于自身已应用序号的变更；超出容量时丢弃最早的变更，
+ * 已应用序号落在被丢弃范围内的索引需要重建
+ */
+final class SearchEventLog {
+
+    /**
+     * @param sequence 本节点内递增的序号
+     * @param event    变更事件
+     */
+    record Entry(long sequence, FileSearchEvent event) {
+    }
+
+    private final ArrayDeque<Entry> entries = new ArrayDeque<>();
+
+    private final int capacity;
+
+    /**
+     * 已丢弃的最大序号
+     */
+    private long droppedSequence;
+
+    SearchEventLog(int capacity) {
+        this.capacity = Math.max(capacity, 1);
+    }
+
+    /**
+     * 记录变更，在同一把锁内分配序号，保证序号与记录顺序一致
+     */
+    synchronized void append(AtomicLong sequence, FileSearchEvent event) {
+        entries.addLast(new Entry(sequence.incrementAndGet(), event));
+        while (entries.size() > capacity) {
+            droppedSequence = entries.removeFirst().sequence();
+        }
+    }
+
+    /**
+     * 是否丢弃过序号大于 sequence 的变更
+     */
+    synchronized boolean hasDropped(long sequence) {
+        return droppedSequence > sequence;
+    }
+
+    /**
+     * 获取序号大于 sequence 的变更，按序号升序
+     */
+    synchronized List<Entry> after(long sequence) {
+        List<Entry> result = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (entry.sequence() > sequence) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 最后一条变更的序号，没有变更时为 0
+     */
+    synchronized long lastSequence() {
+        return entries.isEmpty() ? droppedSequence : entries.getLast().sequence();
+    }
+}
\ No newline at end of file
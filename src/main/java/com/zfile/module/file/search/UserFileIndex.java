@@ -0,0 +1,344 @@
+package com.zfile.module.file.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * 单个用户的文件名倒排索引
+ * 文件按加入顺序分配槽位，倒排表中的槽位递增；删除只清空槽位，清空的槽位多于有效文件时整体重建倒排表。
+ * 词按前缀匹配，前缀没有命中时按编辑距离模糊匹配；中日韩文字按相邻两字精确匹配。
+ * 搜索之间可以并发，应用变更时独占
+ */
+final class UserFileIndex {
+
+    private static final int EXACT_SCORE = 3;
+
+    private static final int PREFIX_SCORE = 2;
+
+    private static final int FUZZY_SCORE = 1;
+
+    /**
+     * 清空的槽位超过该数量且多于有效文件时重建倒排表
+     */
+    private static final int COMPACT_THRESHOLD = 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 槽位 -> 文件，删除的文件为 null
+     */
+    private final List<FileSearchDocument> documents = new ArrayList<>();
+
+    /**
+     * 文件ID -> 槽位
+     */
+    private final Map<Long, Integer> slots = new HashMap<>();
+
+    /**
+     * 词 -> 槽位，有序以便按前缀范围查找
+     */
+    private final TreeMap<String, SlotList> words = new TreeMap<>();
+
+    /**
+     * 中日韩单字和相邻两字 -> 槽位
+     */
+    private final Map<String, SlotList> cjkTerms = new HashMap<>();
+
+    private int removedSlots;
+
+    /**
+     * 已应用的最大变更序号
+     */
+    private long appliedSequence;
+
+    /**
+     * 开始构建的时间（毫秒）
+     */
+    private final long buildTime = System.currentTimeMillis();
+
+    /**
+     * @param appliedSequence 开始读取数据库前的变更序号，之后的变更在搜索前重放
+     */
+    UserFileIndex(long appliedSequence) {
+        this.appliedSequence = appliedSequence;
+    }
+
+    /**
+     * 构建时逐条加入文件
+     */
+    void add(FileSearchDocument document) {
+        lock.writeLock().lock();
+        try {
+            upsert(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return slots.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    long getBuildTime() {
+        return buildTime;
+    }
+
+    long getAppliedSequence() {
+        lock.readLock().lock();
+        try {
+            return appliedSequence;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 按序号顺序应用变更，跳过已应用的变更
+     */
+    void apply(List<SearchEventLog.Entry> entries) {
+        lock.writeLock().lock();
+        try {
+            for (SearchEventLog.Entry entry : entries) {
+                if (entry.sequence() <= appliedSequence) {
+                    continue;
+                }
+                FileSearchEvent event = entry.event();
+                switch (event.action()) {
+                    case UPSERT -> {
+                        upsert(event.document());
+                        if (event.subtreePrefix() != null && event.newSubtreePrefix() != null) {
+                            moveSubtree(event.subtreePrefix(), event.newSubtreePrefix());
+                        }
+                    }
+                    case REMOVE -> removeTree(event.fileId(), event.subtreePrefix());
+                }
+                appliedSequence = entry.sequence();
+            }
+            if (removedSlots > COMPACT_THRESHOLD && removedSlots > slots.size()) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 获取文件夹的子节点祖先路径，用于限定搜索范围
+     *
+     * @param folderId 文件夹ID
+     * @return 子节点祖先路径，文件夹不在索引中时返回 null
+     */
+    String getSubtreePrefix(Long folderId) {
+        lock.readLock().lock();
+        try {
+            Integer slot = slots.get(folderId);
+            FileSearchDocument folder = slot == null ? null : documents.get(slot);
+            if (folder == null || !folder.folder() || folder.ancestorPath() == null) {
+                return null;
+            }
+            return folder.ancestorPath() + folder.id() + "/";
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 搜索文件
+     *
+     * @param terms          查询词，为空时返回所有符合过滤条件的文件
+     * @param filter         过滤条件
+     * @param offset         跳过的结果数
+     * @param limit          返回的结果数
+     * @param fuzzyMinLength 模糊匹配的最小查询词长度
+     * @return 按相关度、更新时间倒序排列的结果
+     */
+    FileSearchHits search(List<FileNameTokenizer.Term> terms, Predicate<FileSearchDocument> filter,
+                          int offset, int limit, int fuzzyMinLength) {
+        lock.readLock().lock();
+        try {
+            int slotCount = documents.size();
+            int[] scores = new int[slotCount];
+            BitSet candidates = null;
+            for (FileNameTokenizer.Term term : terms) {
+                BitSet matched = match(term, scores, fuzzyMinLength);
+                if (candidates == null) {
+                    candidates = matched;
+                } else {
+                    candidates.and(matched);
+                }
+                if (candidates.isEmpty()) {
+                    return FileSearchHits.empty();
+                }
+            }
+
+            List<Integer> hits = new ArrayList<>();
+            if (candidates == null) {
+                for (int slot = 0; slot < slotCount; slot++) {
+                    collect(slot, filter, hits);
+                }
+            } else {
+                for (int slot = candidates.nextSetBit(0); slot >= 0; slot = candidates.nextSetBit(slot + 1)) {
+                    collect(slot, filter, hits);
+                }
+            }
+            hits.sort(Comparator.<Integer>comparingInt(slot -> -scores[slot])
+                    .thenComparing(slot -> documents.get(slot).updateTime(), Comparator.nullsLast(Comparator.reverseOrder()))
+                    .thenComparing(slot -> documents.get(slot).id(), Comparator.reverseOrder()));
+
+            int from = Math.min(offset, hits.size());
+            int to = Math.min(from + limit, hits.size());
+            List<Long> ids = new ArrayList<>(to - from);
+            for (int slot : hits.subList(from, to)) {
+                ids.add(documents.get(slot).id());
+            }
+            return new FileSearchHits(ids, hits.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 查找匹配查询词的槽位，每个槽位按最好的匹配方式累加一次得分
+     */
+    private BitSet match(FileNameTokenizer.Term term, int[] scores, int fuzzyMinLength) {
+        BitSet matched = new BitSet(scores.length);
+        String text = term.text();
+        if (term.cjk()) {
+            mark(cjkTerms.get(text), EXACT_SCORE, matched, scores);
+            return matched;
+        }
+        // 前缀范围内第一个词就是查询词本身，精确匹配先于前缀匹配计分
+        for (Map.Entry<String, SlotList> entry : words.subMap(text, true, text + Character.MAX_VALUE, false).entrySet()) {
+            mark(entry.getValue(), entry.getKey().equals(text) ? EXACT_SCORE : PREFIX_SCORE, matched, scores);
+        }
+        if (matched.isEmpty() && text.length() >= fuzzyMinLength) {
+            int maxEdits = text.length() >= 8 ? 2 : 1;
+            for (Map.Entry<String, SlotList> entry : words.entrySet()) {
+                if (FileNameTokenizer.withinDistance(text, entry.getKey(), maxEdits)) {
+                    mark(entry.getValue(), FUZZY_SCORE, matched, scores);
+                }
+            }
+        }
+        return matched;
+    }
+
+    private static void mark(SlotList slotList, int score, BitSet matched, int[] scores) {
+        if (slotList == null) {
+            return;
+        }
+        for (int i = 0; i < slotList.size; i++) {
+            int slot = slotList.slots[i];
+            if (slot < scores.length && !matched.get(slot)) {
+                matched.set(slot);
+                scores[slot] += score;
+            }
+        }
+    }
+
+    private void collect(int slot, Predicate<FileSearchDocument> filter, List<Integer> hits) {
+        FileSearchDocument document = documents.get(slot);
+        if (document != null && filter.test(document)) {
+            hits.add(slot);
+        }
+    }
+
+    private void upsert(FileSearchDocument document) {
+        Integer slot = slots.get(document.id());
+        if (slot != null) {
+            // 文件名没变时（如移动文件夹）只替换文件，不重新分词
+            if (documents.get(slot).fileName().equals(document.fileName())) {
+                documents.set(slot, document);
+                return;
+            }
+            removeSlot(slot);
+        }
+        insert(document);
+    }
+
+    private void insert(FileSearchDocument document) {
+        int slot = documents.size();
+        documents.add(document);
+        slots.put(document.id(), slot);
+        for (FileNameTokenizer.Term term : FileNameTokenizer.indexTerms(document.fileName())) {
+            (term.cjk() ? cjkTerms : words).computeIfAbsent(term.text(), key -> new SlotList()).add(slot);
+        }
+    }
+
+    private void removeTree(Long fileId, String subtreePrefix) {
+        Integer slot = slots.get(fileId);
+        if (slot != null) {
+            removeSlot(slot);
+        }
+        if (subtreePrefix == null) {
+            return;
+        }
+        for (int i = 0; i < documents.size(); i++) {
+            FileSearchDocument document = documents.get(i);
+            if (document != null && document.ancestorPath() != null && document.ancestorPath().startsWith(subtreePrefix)) {
+                removeSlot(i);
+            }
+        }
+    }
+
+    private void moveSubtree(String oldPrefix, String newPrefix) {
+        for (int i = 0; i < documents.size(); i++) {
+            FileSearchDocument document = documents.get(i);
+            if (document != null && document.ancestorPath() != null && document.ancestorPath().startsWith(oldPrefix)) {
+                documents.set(i, document.withAncestorPath(newPrefix + document.ancestorPath().substring(oldPrefix.length())));
+            }
+        }
+    }
+
+    private void removeSlot(int slot) {
+        FileSearchDocument document = documents.set(slot, null);
+        if (document != null) {
+            slots.remove(document.id());
+            removedSlots++;
+        }
+    }
+
+    private void compact() {
+        List<FileSearchDocument> live = new ArrayList<>(slots.size());
+        for (FileSearchDocument document : documents) {
+            if (document != null) {
+                live.add(document);
+            }
+        }
+        documents.clear();
+        slots.clear();
+        words.clear();
+        cjkTerms.clear();
+        removedSlots = 0;
+        live.forEach(this::insert);
+    }
+
+    /**
+     * 递增的槽位列表，大部分词只对应少量文件，初始容量为 1
+     */
+    private static final class SlotList {
+
+        private int[] slots = new int[1];
+
+        private int size;
+
+        void add(int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            slots[size++] = slot;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,47 @@
+package com.zfile.module.file.service;
+
+import com.zfile.module.file.entity.FileInfo;
+import com.zfile.module.file.request.ChunkUploadRequest;
+import com.zfile.module.file.request.MergeChunksRequest;
+import com.zfile.module.file.response.ChunkUploadResponse;
+import com.zfile.module.file.response.ChunkUploadStatusResponse;
+
+import java.io.InputStream;
+
+/**
+ * 分片上传Service
+ * 分片可以乱序、并发、重复上传；断线后通过 {@link #getChunkUploadStatus} 查询已完成的分片，只上传其余部分。
+ * 目标存储源支持分段上传且客户端提供了文件名时，分片直接作为分段上传到对象存储，合并时由存储服务端拼接；
+ * 否则分片暂存在本地，合并后再保存到存储源。
+ */
+public interface ChunkUploadService {
+
+    /**
+     * 上传一个分片，分片内容边接收边计算 MD5
+     *
+     * @param userId             用户ID
+     * @param chunkUploadRequest 分片参数，会话的上传方式由第一个到达的分片决定
+     * @param input              分片内容
+     * @param size               分片字节数
+     * @return 上传进度
+     */
+    ChunkUploadResponse uploadChunk(Integer userId, ChunkUploadRequest chunkUploadRequest, InputStream input, long size);
+
+    /**
+     * 查询上传进度
+     *
+     * @param userId    用户ID
+     * @param sessionId 上传会话ID
+     * @return 已上传的分片
+     */
+    ChunkUploadStatusResponse getChunkUploadStatus(Integer userId, String sessionId);
+
+    /**
+     * 合并分片并保存到目标文件夹
+     *
+     * @param userId             用户ID
+     * @param mergeChunksRequest 合并请求
+     * @return 新文件信息
+     */
+    FileInfo mergeChunks(Integer userId, MergeChunksRequest mergeChunksRequest);
+}
\ No newline at end of file
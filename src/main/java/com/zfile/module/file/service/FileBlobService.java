@@ -0,0 +1,47 @@
+package com.zfile.module.file.service;
+
+import com.baomidou.mybatisplus.extension.service.IService;
+import com.zfile.module.file.entity.FileBlob;
+
+/**
+ * 针对表【file_blob(文件内容表)】的数据库操作Service
+ * 内容按 MD5、大小和存储源寻址，多个文件共用一份物理文件，由引用数决定何时删除
+ */
+public interface FileBlobService extends IService<FileBlob> {
+
+    /**
+     * 查询存储源中内容相同的文件
+     *
+     * @param storageSourceId 存储源ID
+     * @param fileMd5         文件MD5值
+     * @param fileSize        文件大小
+     * @return 文件内容，不存在时返回 null
+     */
+    FileBlob getFileBlob(Integer storageSourceId, String fileMd5, long fileSize);
+
+    /**
+     * 登记新上传的物理文件，引用数为 1
+     *
+     * @param storageSourceId 存储源ID
+     * @param storagePath     物理文件路径，相对存储源根目录
+     * @param fileMd5         上传时计算的文件MD5值
+     * @param fileSize        文件大小
+     * @return 文件内容，相同内容已被并发登记时返回 null
+     */
+    FileBlob registerFileBlob(Integer storageSourceId, String storagePath, String fileMd5, long fileSize);
+
+    /**
+     * 增加引用
+     *
+     * @param id 文件内容ID
+     * @return 是否成功，内容不存在或即将被删除时返回 false
+     */
+    boolean acquireFileBlob(Long id);
+
+    /**
+     * 减少引用，没有引用时在事务提交后删除物理文件
+     *
+     * @param id 文件内容ID
+     */
+    void releaseFileBlob(Long id);
+}
\ No newline at end of file
@@ -0,0 +1,138 @@
+package com.zfile.module.file.service;
+
+import com.baomidou.mybatisplus.extension.service.IService;
+import com.zfile.module.file.entity.FileInfo;
+import com.zfile.module.file.model.FolderLocation;
+import com.zfile.module.file.model.FolderUsage;
+import com.zfile.module.file.model.StorageObjectLocation;
+import com.zfile.module.file.request.FileSearchRequest;
+import com.zfile.module.file.response.FileSearchResponse;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 针对表【file_info(文件信息表)】的数据库操作Service
+ * 文件夹层级由 ancestor_path 物化路径维护，子树操作都是一条按路径前缀的语句
+ */
+public interface FileInfoService extends IService<FileInfo> {
+
+    /**
+     * 获取用户文件夹的位置
+     *
+     * @param userId   用户ID
+     * @param folderId 文件夹ID，为空、root 或 0 表示根目录，根目录位于用户的第一个启用的存储源
+     * @return 文件夹位置
+     * @throws IllegalArgumentException 文件夹不存在或用户没有可用的存储源
+     */
+    FolderLocation getFolderLocation(Integer userId, String folderId);
+
+    /**
+     * 获取文件夹中不重名的文件名，已存在同名文件时追加序号，如 a (1).txt
+     *
+     * @param userId   用户ID
+     * @param parentId 父文件夹ID
+     * @param fileName 期望的文件名
+     * @return 可用的文件名
+     */
+    String getAvailableFileName(Integer userId, Long parentId, String fileName);
+
+    /**
+     * 获取用户的文件
+     *
+     * @param userId 用户ID
+     * @param fileId 文件ID
+     * @return 文件信息
+     * @throws IllegalArgumentException 文件不存在、不属于该用户或是文件夹
+     */
+    FileInfo getUserFile(Integer userId, Long fileId);
+
+    /**
+     * 获取文件内容所在的位置，引用文件内容的文件由 file_blob 定位
+     *
+     * @param fileInfo 文件信息
+     * @return 存储驱动和路径
+     * @throws IllegalArgumentException 文件内容或存储源不存在
+     */
+    StorageObjectLocation getStorageObjectLocation(FileInfo fileInfo);
+
+    /**
+     * 保存文件信息，按父文件夹填写祖先路径，同时累加存储用量
+     *
+     * @param fileInfo 文件信息
+     * @return 是否保存成功
+     * @throws IllegalArgumentException 父文件夹不存在
+     */
+    @Override
+    boolean save(FileInfo fileInfo);
+
+    /**
+     * 移动文件或文件夹，文件夹连同其中的所有内容一起移动
+     * 只修改层级关系，实际存储路径不变；目标文件夹中有同名文件时自动重命名
+     *
+     * @param userId         用户ID
+     * @param fileId         文件或文件夹ID
+     * @param targetFolderId 目标文件夹ID，root 或 0 表示根目录
+     * @return 移动后的文件信息
+     * @throws IllegalArgumentException 文件不存在、目标文件夹不存在、跨存储源或移动到自身的子文件夹中
+     */
+    FileInfo moveFile(Integer userId, Long fileId, String targetFolderId);
+
+    /**
+     * 删除文件或文件夹（移入回收站），文件夹中的所有内容一起删除，同时减少存储用量
+     *
+     * @param userId 用户ID
+     * @param fileId 文件或文件夹ID
+     * @return 删除的行数
+     * @throws IllegalArgumentException 文件不存在
+     */
+    int removeFileTree(Integer userId, Long fileId);
+
+    /**
+     * 查询在指定时间前移入回收站、可以彻底删除的文件
+     *
+     * @param deletedBefore 删除时间上限
+     * @param limit         最多返回条数
+     * @return 文件ID
+     */
+    List<Long> listPurgeableFileIds(LocalDateTime deletedBefore, int limit);
+
+    /**
+     * 彻底删除回收站中的文件，在同一事务中释放文件内容的引用；
+     * 没有登记文件内容的文件在事务提交后删除物理文件
+     *
+     * @param fileId 文件ID
+     * @return 是否删除，文件已被其他节点清理或已恢复时返回 false
+     */
+    boolean purgeDeletedFile(Long fileId);
+
+    /**
+     * 列出文件夹中的所有内容，包括子文件夹中的内容
+     *
+     * @param userId   用户ID
+     * @param folderId 文件夹ID，root 或 0 表示根目录
+     * @return 按层级排序的文件和文件夹
+     * @throws IllegalArgumentException 文件夹不存在
+     */
+    List<FileInfo> listSubtree(Integer userId, String folderId);
+
+    /**
+     * 统计文件夹占用的空间，包括子文件夹中的文件
+     *
+     * @param userId   用户ID
+     * @param folderId 文件夹ID，root 或 0 表示根目录
+     * @return 文件数和总大小
+     * @throws IllegalArgumentException 文件夹不存在
+     */
+    FolderUsage getFolderUsage(Integer userId, String folderId);
+
+    /**
+     * 按文件名搜索用户的文件，由内存中的文件名索引匹配，再按ID读取当前页的文件信息
+     *
+     * @param userId  用户ID
+     * @param request 关键字、过滤条件和分页
+     * @return 当前页的文件和总数
+     * @throws IllegalArgumentException 过滤条件无效或文件夹不存在
+     */
+    FileSearchResponse pageSearchFiles(Integer userId, FileSearchRequest request);
+}
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.zfile.module.file.service;
+
+import com.zfile.module.file.entity.FileInfo;
+import com.zfile.module.file.request.InstantUploadCheckRequest;
+import com.zfile.module.file.request.InstantUploadRequest;
+import com.zfile.module.file.response.InstantUploadCheckResponse;
+
+/**
+ * 秒传Service
+ * 客户端先提交文件 MD5 和大小，目标存储源中已有相同内容时服务端返回随机抽样范围；
+ * 客户端提交抽样内容的 MD5，校验通过后新文件直接引用已有的物理文件，不需要上传
+ */
+public interface InstantUploadService {
+
+    /**
+     * 查询是否可以秒传，可以时生成校验挑战
+     *
+     * @param userId                    用户ID
+     * @param instantUploadCheckRequest 文件 MD5、大小和目标文件夹
+     * @return 检查结果
+     */
+    InstantUploadCheckResponse getInstantUploadChallenge(Integer userId, InstantUploadCheckRequest instantUploadCheckRequest);
+
+    /**
+     * 校验抽样 MD5 并创建引用已有内容的文件，每个挑战只能提交一次
+     *
+     * @param userId               用户ID
+     * @param instantUploadRequest 挑战ID、抽样 MD5 和文件名
+     * @return 新文件信息
+     * @throws IllegalArgumentException 挑战已过期、校验失败或内容已被删除，客户端应改为正常上传
+     */
+    FileInfo instantUpload(Integer userId, InstantUploadRequest instantUploadRequest);
+}
\ No newline at end of file
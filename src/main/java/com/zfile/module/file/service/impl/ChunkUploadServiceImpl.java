@@ -0,0 +1,688 @@
+package com.zfile.module.file.service.impl;
+
+import com.zfile.module.file.config.FileUploadProperties;
+import com.zfile.module.file.entity.FileBlob;
+import com.zfile.module.file.entity.FileInfo;
+import com.zfile.module.file.model.FolderLocation;
+import com.zfile.module.file.request.ChunkUploadRequest;
+import com.zfile.module.file.request.MergeChunksRequest;
+import com.zfile.module.file.response.ChunkUploadResponse;
+import com.zfile.module.file.response.ChunkUploadStatusResponse;
+import com.zfile.module.file.service.ChunkUploadService;
+import com.zfile.module.file.service.FileBlobService;
+import com.zfile.module.file.service.FileInfoService;
+import com.zfile.module.file.thumbnail.ThumbnailGenerator;
+import com.zfile.module.file.upload.MultipartUploadSession;
+import com.zfile.module.file.upload.UploadHashTracker;
+import com.zfile.module.file.upload.UploadSessionStore;
+import com.zfile.module.file.util.FileInfoUtil;
+import com.zfile.module.storage.driver.MultipartUploadDriver;
+import com.zfile.module.storage.driver.ScopedStorageDriver;
+import com.zfile.module.storage.driver.StorageDriverRegistry;
+import com.zfile.module.storage.driver.StorageFileItem;
+import com.zfile.module.storage.service.StorageUsageService;
+import com.zfile.module.storage.util.StoragePathUtil;
+import com.zfile.module.user.entity.UserStorageSource;
+import com.zfile.module.user.service.UserStorageSourceService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * 分片上传Service实现
+ * 每个分片写入会话临时目录下的独立文件，到达情况记录在 Redis 位图中，
+ * 合并时用 FileChannel.transferTo 在内核中拼接分片，数据不经过 JVM 堆。
+ * 目标为对象存储时分片直接作为分段上传，不经过本地磁盘，合并只需通知存储服务端完成上传；
+ * 同时上传的分段数受信号量限制，避免大量并发分片占满对象存储客户端的连接池。
+ * 整个文件的 MD5 在接收分片时增量计算，合并后登记为文件内容，内容相同的文件只保留一份。
+ * 会话的第一个分片到达时按文件大小预留存储配额，空间不足时不接收任何分片；
+ * 之后每个分片在接收前登记大小，已接收的分片合计超过预留大小时拒绝该分片。
+ * 上传和合并涉及大量 IO，不在数据库事务中执行，避免长时间占用连接。
+ */
+@Service
+public class ChunkUploadServiceImpl implements ChunkUploadService {
+
+    private static final Logger log = LoggerFactory.getLogger(ChunkUploadServiceImpl.class);
+
+    private static final Pattern SESSION_ID_PATTERN = Pattern.compile("[A-Za-z0-9_-]{8,64}");
+
+    private static final Duration MERGE_LOCK_TIMEOUT = Duration.ofMinutes(30);
+
+    private static final String MERGED_FILE_NAME = "merged";
+
+    /**
+     * 每次清理最多取消的分段上传数
+     */
+    private static final int ABORT_BATCH_SIZE = 1000;
+
+    private final UploadSessionStore uploadSessionStore;
+
+    private final FileUploadProperties properties;
+
+    private final FileInfoService fileInfoService;
+
+    private final StorageDriverRegistry storageDriverRegistry;
+
+    private final UserStorageSourceService userStorageSourceService;
+
+    private final UploadHashTracker uploadHashTracker;
+
+    private final FileBlobService fileBlobService;
+
+    private final StorageUsageService storageUsageService;
+
+    private final ThumbnailGenerator thumbnailGenerator;
+
+    private final Semaphore partUploadPermits;
+
+    @Autowired
+    public ChunkUploadServiceImpl(UploadSessionStore uploadSessionStore,
+                                  FileUploadProperties properties,
+                                  FileInfoService fileInfoService,
+                                  StorageDriverRegistry storageDriverRegistry,
+                                  UserStorageSourceService userStorageSourceService,
+                                  UploadHashTracker uploadHashTracker,
+                                  FileBlobService fileBlobService,
+                                  StorageUsageService storageUsageService,
+                                  ThumbnailGenerator thumbnailGenerator) {
+        this.uploadSessionStore = uploadSessionStore;
+        this.properties = properties;
+        this.fileInfoService = fileInfoService;
+        this.storageDriverRegistry = storageDriverRegistry;
+        this.userStorageSourceService = userStorageSourceService;
+        this.uploadHashTracker = uploadHashTracker;
+        this.fileBlobService = fileBlobService;
+        this.storageUsageService = storageUsageService;
+        this.thumbnailGenerator = thumbnailGenerator;
+        this.partUploadPermits = new Semaphore(properties.getMaxConcurrentParts());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ChunkUploadResponse uploadChunk(Integer userId, ChunkUploadRequest chunkUploadRequest, InputStream input, long size) {
+        String sessionId = chunkUploadRequest.getSessionId();
+        int chunkIndex = chunkUploadRequest.getChunkIndex();
+        int totalChunks = chunkUploadRequest.getTotalChunks();
+        validateSessionId(sessionId);
+        if (totalChunks <= 0 || totalChunks > properties.getMaxChunks()) {
+            throw new IllegalArgumentException("总分片数无效: " + totalChunks);
+        }
+        if (chunkIndex < 0 || chunkIndex >= totalChunks) {
+            throw new IllegalArgumentException("分片序号无效: " + chunkIndex);
+        }
+
+        try {
+            boolean created = uploadSessionStore.open(sessionId, userId, totalChunks,
+                    estimateFileSize(chunkUploadRequest, size));
+            if (created) {
+                reserveQuota(userId, sessionId);
+            }
+            if (!uploadSessionStore.addChunkBytes(sessionId, chunkIndex, size)) {
+                throw new IllegalArgumentException("已上传的分片超过文件大小，请重新开始上传");
+            }
+            MultipartUploadSession multipartUploadSession = bindUploadMode(userId, chunkUploadRequest);
+            if (created) {
+                // 本地暂存的分片合并前一直保留；直传时提前到达的分片只为补算 MD5 暂存，算完即删
+                Path sessionDir = sessionDir(sessionId);
+                uploadHashTracker.start(sessionId, index -> partFile(sessionDir, index), multipartUploadSession != null);
+            }
+            String chunkHash = multipartUploadSession != null
+                    ? uploadPart(multipartUploadSession, chunkIndex, totalChunks, chunkUploadRequest.getChunkMd5(), input, size)
+                    : storeChunk(sessionId, chunkIndex, chunkUploadRequest.getChunkMd5(), input);
+
+            long uploadedChunks = uploadSessionStore.markChunk(sessionId, chunkIndex, chunkHash);
+            log.debug("分片上传完成，会话: {}，分片: {}/{}，已上传: {}", sessionId, chunkIndex, totalChunks, uploadedChunks);
+            return new ChunkUploadResponse(sessionId, (int) uploadedChunks, totalChunks, uploadedChunks >= totalChunks);
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("上传分片时发生异常，会话: {}，分片: {}", sessionId, chunkIndex, e);
+            throw new RuntimeException("上传分片失败", e);
+        }
+    }
+
+    @Override
+    public ChunkUploadStatusResponse getChunkUploadStatus(Integer userId, String sessionId) {
+        validateSessionId(sessionId);
+        ChunkUploadStatusResponse response = new ChunkUploadStatusResponse();
+        response.setSessionId(sessionId);
+        Integer totalChunks = uploadSessionStore.getTotalChunks(sessionId, userId);
+        if (totalChunks == null) {
+            response.setUploadedChunkIndexes(List.of());
+            return response;
+        }
+        response.setTotalChunks(totalChunks);
+        response.setUploadedChunkIndexes(uploadSessionStore.listChunks(sessionId, totalChunks));
+        return response;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public FileInfo mergeChunks(Integer userId, MergeChunksRequest mergeChunksRequest) {
+        String sessionId = mergeChunksRequest.getSessionId();
+        validateSessionId(sessionId);
+        String requestedName = FileInfoUtil.normalizeFileName(mergeChunksRequest.getFileName());
+        Integer totalChunks = uploadSessionStore.getTotalChunks(sessionId, userId);
+        if (totalChunks == null) {
+            throw new IllegalArgumentException("上传会话不存在或已过期");
+        }
+        if (!uploadSessionStore.tryLockMerge(sessionId, MERGE_LOCK_TIMEOUT)) {
+            throw new IllegalArgumentException("文件正在合并，请勿重复提交");
+        }
+
+        try {
+            MultipartUploadSession multipartUploadSession = uploadSessionStore.getMultipartUpload(sessionId);
+            FileInfo fileInfo = multipartUploadSession != null
+                    ? completeMultipartUpload(userId, multipartUploadSession, totalChunks, requestedName)
+                    : mergeLocalChunks(userId, sessionId, totalChunks, mergeChunksRequest.getFolderId(), requestedName);
+
+            removeSession(sessionId);
+            storageUsageService.releaseQuota(userId, sessionId);
+            thumbnailGenerator.submit(fileInfo, ThumbnailGenerator.Priority.UPLOAD);
+            log.info("分片合并完成，会话: {}，文件: {}，大小: {}", sessionId, fileInfo.getStoragePath(), fileInfo.getFileSize());
+            return fileInfo;
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("合并分片时发生异常，会话: {}", sessionId, e);
+            throw new RuntimeException("合并分片失败", e);
+        } finally {
+            uploadSessionStore.unlockMerge(sessionId);
+        }
+    }
+
+    /**
+     * 清理已过期会话的临时目录，并取消过期会话在对象存储中未完成的分段上传；
+     * Redis 中的会话数据由过期时间自动清除
+     */
+    @Scheduled(fixedDelayString = "${zfile.file.upload.cleanup-interval:3600000}",
+            initialDelayString = "${zfile.file.upload.cleanup-interval:3600000}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void removeExpiredSessions() {
+        abortExpiredMultipartUploads();
+        Path tempDir = properties.getTempDir();
+        if (!Files.isDirectory(tempDir)) {
+            return;
+        }
+        long expireBefore = System.currentTimeMillis() - properties.getSessionTtl().toMillis();
+        int removed = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(tempDir)) {
+            for (Path sessionDir : stream) {
+                String sessionId = sessionDir.getFileName().toString();
+                if (Files.getLastModifiedTime(sessionDir).toMillis() < expireBefore && !uploadSessionStore.exists(sessionId)) {
+                    FileSystemUtils.deleteRecursively(sessionDir);
+                    removed++;
+                }
+            }
+        } catch (Exception e) {
+            log.warn("清理过期上传会话失败", e);
+        }
+        if (removed > 0) {
+            log.info("已清理 {} 个过期上传会话", removed);
+        }
+    }
+
+    /**
+     * 会话的文件大小，客户端未提供时按第一个到达的分片大小乘以总分片数估算
+     */
+    private static long estimateFileSize(ChunkUploadRequest chunkUploadRequest, long size) {
+        return chunkUploadRequest.getFileSize() != null
+                ? chunkUploadRequest.getFileSize()
+                : size * chunkUploadRequest.getTotalChunks();
+    }
+
+    /**
+     * 会话开始时按会话记录的文件大小预留存储配额，空间不足时删除刚创建的会话
+     */
+    private void reserveQuota(Integer userId, String sessionId) {
+        Long fileSize = uploadSessionStore.getReservedBytes(sessionId);
+        try {
+            storageUsageService.reserveQuota(userId, sessionId, fileSize == null ? 0 : fileSize);
+        } catch (IllegalArgumentException e) {
+            removeSession(sessionId);
+            throw e;
+        }
+    }
+
+    /**
+     * 确定会话的上传方式，由第一个到达的分片决定，之后的分片沿用
+     *
+     * @return 分段上传会话，分片暂存本地时返回 null
+     */
+    private MultipartUploadSession bindUploadMode(Integer userId, ChunkUploadRequest chunkUploadRequest) throws IOException {
+        String sessionId = chunkUploadRequest.getSessionId();
+        if (!uploadSessionStore.isUploadModeBound(sessionId)) {
+            // 旧客户端不提供文件名，无法提前确定目标位置，只能暂存本地
+            if (!StringUtils.hasText(chunkUploadRequest.getFileName())) {
+                uploadSessionStore.bindLocalUpload(sessionId);
+                return uploadSessionStore.getMultipartUpload(sessionId);
+            }
+            FolderLocation folder = fileInfoService.getFolderLocation(userId, chunkUploadRequest.getFolderId());
+            ScopedStorageDriver driver = storageDriverRegistry.getDriver(folder.userStorageSource());
+            if (!driver.isMultipartUploadSupported()) {
+                uploadSessionStore.bindLocalUpload(sessionId);
+                return uploadSessionStore.getMultipartUpload(sessionId);
+            }
+            // 对象 key 带上会话ID，同名文件并发上传时不会互相覆盖，显示的文件名以 file_info 为准
+            String fileName = FileInfoUtil.normalizeFileName(chunkUploadRequest.getFileName());
+            String path = StoragePathUtil.join(folder.path(), sessionId + "_" + fileName);
+            String uploadId = driver.createMultipartUpload(path);
+            MultipartUploadSession multipartUploadSession = new MultipartUploadSession(sessionId,
+                    folder.userStorageSource().getId(), folder.folderId(), fileName, path, uploadId);
+            if (uploadSessionStore.bindMultipartUpload(multipartUploadSession)) {
+                log.info("开始分段上传，会话: {}，路径: {}", sessionId, path);
+            } else {
+                // 并发到达的其他分片已经确定了上传方式
+                driver.abortMultipartUpload(path, uploadId);
+            }
+        }
+        return uploadSessionStore.getMultipartUpload(sessionId);
+    }
+
+    /**
+     * 分片暂存到本地临时目录
+     *
+     * @return 分片 MD5
+     */
+    private String storeChunk(String sessionId, int chunkIndex, String chunkMd5, InputStream input) throws IOException {
+        MessageDigest fileDigest = uploadHashTracker.begin(sessionId, chunkIndex);
+        boolean success = false;
+        try {
+            MessageDigest digest = newMd5();
+            String chunkHash = writeChunk(sessionId, chunkIndex, chunkMd5, digestInput(input, digest, fileDigest), digest);
+            success = true;
+            return chunkHash;
+        } finally {
+            uploadHashTracker.finish(sessionId, chunkIndex, success);
+        }
+    }
+
+    /**
+     * 分片写入本地文件，校验通过后原子替换为正式的分片文件，中断的上传不会留下半个分片
+     *
+     * @return 分片 MD5
+     */
+    private String writeChunk(String sessionId, int chunkIndex, String chunkMd5, InputStream input,
+                              MessageDigest digest) throws IOException {
+        Path temp = newTempChunk(sessionId, chunkIndex);
+        String chunkHash = receiveChunk(sessionId, chunkIndex, chunkMd5, input, digest, temp);
+        publishChunk(sessionId, chunkIndex, temp);
+        return chunkHash;
+    }
+
+    private Path newTempChunk(String sessionId, int chunkIndex) throws IOException {
+        Path sessionDir = sessionDir(sessionId);
+        Files.createDirectories(sessionDir);
+        return sessionDir.resolve(chunkIndex + ".part." + UUID.randomUUID() + ".tmp");
+    }
+
+    /**
+     * 分片写入临时文件并校验，失败时删除临时文件
+     *
+     * @return 分片 MD5
+     */
+    private String receiveChunk(String sessionId, int chunkIndex, String chunkMd5, InputStream input,
+                                MessageDigest digest, Path temp) throws IOException {
+        try (OutputStream output = Files.newOutputStream(temp, StandardOpenOption.CREATE_NEW)) {
+            input.transferTo(output);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        String chunkHash = HexFormat.of().formatHex(digest.digest());
+        if (!checkChunkMd5(sessionId, chunkIndex, chunkMd5, chunkHash)) {
+            Files.deleteIfExists(temp);
+            throw new IllegalArgumentException("分片校验失败，请重新上传分片 " + chunkIndex);
+        }
+        return chunkHash;
+    }
+
+    /**
+     * 临时文件原子替换为正式的分片文件，替换后补算文件 MD5 时随时可能读取该分片
+     */
+    private void publishChunk(String sessionId, int chunkIndex, Path temp) throws IOException {
+        Files.move(temp, partFile(sessionDir(sessionId), chunkIndex),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 接收分片的同时计算分片 MD5，轮到该分片时同时更新整个文件的 MD5
+     */
+    private static InputStream digestInput(InputStream input, MessageDigest digest, MessageDigest fileDigest) {
+        InputStream digestInput = new DigestInputStream(input, digest);
+        return fileDigest == null ? digestInput : new DigestInputStream(digestInput, fileDigest);
+    }
+
+    /**
+     * 分片直接作为分段上传到对象存储，分段号为分片序号加一
+     *
+     * @return 分片 MD5
+     */
+    private String uploadPart(MultipartUploadSession multipartUploadSession, int chunkIndex, int totalChunks,
+                              String chunkMd5, InputStream input, long size) throws IOException, InterruptedException {
+        if (chunkIndex < totalChunks - 1 && size < MultipartUploadDriver.MIN_PART_SIZE) {
+            throw new IllegalArgumentException("上传到对象存储时，除最后一个分片外每个分片不能小于 5MB");
+        }
+        ScopedStorageDriver driver = getMultipartDriver(multipartUploadSession);
+        if (!partUploadPermits.tryAcquire(properties.getPartAcquireTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+            throw new IllegalArgumentException("上传繁忙，请稍后重试");
+        }
+        String sessionId = multipartUploadSession.sessionId();
+        MessageDigest fileDigest = uploadHashTracker.begin(sessionId, chunkIndex);
+        boolean success = false;
+        try {
+            MessageDigest digest = newMd5();
+            String chunkHash;
+            String eTag;
+            if (fileDigest == null && uploadHashTracker.isPending(sessionId, chunkIndex)) {
+                // 提前到达的分片先暂存到本地再上传，等前面的分片完成后从暂存文件补算文件 MD5。
+                // 补算后分片文件会被删除，因此从临时文件上传，上传完成后才替换为正式的分片文件
+                Path temp = newTempChunk(sessionId, chunkIndex);
+                try {
+                    chunkHash = receiveChunk(sessionId, chunkIndex, chunkMd5, new DigestInputStream(input, digest),
+                            digest, temp);
+                    try (InputStream partInput = Files.newInputStream(temp)) {
+                        eTag = driver.uploadPart(multipartUploadSession.path(), multipartUploadSession.uploadId(),
+                                chunkIndex + 1, partInput, size);
+                    }
+                    publishChunk(sessionId, chunkIndex, temp);
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+            } else {
+                eTag = driver.uploadPart(multipartUploadSession.path(), multipartUploadSession.uploadId(),
+                        chunkIndex + 1, digestInput(input, digest, fileDigest), size);
+                chunkHash = HexFormat.of().formatHex(digest.digest());
+                // 校验失败的分段不记录 ETag，客户端重传同一分段号时会覆盖
+                if (!checkChunkMd5(sessionId, chunkIndex, chunkMd5, chunkHash)) {
+                    throw new IllegalArgumentException("分片校验失败，请重新上传分片 " + chunkIndex);
+                }
+            }
+            uploadSessionStore.putPartETag(sessionId, chunkIndex, eTag);
+            success = true;
+            return chunkHash;
+        } finally {
+            uploadHashTracker.finish(sessionId, chunkIndex, success);
+            partUploadPermits.release();
+        }
+    }
+
+    private boolean checkChunkMd5(String sessionId, int chunkIndex, String expected, String actual) {
+        if (StringUtils.hasText(expected) && !actual.equalsIgnoreCase(expected.trim())) {
+            log.warn("分片校验失败，会话: {}，分片: {}，期望: {}，实际: {}", sessionId, chunkIndex, expected, actual);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 拼接本地分片并保存到目标文件夹
+     */
+    private FileInfo mergeLocalChunks(Integer userId, String sessionId, int totalChunks, String folderId,
+                                      String requestedName) throws IOException {
+        Path sessionDir = sessionDir(sessionId);
+        checkAllChunksPresent(sessionId, sessionDir, totalChunks);
+
+        FolderLocation folder = fileInfoService.getFolderLocation(userId, folderId);
+        Path merged = sessionDir.resolve(MERGED_FILE_NAME);
+        long fileSize = mergeParts(sessionDir, totalChunks, merged);
+
+        ScopedStorageDriver driver = storageDriverRegistry.getDriver(folder.userStorageSource());
+        String fileName = fileInfoService.getAvailableFileName(userId, folder.folderId(), requestedName);
+        String storagePath = StoragePathUtil.join(folder.path(), fileName);
+        driver.moveFrom(storagePath, merged);
+
+        FileInfo fileInfo = FileInfoUtil.newFile(userId, folder.folderId(), folder.path(),
+                folder.userStorageSource().getId(), fileName, fileSize, driver.getType().getCode());
+        fileInfo.setStoragePath(storagePath);
+        fileInfo.setFileMd5(uploadHashTracker.result(sessionId, totalChunks));
+        saveFileInfo(fileInfo, driver, folder.userStorageSource().getStorageSourceId(), sessionId);
+        return fileInfo;
+    }
+
+    /**
+     * 通知对象存储拼接已上传的分段，文件保存在开始上传时确定的文件夹
+     */
+    private FileInfo completeMultipartUpload(Integer userId, MultipartUploadSession multipartUploadSession,
+                                             int totalChunks, String requestedName) throws IOException {
+        String sessionId = multipartUploadSession.sessionId();
+        Set<Integer> uploaded = new HashSet<>(uploadSessionStore.listChunks(sessionId, totalChunks));
+        SortedMap<Integer, String> eTags = uploadSessionStore.getPartETags(sessionId);
+        SortedMap<Integer, String> parts = new TreeMap<>();
+        List<Integer> missing = new ArrayList<>();
+        for (int i = 0; i < totalChunks; i++) {
+            String eTag = eTags.get(i);
+            if (uploaded.contains(i) && eTag == null) {
+                uploadSessionStore.unmarkChunk(sessionId, i);
+            }
+            if (!uploaded.contains(i) || eTag == null) {
+                missing.add(i);
+            } else {
+                parts.put(i + 1, eTag);
+            }
+        }
+        checkNoMissingChunks(missing);
+
+        UserStorageSource userStorageSource = getUserStorageSource(multipartUploadSession);
+        ScopedStorageDriver driver = storageDriverRegistry.getDriver(userStorageSource);
+        String path = multipartUploadSession.path();
+        driver.completeMultipartUpload(path, multipartUploadSession.uploadId(), parts);
+        uploadSessionStore.untrackMultipartUpload(sessionId);
+
+        StorageFileItem item = driver.stat(path);
+        long fileSize = item == null ? 0 : item.getSize();
+        String fileName = fileInfoService.getAvailableFileName(userId, multipartUploadSession.folderId(), requestedName);
+        FileInfo fileInfo = FileInfoUtil.newFile(userId, multipartUploadSession.folderId(), StoragePathUtil.parent(path),
+                userStorageSource.getId(), fileName, fileSize, driver.getType().getCode());
+        fileInfo.setStoragePath(path);
+        fileInfo.setFileMd5(uploadHashTracker.result(sessionId, totalChunks));
+        saveFileInfo(fileInfo, driver, userStorageSource.getStorageSourceId(), sessionId);
+        return fileInfo;
+    }
+
+    /**
+     * 保存文件信息并登记文件内容
+     * 存储源中已有相同内容时引用已有的物理文件，删除刚保存的副本。
+     * 保存前按实际大小重新预留配额，客户端少报文件大小时不会超出配额
+     *
+     * @param storageSourceId 存储源ID，文件内容按存储源去重
+     * @param sessionId       上传会话ID，即配额预留ID
+     */
+    private void saveFileInfo(FileInfo fileInfo, ScopedStorageDriver driver, Integer storageSourceId,
+                              String sessionId) throws IOException {
+        String duplicatePath = null;
+        if (fileInfo.getFileMd5() != null) {
+            FileBlob existing = fileBlobService.getFileBlob(storageSourceId, fileInfo.getFileMd5(), fileInfo.getFileSize());
+            if (existing != null && fileBlobService.acquireFileBlob(existing.getId())) {
+                duplicatePath = fileInfo.getStoragePath();
+                fileInfo.setBlobId(existing.getId());
+                fileInfo.setStoragePath(null);
+            } else {
+                FileBlob fileBlob = fileBlobService.registerFileBlob(storageSourceId,
+                        driver.resolve(fileInfo.getStoragePath()), fileInfo.getFileMd5(), fileInfo.getFileSize());
+                if (fileBlob != null) {
+                    fileInfo.setBlobId(fileBlob.getId());
+                }
+            }
+        }
+
+        try {
+            storageUsageService.reserveQuota(fileInfo.getUserId(), sessionId, fileInfo.getFileSize());
+            fileInfoService.save(fileInfo);
+        } catch (Exception e) {
+            // 记录写入失败时释放引用或删除已保存的文件，避免产生无主文件
+            if (fileInfo.getBlobId() != null) {
+                fileBlobService.releaseFileBlob(fileInfo.getBlobId());
+            }
+            if (fileInfo.getBlobId() == null || duplicatePath != null) {
+                driver.delete(duplicatePath != null ? duplicatePath : fileInfo.getStoragePath());
+            }
+            throw e;
+        }
+
+        if (duplicatePath != null) {
+            try {
+                driver.delete(duplicatePath);
+                log.info("存储源中已有相同内容，删除重复文件: {}", duplicatePath);
+            } catch (IOException e) {
+                log.warn("删除重复文件失败: {}", duplicatePath, e);
+            }
+        }
+    }
+
+    /**
+     * 取消已过期会话的分段上传，释放对象存储中已上传分段占用的空间。
+     * 先取消再移除登记，取消失败的留到下次清理；多个节点重复取消不会出错
+     */
+    private void abortExpiredMultipartUploads() {
+        int aborted = 0;
+        try {
+            for (MultipartUploadSession multipartUploadSession : uploadSessionStore.listExpiredMultipartUploads(ABORT_BATCH_SIZE)) {
+                String sessionId = multipartUploadSession.sessionId();
+                if (uploadSessionStore.exists(sessionId)) {
+                    continue;
+                }
+                try {
+                    storageDriverRegistry.getDriver(getUserStorageSource(multipartUploadSession))
+                            .abortMultipartUpload(multipartUploadSession.path(), multipartUploadSession.uploadId());
+                    uploadSessionStore.untrackMultipartUpload(sessionId);
+                    aborted++;
+                } catch (IllegalArgumentException e) {
+                    // 存储源已删除，分段随存储源一起失效
+                    uploadSessionStore.untrackMultipartUpload(sessionId);
+                } catch (Exception e) {
+                    log.warn("取消分段上传失败，会话: {}，路径: {}", sessionId, multipartUploadSession.path(), e);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("清理过期分段上传失败", e);
+        }
+        if (aborted > 0) {
+            log.info("已取消 {} 个过期分段上传", aborted);
+        }
+    }
+
+    private ScopedStorageDriver getMultipartDriver(MultipartUploadSession multipartUploadSession) {
+        return storageDriverRegistry.getDriver(getUserStorageSource(multipartUploadSession));
+    }
+
+    private UserStorageSource getUserStorageSource(MultipartUploadSession multipartUploadSession) {
+        UserStorageSource userStorageSource = userStorageSourceService.getById(multipartUploadSession.userStorageSourceId());
+        if (userStorageSource == null) {
+            throw new IllegalArgumentException("存储源不存在");
+        }
+        return userStorageSource;
+    }
+
+    /**
+     * 检查分片文件是否齐全，位图已标记但文件丢失的分片清除标记，客户端查询进度后会重新上传
+     */
+    private void checkAllChunksPresent(String sessionId, Path sessionDir, int totalChunks) {
+        Set<Integer> uploaded = new HashSet<>(uploadSessionStore.listChunks(sessionId, totalChunks));
+        List<Integer> missing = new ArrayList<>();
+        for (int i = 0; i < totalChunks; i++) {
+            boolean exists = Files.exists(partFile(sessionDir, i));
+            if (uploaded.contains(i) && !exists) {
+                uploadSessionStore.unmarkChunk(sessionId, i);
+            }
+            if (!uploaded.contains(i) || !exists) {
+                missing.add(i);
+            }
+        }
+        checkNoMissingChunks(missing);
+    }
+
+    private static void checkNoMissingChunks(List<Integer> missing) {
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("分片不完整，缺少 " + missing.size() + " 个分片: "
+                    + missing.subList(0, Math.min(missing.size(), 20)));
+        }
+    }
+
+    /**
+     * 按顺序拼接分片，transferTo 在 Linux 上使用 copy_file_range/sendfile，由内核完成复制
+     *
+     * @return 合并后的文件大小
+     */
+    private long mergeParts(Path sessionDir, int totalChunks, Path merged) throws IOException {
+        Files.deleteIfExists(merged);
+        long position = 0;
+        try (FileChannel output = FileChannel.open(merged, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            for (int i = 0; i < totalChunks; i++) {
+                try (FileChannel input = FileChannel.open(partFile(sessionDir, i), StandardOpenOption.READ)) {
+                    long size = input.size();
+                    long transferred = 0;
+                    while (transferred < size) {
+                        transferred += input.transferTo(transferred, size - transferred, output);
+                    }
+                    position += size;
+                }
+            }
+            output.force(false);
+        }
+        return position;
+    }
+
+    private void removeSession(String sessionId) {
+        uploadSessionStore.remove(sessionId);
+        uploadHashTracker.remove(sessionId);
+        try {
+            FileSystemUtils.deleteRecursively(sessionDir(sessionId));
+        } catch (IOException e) {
+            log.warn("删除上传会话临时目录失败，会话: {}", sessionId, e);
+        }
+    }
+
+    private Path sessionDir(String sessionId) {
+        return properties.getTempDir().resolve(sessionId);
+    }
+
+    private static Path partFile(Path sessionDir, int chunkIndex) {
+        return sessionDir.resolve(chunkIndex + ".part");
+    }
+
+    private static void validateSessionId(String sessionId) {
+        if (sessionId == null || !SESSION_ID_PATTERN.matcher(sessionId).matches()) {
+            throw new IllegalArgumentException("上传会话ID无效");
+        }
+    }
+
+    private static MessageDigest newMd5() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
\ No newline at end of file
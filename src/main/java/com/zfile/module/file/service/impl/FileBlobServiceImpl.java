@@ -0,0 +1,93 @@
+package com.zfile.module.file.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.zfile.module.file.entity.FileBlob;
+import com.zfile.module.file.mapper.FileBlobMapper;
+import com.zfile.module.file.service.FileBlobService;
+import com.zfile.module.storage.driver.StorageDriverRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 针对表【file_blob(文件内容表)】的数据库操作Service实现
+ */
+@Service
+public class FileBlobServiceImpl extends ServiceImpl<FileBlobMapper, FileBlob> implements FileBlobService {
+
+    private static final Logger log = LoggerFactory.getLogger(FileBlobServiceImpl.class);
+
+    private final StorageDriverRegistry storageDriverRegistry;
+
+    @Autowired
+    public FileBlobServiceImpl(StorageDriverRegistry storageDriverRegistry) {
+        this.storageDriverRegistry = storageDriverRegistry;
+    }
+
+    @Override
+    public FileBlob getFileBlob(Integer storageSourceId, String fileMd5, long fileSize) {
+        QueryWrapper<FileBlob> queryWrapper = new QueryWrapper<>();
+        queryWrapper.eq("file_md5", fileMd5.toLowerCase())
+                .eq("file_size", fileSize)
+                .eq("storage_source_id", storageSourceId);
+        return this.getOne(queryWrapper);
+    }
+
+    @Override
+    public FileBlob registerFileBlob(Integer storageSourceId, String storagePath, String fileMd5, long fileSize) {
+        FileBlob fileBlob = new FileBlob();
+        fileBlob.setStorageSourceId(storageSourceId);
+        fileBlob.setStoragePath(storagePath);
+        fileBlob.setFileMd5(fileMd5.toLowerCase());
+        fileBlob.setFileSize(fileSize);
+        fileBlob.setRefCount(1);
+        try {
+            this.save(fileBlob);
+            return fileBlob;
+        } catch (DuplicateKeyException e) {
+            log.debug("相同内容已被登记，存储源: {}，MD5: {}，大小: {}", storageSourceId, fileMd5, fileSize);
+            return null;
+        }
+    }
+
+    @Override
+    public boolean acquireFileBlob(Long id) {
+        return baseMapper.incrementRefCount(id) > 0;
+    }
+
+    @Override
+    public void releaseFileBlob(Long id) {
+        FileBlob fileBlob = this.getById(id);
+        if (fileBlob == null || baseMapper.decrementRefCount(id) == 0) {
+            return;
+        }
+        // 引用数降为 0 后不能再被引用，删除成功说明没有并发的新引用
+        if (baseMapper.deleteUnreferenced(id) == 0) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            deletePhysicalFile(fileBlob);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                deletePhysicalFile(fileBlob);
+            }
+        });
+    }
+
+    private void deletePhysicalFile(FileBlob fileBlob) {
+        try {
+            storageDriverRegistry.getDriver(fileBlob.getStorageSourceId()).delete(fileBlob.getStoragePath());
+            log.info("文件内容已无引用，删除物理文件，存储源: {}，路径: {}", fileBlob.getStorageSourceId(), fileBlob.getStoragePath());
+        } catch (Exception e) {
+            log.warn("删除物理文件失败，存储源: {}，路径: {}", fileBlob.getStorageSourceId(), fileBlob.getStoragePath(), e);
+        }
+    }
+}
\ No newline at end of file
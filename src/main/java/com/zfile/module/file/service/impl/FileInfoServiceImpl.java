@@ -0,0 +1,423 @@
+package com.zfile.module.file.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.zfile.module.file.convert.FileInfoConvert;
+import com.zfile.module.file.entity.FileBlob;
+import com.zfile.module.file.entity.FileInfo;
+import com.zfile.module.file.mapper.FileInfoMapper;
+import com.zfile.module.file.model.ContentUsage;
+import com.zfile.module.file.model.FolderLocation;
+import com.zfile.module.file.model.FolderUsage;
+import com.zfile.module.file.model.StorageObjectLocation;
+import com.zfile.module.file.request.FileSearchRequest;
+import com.zfile.module.file.response.FileItemResponse;
+import com.zfile.module.file.response.FileSearchResponse;
+import com.zfile.module.file.search.FileSearchHits;
+import com.zfile.module.file.search.FileSearchIndex;
+import com.zfile.module.file.service.FileBlobService;
+import com.zfile.module.file.service.FileInfoService;
+import com.zfile.module.file.thumbnail.ThumbnailGenerator;
+import com.zfile.module.share.service.FileShareService;
+import com.zfile.module.storage.driver.StorageDriverRegistry;
+import com.zfile.module.storage.service.StorageUsageService;
+import com.zfile.module.user.entity.UserStorageSource;
+import com.zfile.module.user.service.UserStorageSourceService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 针对表【file_info(文件信息表)】的数据库操作Service实现
+ */
+@Service
+public class FileInfoServiceImpl extends ServiceImpl<FileInfoMapper, FileInfo> implements FileInfoService {
+
+    private static final Logger log = LoggerFactory.getLogger(FileInfoServiceImpl.class);
+
+    private static final String ROOT_FOLDER_ID = "root";
+
+    /**
+     * 根目录下文件的祖先路径
+     */
+    private static final String ROOT_ANCESTOR_PATH = "/";
+
+    private final UserStorageSourceService userStorageSourceService;
+
+    private final FileBlobService fileBlobService;
+
+    private final StorageDriverRegistry storageDriverRegistry;
+
+    private final StorageUsageService storageUsageService;
+
+    private final FileSearchIndex fileSearchIndex;
+
+    private final FileShareService fileShareService;
+
+    @Autowired
+    public FileInfoServiceImpl(UserStorageSourceService userStorageSourceService, FileBlobService fileBlobService,
+                               StorageDriverRegistry storageDriverRegistry, StorageUsageService storageUsageService,
+                               FileSearchIndex fileSearchIndex, FileShareService fileShareService) {
+        this.userStorageSourceService = userStorageSourceService;
+        this.fileBlobService = fileBlobService;
+        this.storageDriverRegistry = storageDriverRegistry;
+        this.storageUsageService = storageUsageService;
+        this.fileSearchIndex = fileSearchIndex;
+        this.fileShareService = fileShareService;
+    }
+
+    @Override
+    public FolderLocation getFolderLocation(Integer userId, String folderId) {
+        if (!StringUtils.hasText(folderId) || ROOT_FOLDER_ID.equals(folderId) || "0".equals(folderId)) {
+            UserStorageSource userStorageSource = userStorageSourceService.listUserStorageSourcesByUserId(userId).stream()
+                    .filter(source -> Boolean.TRUE.equals(source.getEnable()))
+                    .min(Comparator.comparing(UserStorageSource::getId))
+                    .orElseThrow(() -> new IllegalArgumentException("用户没有可用的存储源"));
+            return new FolderLocation(FileInfo.ROOT_PARENT_ID, userStorageSource, "");
+        }
+
+        long id;
+        try {
+            id = Long.parseLong(folderId);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("文件夹不存在: " + folderId);
+        }
+        QueryWrapper<FileInfo> queryWrapper = new QueryWrapper<>();
+        queryWrapper.eq("id", id).eq("user_id", userId).eq("is_folder", 1);
+        FileInfo folder = this.getOne(queryWrapper);
+        if (folder == null) {
+            throw new IllegalArgumentException("文件夹不存在: " + folderId);
+        }
+        UserStorageSource userStorageSource = userStorageSourceService.getById(folder.getStorageSourceId());
+        if (userStorageSource == null) {
+            log.warn("文件夹所在的用户存储源不存在，文件夹ID: {}，存储源ID: {}", id, folder.getStorageSourceId());
+            throw new IllegalArgumentException("文件夹所在的存储源不存在");
+        }
+        return new FolderLocation(folder.getId(), userStorageSource, folder.getStoragePath());
+    }
+
+    @Override
+    public String getAvailableFileName(Integer userId, Long parentId, String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        String baseName = dot > 0 ? fileName.substring(0, dot) : fileName;
+        String extension = dot > 0 ? fileName.substring(dot) : "";
+
+        QueryWrapper<FileInfo> queryWrapper = new QueryWrapper<>();
+        queryWrapper.select("file_name")
+                .eq("user_id", userId)
+                .eq("parent_id", parentId)
+                .likeRight("file_name", baseName);
+        Set<String> existing = new HashSet<>();
+        for (FileInfo fileInfo : this.list(queryWrapper)) {
+            existing.add(fileInfo.getFileName());
+        }
+
+        String candidate = fileName;
+        for (int i = 1; existing.contains(candidate); i++) {
+            candidate = baseName + " (" + i + ")" + extension;
+        }
+        return candidate;
+    }
+
+    @Override
+    public FileInfo getUserFile(Integer userId, Long fileId) {
+        QueryWrapper<FileInfo> queryWrapper = new QueryWrapper<>();
+        queryWrapper.eq("id", fileId).eq("user_id", userId).eq("is_folder", 0);
+        FileInfo fileInfo = this.getOne(queryWrapper);
+        if (fileInfo == null) {
+            throw new IllegalArgumentException("文件不存在: " + fileId);
+        }
+        return fileInfo;
+    }
+
+    @Override
+    public StorageObjectLocation getStorageObjectLocation(FileInfo fileInfo) {
+        if (fileInfo.getBlobId() != null) {
+            FileBlob fileBlob = fileBlobService.getById(fileInfo.getBlobId());
+            if (fileBlob == null) {
+                log.warn("文件引用的内容不存在，文件ID: {}，文件内容ID: {}", fileInfo.getId(), fileInfo.getBlobId());
+                throw new IllegalArgumentException("文件内容不存在");
+            }
+            return new StorageObjectLocation(storageDriverRegistry.getDriver(fileBlob.getStorageSourceId()),
+                    fileBlob.getStoragePath());
+        }
+        UserStorageSource userStorageSource = userStorageSourceService.getById(fileInfo.getStorageSourceId());
+        if (userStorageSource == null) {
+            log.warn("文件所在的用户存储源不存在，文件ID: {}，存储源ID: {}", fileInfo.getId(), fileInfo.getStorageSourceId());
+            throw new IllegalArgumentException("文件所在的存储源不存在");
+        }
+        return new StorageObjectLocation(storageDriverRegistry.getDriver(userStorageSource), fileInfo.getStoragePath());
+    }
+
+    /**
+     * 读取父文件夹时加行锁，与移动父文件夹的事务串行执行，保证新文件的祖先路径与父文件夹一致；
+     * 存储用量在同一事务中累加；可以生成缩略图的文件写入缩略图地址，缩略图生成前该地址返回占位图；
+     * 事务提交后加入搜索索引
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public boolean save(FileInfo fileInfo) {
+        fileInfo.setAncestorPath(getChildAncestorPath(fileInfo.getUserId(), fileInfo.getParentId(), true));
+        boolean saved = super.save(fileInfo);
+        if (saved) {
+            storageUsageService.addUsage(fileInfo.getUserId(), List.of(ContentUsage.of(fileInfo)));
+            // 缩略图按内容 MD5 生成和缓存，上传时未能算出 MD5 的文件没有缩略图
+            if (!Integer.valueOf(1).equals(fileInfo.getIsFolder()) && fileInfo.getFileMd5() != null
+                    && ThumbnailGenerator.isSupported(fileInfo.getContentType())) {
+                // 缩略图地址包含文件ID，插入后才能确定
+                fileInfo.setThumbnailUrl(ThumbnailGenerator.thumbnailUrl(fileInfo.getId()));
+                UpdateWrapper<FileInfo> updateWrapper = new UpdateWrapper<>();
+                updateWrapper.eq("id", fileInfo.getId()).set("thumbnail_url", fileInfo.getThumbnailUrl());
+                this.update(updateWrapper);
+            }
+            fileSearchIndex.onSaved(fileInfo);
+        }
+        return saved;
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public FileInfo moveFile(Integer userId, Long fileId, String targetFolderId) {
+        QueryWrapper<FileInfo> queryWrapper = new QueryWrapper<>();
+        queryWrapper.eq("id", fileId).eq("user_id", userId).last("FOR UPDATE");
+        FileInfo fileInfo = this.getOne(queryWrapper);
+        if (fileInfo == null) {
+            throw new IllegalArgumentException("文件不存在: " + fileId);
+        }
+        Long targetId = parseFolderId(targetFolderId);
+        if (Objects.equals(targetId, fileInfo.getParentId())) {
+            return fileInfo;
+        }
+        // 根目录可以存放各个存储源的文件，其他文件夹只能存放所在存储源的文件
+        if (targetId != FileInfo.ROOT_PARENT_ID) {
+            FolderLocation target = getFolderLocation(userId, targetFolderId);
+            if (!Objects.equals(target.userStorageSource().getId(), fileInfo.getStorageSourceId())) {
+                throw new IllegalArgumentException("不能移动到其他存储源的文件夹中");
+            }
+        }
+
+        String newAncestorPath = getChildAncestorPath(userId, targetId, true);
+        boolean folder = Integer.valueOf(1).equals(fileInfo.getIsFolder());
+        String oldPrefix = fileInfo.getAncestorPath() + fileInfo.getId() + "/";
+        if (folder && newAncestorPath.startsWith(oldPrefix)) {
+            throw new IllegalArgumentException("不能将文件夹移动到自身或其子文件夹中");
+        }
+
+        String fileName = getAvailableFileName(userId, targetId, fileInfo.getFileName());
+        UpdateWrapper<FileInfo> updateWrapper = new UpdateWrapper<>();
+        updateWrapper.eq("id", fileId)
+                .set("parent_id", targetId)
+                .set("ancestor_path", newAncestorPath)
+                .set("file_name", fileName);
+        this.update(updateWrapper);
+        if (folder) {
+            int moved = this.baseMapper.updateAncestorPathPrefix(userId, oldPrefix, newAncestorPath + fileInfo.getId() + "/");
+            log.debug("移动文件夹 {}，更新子树 {} 行", fileId, moved);
+        }
+
+        // 公开分享缓存中保存了文件名，改名后需要清除
+        if (!fileName.equals(fileInfo.getFileName())) {
+            fileShareService.evictFileShares(userId, fileId);
+        }
+        fileInfo.setParentId(targetId);
+        fileInfo.setAncestorPath(newAncestorPath);
+        fileInfo.setFileName(fileName);
+        fileSearchIndex.onMoved(fileInfo, folder ? oldPrefix : null);
+        log.info("移动文件成功，文件ID: {}，目标文件夹: {}", fileId, targetId);
+        return fileInfo;
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public int removeFileTree(Integer userId, Long fileId) {
+        QueryWrapper<FileInfo> queryWrapper = new QueryWrapper<>();
+        queryWrapper.eq("id", fileId).eq("user_id", userId).last("FOR UPDATE");
+        FileInfo fileInfo = this.getOne(queryWrapper);
+        if (fileInfo == null) {
+            throw new IllegalArgumentException("文件不存在: " + fileId);
+        }
+
+        List<ContentUsage> removedUsage = new ArrayList<>();
+        removedUsage.add(ContentUsage.of(fileInfo).negate());
+        QueryWrapper<FileInfo> deleteWrapper = new QueryWrapper<>();
+        deleteWrapper.eq("user_id", userId);
+        String prefix = null;
+        if (Integer.valueOf(1).equals(fileInfo.getIsFolder())) {
+            prefix = fileInfo.getAncestorPath() + fileInfo.getId() + "/";
+            for (ContentUsage contentUsage : this.baseMapper.selectSubtreeContentUsageForUpdate(userId, prefix)) {
+                removedUsage.add(contentUsage.negate());
+            }
+            String subtreePrefix = prefix;
+            deleteWrapper.and(wrapper -> wrapper.eq("id", fileId).or().likeRight("ancestor_path", subtreePrefix));
+        } else {
+            deleteWrapper.eq("id", fileId);
+        }
+        // 分享查询要关联未删除的文件，需在删除文件前取消分享
+        fileShareService.removeFileShares(userId, fileId, prefix);
+        int removed = this.baseMapper.delete(deleteWrapper);
+        storageUsageService.addUsage(userId, removedUsage);
+        fileSearchIndex.onRemoved(userId, fileId, prefix);
+        log.info("删除文件成功，文件ID: {}，共删除 {} 行", fileId, removed);
+        return removed;
+    }
+
+    @Override
+    public List<Long> listPurgeableFileIds(LocalDateTime deletedBefore, int limit) {
+        return this.baseMapper.selectPurgeableIds(deletedBefore, limit);
+    }
+
+    /**
+     * 行锁保证同一文件只被清理一次，引用数只减少一次
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public boolean purgeDeletedFile(Long fileId) {
+        FileInfo fileInfo = this.baseMapper.selectDeletedForUpdate(fileId);
+        if (fileInfo == null) {
+            return false;
+        }
+        StorageObjectLocation location = null;
+        if (!Integer.valueOf(1).equals(fileInfo.getIsFolder()) && fileInfo.getBlobId() == null
+                && StringUtils.hasText(fileInfo.getStoragePath())) {
+            try {
+                location = getStorageObjectLocation(fileInfo);
+            } catch (IllegalArgumentException e) {
+                // 用户存储源已删除，物理文件无法定位，只删除记录
+                log.warn("清理回收站时无法定位物理文件，文件ID: {}，原因: {}", fileId, e.getMessage());
+            }
+        }
+
+        this.baseMapper.deletePurged(fileId);
+        if (fileInfo.getBlobId() != null) {
+            fileBlobService.releaseFileBlob(fileInfo.getBlobId());
+        } else if (location != null) {
+            deletePhysicalFileAfterCommit(fileId, location);
+        }
+        return true;
+    }
+
+    @Override
+    public List<FileInfo> listSubtree(Integer userId, String folderId) {
+        String prefix = getChildAncestorPath(userId, parseFolderId(folderId), false);
+        QueryWrapper<FileInfo> queryWrapper = new QueryWrapper<>();
+        queryWrapper.eq("user_id", userId)
+                .likeRight("ancestor_path", prefix)
+                .orderByAsc("ancestor_path", "id");
+        return this.list(queryWrapper);
+    }
+
+    @Override
+    public FolderUsage getFolderUsage(Integer userId, String folderId) {
+        String prefix = getChildAncestorPath(userId, parseFolderId(folderId), false);
+        return this.baseMapper.selectFolderUsage(userId, prefix);
+    }
+
+    /**
+     * 索引只返回当前页的ID，按ID读取文件后保持索引的排序；索引尚未应用的删除会让当前页少于 pageSize 条
+     */
+    @Override
+    public FileSearchResponse pageSearchFiles(Integer userId, FileSearchRequest request) {
+        FileSearchHits hits = fileSearchIndex.search(userId, request);
+        List<FileItemResponse> items = new ArrayList<>(hits.ids().size());
+        if (!hits.ids().isEmpty()) {
+            QueryWrapper<FileInfo> queryWrapper = new QueryWrapper<>();
+            queryWrapper.eq("user_id", userId).in("id", hits.ids());
+            Map<Long, FileInfo> fileInfos = this.list(queryWrapper).stream()
+                    .collect(Collectors.toMap(FileInfo::getId, Function.identity()));
+            for (Long id : hits.ids()) {
+                FileInfo fileInfo = fileInfos.get(id);
+                if (fileInfo != null) {
+                    items.add(FileInfoConvert.INSTANCE.convertToFileItemResponse(fileInfo));
+                }
+            }
+        }
+
+        FileSearchResponse response = new FileSearchResponse();
+        response.setItems(items);
+        response.setTotal(hits.total());
+        response.setPage(request.getPage());
+        response.setPageSize(request.getPageSize());
+        return response;
+    }
+
+    /**
+     * 获取文件夹中的文件应有的祖先路径
+     *
+     * @param userId    用户ID
+     * @param folderId  文件夹ID，根目录为 0
+     * @param forUpdate 是否对文件夹加行锁
+     * @return 祖先路径
+     * @throws IllegalArgumentException 文件夹不存在
+     */
+    private String getChildAncestorPath(Integer userId, Long folderId, boolean forUpdate) {
+        if (folderId == null || folderId == FileInfo.ROOT_PARENT_ID) {
+            return ROOT_ANCESTOR_PATH;
+        }
+        String ancestorPath;
+        if (forUpdate) {
+            ancestorPath = this.baseMapper.selectAncestorPathForUpdate(userId, folderId);
+        } else {
+            QueryWrapper<FileInfo> queryWrapper = new QueryWrapper<>();
+            queryWrapper.select("ancestor_path").eq("id", folderId).eq("user_id", userId).eq("is_folder", 1);
+            FileInfo folder = this.getOne(queryWrapper);
+            ancestorPath = folder == null ? null : folder.getAncestorPath();
+        }
+        if (ancestorPath == null) {
+            throw new IllegalArgumentException("文件夹不存在: " + folderId);
+        }
+        return ancestorPath + folderId + "/";
+    }
+
+    private static Long parseFolderId(String folderId) {
+        if (!StringUtils.hasText(folderId) || ROOT_FOLDER_ID.equals(folderId)) {
+            return FileInfo.ROOT_PARENT_ID;
+        }
+        try {
+            return Long.parseLong(folderId);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("文件夹不存在: " + folderId);
+        }
+    }
+
+    /**
+     * 事务提交后删除文件独占的物理文件，事务回滚时记录仍在，物理文件不能先删
+     */
+    private void deletePhysicalFileAfterCommit(Long fileId, StorageObjectLocation location) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            deletePhysicalFile(fileId, location);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                deletePhysicalFile(fileId, location);
+            }
+        });
+    }
+
+    private void deletePhysicalFile(Long fileId, StorageObjectLocation location) {
+        try {
+            location.driver().delete(location.path());
+            log.info("已彻底删除文件，文件ID: {}，路径: {}", fileId, location.path());
+        } catch (Exception e) {
+            log.warn("删除物理文件失败，文件ID: {}，路径: {}", fileId, location.path(), e);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,212 @@
+package com.zfile.module.file.service.impl;
+
+import com.alibaba.fastjson2.JSON;
+import com.zfile.module.file.entity.FileBlob;
+import com.zfile.module.file.entity.FileInfo;
+import com.zfile.module.file.model.ByteRange;
+import com.zfile.module.file.model.FolderLocation;
+import com.zfile.module.file.request.InstantUploadCheckRequest;
+import com.zfile.module.file.request.InstantUploadRequest;
+import com.zfile.module.file.response.InstantUploadCheckResponse;
+import com.zfile.module.file.service.FileBlobService;
+import com.zfile.module.file.service.FileInfoService;
+import com.zfile.module.file.service.InstantUploadService;
+import com.zfile.module.file.thumbnail.ThumbnailGenerator;
+import com.zfile.module.file.upload.InstantUploadChallenge;
+import com.zfile.module.file.util.FileInfoUtil;
+import com.zfile.module.storage.driver.StorageDriver;
+import com.zfile.module.storage.driver.StorageDriverRegistry;
+import com.zfile.module.storage.service.StorageUsageService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * 秒传Service实现
+ * 校验只读取抽样的几段内容，与文件大小无关
+ */
+@Service
+public class InstantUploadServiceImpl implements InstantUploadService {
+
+    private static final Logger log = LoggerFactory.getLogger(InstantUploadServiceImpl.class);
+
+    private static final String CHALLENGE_KEY_PREFIX = "zfile:upload:instant:";
+
+    private static final Duration CHALLENGE_TTL = Duration.ofMinutes(5);
+
+    /**
+     * 秒传的配额预留ID前缀，与上传会话ID区分
+     */
+    private static final String INSTANT_RESERVATION_PREFIX = "instant:";
+
+    private static final int SAMPLE_COUNT = 4;
+
+    private static final int SAMPLE_LENGTH = 64 * 1024;
+
+    private final SecureRandom random = new SecureRandom();
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final FileInfoService fileInfoService;
+
+    private final FileBlobService fileBlobService;
+
+    private final StorageDriverRegistry storageDriverRegistry;
+
+    private final StorageUsageService storageUsageService;
+
+    private final ThumbnailGenerator thumbnailGenerator;
+
+    @Autowired
+    public InstantUploadServiceImpl(StringRedisTemplate stringRedisTemplate,
+                                    FileInfoService fileInfoService,
+                                    FileBlobService fileBlobService,
+                                    StorageDriverRegistry storageDriverRegistry,
+                                    StorageUsageService storageUsageService,
+                                    ThumbnailGenerator thumbnailGenerator) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.fileInfoService = fileInfoService;
+        this.fileBlobService = fileBlobService;
+        this.storageDriverRegistry = storageDriverRegistry;
+        this.storageUsageService = storageUsageService;
+        this.thumbnailGenerator = thumbnailGenerator;
+    }
+
+    @Override
+    public InstantUploadCheckResponse getInstantUploadChallenge(Integer userId, InstantUploadCheckRequest instantUploadCheckRequest) {
+        FolderLocation folder = fileInfoService.getFolderLocation(userId, instantUploadCheckRequest.getFolderId());
+        FileBlob fileBlob = fileBlobService.getFileBlob(folder.userStorageSource().getStorageSourceId(),
+                instantUploadCheckRequest.getFileMd5(), instantUploadCheckRequest.getFileSize());
+
+        InstantUploadCheckResponse response = new InstantUploadCheckResponse();
+        if (fileBlob == null) {
+            response.setHit(false);
+            return response;
+        }
+        List<ByteRange> ranges = sampleRanges(fileBlob.getFileSize());
+        String challengeId = UUID.randomUUID().toString();
+        InstantUploadChallenge challenge = new InstantUploadChallenge(userId, fileBlob.getId(),
+                instantUploadCheckRequest.getFolderId(), ranges);
+        stringRedisTemplate.opsForValue().set(CHALLENGE_KEY_PREFIX + challengeId, JSON.toJSONString(challenge), CHALLENGE_TTL);
+
+        response.setHit(true);
+        response.setChallengeId(challengeId);
+        response.setRanges(ranges);
+        return response;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public FileInfo instantUpload(Integer userId, InstantUploadRequest instantUploadRequest) {
+        String fileName = FileInfoUtil.normalizeFileName(instantUploadRequest.getFileName());
+        // 取出即删除，同一个挑战只能尝试一次
+        String json = stringRedisTemplate.opsForValue()
+                .getAndDelete(CHALLENGE_KEY_PREFIX + instantUploadRequest.getChallengeId());
+        InstantUploadChallenge challenge = json == null ? null : JSON.parseObject(json, InstantUploadChallenge.class);
+        if (challenge == null || !Objects.equals(challenge.userId(), userId)) {
+            throw new IllegalArgumentException("秒传校验已过期，请重新上传");
+        }
+        FileBlob fileBlob = fileBlobService.getById(challenge.blobId());
+        if (fileBlob == null) {
+            throw new IllegalArgumentException("文件内容已失效，请重新上传");
+        }
+        String reservationId = INSTANT_RESERVATION_PREFIX + instantUploadRequest.getChallengeId();
+
+        try {
+            StorageDriver driver = storageDriverRegistry.getDriver(fileBlob.getStorageSourceId());
+            String sampleMd5 = sampleMd5(driver, fileBlob.getStoragePath(), challenge.ranges());
+            if (!sampleMd5.equalsIgnoreCase(instantUploadRequest.getSampleMd5())) {
+                log.warn("秒传抽样校验失败，用户ID: {}，文件内容ID: {}", userId, fileBlob.getId());
+                throw new IllegalArgumentException("秒传校验失败，请重新上传");
+            }
+
+            FolderLocation folder = fileInfoService.getFolderLocation(userId, challenge.folderId());
+            if (!Objects.equals(folder.userStorageSource().getStorageSourceId(), fileBlob.getStorageSourceId())) {
+                throw new IllegalArgumentException("目标文件夹所在的存储源已变化，请重新上传");
+            }
+            // 秒传的文件同样计入用户的已用空间
+            storageUsageService.reserveQuota(userId, reservationId, fileBlob.getFileSize());
+            if (!fileBlobService.acquireFileBlob(fileBlob.getId())) {
+                throw new IllegalArgumentException("文件内容已失效，请重新上传");
+            }
+
+            String availableName = fileInfoService.getAvailableFileName(userId, folder.folderId(), fileName);
+            FileInfo fileInfo = FileInfoUtil.newFile(userId, folder.folderId(), folder.path(),
+                    folder.userStorageSource().getId(), availableName, fileBlob.getFileSize(), driver.getType().getCode());
+            fileInfo.setFileMd5(fileBlob.getFileMd5());
+            fileInfo.setBlobId(fileBlob.getId());
+            try {
+                fileInfoService.save(fileInfo);
+            } catch (Exception e) {
+                fileBlobService.releaseFileBlob(fileBlob.getId());
+                throw e;
+            }
+            log.info("秒传成功，用户ID: {}，文件: {}，文件内容ID: {}", userId, fileInfo.getFilePath(), fileBlob.getId());
+            // 内容相同的文件共用缩略图，通常已经生成过
+            thumbnailGenerator.submit(fileInfo, ThumbnailGenerator.Priority.UPLOAD);
+            return fileInfo;
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("秒传时发生异常，用户ID: {}，文件内容ID: {}", userId, fileBlob.getId(), e);
+            throw new RuntimeException("秒传失败", e);
+        } finally {
+            storageUsageService.releaseQuota(userId, reservationId);
+        }
+    }
+
+    /**
+     * 随机选取抽样范围，小文件整个作为一段
+     */
+    private List<ByteRange> sampleRanges(long fileSize) {
+        List<ByteRange> ranges = new ArrayList<>();
+        if (fileSize == 0) {
+            return ranges;
+        }
+        if (fileSize <= (long) SAMPLE_COUNT * SAMPLE_LENGTH) {
+            ranges.add(new ByteRange(0, fileSize));
+            return ranges;
+        }
+        for (int i = 0; i < SAMPLE_COUNT; i++) {
+            ranges.add(new ByteRange(random.nextLong(fileSize - SAMPLE_LENGTH + 1), SAMPLE_LENGTH));
+        }
+        ranges.sort(Comparator.comparingLong(ByteRange::offset));
+        return ranges;
+    }
+
+    private static String sampleMd5(StorageDriver driver, String path, List<ByteRange> ranges) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (OutputStream output = new DigestOutputStream(OutputStream.nullOutputStream(), digest)) {
+            for (ByteRange range : ranges) {
+                try (InputStream input = driver.read(path, range.offset(), range.length())) {
+                    input.transferTo(output);
+                }
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
\ No newline at end of file
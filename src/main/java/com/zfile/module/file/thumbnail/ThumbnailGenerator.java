@@ -0,0 +1,381 @@
+package com.zfile.module.file.thumbnail;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.zfile.module.file.config.ThumbnailProperties;
+import com.zfile.module.file.entity.FileInfo;
+import com.zfile.module.file.model.StorageObjectLocation;
+import com.zfile.module.file.service.FileInfoService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.FileCacheImageInputStream;
+import javax.imageio.stream.FileImageInputStream;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 缩略图生成器
+ * 任务放入按优先级排序的有界队列，由固定数量的后台线程生成，请求线程只检查缓存、从不等待生成。
+ * 缩略图按文件内容 MD5 缓存在磁盘上，内容相同的文件只生成一次。
+ * 解码时按目标尺寸设置隔行隔列采样，解码器只输出采样后的像素，大图不需要在堆中分配原始分辨率的位图；
+ * 远程存储的图片边下载边解码，读过的数据缓存在临时文件中而不是内存中
+ */
+@Slf4j
+@Component
+public class ThumbnailGenerator {
+
+    /**
+     * 缩略图格式
+     */
+    public static final String CONTENT_TYPE = "image/jpeg";
+
+    /**
+     * 占位图格式
+     */
+    public static final String PLACEHOLDER_CONTENT_TYPE = "image/svg+xml";
+
+    private static final byte[] PLACEHOLDER = ("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"256\" height=\"256\" "
+            + "viewBox=\"0 0 256 256\"><rect width=\"256\" height=\"256\" fill=\"#f0f2f5\"/>"
+            + "<circle cx=\"164\" cy=\"96\" r=\"16\" fill=\"#c0c4cc\"/>"
+            + "<path d=\"M64 184l44-60 32 40 24-30 28 50z\" fill=\"#c0c4cc\"/></svg>").getBytes(StandardCharsets.UTF_8);
+
+    private static final String THUMBNAIL_URL_FORMAT = "/api/v1/files/%d/thumbnail";
+
+    /**
+     * 生成失败的内容在该时间内不再尝试，避免每次浏览都重新解码无法处理的图片
+     */
+    private static final Duration FAILURE_TTL = Duration.ofHours(1);
+
+    private final ThumbnailProperties properties;
+
+    private final FileInfoService fileInfoService;
+
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * 已在队列中或正在生成的缩略图 -> 任务优先级，同一内容不重复生成
+     */
+    private final Map<String, Priority> pending = new ConcurrentHashMap<>();
+
+    /**
+     * 最近生成失败的内容 MD5
+     */
+    private final Cache<String, Boolean> failures = CacheBuilder.newBuilder()
+            .maximumSize(10000)
+            .expireAfterWrite(FAILURE_TTL)
+            .build();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final Counter rejectedCounter;
+
+    private final Counter failureCounter;
+
+    @Autowired
+    public ThumbnailGenerator(ThumbnailProperties properties, FileInfoService fileInfoService, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.fileInfoService = fileInfoService;
+        // PriorityBlockingQueue 本身不限长度，提交前按 queueCapacity 检查
+        this.executor = new ThreadPoolExecutor(
+                properties.getWorkerThreads(), properties.getWorkerThreads(),
+                0L, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(),
+                new ThreadFactoryBuilder().setNameFormat("thumbnail-%d").setDaemon(true).build(),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("zfile.thumbnail.queue", executor, e -> e.getQueue().size()).register(meterRegistry);
+        Gauge.builder("zfile.thumbnail.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+        this.rejectedCounter = Counter.builder("zfile.thumbnail.rejected").register(meterRegistry);
+        this.failureCounter = Counter.builder("zfile.thumbnail.failures").register(meterRegistry);
+    }
+
+    /**
+     * 判断文件类型是否可以生成缩略图
+     *
+     * @param contentType MIME 类型
+     * @return 有对应的图片解码器时返回 true
+     */
+    public static boolean isSupported(String contentType) {
+        if (contentType == null || !contentType.toLowerCase(Locale.ROOT).startsWith("image/")) {
+            return false;
+        }
+        return ImageIO.getImageReadersByMIMEType(contentType).hasNext();
+    }
+
+    /**
+     * 获取文件的缩略图地址
+     *
+     * @param fileId 文件ID
+     * @return 缩略图地址
+     */
+    public static String thumbnailUrl(Long fileId) {
+        return String.format(THUMBNAIL_URL_FORMAT, fileId);
+    }
+
+    /**
+     * 占位图内容，缩略图尚未生成或无法生成时返回
+     */
+    public byte[] getPlaceholder() {
+        return PLACEHOLDER.clone();
+    }
+
+    /**
+     * 获取已生成的缩略图
+     *
+     * @param fileInfo 文件信息
+     * @return 缩略图文件，尚未生成时返回 null
+     */
+    public Path getThumbnail(FileInfo fileInfo) {
+        if (!properties.isEnabled() || fileInfo.getFileMd5() == null) {
+            return null;
+        }
+        Path thumbnail = thumbnailPath(fileInfo.getFileMd5());
+        return Files.isRegularFile(thumbnail) ? thumbnail : null;
+    }
+
+    /**
+     * 提交缩略图生成任务，立即返回
+     * 同一内容已在队列中时不重复提交，新任务优先级更高时再提交一次，先完成的任务生成缩略图后另一个直接跳过
+     *
+     * @param fileInfo 文件信息
+     * @param priority 优先级
+     * @return 已生成、已在队列中或提交成功时返回 true；文件不支持或队列已满时返回 false
+     */
+    public boolean submit(FileInfo fileInfo, Priority priority) {
+        if (!properties.isEnabled() || fileInfo.getFileMd5() == null || !isSupported(fileInfo.getContentType())
+                || fileInfo.getFileSize() == null || fileInfo.getFileSize() > properties.getMaxSourceSize().toBytes()) {
+            return false;
+        }
+        String key = fileInfo.getFileMd5();
+        if (Files.isRegularFile(thumbnailPath(key))) {
+            return true;
+        }
+        if (failures.getIfPresent(key) != null) {
+            return false;
+        }
+        Priority previous = pending.putIfAbsent(key, priority);
+        if (previous != null) {
+            if (previous.ordinal() <= priority.ordinal() || !pending.replace(key, previous, priority)) {
+                return true;
+            }
+        }
+
+        int limit = priority == Priority.INTERACTIVE ? properties.getQueueCapacity() : properties.getQueueCapacity() * 3 / 4;
+        if (executor.getQueue().size() >= limit) {
+            pending.remove(key, priority);
+            rejectedCounter.increment();
+            log.debug("缩略图队列已满，放弃生成，文件ID: {}，优先级: {}", fileInfo.getId(), priority);
+            return false;
+        }
+        try {
+            executor.execute(new ThumbnailTask(fileInfo, priority, sequence.incrementAndGet()));
+            return true;
+        } catch (RejectedExecutionException e) {
+            pending.remove(key, priority);
+            rejectedCounter.increment();
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void generate(FileInfo fileInfo) throws IOException {
+        Path target = thumbnailPath(fileInfo.getFileMd5());
+        if (Files.isRegularFile(target)) {
+            return;
+        }
+        StorageObjectLocation location = fileInfoService.getStorageObjectLocation(fileInfo);
+        BufferedImage thumbnail = decode(location);
+        if (thumbnail == null) {
+            failures.put(fileInfo.getFileMd5(), Boolean.TRUE);
+            log.debug("图片无法解码或尺寸超出限制，不生成缩略图，文件ID: {}", fileInfo.getId());
+            return;
+        }
+
+        Files.createDirectories(target.getParent());
+        Path temp = target.resolveSibling(target.getFileName() + "." + UUID.randomUUID() + ".tmp");
+        try {
+            writeJpeg(thumbnail, temp);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        log.debug("缩略图生成完成，文件ID: {}，缩略图: {}", fileInfo.getId(), target);
+    }
+
+    /**
+     * 按目标尺寸采样解码并缩放
+     *
+     * @return 缩略图，不是可识别的图片或像素数超出限制时返回 null
+     */
+    private BufferedImage decode(StorageObjectLocation location) throws IOException {
+        Path localPath = location.driver().getLocalPath(location.path());
+        if (localPath != null) {
+            try (ImageInputStream input = new FileImageInputStream(localPath.toFile())) {
+                return decode(input);
+            }
+        }
+        Path cacheDir = properties.getCacheDir().resolve("tmp");
+        Files.createDirectories(cacheDir);
+        try (InputStream source = location.driver().read(location.path(), 0, -1);
+             ImageInputStream input = new FileCacheImageInputStream(source, cacheDir.toFile())) {
+            return decode(input);
+        }
+    }
+
+    private BufferedImage decode(ImageInputStream input) throws IOException {
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+        if (!readers.hasNext()) {
+            return null;
+        }
+        ImageReader reader = readers.next();
+        try {
+            reader.setInput(input, true, true);
+            int width = reader.getWidth(0);
+            int height = reader.getHeight(0);
+            if (width <= 0 || height <= 0 || (long) width * height > properties.getMaxSourcePixels()) {
+                return null;
+            }
+            // 采样到目标尺寸的两倍左右再平滑缩小，减少直接采样产生的锯齿
+            int size = properties.getSize();
+            int step = Math.max(1, Math.max(width, height) / (size * 2));
+            ImageReadParam param = reader.getDefaultReadParam();
+            param.setSourceSubsampling(step, step, 0, 0);
+            return scale(reader.read(0, param), size);
+        } finally {
+            reader.dispose();
+        }
+    }
+
+    /**
+     * 等比缩小到最长边不超过目标尺寸，透明区域填充为白色
+     */
+    private static BufferedImage scale(BufferedImage source, int size) {
+        double ratio = Math.min(1.0, (double) size / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private void writeJpeg(BufferedImage image, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(target.toFile())) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(properties.getQuality());
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    /**
+     * 缩略图路径，按 MD5 前两位分目录，文件名带上尺寸，修改尺寸后重新生成
+     */
+    private Path thumbnailPath(String md5) {
+        String key = md5.toLowerCase(Locale.ROOT);
+        return properties.getCacheDir().resolve(key.substring(0, 2)).resolve(key + "_" + properties.getSize() + ".jpg");
+    }
+
+    /**
+     * 任务优先级，数值越小越先执行
+     */
+    public enum Priority {
+
+        /**
+         * 浏览文件时请求的缩略图，用户正在等待
+         */
+        INTERACTIVE,
+
+        /**
+         * 上传完成后预先生成
+         */
+        UPLOAD
+    }
+
+    /**
+     * 按优先级排序，同一优先级先提交的先执行
+     */
+    private final class ThumbnailTask implements Runnable, Comparable<ThumbnailTask> {
+
+        private final FileInfo fileInfo;
+
+        private final Priority priority;
+
+        private final long sequence;
+
+        private ThumbnailTask(FileInfo fileInfo, Priority priority, long sequence) {
+            this.fileInfo = fileInfo;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public void run() {
+            try {
+                generate(fileInfo);
+            } catch (Exception e) {
+                failures.put(fileInfo.getFileMd5(), Boolean.TRUE);
+                failureCounter.increment();
+                log.warn("生成缩略图失败，文件ID: {}，原因: {}", fileInfo.getId(), e.getMessage());
+            } finally {
+                pending.remove(fileInfo.getFileMd5(), priority);
+            }
+        }
+
+        @Override
+        public int compareTo(ThumbnailTask other) {
+            int result = Integer.compare(priority.ordinal(), other.priority.ordinal());
+            return result != 0 ? result : Long.compare(sequence, other.sequence);
+        }
+    }
+}
\ No newline at end of file
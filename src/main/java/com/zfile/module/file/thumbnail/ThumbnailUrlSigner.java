@@ -0,0 +1,56 @@
+package com.zfile.module.file.thumbnail;
+
+import com.zfile.module.auth.springsecurity.LoginUser;
+import com.zfile.module.auth.springsecurity.token.FileTicketSigner;
+import com.zfile.module.file.response.FileItemResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.List;
+
+/**
+ * 缩略图地址签名
+ * 图片标签无法携带请求头，列表返回的缩略图地址附带只对该文件有效的缩略图票据，会话令牌不会出现在地址中
+ */
+@Component
+public class ThumbnailUrlSigner {
+
+    private final FileTicketSigner fileTicketSigner;
+
+    @Autowired
+    public ThumbnailUrlSigner(FileTicketSigner fileTicketSigner) {
+        this.fileTicketSigner = fileTicketSigner;
+    }
+
+    /**
+     * 为文件的缩略图地址附加票据
+     *
+     * @param loginUser 当前用户
+     * @param item      文件信息，没有缩略图时不做修改
+     * @return 传入的文件信息
+     */
+    public FileItemResponse sign(LoginUser loginUser, FileItemResponse item) {
+        if (item == null || !StringUtils.hasText(item.getThumbnailUrl()) || item.getId() == null) {
+            return item;
+        }
+        String ticket = fileTicketSigner.issue(FileTicketSigner.Purpose.THUMBNAIL, loginUser.getUserId(),
+                loginUser.getTokenVersion(), Long.valueOf(item.getId()));
+        item.setThumbnailUrl(ThumbnailGenerator.thumbnailUrl(Long.valueOf(item.getId())) + "?ticket=" + ticket);
+        return item;
+    }
+
+    /**
+     * 为列表中所有文件的缩略图地址附加票据
+     *
+     * @param loginUser 当前用户
+     * @param items     文件列表
+     * @return 传入的文件列表
+     */
+    public List<FileItemResponse> sign(LoginUser loginUser, List<FileItemResponse> items) {
+        if (items != null) {
+            items.forEach(item -> sign(loginUser, item));
+        }
+        return items;
+    }
+}
\ No newline at end of file
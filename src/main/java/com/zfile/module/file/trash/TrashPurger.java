@@ -0,0 +1,76 @@
+package com.zfile.module.file.trash;
+
+import com.zfile.module.file.config.FileTrashProperties;
+import com.zfile.module.file.service.FileInfoService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 回收站清理任务
+ * 删除文件只是逻辑删除，文件内容的引用数不变；超过保留时间的文件由此任务逐个彻底删除，
+ * 每个文件在单独的事务中删除记录并释放文件内容，引用数降为 0 的内容在事务提交后删除物理文件。
+ * 多节点部署时由抢到锁的节点执行
+ */
+@Slf4j
+@Component
+public class TrashPurger {
+
+    private static final String LOCK_KEY = "zfile:file:trash:purge-lock";
+
+    private final FileInfoService fileInfoService;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final FileTrashProperties properties;
+
+    @Autowired
+    public TrashPurger(FileInfoService fileInfoService, StringRedisTemplate stringRedisTemplate,
+                       FileTrashProperties properties) {
+        this.fileInfoService = fileInfoService;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.properties = properties;
+    }
+
+    @Scheduled(fixedDelayString = "${zfile.file.trash.purge-interval:3600000}",
+            initialDelayString = "${zfile.file.trash.purge-interval:3600000}")
+    public void purge() {
+        try {
+            if (!Boolean.TRUE.equals(stringRedisTemplate.opsForValue()
+                    .setIfAbsent(LOCK_KEY, "1", properties.getPurgeInterval(), TimeUnit.MILLISECONDS))) {
+                return;
+            }
+        } catch (Exception e) {
+            log.warn("获取回收站清理锁失败: {}", e.getMessage());
+            return;
+        }
+
+        try {
+            LocalDateTime deletedBefore = LocalDateTime.now().minus(properties.getRetention());
+            List<Long> fileIds = fileInfoService.listPurgeableFileIds(deletedBefore, properties.getPurgeBatchSize());
+            int purged = 0;
+            for (Long fileId : fileIds) {
+                try {
+                    if (fileInfoService.purgeDeletedFile(fileId)) {
+                        purged++;
+                    }
+                } catch (Exception e) {
+                    log.warn("彻底删除文件失败，文件ID: {}，原因: {}", fileId, e.getMessage());
+                }
+            }
+            if (purged > 0) {
+                log.info("回收站清理完成，彻底删除 {} 个文件", purged);
+            }
+        } catch (Exception e) {
+            log.error("清理回收站时发生异常", e);
+        } finally {
+            stringRedisTemplate.delete(LOCK_KEY);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.zfile.module.file.upload;
+
+import com.zfile.module.file.model.ByteRange;
+
+import java.util.List;
+
+/**
+ * 秒传校验挑战
+ * 服务端随机选取文件中的几段，客户端必须持有完整文件才能算出这几段的 MD5，只知道文件 MD5 无法冒领他人的文件
+ *
+ * @param userId   用户ID
+ * @param blobId   文件内容ID
+ * @param folderId 目标文件夹ID
+ * @param ranges   抽样范围，按顺序拼接后计算 MD5
+ */
+public record InstantUploadChallenge(Integer userId, Long blobId, String folderId, List<ByteRange> ranges) {
+}
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.zfile.module.file.upload;
+
+/**
+ * 直传对象存储的分段上传会话
+ * 分片直接作为对象存储的分段上传，合并时由存储服务端拼接
+ *
+ * @param sessionId           上传会话ID
+ * @param userStorageSourceId 用户存储源ID
+ * @param folderId            目标文件夹ID
+ * @param fileName            开始上传时确定的文件名
+ * @param path                目标文件路径，相对用户存储源根路径
+ * @param uploadId            对象存储的分段上传ID
+ */
+public record MultipartUploadSession(String sessionId, Integer userStorageSourceId, Long folderId,
+                                     String fileName, String path, String uploadId) {
+}
\ No newline at end of file
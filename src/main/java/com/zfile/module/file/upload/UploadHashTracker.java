@@ -0,0 +1,189 @@
+package com.zfile.module.file.upload;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.zfile.module.file.config.FileUploadProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.function.IntFunction;
+
+/**
+ * 上传过程中增量计算整个文件的 MD5
+ * MD5 只能按顺序计算，摘要停在"下一个待计算的分片"处：该分片到达时在接收的同时计算，不需要再次读取；
+ * 提前到达的分片保存在本地，等前面的分片完成后从本地文件补算。客户端按序号递增并发上传时，
+ * 只有并发窗口内的少量分片需要补算。
+ * 状态保存在内存中，同一会话的分片需要落在同一节点；节点重启或会话从中途开始时得不到 MD5，
+ * 文件照常保存，只是不能被秒传引用。
+ */
+@Slf4j
+@Component
+public class UploadHashTracker {
+
+    private final Cache<String, Frontier> frontiers;
+
+    @Autowired
+    public UploadHashTracker(FileUploadProperties properties) {
+        this.frontiers = CacheBuilder.newBuilder()
+                .expireAfterAccess(properties.getSessionTtl())
+                .build();
+    }
+
+    /**
+     * 开始计算新会话的 MD5，只能在会话刚创建、还没有分片到达时调用
+     *
+     * @param sessionId       会话ID
+     * @param chunkFile       分片序号对应的本地文件，用于补算提前到达的分片
+     * @param deleteAfterHash 补算后是否删除本地文件，分片只为计算 MD5 而暂存时为 true
+     */
+    public void start(String sessionId, IntFunction<Path> chunkFile, boolean deleteAfterHash) {
+        try {
+            frontiers.put(sessionId, new Frontier(MessageDigest.getInstance("MD5"), chunkFile, deleteAfterHash));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 分片开始接收
+     *
+     * @return 正好轮到该分片时返回文件摘要，调用方在接收分片时同时更新它，完成后必须调用 {@link #finish}；
+     * 否则返回 null
+     */
+    public MessageDigest begin(String sessionId, int chunkIndex) {
+        Frontier frontier = frontiers.getIfPresent(sessionId);
+        return frontier == null ? null : frontier.begin(chunkIndex);
+    }
+
+    /**
+     * 分片是否需要保存到本地等待补算
+     *
+     * @return 分片在摘要位置之后时返回 true；已计算过或会话没有在计算 MD5 时返回 false
+     */
+    public boolean isPending(String sessionId, int chunkIndex) {
+        Frontier frontier = frontiers.getIfPresent(sessionId);
+        return frontier != null && frontier.isPending(chunkIndex);
+    }
+
+    /**
+     * 分片接收结束，推进摘要并补算已在本地的后续分片
+     *
+     * @param success 分片是否成功保存，失败时撤销本次对摘要的更新
+     */
+    public void finish(String sessionId, int chunkIndex, boolean success) {
+        Frontier frontier = frontiers.getIfPresent(sessionId);
+        if (frontier != null) {
+            frontier.finish(sessionId, chunkIndex, success);
+        }
+    }
+
+    /**
+     * 取出文件 MD5 并结束计算
+     *
+     * @return 十六进制小写 MD5，分片没有全部计算时返回 null
+     */
+    public String result(String sessionId, int totalChunks) {
+        Frontier frontier = frontiers.getIfPresent(sessionId);
+        frontiers.invalidate(sessionId);
+        return frontier == null ? null : frontier.result(sessionId, totalChunks);
+    }
+
+    public void remove(String sessionId) {
+        frontiers.invalidate(sessionId);
+    }
+
+    private static final class Frontier {
+
+        private final IntFunction<Path> chunkFile;
+
+        private final boolean deleteAfterHash;
+
+        private MessageDigest digest;
+
+        /**
+         * 正在接收的分片更新摘要前的副本，分片失败时恢复
+         */
+        private MessageDigest snapshot;
+
+        private int nextIndex;
+
+        private boolean inflight;
+
+        private boolean broken;
+
+        private Frontier(MessageDigest digest, IntFunction<Path> chunkFile, boolean deleteAfterHash) {
+            this.digest = digest;
+            this.chunkFile = chunkFile;
+            this.deleteAfterHash = deleteAfterHash;
+        }
+
+        private synchronized MessageDigest begin(int chunkIndex) {
+            if (broken || inflight || chunkIndex != nextIndex) {
+                return null;
+            }
+            try {
+                snapshot = (MessageDigest) digest.clone();
+            } catch (CloneNotSupportedException e) {
+                return null;
+            }
+            inflight = true;
+            return digest;
+        }
+
+        private synchronized boolean isPending(int chunkIndex) {
+            return !broken && chunkIndex > nextIndex;
+        }
+
+        private synchronized void finish(String sessionId, int chunkIndex, boolean success) {
+            if (inflight && chunkIndex == nextIndex) {
+                inflight = false;
+                if (success) {
+                    nextIndex++;
+                } else {
+                    digest = snapshot;
+                }
+                snapshot = null;
+            }
+            catchUp(sessionId);
+        }
+
+        private synchronized String result(String sessionId, int totalChunks) {
+            catchUp(sessionId);
+            if (broken || inflight || nextIndex != totalChunks) {
+                return null;
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        }
+
+        private void catchUp(String sessionId) {
+            while (!broken && !inflight) {
+                Path file = chunkFile.apply(nextIndex);
+                if (!Files.exists(file)) {
+                    return;
+                }
+                try (InputStream input = Files.newInputStream(file)) {
+                    byte[] buffer = new byte[64 * 1024];
+                    int read;
+                    while ((read = input.read(buffer)) != -1) {
+                        digest.update(buffer, 0, read);
+                    }
+                    if (deleteAfterHash) {
+                        Files.delete(file);
+                    }
+                    nextIndex++;
+                } catch (IOException e) {
+                    log.warn("补算文件 MD5 失败，会话: {}，分片: {}", sessionId, nextIndex, e);
+                    broken = true;
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,383 @@
+package com.zfile.module.file.upload;
+
+import com.alibaba.fastjson2.JSON;
+import com.zfile.module.file.config.FileUploadProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.RedisZSetCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分片上传会话存储
+ * 已到达的分片以位图保存在 Redis，一万个分片只占 1.25KB；会话元数据保存在 Hash 中。
+ * 所有 key 在每次收到分片时续期，长时间无进展的会话自动过期。
+ * 直传对象存储的会话另外记录在一个按过期时间排序的集合中，会话过期后由定时任务取消对应的分段上传。
+ * 会话记录预留配额时的字节数和每个分片的大小，已接收的分片合计不能超过预留的字节数。
+ */
+@Component
+public class UploadSessionStore {
+
+    private static final String KEY_PREFIX = "zfile:upload:session:";
+
+    private static final String BITMAP_SUFFIX = ":chunks";
+
+    private static final String HASH_SUFFIX = ":hashes";
+
+    private static final String LOCK_SUFFIX = ":merging";
+
+    private static final String ETAG_SUFFIX = ":etags";
+
+    private static final String SIZE_SUFFIX = ":sizes";
+
+    private static final String MULTIPART_INDEX_KEY = "zfile:upload:multipart";
+
+    private static final String MULTIPART_INFO_KEY = "zfile:upload:multipart:info";
+
+    private static final String FIELD_USER_ID = "userId";
+
+    private static final String FIELD_TOTAL_CHUNKS = "totalChunks";
+
+    /**
+     * 预留配额的字节数，由创建会话的分片确定
+     */
+    private static final String FIELD_RESERVED_BYTES = "reservedBytes";
+
+    /**
+     * 已接收分片的合计字节数，同一分片重传时替换原来的大小
+     */
+    private static final String FIELD_RECEIVED_BYTES = "receivedBytes";
+
+    /**
+     * 上传方式，值为 local 或分段上传会话的 JSON，只在第一次设置时生效
+     */
+    private static final String FIELD_MODE = "mode";
+
+    private static final String MODE_LOCAL = "local";
+
+    /**
+     * KEYS[1] 会话元数据，KEYS[2] 分片大小；ARGV 依次为 分片序号、分片字节数。
+     * 没有预留字节数的会话（升级前创建）不限制
+     */
+    private static final DefaultRedisScript<Long> ADD_CHUNK_BYTES_SCRIPT = new DefaultRedisScript<>("""
+            local reserved = tonumber(redis.call('HGET', KEYS[1], 'reservedBytes'))
+            if not reserved then
+              return 1
+            end
+            local previous = tonumber(redis.call('HGET', KEYS[2], ARGV[1]) or '0')
+            local received = tonumber(redis.call('HGET', KEYS[1], 'receivedBytes') or '0') - previous + tonumber(ARGV[2])
+            if received > reserved then
+              return 0
+            end
+            redis.call('HSET', KEYS[2], ARGV[1], ARGV[2])
+            redis.call('HSET', KEYS[1], 'receivedBytes', received)
+            return 1
+            """, Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final FileUploadProperties properties;
+
+    @Autowired
+    public UploadSessionStore(StringRedisTemplate stringRedisTemplate, FileUploadProperties properties) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.properties = properties;
+    }
+
+    /**
+     * 打开会话，会话不存在时创建
+     *
+     * @param sessionId     会话ID
+     * @param userId        用户ID
+     * @param totalChunks   总分片数
+     * @param reservedBytes 预留配额的字节数，只在创建会话时生效
+     * @return 是否新创建的会话
+     * @throws IllegalArgumentException 会话属于其他用户或总分片数与已有会话不一致
+     */
+    public boolean open(String sessionId, Integer userId, int totalChunks, long reservedBytes) {
+        String key = metaKey(sessionId);
+        boolean created = stringRedisTemplate.opsForHash().putIfAbsent(key, FIELD_USER_ID, String.valueOf(userId));
+        stringRedisTemplate.opsForHash().putIfAbsent(key, FIELD_TOTAL_CHUNKS, String.valueOf(totalChunks));
+        stringRedisTemplate.opsForHash().putIfAbsent(key, FIELD_RESERVED_BYTES, String.valueOf(reservedBytes));
+        Map<Object, Object> meta = stringRedisTemplate.opsForHash().entries(key);
+        if (!String.valueOf(userId).equals(meta.get(FIELD_USER_ID))) {
+            throw new IllegalArgumentException("上传会话不存在");
+        }
+        if (!String.valueOf(totalChunks).equals(meta.get(FIELD_TOTAL_CHUNKS))) {
+            throw new IllegalArgumentException("总分片数与上传会话不一致");
+        }
+        touch(sessionId);
+        return created;
+    }
+
+    /**
+     * 获取会话的总分片数
+     *
+     * @return 总分片数，会话不存在或属于其他用户时返回 null
+     */
+    public Integer getTotalChunks(String sessionId, Integer userId) {
+        List<Object> values = stringRedisTemplate.opsForHash()
+                .multiGet(metaKey(sessionId), List.of(FIELD_USER_ID, FIELD_TOTAL_CHUNKS));
+        if (values.get(0) == null || !String.valueOf(userId).equals(values.get(0)) || values.get(1) == null) {
+            return null;
+        }
+        return Integer.valueOf((String) values.get(1));
+    }
+
+    /**
+     * @return 预留配额的字节数，会话不存在或升级前创建时返回 null
+     */
+    public Long getReservedBytes(String sessionId) {
+        Object value = stringRedisTemplate.opsForHash().get(metaKey(sessionId), FIELD_RESERVED_BYTES);
+        return value == null ? null : Long.valueOf(value.toString());
+    }
+
+    /**
+     * 在接收分片内容之前登记分片大小
+     *
+     * @param chunkIndex 分片序号
+     * @param size       分片字节数
+     * @return 是否登记成功，与其他已登记的分片合计超过预留的字节数时返回 false
+     */
+    public boolean addChunkBytes(String sessionId, int chunkIndex, long size) {
+        Long result = stringRedisTemplate.execute(ADD_CHUNK_BYTES_SCRIPT, List.of(metaKey(sessionId), sizeKey(sessionId)),
+                String.valueOf(chunkIndex), String.valueOf(size));
+        return Long.valueOf(1).equals(result);
+    }
+
+    /**
+     * 标记分片已到达
+     *
+     * @param chunkIndex 分片序号
+     * @param chunkHash  分片 MD5
+     * @return 已到达的分片数
+     */
+    public long markChunk(String sessionId, int chunkIndex, String chunkHash) {
+        stringRedisTemplate.opsForHash().put(hashKey(sessionId), String.valueOf(chunkIndex), chunkHash);
+        stringRedisTemplate.opsForValue().setBit(bitmapKey(sessionId), chunkIndex, true);
+        touch(sessionId);
+        return countChunks(sessionId);
+    }
+
+    /**
+     * 清除分片标记，分片文件丢失时让客户端重新上传
+     */
+    public void unmarkChunk(String sessionId, int chunkIndex) {
+        stringRedisTemplate.opsForValue().setBit(bitmapKey(sessionId), chunkIndex, false);
+        stringRedisTemplate.opsForHash().delete(hashKey(sessionId), String.valueOf(chunkIndex));
+    }
+
+    public boolean isChunkUploaded(String sessionId, int chunkIndex) {
+        return Boolean.TRUE.equals(stringRedisTemplate.opsForValue().getBit(bitmapKey(sessionId), chunkIndex));
+    }
+
+    /**
+     * @return 分片 MD5，未上传时返回 null
+     */
+    public String getChunkHash(String sessionId, int chunkIndex) {
+        Object value = stringRedisTemplate.opsForHash().get(hashKey(sessionId), String.valueOf(chunkIndex));
+        return value == null ? null : value.toString();
+    }
+
+    public long countChunks(String sessionId) {
+        Long count = stringRedisTemplate.execute((RedisCallback<Long>) connection ->
+                connection.stringCommands().bitCount(bitmapKey(sessionId).getBytes(StandardCharsets.UTF_8)));
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * 读取位图，返回已到达的分片序号
+     */
+    public List<Integer> listChunks(String sessionId, int totalChunks) {
+        List<Integer> indexes = new ArrayList<>();
+        byte[] bitmap = stringRedisTemplate.execute((RedisCallback<byte[]>) connection ->
+                connection.stringCommands().get(bitmapKey(sessionId).getBytes(StandardCharsets.UTF_8)));
+        if (bitmap == null) {
+            return indexes;
+        }
+        // Redis 位图每个字节的最高位对应最小的偏移
+        for (int i = 0; i < totalChunks && (i >> 3) < bitmap.length; i++) {
+            if ((bitmap[i >> 3] & (0x80 >>> (i & 7))) != 0) {
+                indexes.add(i);
+            }
+        }
+        return indexes;
+    }
+
+    /**
+     * 会话是否已经确定上传方式
+     */
+    public boolean isUploadModeBound(String sessionId) {
+        return stringRedisTemplate.opsForHash().hasKey(metaKey(sessionId), FIELD_MODE);
+    }
+
+    /**
+     * 将会话绑定为本地暂存分片的方式
+     *
+     * @return 是否绑定成功，会话已确定上传方式时返回 false
+     */
+    public boolean bindLocalUpload(String sessionId) {
+        return stringRedisTemplate.opsForHash().putIfAbsent(metaKey(sessionId), FIELD_MODE, MODE_LOCAL);
+    }
+
+    /**
+     * 将会话绑定为直传对象存储的方式，并登记到待清理集合
+     *
+     * @return 是否绑定成功，并发的首个分片中只有一个能绑定成功，其余需要取消自己创建的分段上传
+     */
+    public boolean bindMultipartUpload(MultipartUploadSession multipartUploadSession) {
+        String sessionId = multipartUploadSession.sessionId();
+        String json = JSON.toJSONString(multipartUploadSession);
+        if (!stringRedisTemplate.opsForHash().putIfAbsent(metaKey(sessionId), FIELD_MODE, json)) {
+            return false;
+        }
+        stringRedisTemplate.opsForHash().put(MULTIPART_INFO_KEY, sessionId, json);
+        stringRedisTemplate.opsForZSet().add(MULTIPART_INDEX_KEY, sessionId, expireAt());
+        return true;
+    }
+
+    /**
+     * @return 分段上传会话，会话不是直传对象存储的方式时返回 null
+     */
+    public MultipartUploadSession getMultipartUpload(String sessionId) {
+        Object value = stringRedisTemplate.opsForHash().get(metaKey(sessionId), FIELD_MODE);
+        if (value == null || MODE_LOCAL.equals(value)) {
+            return null;
+        }
+        return JSON.parseObject(value.toString(), MultipartUploadSession.class);
+    }
+
+    /**
+     * 记录分段的 ETag
+     */
+    public void putPartETag(String sessionId, int chunkIndex, String eTag) {
+        stringRedisTemplate.opsForHash().put(eTagKey(sessionId), String.valueOf(chunkIndex), eTag);
+    }
+
+    /**
+     * @return 分片序号到 ETag 的映射
+     */
+    public SortedMap<Integer, String> getPartETags(String sessionId) {
+        SortedMap<Integer, String> eTags = new TreeMap<>();
+        stringRedisTemplate.opsForHash().entries(eTagKey(sessionId))
+                .forEach((index, eTag) -> eTags.put(Integer.valueOf(index.toString()), eTag.toString()));
+        return eTags;
+    }
+
+    /**
+     * 查询已过期的分段上传
+     *
+     * @param limit 最多返回的数量
+     * @return 过期时间早于当前时间的分段上传会话
+     */
+    public List<MultipartUploadSession> listExpiredMultipartUploads(int limit) {
+        Set<String> sessionIds = stringRedisTemplate.opsForZSet()
+                .rangeByScore(MULTIPART_INDEX_KEY, 0, System.currentTimeMillis(), 0, limit);
+        List<MultipartUploadSession> sessions = new ArrayList<>();
+        if (sessionIds == null || sessionIds.isEmpty()) {
+            return sessions;
+        }
+        List<Object> values = stringRedisTemplate.opsForHash().multiGet(MULTIPART_INFO_KEY, List.copyOf(sessionIds));
+        int i = 0;
+        for (String sessionId : sessionIds) {
+            Object value = values.get(i++);
+            if (value == null) {
+                stringRedisTemplate.opsForZSet().remove(MULTIPART_INDEX_KEY, sessionId);
+            } else {
+                sessions.add(JSON.parseObject(value.toString(), MultipartUploadSession.class));
+            }
+        }
+        return sessions;
+    }
+
+    /**
+     * 从待清理集合中移除分段上传，多个节点同时清理时只有一个节点返回 true
+     *
+     * @return 是否由当前调用移除
+     */
+    public boolean untrackMultipartUpload(String sessionId) {
+        Long removed = stringRedisTemplate.opsForZSet().remove(MULTIPART_INDEX_KEY, sessionId);
+        stringRedisTemplate.opsForHash().delete(MULTIPART_INFO_KEY, sessionId);
+        return removed != null && removed > 0;
+    }
+
+    /**
+     * 获取合并锁，防止同一会话被重复合并
+     *
+     * @return 是否获取成功
+     */
+    public boolean tryLockMerge(String sessionId, Duration timeout) {
+        return Boolean.TRUE.equals(stringRedisTemplate.opsForValue()
+                .setIfAbsent(lockKey(sessionId), "1", timeout.toMillis(), TimeUnit.MILLISECONDS));
+    }
+
+    public void unlockMerge(String sessionId) {
+        stringRedisTemplate.delete(lockKey(sessionId));
+    }
+
+    public boolean exists(String sessionId) {
+        return Boolean.TRUE.equals(stringRedisTemplate.hasKey(metaKey(sessionId)));
+    }
+
+    /**
+     * 删除会话
+     */
+    public void remove(String sessionId) {
+        stringRedisTemplate.delete(List.of(metaKey(sessionId), bitmapKey(sessionId), hashKey(sessionId),
+                eTagKey(sessionId), sizeKey(sessionId), lockKey(sessionId)));
+    }
+
+    private void touch(String sessionId) {
+        long ttl = properties.getSessionTtl().toMillis();
+        double expireAt = expireAt();
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String key : List.of(metaKey(sessionId), bitmapKey(sessionId), hashKey(sessionId), eTagKey(sessionId),
+                    sizeKey(sessionId))) {
+                connection.keyCommands().pExpire(key.getBytes(StandardCharsets.UTF_8), ttl);
+            }
+            // 只更新已登记的分段上传，本地暂存的会话不会进入待清理集合
+            connection.zSetCommands().zAdd(MULTIPART_INDEX_KEY.getBytes(StandardCharsets.UTF_8), expireAt,
+                    sessionId.getBytes(StandardCharsets.UTF_8), RedisZSetCommands.ZAddArgs.ifExists());
+            return null;
+        });
+    }
+
+    private double expireAt() {
+        return System.currentTimeMillis() + properties.getSessionTtl().toMillis();
+    }
+
+    private static String metaKey(String sessionId) {
+        return KEY_PREFIX + sessionId;
+    }
+
+    private static String bitmapKey(String sessionId) {
+        return KEY_PREFIX + sessionId + BITMAP_SUFFIX;
+    }
+
+    private static String hashKey(String sessionId) {
+        return KEY_PREFIX + sessionId + HASH_SUFFIX;
+    }
+
+    private static String eTagKey(String sessionId) {
+        return KEY_PREFIX + sessionId + ETAG_SUFFIX;
+    }
+
+    private static String sizeKey(String sessionId) {
+        return KEY_PREFIX + sessionId + SIZE_SUFFIX;
+    }
+
+    private static String lockKey(String sessionId) {
+        return KEY_PREFIX + sessionId + LOCK_SUFFIX;
+    }
+}
\ No newline at end of file
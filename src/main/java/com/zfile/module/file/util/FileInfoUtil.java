@@ -0,0 +1,69 @@
+package com.zfile.module.file.util;
+
+import com.zfile.module.file.entity.FileInfo;
+import com.zfile.module.storage.util.StoragePathUtil;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+
+import java.util.Locale;
+
+/**
+ * 文件信息工具类
+ */
+public final class FileInfoUtil {
+
+    private static final int MAX_FILE_TYPE_LENGTH = 50;
+
+    private FileInfoUtil() {
+    }
+
+    /**
+     * 规范化客户端提交的文件名，去掉其中的路径部分
+     *
+     * @param fileName 文件名
+     * @return 文件名
+     * @throws IllegalArgumentException 文件名为空或包含 ..
+     */
+    public static String normalizeFileName(String fileName) {
+        String name = StoragePathUtil.name(StoragePathUtil.normalize(fileName));
+        if (name.isEmpty()) {
+            throw new IllegalArgumentException("文件名无效");
+        }
+        return name;
+    }
+
+    /**
+     * 创建新文件的文件信息，文件类型和 MIME 类型按扩展名推断
+     *
+     * @param userId              用户ID
+     * @param folderId            父文件夹ID
+     * @param folderPath          父文件夹路径，相对用户存储源根路径
+     * @param userStorageSourceId 用户存储源ID
+     * @param fileName            文件名
+     * @param fileSize            文件大小
+     * @param storageType         存储类型编码
+     * @return 文件信息，实际存储路径由调用方设置
+     */
+    public static FileInfo newFile(Integer userId, Long folderId, String folderPath, Integer userStorageSourceId,
+                                   String fileName, long fileSize, String storageType) {
+        int dot = fileName.lastIndexOf('.');
+        String extension = dot > 0 ? fileName.substring(dot + 1).toLowerCase(Locale.ROOT) : null;
+
+        FileInfo fileInfo = new FileInfo();
+        fileInfo.setFileName(fileName);
+        fileInfo.setFilePath("/" + StoragePathUtil.join(folderPath, fileName));
+        fileInfo.setFileSize(fileSize);
+        fileInfo.setFileType(extension != null && extension.length() <= MAX_FILE_TYPE_LENGTH ? extension : null);
+        fileInfo.setContentType(MediaTypeFactory.getMediaType(fileName)
+                .map(MediaType::toString).orElse(MediaType.APPLICATION_OCTET_STREAM_VALUE));
+        fileInfo.setStorageType(storageType);
+        fileInfo.setStorageSourceId(userStorageSourceId);
+        fileInfo.setParentId(folderId);
+        fileInfo.setIsFolder(0);
+        fileInfo.setUserId(userId);
+        fileInfo.setStatus(1);
+        fileInfo.setDownloadCount(0);
+        fileInfo.setIsPublic(0);
+        return fileInfo;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,140 @@
+package com.zfile.module.share.cache;
+
+import com.zfile.module.share.config.ShareProperties;
+import com.zfile.module.share.mapper.FileShareMapper;
+import com.zfile.module.share.model.ResolvedShare;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 分享访问计数
+ * 访问次数记在 Redis 中，检查上限和计数在同一个 Lua 脚本中执行，多节点同时访问也不会超出上限；
+ * 增量另记在一个哈希中，定期取出后累加到 file_share.view_count，访问分享时不写数据库
+ */
+@Slf4j
+@Component
+public class ShareAccessCounter {
+
+    private static final String COUNT_KEY_PREFIX = "zfile:share:views:";
+
+    /**
+     * 待写回数据库的访问次数增量，字段为分享ID
+     */
+    private static final String PENDING_KEY = "zfile:share:views-pending";
+
+    /**
+     * KEYS[1] 访问计数，KEYS[2] 待写回的增量哈希；ARGV 依次为 分享ID、数据库中的访问次数、访问上限（0 表示不限制）、计数保留毫秒数。
+     * 计数不存在时用数据库中的访问次数初始化
+     */
+    private static final DefaultRedisScript<Long> ACQUIRE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[1]) == 0 then
+              redis.call('SET', KEYS[1], ARGV[2])
+            end
+            local limit = tonumber(ARGV[3])
+            if limit > 0 and tonumber(redis.call('GET', KEYS[1])) >= limit then
+              return 0
+            end
+            redis.call('INCR', KEYS[1])
+            redis.call('PEXPIRE', KEYS[1], ARGV[4])
+            redis.call('HINCRBY', KEYS[2], ARGV[1], 1)
+            return 1
+            """, Long.class);
+
+    /**
+     * 取出并删除全部待写回的增量，多个节点同时写回时各自取到不同的增量
+     */
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> DRAIN_SCRIPT = new DefaultRedisScript<>("""
+            local entries = redis.call('HGETALL', KEYS[1])
+            redis.call('DEL', KEYS[1])
+            return entries
+            """, List.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final FileShareMapper fileShareMapper;
+
+    private final ShareProperties properties;
+
+    @Autowired
+    public ShareAccessCounter(StringRedisTemplate stringRedisTemplate, FileShareMapper fileShareMapper,
+                              ShareProperties properties) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.fileShareMapper = fileShareMapper;
+        this.properties = properties;
+    }
+
+    /**
+     * 记录一次访问
+     *
+     * @param share 解析后的分享
+     * @return 是否允许访问，已达到访问上限时返回 false
+     * @throws IllegalStateException 有访问上限的分享无法计数
+     */
+    public boolean tryAcquire(ResolvedShare share) {
+        Integer limit = share.maxAccessCount();
+        try {
+            Long result = stringRedisTemplate.execute(ACQUIRE_SCRIPT,
+                    List.of(COUNT_KEY_PREFIX + share.shareId(), PENDING_KEY), String.valueOf(share.shareId()),
+                    String.valueOf(share.viewCount()), String.valueOf(limit == null ? 0 : limit),
+                    String.valueOf(properties.getCounterTtl().toMillis()));
+            return Long.valueOf(1).equals(result);
+        } catch (Exception e) {
+            if (limit != null) {
+                throw new IllegalStateException("系统繁忙，请稍后重试", e);
+            }
+            // 没有访问上限的分享只是少记一次访问
+            log.warn("记录分享访问次数失败，分享ID: {}，原因: {}", share.shareId(), e.getMessage());
+            return true;
+        }
+    }
+
+    /**
+     * 删除分享的访问计数，取消分享时调用
+     *
+     * @param shareId 分享ID
+     */
+    public void remove(Long shareId) {
+        try {
+            stringRedisTemplate.delete(COUNT_KEY_PREFIX + shareId);
+        } catch (Exception e) {
+            log.warn("删除分享访问计数失败，分享ID: {}", shareId, e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${zfile.share.flush-interval:10000}",
+            initialDelayString = "${zfile.share.flush-interval:10000}")
+    public void flush() {
+        List<?> entries;
+        try {
+            entries = stringRedisTemplate.execute(DRAIN_SCRIPT, List.of(PENDING_KEY));
+        } catch (Exception e) {
+            log.warn("读取待写回的分享访问次数失败: {}", e.getMessage());
+            return;
+        }
+        if (entries == null || entries.isEmpty()) {
+            return;
+        }
+        for (int i = 0; i + 1 < entries.size(); i += 2) {
+            String shareId = String.valueOf(entries.get(i));
+            long delta = Long.parseLong(String.valueOf(entries.get(i + 1)));
+            try {
+                fileShareMapper.addViewCount(Long.valueOf(shareId), delta);
+            } catch (Exception e) {
+                // 放回 Redis，下次再写
+                log.warn("写回分享访问次数失败，分享ID: {}，原因: {}", shareId, e.getMessage());
+                try {
+                    stringRedisTemplate.opsForHash().increment(PENDING_KEY, shareId, delta);
+                } catch (Exception redisException) {
+                    log.error("分享访问次数丢失，分享ID: {}，次数: {}", shareId, delta, redisException);
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,145 @@
+package com.zfile.module.share.cache;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import com.zfile.module.share.config.ShareProperties;
+import com.zfile.module.share.mapper.FileShareMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 分享码过滤器
+ * 每个节点在内存中保存所有有效分享码的布隆过滤器，不在过滤器中的分享码一定不存在，直接按不存在处理，
+ * 不访问 Redis 和数据库，猜测分享码的请求几乎都在这里被拒绝；命中过滤器的分享码再按原来的方式解析。
+ * 新建的分享在事务提交后加入过滤器并通过 Redis 通知其他节点；过滤器定期从主库重建，清除已取消和已过期的分享码。
+ * 首次构建完成前所有分享码都按可能存在处理
+ */
+@Slf4j
+@Component
+public class ShareCodeFilter {
+
+    /**
+     * 新建分享通知频道，消息内容为分享码
+     */
+    private static final String CREATED_CHANNEL = "zfile:share:created";
+
+    private final FileShareMapper fileShareMapper;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final ShareProperties properties;
+
+    private final Counter rejectedCounter;
+
+    /**
+     * 当前使用的过滤器，首次构建完成前为 null
+     */
+    private volatile BloomFilter<CharSequence> bloomFilter;
+
+    /**
+     * 正在重建的过滤器，重建期间新建的分享码同时写入，避免切换后丢失
+     */
+    private volatile BloomFilter<CharSequence> building;
+
+    /**
+     * 上次重建时的分享码数量
+     */
+    private long lastSize;
+
+    @Autowired
+    public ShareCodeFilter(FileShareMapper fileShareMapper, StringRedisTemplate stringRedisTemplate,
+                           RedisMessageListenerContainer listenerContainer, MeterRegistry meterRegistry,
+                           ShareProperties properties) {
+        this.fileShareMapper = fileShareMapper;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.properties = properties;
+        this.rejectedCounter = Counter.builder("zfile.share.code-filter.rejected").register(meterRegistry);
+
+        listenerContainer.addMessageListener((message, pattern) ->
+                addLocal(new String(message.getBody(), StandardCharsets.UTF_8)), new ChannelTopic(CREATED_CHANNEL));
+    }
+
+    /**
+     * 判断分享码是否可能存在，只访问内存
+     *
+     * @param shareCode 分享码
+     * @return 一定不存在时返回 false
+     */
+    public boolean mightContain(String shareCode) {
+        BloomFilter<CharSequence> filter = bloomFilter;
+        if (filter == null || filter.mightContain(shareCode)) {
+            return true;
+        }
+        rejectedCounter.increment();
+        return false;
+    }
+
+    /**
+     * 加入新建的分享码并通知其他节点，在分享的事务提交后调用
+     *
+     * @param shareCode 分享码
+     */
+    public void add(String shareCode) {
+        addLocal(shareCode);
+        try {
+            stringRedisTemplate.convertAndSend(CREATED_CHANNEL, shareCode);
+        } catch (Exception e) {
+            // 其他节点在下次重建后才能访问该分享
+            log.warn("发布新分享通知失败，分享码: {}", shareCode, e);
+        }
+    }
+
+    /**
+     * 启动时以及定期从数据库重建过滤器
+     * 定时任务不经过 Service 切面，查询使用默认的主库，不会因从库延迟漏掉刚提交的分享
+     */
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${zfile.share.code-filter-rebuild-interval:300000}",
+            initialDelayString = "${zfile.share.code-filter-rebuild-interval:300000}")
+    public synchronized void reload() {
+        long start = System.currentTimeMillis();
+        BloomFilter<CharSequence> filter = BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8),
+                Math.max(properties.getCodeFilterExpectedInsertions(), lastSize * 2),
+                properties.getCodeFilterFalsePositiveProbability());
+        AtomicLong size = new AtomicLong();
+        // 先登记再查询，查询开始前提交的分享在查询结果中，之后加入的分享同时写入新过滤器
+        building = filter;
+        try {
+            fileShareMapper.streamShareCodes(context -> {
+                filter.put(context.getResultObject());
+                size.incrementAndGet();
+            });
+        } catch (Exception e) {
+            building = null;
+            log.warn("重建分享码过滤器失败，继续使用原来的过滤器", e);
+            return;
+        }
+        bloomFilter = filter;
+        building = null;
+        lastSize = size.get();
+        log.debug("重建分享码过滤器完成，分享数: {}，耗时: {} ms", lastSize, System.currentTimeMillis() - start);
+    }
+
+    private void addLocal(String shareCode) {
+        // 先写正在重建的过滤器，读到 null 时重建的查询尚未开始，查询结果会包含该分享
+        BloomFilter<CharSequence> pending = building;
+        if (pending != null) {
+            pending.put(shareCode);
+        }
+        BloomFilter<CharSequence> filter = bloomFilter;
+        if (filter != null) {
+            filter.put(shareCode);
+        }
+    }
+}
\ No newline at end of file
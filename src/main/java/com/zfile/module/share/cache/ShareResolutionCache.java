@@ -0,0 +1,271 @@
+package com.zfile.module.share.cache;
+
+import com.alibaba.fastjson2.JSON;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.Striped;
+import com.zfile.module.share.config.ShareProperties;
+import com.zfile.module.share.model.ResolvedShare;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
+
+/**
+ * 分享码解析缓存
+ * 本节点内存和 Redis 两级缓存解析后的分享，热门分享只访问本节点内存；同一分享码同时未命中时只有一个请求查询数据库。
+ * 不在分享码过滤器中的分享码直接按不存在处理，猜测分享码的请求不访问 Redis 和数据库；
+ * 通过过滤器但不存在或已过期的分享码也会缓存，与有效分享分开保存，不会挤掉热门分享。
+ * 取消分享、分享的文件被删除或改名后清除 Redis 中的缓存并通知各节点，延迟一段时间后再清除一次
+ */
+@Slf4j
+@Component
+public class ShareResolutionCache {
+
+    private static final String KEY_PREFIX = "zfile:share:resolved:";
+
+    /**
+     * Redis 中表示分享码不存在的值
+     */
+    private static final String MISSING = "-";
+
+    /**
+     * 分享缓存失效通知频道，消息内容为分享码
+     */
+    private static final String INVALIDATED_CHANNEL = "zfile:share:invalidated";
+
+    /**
+     * 分享码 -> 解析后的分享
+     */
+    private final Cache<String, ResolvedShare> shares;
+
+    /**
+     * 不存在或已过期的分享码
+     */
+    private final Cache<String, Boolean> missingCodes;
+
+    private final Striped<Lock> loadLocks = Striped.lock(64);
+
+    private final ScheduledExecutorService invalidationExecutor;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final ShareCodeFilter shareCodeFilter;
+
+    private final ShareProperties properties;
+
+    private final Counter loadCounter;
+
+    @Autowired
+    public ShareResolutionCache(StringRedisTemplate stringRedisTemplate, RedisMessageListenerContainer listenerContainer,
+                                MeterRegistry meterRegistry, ShareCodeFilter shareCodeFilter, ShareProperties properties) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.shareCodeFilter = shareCodeFilter;
+        this.properties = properties;
+        this.shares = CacheBuilder.newBuilder()
+                .maximumSize(properties.getLocalCacheSize())
+                .expireAfterWrite(properties.getLocalCacheTtl())
+                .build();
+        this.missingCodes = CacheBuilder.newBuilder()
+                .maximumSize(properties.getMissingCacheSize())
+                .expireAfterWrite(properties.getMissingTtl())
+                .build();
+        this.invalidationExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "share-cache-invalidation");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.loadCounter = Counter.builder("zfile.share.cache.loads").register(meterRegistry);
+
+        listenerContainer.addMessageListener((message, pattern) ->
+                invalidateLocal(new String(message.getBody(), StandardCharsets.UTF_8)), new ChannelTopic(INVALIDATED_CHANNEL));
+    }
+
+    /**
+     * 解析分享码，依次查找本节点内存、分享码过滤器、Redis，都未命中时调用 loader 查询数据库并写入缓存
+     *
+     * @param shareCode 分享码
+     * @param loader    查询数据库的方法，分享不存在或已过期时返回 null
+     * @return 解析后的分享，不存在时为空
+     */
+    public Optional<ResolvedShare> resolve(String shareCode, Function<String, ResolvedShare> loader) {
+        ResolvedShare share = shares.getIfPresent(shareCode);
+        if (share != null) {
+            return Optional.of(share);
+        }
+        if (!shareCodeFilter.mightContain(shareCode) || missingCodes.getIfPresent(shareCode) != null) {
+            return Optional.empty();
+        }
+
+        Lock lock = loadLocks.get(shareCode);
+        lock.lock();
+        try {
+            share = shares.getIfPresent(shareCode);
+            if (share != null) {
+                return Optional.of(share);
+            }
+            if (missingCodes.getIfPresent(shareCode) != null) {
+                return Optional.empty();
+            }
+
+            String value = readRedis(shareCode);
+            if (MISSING.equals(value)) {
+                missingCodes.put(shareCode, Boolean.TRUE);
+                return Optional.empty();
+            }
+            if (value != null) {
+                share = JSON.parseObject(value, ResolvedShare.class);
+                shares.put(shareCode, share);
+                return Optional.of(share);
+            }
+
+            loadCounter.increment();
+            share = loader.apply(shareCode);
+            if (share == null) {
+                missingCodes.put(shareCode, Boolean.TRUE);
+                writeRedis(shareCode, MISSING, properties.getMissingTtl());
+                return Optional.empty();
+            }
+            shares.put(shareCode, share);
+            writeRedis(shareCode, JSON.toJSONString(share), ttlOf(share));
+            return Optional.of(share);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 分享已过期，本节点改为按不存在处理；Redis 中的缓存在过期时间自动删除
+     *
+     * @param shareCode 分享码
+     */
+    public void markExpired(String shareCode) {
+        shares.invalidate(shareCode);
+        missingCodes.put(shareCode, Boolean.TRUE);
+    }
+
+    /**
+     * 在当前事务提交后写入新建的分享，并使各节点缓存的不存在标记失效，避免从库延迟时新分享被当作不存在
+     *
+     * @param share 解析后的分享
+     */
+    public void putAfterCommit(ResolvedShare share) {
+        afterCommit(() -> {
+            shareCodeFilter.add(share.shareCode());
+            writeRedis(share.shareCode(), JSON.toJSONString(share), ttlOf(share));
+            invalidateLocal(share.shareCode());
+            shares.put(share.shareCode(), share);
+            publish(share.shareCode());
+        });
+    }
+
+    /**
+     * 在当前事务提交后清除分享的缓存，没有事务时立即清除
+     *
+     * @param shareCodes 分享码
+     */
+    public void invalidateAfterCommit(Collection<String> shareCodes) {
+        if (shareCodes == null || shareCodes.isEmpty()) {
+            return;
+        }
+        List<String> targets = List.copyOf(shareCodes);
+        afterCommit(() -> {
+            targets.forEach(this::invalidate);
+            // 提交前已开始查询的请求可能随后把旧数据写回缓存，延迟后再清除一次
+            invalidationExecutor.schedule(() -> targets.forEach(this::invalidate),
+                    properties.getSecondInvalidationDelay().toMillis(), TimeUnit.MILLISECONDS);
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        invalidationExecutor.shutdownNow();
+    }
+
+    private void invalidate(String shareCode) {
+        try {
+            stringRedisTemplate.delete(KEY_PREFIX + shareCode);
+        } catch (Exception e) {
+            log.warn("删除分享缓存失败，分享码: {}", shareCode, e);
+        }
+        invalidateLocal(shareCode);
+        publish(shareCode);
+    }
+
+    private void invalidateLocal(String shareCode) {
+        shares.invalidate(shareCode);
+        missingCodes.invalidate(shareCode);
+    }
+
+    private void publish(String shareCode) {
+        try {
+            stringRedisTemplate.convertAndSend(INVALIDATED_CHANNEL, shareCode);
+        } catch (Exception e) {
+            // 其他节点的缓存最迟在 localCacheTtl 后过期
+            log.warn("发布分享缓存失效通知失败，分享码: {}", shareCode, e);
+        }
+    }
+
+    private String readRedis(String shareCode) {
+        try {
+            return stringRedisTemplate.opsForValue().get(KEY_PREFIX + shareCode);
+        } catch (Exception e) {
+            log.warn("读取分享缓存失败，分享码: {}，原因: {}", shareCode, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeRedis(String shareCode, String value, Duration ttl) {
+        try {
+            stringRedisTemplate.opsForValue().set(KEY_PREFIX + shareCode, value, ttl);
+        } catch (Exception e) {
+            log.warn("写入分享缓存失败，分享码: {}，原因: {}", shareCode, e.getMessage());
+        }
+    }
+
+    /**
+     * Redis 中的缓存时间，不超过分享的过期时间
+     */
+    private Duration ttlOf(ResolvedShare share) {
+        Duration ttl = properties.getCacheTtl();
+        if (share.expireTime() != null) {
+            Duration remaining = Duration.between(LocalDateTime.now(), share.expireTime());
+            if (remaining.compareTo(ttl) < 0) {
+                ttl = remaining.compareTo(Duration.ofSeconds(1)) < 0 ? Duration.ofSeconds(1) : remaining;
+            }
+        }
+        return ttl;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,71 @@
+package com.zfile.module.share.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 文件分享配置
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "zfile.share")
+public class ShareProperties {
+
+    /**
+     * 解析后的分享在 Redis 中的缓存时间，分享在此之前过期时缓存到过期时间为止
+     */
+    private Duration cacheTtl = Duration.ofHours(1);
+
+    /**
+     * 解析后的分享在本节点内存中的缓存时间，取消分享等变更通过 Redis 通知各节点
+     */
+    private Duration localCacheTtl = Duration.ofMinutes(10);
+
+    /**
+     * 本节点内存中缓存的分享数上限
+     */
+    private long localCacheSize = 10000;
+
+    /**
+     * 不存在的分享码的缓存时间，枚举分享码的请求在此期间不会查询数据库
+     */
+    private Duration missingTtl = Duration.ofMinutes(1);
+
+    /**
+     * 本节点内存中缓存的不存在分享码数上限，与有效分享分开缓存，枚举请求不会挤掉热门分享
+     */
+    private long missingCacheSize = 100000;
+
+    /**
+     * 分享码过滤器的预期分享数，实际分享数更多时按实际数量的两倍重建
+     */
+    private int codeFilterExpectedInsertions = 1_000_000;
+
+    /**
+     * 分享码过滤器的误判率，误判的分享码按原来的方式查询缓存和数据库
+     */
+    private double codeFilterFalsePositiveProbability = 0.01;
+
+    /**
+     * 从数据库重建分享码过滤器的间隔（毫秒），清除已取消和已过期的分享码，并补上错过通知的新分享
+     */
+    private long codeFilterRebuildInterval = 300000;
+
+    /**
+     * 分享变更后再次清除缓存的延迟，清除变更前已开始、变更后才写入缓存的旧数据（包括从库延迟读到的旧数据）
+     */
+    private Duration secondInvalidationDelay = Duration.ofSeconds(5);
+
+    /**
+     * Redis 中访问计数的保留时间，每次访问后延长
+     */
+    private Duration counterTtl = Duration.ofDays(7);
+
+    /**
+     * 访问次数写回数据库的间隔（毫秒）
+     */
+    private long flushInterval = 10000;
+}
\ No newline at end of file
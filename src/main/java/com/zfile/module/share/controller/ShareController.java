@@ -0,0 +1,113 @@
+package com.zfile.module.share.controller;
+
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.github.xiaoymin.knife4j.annotations.ApiSort;
+import com.zfile.common.result.Result;
+import com.zfile.module.auth.springsecurity.util.LoginUserUtil;
+import com.zfile.module.file.response.FileItemResponse;
+import com.zfile.module.share.convert.ShareConvert;
+import com.zfile.module.share.entity.FileShare;
+import com.zfile.module.share.request.AccessShareRequest;
+import com.zfile.module.share.request.CreateShareRequest;
+import com.zfile.module.share.response.SharePageResponse;
+import com.zfile.module.share.service.FileShareService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+@Tag(name = "分享接口")
+@ApiSort(6)
+@RequestMapping("/api/v1/shares")
+@RestController
+@Validated
+public class ShareController {
+    //构造器中注入
+    private final FileShareService fileShareService;
+
+    private static final Logger logger = LoggerFactory.getLogger(ShareController.class);
+
+    @Autowired
+    public ShareController(FileShareService fileShareService) {
+        this.fileShareService = fileShareService;
+    }
+
+    @Operation(summary = "创建分享")
+    @PostMapping
+    public Result<?> createShare(@RequestBody @Validated CreateShareRequest createShareRequest) {
+        try {
+            Integer userId = LoginUserUtil.getCurrentUserId();
+            FileShare fileShare = fileShareService.createShare(userId, createShareRequest);
+            return Result.success(ShareConvert.INSTANCE.convertToShareResponse(fileShare));
+        } catch (IllegalArgumentException e) {
+            logger.warn("创建分享参数无效，请求参数: {}，原因: {}", createShareRequest, e.getMessage());
+            return Result.fail("创建分享失败: " + e.getMessage());
+        } catch (Exception e) {
+            logger.error("创建分享时发生异常，请求参数: {}", createShareRequest, e);
+            return Result.fail("创建分享失败: " + e.getMessage());
+        }
+    }
+
+    @Operation(summary = "分页查询我的分享")
+    @GetMapping
+    public Result<?> pageShares(@RequestParam(value = "page", defaultValue = "1") @Min(1) Integer page,
+                                @RequestParam(value = "pageSize", defaultValue = "20") @Min(1) @Max(100) Integer pageSize) {
+        try {
+            Integer userId = LoginUserUtil.getCurrentUserId();
+            IPage<FileShare> sharePage = fileShareService.pageShares(userId, page, pageSize);
+            SharePageResponse sharePageResponse = new SharePageResponse();
+            sharePageResponse.setItems(ShareConvert.INSTANCE.convertToShareResponseList(sharePage.getRecords()));
+            sharePageResponse.setTotal(sharePage.getTotal());
+            sharePageResponse.setPage(page);
+            sharePageResponse.setPageSize(pageSize);
+            return Result.success(sharePageResponse);
+        } catch (Exception e) {
+            logger.error("查询分享时发生异常", e);
+            return Result.fail("查询分享失败: " + e.getMessage());
+        }
+    }
+
+    @Operation(summary = "取消分享")
+    @DeleteMapping("/{id}")
+    public Result<?> removeShare(@PathVariable("id") Long id) {
+        try {
+            Integer userId = LoginUserUtil.getCurrentUserId();
+            fileShareService.removeShare(userId, id);
+            return Result.success();
+        } catch (IllegalArgumentException e) {
+            logger.warn("取消分享失败，分享ID: {}，原因: {}", id, e.getMessage());
+            return Result.fail("取消分享失败: " + e.getMessage());
+        } catch (Exception e) {
+            logger.error("取消分享时发生异常，分享ID: {}", id, e);
+            return Result.fail("取消分享失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 访问分享
+     * 不需要登录，分享码由缓存解析，热门分享的访问不查询数据库
+     */
+    @Operation(summary = "访问分享")
+    @PostMapping("/{code}")
+    public Result<?> accessShare(@PathVariable("code") String code,
+                                 @RequestBody(required = false) @Validated AccessShareRequest accessShareRequest,
+                                 HttpServletRequest request) {
+        try {
+            String password = accessShareRequest == null ? null : accessShareRequest.getPassword();
+            FileItemResponse fileItemResponse = fileShareService.getSharedFile(code, password, request.getRemoteAddr());
+            return Result.success(fileItemResponse);
+        } catch (IllegalArgumentException e) {
+            logger.debug("访问分享失败，分享码: {}，原因: {}", code, e.getMessage());
+            return Result.fail("访问分享失败: " + e.getMessage());
+        } catch (Exception e) {
+            logger.error("访问分享时发生异常，分享码: {}", code, e);
+            return Result.fail("访问分享失败: " + e.getMessage());
+        }
+    }
+}
\ No newline at end of file
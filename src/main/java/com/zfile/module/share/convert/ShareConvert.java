@@ -0,0 +1,37 @@
+package com.zfile.module.share.convert;
+
+import com.zfile.module.share.entity.FileShare;
+import com.zfile.module.share.response.ShareResponse;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.factory.Mappers;
+
+import java.util.List;
+
+/**
+ * 文件分享对象转换类
+ */
+@Mapper(componentModel = "default")
+public interface ShareConvert {
+
+    ShareConvert INSTANCE = Mappers.getMapper(ShareConvert.class);
+
+    /**
+     * 将 FileShare 转换为 ShareResponse，不返回访问密码
+     *
+     * @param fileShare 文件分享实体
+     * @return ShareResponse 响应对象
+     */
+    @Mapping(target = "hasPassword", expression = "java(fileShare.getPassword() != null)")
+    @Mapping(target = "expireAt", source = "expireTime")
+    @Mapping(target = "createdAt", source = "createTime")
+    ShareResponse convertToShareResponse(FileShare fileShare);
+
+    /**
+     * 将 FileShare 列表转换为 ShareResponse 列表
+     *
+     * @param fileShares 文件分享实体列表
+     * @return ShareResponse 列表
+     */
+    List<ShareResponse> convertToShareResponseList(List<FileShare> fileShares);
+}
\ No newline at end of file
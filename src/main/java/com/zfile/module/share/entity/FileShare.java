@@ -0,0 +1,71 @@
+package com.zfile.module.share.entity;
+
+import com.baomidou.mybatisplus.annotation.FieldFill;
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableLogic;
+import com.baomidou.mybatisplus.annotation.TableName;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 文件分享表
+ * @TableName file_share
+ */
+@TableName(value = "file_share")
+@Data
+@Schema(description = "文件分享")
+public class FileShare implements Serializable {
+
+    @Serial
+    @TableField(exist = false)
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "分享ID")
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    @Schema(description = "分享码")
+    private String shareCode;
+
+    @Schema(description = "分享的文件或文件夹ID")
+    private Long fileId;
+
+    @Schema(description = "分享者用户ID")
+    private Integer userId;
+
+    @Schema(description = "访问密码哈希，为空表示不需要密码")
+    private String password;
+
+    @Schema(description = "访问密码盐值")
+    private String salt;
+
+    @Schema(description = "过期时间，为空表示永久有效")
+    private LocalDateTime expireTime;
+
+    @Schema(description = "最大访问次数，为空表示不限制")
+    private Integer maxAccessCount;
+
+    @Schema(description = "访问次数")
+    private Integer viewCount;
+
+    @Schema(description = "下载次数")
+    private Integer downloadCount;
+
+    @Schema(description = "创建时间")
+    @TableField(fill = FieldFill.INSERT)
+    private LocalDateTime createTime;
+
+    @Schema(description = "更新时间")
+    @TableField(fill = FieldFill.INSERT_UPDATE)
+    private LocalDateTime updateTime;
+
+    @Schema(description = "逻辑删除：0-未删除，1-已删除")
+    @TableLogic
+    private Integer deleted;
+}
\ No newline at end of file
@@ -0,0 +1,49 @@
+package com.zfile.module.share.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.zfile.module.share.entity.FileShare;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.util.List;
+
+/**
+ * 针对表【file_share(文件分享表)】的数据库操作Mapper
+ */
+public interface FileShareMapper extends BaseMapper<FileShare> {
+
+    /**
+     * 查询子树中文件的分享并加行锁，删除文件夹时用于一并取消分享
+     *
+     * @param userId 用户ID
+     * @param prefix 文件夹的子节点祖先路径
+     * @return 分享ID和分享码
+     */
+    @Select("SELECT s.id, s.share_code FROM file_share s JOIN file_info f ON f.id = s.file_id "
+            + "WHERE s.user_id = #{userId} AND s.deleted = 0 AND f.user_id = #{userId} "
+            + "AND f.ancestor_path LIKE CONCAT(#{prefix}, '%') AND f.deleted = 0 FOR UPDATE")
+    List<FileShare> selectSubtreeSharesForUpdate(@Param("userId") Integer userId, @Param("prefix") String prefix);
+
+    /**
+     * 累加访问次数，写回 Redis 中的访问计数时使用
+     *
+     * @param id    分享ID
+     * @param delta 增加的次数
+     * @return 更新行数
+     */
+    @Update("UPDATE file_share SET view_count = view_count + #{delta} WHERE id = #{id}")
+    int addViewCount(@Param("id") Long id, @Param("delta") long delta);
+
+    /**
+     * 流式查询所有未过期分享的分享码，MySQL 驱动逐行返回结果，用于构建分享码过滤器
+     *
+     * @param handler 逐行处理结果
+     */
+    @Select("SELECT share_code FROM file_share WHERE deleted = 0 AND (expire_time IS NULL OR expire_time > NOW())")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    void streamShareCodes(ResultHandler<String> handler);
+}
\ No newline at end of file
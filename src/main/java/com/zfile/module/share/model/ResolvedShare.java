@@ -0,0 +1,29 @@
+package com.zfile.module.share.model;
+
+import com.zfile.module.file.response.FileItemResponse;
+
+import java.time.LocalDateTime;
+
+/**
+ * 解析后的分享，公开访问只需要这些信息，缓存后访问分享不再查询数据库
+ *
+ * @param shareId        分享ID
+ * @param shareCode      分享码
+ * @param userId         分享者用户ID
+ * @param password       访问密码哈希，为空表示不需要密码
+ * @param salt           访问密码盐值
+ * @param expireTime     过期时间，为空表示永久有效
+ * @param maxAccessCount 最大访问次数，为空表示不限制
+ * @param viewCount      解析时数据库中的访问次数，用于初始化 Redis 中的访问计数
+ * @param file           分享的文件
+ */
+public record ResolvedShare(Long shareId, String shareCode, Integer userId, String password, String salt,
+                            LocalDateTime expireTime, Integer maxAccessCount, int viewCount, FileItemResponse file) {
+
+    /**
+     * 是否已过期
+     */
+    public boolean isExpired() {
+        return expireTime != null && !LocalDateTime.now().isBefore(expireTime);
+    }
+}
\ No newline at end of file
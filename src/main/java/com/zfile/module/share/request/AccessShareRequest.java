@@ -0,0 +1,14 @@
+package com.zfile.module.share.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import org.hibernate.validator.constraints.Length;
+
+@Data
+@Schema(description = "访问分享请求")
+public class AccessShareRequest {
+
+    @Schema(description = "访问密码，分享设置了密码时必填")
+    @Length(max = 32, message = "访问密码长度不能超过32个字符")
+    private String password;
+}
\ No newline at end of file
@@ -0,0 +1,29 @@
+package com.zfile.module.share.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+import org.hibernate.validator.constraints.Length;
+
+import java.time.LocalDateTime;
+
+@Data
+@Schema(description = "创建分享请求")
+public class CreateShareRequest {
+
+    @Schema(description = "分享的文件或文件夹ID")
+    @NotBlank(message = "文件ID不能为空")
+    private String fileId;
+
+    @Schema(description = "访问密码，为空表示不需要密码")
+    @Length(max = 32, message = "访问密码长度不能超过32个字符")
+    private String password;
+
+    @Schema(description = "过期时间，为空表示永久有效")
+    private LocalDateTime expireAt;
+
+    @Schema(description = "最大访问次数，为空表示不限制")
+    @Min(value = 1, message = "最大访问次数不能小于1")
+    private Integer maxAccessCount;
+}
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.zfile.module.share.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+@Schema(description = "分享分页结果")
+public class SharePageResponse implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "当前页的分享，按创建时间倒序")
+    private List<ShareResponse> items;
+
+    @Schema(description = "分享总数")
+    private Long total;
+
+    @Schema(description = "当前页")
+    private Integer page;
+
+    @Schema(description = "每页大小")
+    private Integer pageSize;
+}
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.zfile.module.share.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Data
+@Schema(description = "分享信息")
+public class ShareResponse implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "分享ID")
+    private String id;
+
+    @Schema(description = "分享的文件或文件夹ID")
+    private String fileId;
+
+    @Schema(description = "分享者用户ID")
+    private String userId;
+
+    @Schema(description = "分享码")
+    private String shareCode;
+
+    @Schema(description = "是否需要访问密码")
+    private Boolean hasPassword;
+
+    @Schema(description = "过期时间，为空表示永久有效")
+    private LocalDateTime expireAt;
+
+    @Schema(description = "最大访问次数，为空表示不限制")
+    private Integer maxAccessCount;
+
+    @Schema(description = "访问次数，定期从缓存写回，可能略少于实际次数")
+    private Integer viewCount;
+
+    @Schema(description = "下载次数")
+    private Integer downloadCount;
+
+    @Schema(description = "创建时间")
+    private LocalDateTime createdAt;
+}
\ No newline at end of file
@@ -0,0 +1,73 @@
+package com.zfile.module.share.service;
+
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.extension.service.IService;
+import com.zfile.module.file.response.FileItemResponse;
+import com.zfile.module.share.entity.FileShare;
+import com.zfile.module.share.request.CreateShareRequest;
+
+/**
+ * 针对表【file_share(文件分享表)】的数据库操作Service
+ * 公开访问分享由 ShareResolutionCache 缓存，分享或分享的文件变更后需要清除缓存
+ */
+public interface FileShareService extends IService<FileShare> {
+
+    /**
+     * 创建分享，分享码随机生成
+     *
+     * @param userId  用户ID
+     * @param request 分享的文件、访问密码、过期时间和访问上限
+     * @return 创建的分享
+     * @throws IllegalArgumentException 文件不存在或过期时间早于当前时间
+     */
+    FileShare createShare(Integer userId, CreateShareRequest request);
+
+    /**
+     * 分页查询用户的分享，按创建时间倒序
+     *
+     * @param userId   用户ID
+     * @param page     当前页
+     * @param pageSize 每页大小
+     * @return 分页结果
+     */
+    IPage<FileShare> pageShares(Integer userId, int page, int pageSize);
+
+    /**
+     * 取消分享
+     *
+     * @param userId  用户ID
+     * @param shareId 分享ID
+     * @throws IllegalArgumentException 分享不存在
+     */
+    void removeShare(Integer userId, Long shareId);
+
+    /**
+     * 通过分享码访问分享的文件，不需要登录
+     * 分享从缓存中解析，热门分享的访问不查询数据库
+     *
+     * @param shareCode 分享码
+     * @param password  访问密码
+     * @param clientIp  访问者 IP，用于限制密码尝试次数
+     * @return 分享的文件
+     * @throws IllegalArgumentException 分享不存在、已过期、密码错误、密码尝试过于频繁或已达到访问上限
+     */
+    FileItemResponse getSharedFile(String shareCode, String password, String clientIp);
+
+    /**
+     * 删除文件或文件夹时取消其中所有文件的分享，在删除文件的事务中调用
+     *
+     * @param userId        用户ID
+     * @param fileId        文件或文件夹ID
+     * @param subtreePrefix 文件夹的子节点祖先路径，不是文件夹时为空
+     * @return 取消的分享数
+     */
+    int removeFileShares(Integer userId, Long fileId, String subtreePrefix);
+
+    /**
+     * 文件改名或移动后清除其分享的缓存，在修改文件的事务中调用
+     *
+     * @param userId 用户ID
+     * @param fileId 文件或文件夹ID
+     */
+    void evictFileShares(Integer userId, Long fileId);
+}
\ No newline at end of file
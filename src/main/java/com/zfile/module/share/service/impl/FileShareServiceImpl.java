@@ -0,0 +1,275 @@
+package com.zfile.module.share.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.zfile.module.auth.springsecurity.ratelimit.LoginRateLimiter;
+import com.zfile.module.file.convert.FileInfoConvert;
+import com.zfile.module.file.entity.FileInfo;
+import com.zfile.module.file.mapper.FileInfoMapper;
+import com.zfile.module.file.response.FileItemResponse;
+import com.zfile.module.share.cache.ShareAccessCounter;
+import com.zfile.module.share.cache.ShareResolutionCache;
+import com.zfile.module.share.entity.FileShare;
+import com.zfile.module.share.mapper.FileShareMapper;
+import com.zfile.module.share.model.ResolvedShare;
+import com.zfile.module.share.request.CreateShareRequest;
+import com.zfile.module.share.service.FileShareService;
+import com.zfile.module.user.util.PasswordHashEngine;
+import com.zfile.module.user.util.PasswordUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.regex.Pattern;
+
+/**
+ * 针对表【file_share(文件分享表)】的数据库操作Service实现
+ */
+@Service
+public class FileShareServiceImpl extends ServiceImpl<FileShareMapper, FileShare> implements FileShareService {
+
+    private static final Logger log = LoggerFactory.getLogger(FileShareServiceImpl.class);
+
+    private static final String SHARE_CODE_ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+
+    private static final int SHARE_CODE_LENGTH = 8;
+
+    /**
+     * 格式不对的分享码直接按不存在处理，不查询缓存
+     */
+    private static final Pattern SHARE_CODE_PATTERN = Pattern.compile("[A-Za-z0-9]{" + SHARE_CODE_LENGTH + "}");
+
+    /**
+     * 分享码冲突时重新生成的次数
+     */
+    private static final int MAX_CODE_ATTEMPTS = 5;
+
+    private static final String SHARE_NOT_FOUND = "分享不存在或已过期";
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final FileInfoMapper fileInfoMapper;
+
+    private final ShareResolutionCache shareResolutionCache;
+
+    private final ShareAccessCounter shareAccessCounter;
+
+    private final PasswordHashEngine passwordHashEngine;
+
+    private final LoginRateLimiter loginRateLimiter;
+
+    @Autowired
+    public FileShareServiceImpl(FileInfoMapper fileInfoMapper, ShareResolutionCache shareResolutionCache,
+                                ShareAccessCounter shareAccessCounter, PasswordHashEngine passwordHashEngine,
+                                LoginRateLimiter loginRateLimiter) {
+        this.fileInfoMapper = fileInfoMapper;
+        this.shareResolutionCache = shareResolutionCache;
+        this.shareAccessCounter = shareAccessCounter;
+        this.passwordHashEngine = passwordHashEngine;
+        this.loginRateLimiter = loginRateLimiter;
+    }
+
+    /**
+     * 提交后把分享写入缓存，从库尚未同步时也能立即访问
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public FileShare createShare(Integer userId, CreateShareRequest request) {
+        long fileId;
+        try {
+            fileId = Long.parseLong(request.getFileId());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("文件不存在: " + request.getFileId());
+        }
+        if (request.getExpireAt() != null && !request.getExpireAt().isAfter(LocalDateTime.now())) {
+            throw new IllegalArgumentException("过期时间不能早于当前时间");
+        }
+        QueryWrapper<FileInfo> queryWrapper = new QueryWrapper<>();
+        queryWrapper.eq("id", fileId).eq("user_id", userId);
+        FileInfo fileInfo = fileInfoMapper.selectOne(queryWrapper);
+        if (fileInfo == null) {
+            throw new IllegalArgumentException("文件不存在: " + fileId);
+        }
+
+        FileShare fileShare = new FileShare();
+        fileShare.setFileId(fileId);
+        fileShare.setUserId(userId);
+        if (StringUtils.hasText(request.getPassword())) {
+            String salt = PasswordUtil.generateSalt();
+            fileShare.setSalt(salt);
+            try {
+                fileShare.setPassword(passwordHashEngine.encode(request.getPassword(), salt));
+            } catch (RejectedExecutionException e) {
+                throw new RuntimeException("系统繁忙，请稍后重试", e);
+            }
+        }
+        fileShare.setExpireTime(request.getExpireAt());
+        fileShare.setMaxAccessCount(request.getMaxAccessCount());
+        fileShare.setViewCount(0);
+        fileShare.setDownloadCount(0);
+        fileShare.setCreateTime(LocalDateTime.now());
+        for (int attempt = 1; ; attempt++) {
+            fileShare.setShareCode(generateShareCode());
+            try {
+                this.baseMapper.insert(fileShare);
+                break;
+            } catch (DuplicateKeyException e) {
+                if (attempt >= MAX_CODE_ATTEMPTS) {
+                    throw new RuntimeException("生成分享码失败", e);
+                }
+            }
+        }
+
+        shareResolutionCache.putAfterCommit(toResolvedShare(fileShare, fileInfo));
+        log.info("创建分享成功，分享ID: {}，文件ID: {}", fileShare.getId(), fileId);
+        return fileShare;
+    }
+
+    @Override
+    public IPage<FileShare> pageShares(Integer userId, int page, int pageSize) {
+        QueryWrapper<FileShare> queryWrapper = new QueryWrapper<>();
+        queryWrapper.eq("user_id", userId).orderByDesc("id");
+        return this.page(new Page<>(page, pageSize), queryWrapper);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void removeShare(Integer userId, Long shareId) {
+        QueryWrapper<FileShare> queryWrapper = new QueryWrapper<>();
+        queryWrapper.eq("id", shareId).eq("user_id", userId);
+        FileShare fileShare = this.getOne(queryWrapper);
+        if (fileShare == null) {
+            throw new IllegalArgumentException("分享不存在: " + shareId);
+        }
+        this.removeById(shareId);
+        shareResolutionCache.invalidateAfterCommit(List.of(fileShare.getShareCode()));
+        shareAccessCounter.remove(shareId);
+        log.info("取消分享成功，分享ID: {}", shareId);
+    }
+
+    /**
+     * 分享码格式校验、过期判断、密码校验都在解析后的分享上进行，不查询数据库；
+     * 密码校验前按 IP 和分享码限流，猜测密码的请求不会进入哈希线程池；
+     * 访问计数只写 Redis
+     */
+    @Override
+    public FileItemResponse getSharedFile(String shareCode, String password, String clientIp) {
+        if (shareCode == null || !SHARE_CODE_PATTERN.matcher(shareCode).matches()) {
+            throw new IllegalArgumentException(SHARE_NOT_FOUND);
+        }
+        ResolvedShare share = shareResolutionCache.resolve(shareCode, this::loadShare)
+                .orElseThrow(() -> new IllegalArgumentException(SHARE_NOT_FOUND));
+        if (share.isExpired()) {
+            shareResolutionCache.markExpired(shareCode);
+            throw new IllegalArgumentException(SHARE_NOT_FOUND);
+        }
+        if (share.password() != null) {
+            if (!StringUtils.hasText(password)) {
+                throw new IllegalArgumentException("请输入访问密码");
+            }
+            checkPasswordAttempt(shareCode, clientIp);
+            boolean matched;
+            try {
+                matched = passwordHashEngine.matchesSharePassword(password, share.password(), share.salt());
+            } catch (RejectedExecutionException e) {
+                throw new RuntimeException("系统繁忙，请稍后重试", e);
+            }
+            if (!matched) {
+                throw new IllegalArgumentException("访问密码错误");
+            }
+        }
+        if (!shareAccessCounter.tryAcquire(share)) {
+            throw new IllegalArgumentException("分享访问次数已达上限");
+        }
+        return share.file();
+    }
+
+    @Override
+    public int removeFileShares(Integer userId, Long fileId, String subtreePrefix) {
+        QueryWrapper<FileShare> queryWrapper = new QueryWrapper<>();
+        queryWrapper.select("id", "share_code").eq("user_id", userId).eq("file_id", fileId).last("FOR UPDATE");
+        List<FileShare> fileShares = new ArrayList<>(this.list(queryWrapper));
+        if (subtreePrefix != null) {
+            fileShares.addAll(this.baseMapper.selectSubtreeSharesForUpdate(userId, subtreePrefix));
+        }
+        if (fileShares.isEmpty()) {
+            return 0;
+        }
+        this.removeByIds(fileShares.stream().map(FileShare::getId).toList());
+        shareResolutionCache.invalidateAfterCommit(fileShares.stream().map(FileShare::getShareCode).toList());
+        log.info("文件已删除，取消 {} 个分享，文件ID: {}", fileShares.size(), fileId);
+        return fileShares.size();
+    }
+
+    @Override
+    public void evictFileShares(Integer userId, Long fileId) {
+        QueryWrapper<FileShare> queryWrapper = new QueryWrapper<>();
+        queryWrapper.select("share_code").eq("user_id", userId).eq("file_id", fileId);
+        List<String> shareCodes = this.list(queryWrapper).stream().map(FileShare::getShareCode).toList();
+        shareResolutionCache.invalidateAfterCommit(shareCodes);
+    }
+
+    /**
+     * 密码尝试限流，IP 超限时不再消耗分享码的配额
+     */
+    private void checkPasswordAttempt(String shareCode, String clientIp) {
+        long waitSeconds = loginRateLimiter.tryAcquire(LoginRateLimiter.Rule.SHARE_PASSWORD_IP, clientIp);
+        if (waitSeconds == 0) {
+            waitSeconds = loginRateLimiter.tryAcquire(LoginRateLimiter.Rule.SHARE_PASSWORD_CODE, shareCode);
+        }
+        if (waitSeconds > 0) {
+            log.warn("分享密码尝试过于频繁，分享码: {}，IP: {}", shareCode, clientIp);
+            throw new IllegalArgumentException("密码尝试过于频繁，请 " + waitSeconds + " 秒后重试");
+        }
+    }
+
+    /**
+     * 缓存未命中时从数据库解析分享，分享不存在、已过期或文件已删除时返回 null
+     */
+    private ResolvedShare loadShare(String shareCode) {
+        QueryWrapper<FileShare> queryWrapper = new QueryWrapper<>();
+        queryWrapper.eq("share_code", shareCode);
+        FileShare fileShare = this.getOne(queryWrapper);
+        if (fileShare == null
+                || fileShare.getExpireTime() != null && !LocalDateTime.now().isBefore(fileShare.getExpireTime())) {
+            return null;
+        }
+        FileInfo fileInfo = fileInfoMapper.selectById(fileShare.getFileId());
+        if (fileInfo == null || !Objects.equals(fileInfo.getUserId(), fileShare.getUserId())) {
+            return null;
+        }
+        return toResolvedShare(fileShare, fileInfo);
+    }
+
+    private static ResolvedShare toResolvedShare(FileShare fileShare, FileInfo fileInfo) {
+        // 公开访问不返回分享者的存储路径、文件夹和内容哈希，缩略图接口需要登录
+        FileItemResponse file = FileInfoConvert.INSTANCE.convertToFileItemResponse(fileInfo);
+        file.setPath(null);
+        file.setParentId(null);
+        file.setHash(null);
+        file.setThumbnailUrl(null);
+        return new ResolvedShare(fileShare.getId(), fileShare.getShareCode(), fileShare.getUserId(),
+                fileShare.getPassword(), fileShare.getSalt(), fileShare.getExpireTime(), fileShare.getMaxAccessCount(),
+                fileShare.getViewCount() == null ? 0 : fileShare.getViewCount(), file);
+    }
+
+    private static String generateShareCode() {
+        StringBuilder builder = new StringBuilder(SHARE_CODE_LENGTH);
+        for (int i = 0; i < SHARE_CODE_LENGTH; i++) {
+            builder.append(SHARE_CODE_ALPHABET.charAt(RANDOM.nextInt(SHARE_CODE_ALPHABET.length())));
+        }
+        return builder.toString();
+    }
+}
\ No newline at end of file
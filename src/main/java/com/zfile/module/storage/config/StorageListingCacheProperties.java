@@ -0,0 +1,42 @@
+package com.zfile.module.storage.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 远程存储源目录列表缓存配置
+ * ttl 和 staleTtl 可以在存储源配置中用 listingCacheTtl、listingCacheStaleTtl（秒）单独指定，listingCacheTtl 为 0 时不缓存
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "zfile.storage.listing-cache")
+public class StorageListingCacheProperties {
+
+    /**
+     * 是否启用
+     */
+    private boolean enabled = true;
+
+    /**
+     * 列表在该时间内直接使用，超过后返回旧列表并在后台刷新
+     */
+    private Duration ttl = Duration.ofSeconds(30);
+
+    /**
+     * 超过 ttl 后还允许返回旧列表的时间，再之后同步重新读取
+     */
+    private Duration staleTtl = Duration.ofMinutes(5);
+
+    /**
+     * 每个存储源缓存的文件条目总数上限，超过后淘汰最久未访问的目录
+     */
+    private long maximumItems = 100000;
+
+    /**
+     * 后台刷新列表的线程数
+     */
+    private int refreshThreads = 4;
+}
\ No newline at end of file
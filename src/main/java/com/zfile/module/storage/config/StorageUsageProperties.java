@@ -0,0 +1,52 @@
+package com.zfile.module.storage.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * 存储用量计数和配额配置
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "zfile.storage.usage")
+public class StorageUsageProperties {
+
+    /**
+     * 没有单独设置配额的用户的存储配额
+     */
+    private DataSize defaultQuota = DataSize.ofGigabytes(10);
+
+    /**
+     * 每个用户最多的计数分片数，为 1 时不分片
+     */
+    private int stripes = 8;
+
+    /**
+     * 一个统计窗口内用量更新次数超过该值的用户，之后的更新随机写入各个计数分片
+     */
+    private int hotThreshold = 20;
+
+    /**
+     * 判断写入频繁用户的统计窗口
+     */
+    private Duration hotWindow = Duration.ofSeconds(1);
+
+    /**
+     * 上传开始时预留的配额有效期，应不短于上传会话有效期
+     */
+    private Duration reservationTtl = Duration.ofHours(24);
+
+    /**
+     * 对账任务执行间隔（毫秒）
+     */
+    private long reconcileInterval = 60000;
+
+    /**
+     * 对账任务每次处理的用户数，所有用户按ID顺序轮流对账
+     */
+    private int reconcileBatchSize = 500;
+}
\ No newline at end of file
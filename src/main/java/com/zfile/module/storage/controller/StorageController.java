@@ -0,0 +1,72 @@
+package com.zfile.module.storage.controller;
+
+import com.github.xiaoymin.knife4j.annotations.ApiSort;
+import com.zfile.common.result.Result;
+import com.zfile.module.auth.springsecurity.util.LoginUserUtil;
+import com.zfile.module.storage.response.StorageStatsResponse;
+import com.zfile.module.storage.response.TypeStatsResponse;
+import com.zfile.module.storage.service.StorageUsageService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@Tag(name = "存储统计接口")
+@ApiSort(5)
+@RequestMapping("/api/v1/storage")
+@RestController
+@Validated
+public class StorageController {
+    //构造器中注入
+    private final StorageUsageService storageUsageService;
+
+    private static final Logger logger = LoggerFactory.getLogger(StorageController.class);
+
+    @Autowired
+    public StorageController(StorageUsageService storageUsageService) {
+        this.storageUsageService = storageUsageService;
+    }
+
+    /**
+     * 查询当前用户的存储用量和配额，读取增量维护的计数，不扫描文件表
+     */
+    @Operation(summary = "存储用量统计")
+    @GetMapping("/stats")
+    public Result<?> getStorageStats() {
+        try {
+            Integer userId = LoginUserUtil.getCurrentUserId();
+            StorageStatsResponse storageStatsResponse = storageUsageService.getStorageStats(userId);
+            return Result.success(storageStatsResponse);
+        } catch (IllegalArgumentException e) {
+            logger.warn("查询存储用量失败，原因: {}", e.getMessage());
+            return Result.fail("查询失败: " + e.getMessage());
+        } catch (Exception e) {
+            logger.error("查询存储用量时发生异常", e);
+            return Result.fail("查询失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 按文件分类查询当前用户的存储用量
+     */
+    @Operation(summary = "按文件分类统计")
+    @GetMapping("/types")
+    public Result<?> listTypeStats() {
+        try {
+            Integer userId = LoginUserUtil.getCurrentUserId();
+            List<TypeStatsResponse> typeStats = storageUsageService.listTypeStats(userId);
+            return Result.success(typeStats);
+        } catch (IllegalArgumentException e) {
+            logger.warn("按文件分类统计失败，原因: {}", e.getMessage());
+            return Result.fail("查询失败: " + e.getMessage());
+        } catch (Exception e) {
+            logger.error("按文件分类统计时发生异常", e);
+            return Result.fail("查询失败: " + e.getMessage());
+        }
+    }
+}
\ No newline at end of file
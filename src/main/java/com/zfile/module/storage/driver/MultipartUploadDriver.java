@@ -0,0 +1,55 @@
+package com.zfile.module.storage.driver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.SortedMap;
+
+/**
+ * 支持分段上传的存储驱动
+ * 各分段可以并发上传，全部到达后由存储服务端拼接成完整对象，应用不需要在本地合并文件。
+ * 未完成的分段上传会持续占用存储空间，放弃上传时必须调用 {@link #abortMultipartUpload}。
+ */
+public interface MultipartUploadDriver {
+
+    /**
+     * 除最后一段外每段的最小字节数，S3 与 OSS 均为 5MB
+     */
+    long MIN_PART_SIZE = 5L * 1024 * 1024;
+
+    /**
+     * 开始分段上传
+     *
+     * @param path 目标文件路径
+     * @return 分段上传ID
+     */
+    String createMultipartUpload(String path) throws IOException;
+
+    /**
+     * 上传一个分段，同一分段号重复上传会覆盖之前的内容
+     *
+     * @param path       目标文件路径
+     * @param uploadId   分段上传ID
+     * @param partNumber 分段号，从 1 开始
+     * @param input      分段内容，由调用方负责关闭
+     * @param size       分段字节数
+     * @return 分段 ETag，完成上传时需要
+     */
+    String uploadPart(String path, String uploadId, int partNumber, InputStream input, long size) throws IOException;
+
+    /**
+     * 完成分段上传
+     *
+     * @param path      目标文件路径
+     * @param uploadId  分段上传ID
+     * @param partETags 分段号到 ETag 的映射，按分段号升序
+     */
+    void completeMultipartUpload(String path, String uploadId, SortedMap<Integer, String> partETags) throws IOException;
+
+    /**
+     * 取消分段上传并释放已上传的分段，上传不存在时忽略
+     *
+     * @param path     目标文件路径
+     * @param uploadId 分段上传ID
+     */
+    void abortMultipartUpload(String path, String uploadId) throws IOException;
+}
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.zfile.module.storage.driver;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * 支持签名下载链接的存储驱动
+ * 客户端拿到链接后直接从存储服务下载，文件内容不经过应用。
+ * 链接在有效期内任何人都可以使用，只能返回给有权访问该文件的用户。
+ */
+public interface PresignedUrlDriver {
+
+    /**
+     * 生成带签名的临时下载链接
+     *
+     * @param path       文件路径
+     * @param fileName   下载时保存的文件名
+     * @param inline     是否在浏览器中直接打开
+     * @param expiration 链接有效期
+     * @return 下载链接
+     */
+    String presignDownloadUrl(String path, String fileName, boolean inline, Duration expiration) throws IOException;
+}
\ No newline at end of file
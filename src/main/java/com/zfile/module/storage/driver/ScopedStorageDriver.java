@@ -0,0 +1,205 @@
+package com.zfile.module.storage.driver;
+
+import com.zfile.module.storage.storageenum.StorageTypeEnum;
+import com.zfile.module.storage.util.StoragePathUtil;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.SortedMap;
+
+/**
+ * 限定在用户存储源根路径下的驱动
+ * 所有路径都相对于 user_storage_source.root_path，返回的文件路径同样去掉根路径前缀。
+ * 根路径为空时即整个存储源。底层驱动由注册表管理，关闭此对象不会释放底层客户端。
+ * 存储源启用了目录列表缓存时，{@link #list} 优先使用缓存，写入、删除、复制后使受影响的目录失效。
+ * 分段上传方法仅在底层驱动支持时可用，调用前先检查 {@link #isMultipartUploadSupported()}；
+ * 签名下载链接同理，调用前先检查 {@link #isPresignedUrlSupported()}。
+ */
+public class ScopedStorageDriver implements StorageDriver, MultipartUploadDriver, PresignedUrlDriver {
+
+    private final StorageDriver delegate;
+
+    private final String rootPath;
+
+    private final StorageListingCache listingCache;
+
+    public ScopedStorageDriver(StorageDriver delegate, String rootPath) {
+        this(delegate, rootPath, null);
+    }
+
+    /**
+     * @param delegate     底层驱动
+     * @param rootPath     根路径
+     * @param listingCache 目录列表缓存，为空时不缓存
+     */
+    public ScopedStorageDriver(StorageDriver delegate, String rootPath, StorageListingCache listingCache) {
+        this.delegate = delegate;
+        this.rootPath = StoragePathUtil.normalize(rootPath);
+        this.listingCache = listingCache;
+    }
+
+    public StorageDriver getDelegate() {
+        return delegate;
+    }
+
+    public String getRootPath() {
+        return rootPath;
+    }
+
+    @Override
+    public StorageTypeEnum getType() {
+        return delegate.getType();
+    }
+
+    @Override
+    public List<StorageFileItem> list(String path) throws IOException {
+        String resolved = resolve(path);
+        List<StorageFileItem> items = listingCache != null ? listingCache.list(resolved) : delegate.list(resolved);
+        items.forEach(this::relativize);
+        return items;
+    }
+
+    @Override
+    public StorageFileItem stat(String path) throws IOException {
+        StorageFileItem item = delegate.stat(resolve(path));
+        if (item != null) {
+            relativize(item);
+        }
+        return item;
+    }
+
+    @Override
+    public InputStream read(String path, long offset, long length) throws IOException {
+        return delegate.read(resolve(path), offset, length);
+    }
+
+    @Override
+    public void write(String path, InputStream input, long size) throws IOException {
+        String resolved = resolve(path);
+        try {
+            delegate.write(resolved, input, size);
+        } finally {
+            invalidateListing(resolved, false);
+        }
+    }
+
+    @Override
+    public void moveFrom(String path, Path localFile) throws IOException {
+        String resolved = resolve(path);
+        try {
+            delegate.moveFrom(resolved, localFile);
+        } finally {
+            invalidateListing(resolved, false);
+        }
+    }
+
+    @Override
+    public Path getLocalPath(String path) {
+        return delegate.getLocalPath(resolve(path));
+    }
+
+    @Override
+    public void delete(String path) throws IOException {
+        String resolved = resolve(path);
+        if (resolved.equals(rootPath)) {
+            throw new IllegalArgumentException("不能删除存储源根目录");
+        }
+        try {
+            delegate.delete(resolved);
+        } finally {
+            invalidateListing(resolved, true);
+        }
+    }
+
+    @Override
+    public void copy(String sourcePath, String targetPath) throws IOException {
+        String resolvedTarget = resolve(targetPath);
+        try {
+            delegate.copy(resolve(sourcePath), resolvedTarget);
+        } finally {
+            invalidateListing(resolvedTarget, true);
+        }
+    }
+
+    public boolean isMultipartUploadSupported() {
+        return delegate instanceof MultipartUploadDriver;
+    }
+
+    @Override
+    public String createMultipartUpload(String path) throws IOException {
+        return multipartDelegate().createMultipartUpload(resolve(path));
+    }
+
+    @Override
+    public String uploadPart(String path, String uploadId, int partNumber, InputStream input, long size) throws IOException {
+        return multipartDelegate().uploadPart(resolve(path), uploadId, partNumber, input, size);
+    }
+
+    @Override
+    public void completeMultipartUpload(String path, String uploadId, SortedMap<Integer, String> partETags) throws IOException {
+        String resolved = resolve(path);
+        try {
+            multipartDelegate().completeMultipartUpload(resolved, uploadId, partETags);
+        } finally {
+            invalidateListing(resolved, false);
+        }
+    }
+
+    @Override
+    public void abortMultipartUpload(String path, String uploadId) throws IOException {
+        multipartDelegate().abortMultipartUpload(resolve(path), uploadId);
+    }
+
+    /**
+     * @return 底层驱动是否支持签名下载链接
+     */
+    public boolean isPresignedUrlSupported() {
+        return delegate instanceof PresignedUrlDriver;
+    }
+
+    @Override
+    public String presignDownloadUrl(String path, String fileName, boolean inline, Duration expiration) throws IOException {
+        if (delegate instanceof PresignedUrlDriver presignedUrlDriver) {
+            return presignedUrlDriver.presignDownloadUrl(resolve(path), fileName, inline, expiration);
+        }
+        throw new UnsupportedOperationException("存储类型不支持签名下载链接: " + delegate.getType());
+    }
+
+    @Override
+    public void close() {
+        // 底层驱动由注册表统一关闭
+    }
+
+    private MultipartUploadDriver multipartDelegate() {
+        if (delegate instanceof MultipartUploadDriver multipartUploadDriver) {
+            return multipartUploadDriver;
+        }
+        throw new UnsupportedOperationException("存储类型不支持分段上传: " + delegate.getType());
+    }
+
+    /**
+     * @param path 相对用户根路径的路径
+     * @return 相对存储源根目录的路径
+     */
+    public String resolve(String path) {
+        // normalize 会拒绝 ..，拼接后的路径不会越出根路径
+        return StoragePathUtil.join(rootPath, path);
+    }
+
+    private void invalidateListing(String resolvedPath, boolean recursive) {
+        if (listingCache != null) {
+            listingCache.invalidate(resolvedPath, recursive);
+        }
+    }
+
+    private void relativize(StorageFileItem item) {
+        String path = item.getPath();
+        if (rootPath.isEmpty()) {
+            return;
+        }
+        item.setPath(path.length() > rootPath.length() ? path.substring(rootPath.length() + 1) : "");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,104 @@
+package com.zfile.module.storage.driver;
+
+import com.zfile.module.storage.storageenum.StorageTypeEnum;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * 存储驱动
+ * 每个存储源对应一个驱动实例，实例内部持有该存储源的 SDK 客户端和连接池，由 {@link StorageDriverRegistry} 统一创建和复用。
+ * 实现必须是线程安全的。路径统一使用 / 分隔的相对路径，空字符串表示存储源根目录。
+ */
+public interface StorageDriver extends Closeable {
+
+    /**
+     * @return 存储类型
+     */
+    StorageTypeEnum getType();
+
+    /**
+     * 列出目录下的文件和子目录，不递归
+     *
+     * @param path 目录路径
+     * @return 文件列表，目录不存在时返回空列表
+     */
+    List<StorageFileItem> list(String path) throws IOException;
+
+    /**
+     * 获取文件或目录信息
+     *
+     * @param path 路径
+     * @return 文件信息，不存在时返回 null
+     */
+    StorageFileItem stat(String path) throws IOException;
+
+    /**
+     * 读取文件的一段内容
+     *
+     * @param path   文件路径
+     * @param offset 起始位置
+     * @param length 读取长度，小于 0 表示读到文件末尾
+     * @return 输入流，由调用方关闭
+     */
+    InputStream read(String path, long offset, long length) throws IOException;
+
+    /**
+     * 写入文件，已存在时覆盖，父目录不存在时自动创建
+     *
+     * @param path  文件路径
+     * @param input 文件内容，由调用方关闭
+     * @param size  内容长度
+     */
+    void write(String path, InputStream input, long size) throws IOException;
+
+    /**
+     * 把本地文件写入存储，写入成功后删除本地文件
+     * 默认实现按流上传；本地存储在同一文件系统上直接重命名，不复制数据
+     *
+     * @param path      文件路径
+     * @param localFile 本地文件
+     */
+    default void moveFrom(String path, Path localFile) throws IOException {
+        try (InputStream input = Files.newInputStream(localFile)) {
+            write(path, input, Files.size(localFile));
+        }
+        Files.deleteIfExists(localFile);
+    }
+
+    /**
+     * 获取文件在本机磁盘上的路径，用于零拷贝发送文件
+     * 默认返回 null，表示只能通过 {@link #read} 读取
+     *
+     * @param path 文件路径
+     * @return 本地文件路径
+     */
+    default Path getLocalPath(String path) {
+        return null;
+    }
+
+    /**
+     * 删除文件或目录，目录会连同其中的内容一起删除，不存在时忽略
+     *
+     * @param path 路径
+     */
+    void delete(String path) throws IOException;
+
+    /**
+     * 复制文件，目标已存在时覆盖
+     *
+     * @param sourcePath 源文件路径
+     * @param targetPath 目标文件路径
+     */
+    void copy(String sourcePath, String targetPath) throws IOException;
+
+    /**
+     * 释放客户端和连接池，驱动被替换或应用关闭时由注册表调用
+     */
+    @Override
+    void close();
+}
\ No newline at end of file
@@ -0,0 +1,79 @@
+package com.zfile.module.storage.driver;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.zfile.module.storage.storageenum.StorageTypeEnum;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 存储驱动配置
+ * 由存储源的类型和全部配置项组成，指纹相同说明配置没有变化，已创建的客户端可以继续复用
+ */
+public class StorageDriverConfig {
+
+    private final Integer storageSourceId;
+
+    private final StorageTypeEnum type;
+
+    private final Map<String, String> values;
+
+    private final String fingerprint;
+
+    public StorageDriverConfig(Integer storageSourceId, StorageTypeEnum type, Map<String, String> values) {
+        this.storageSourceId = storageSourceId;
+        this.type = type;
+        this.values = Collections.unmodifiableMap(new TreeMap<>(values));
+
+        Hasher hasher = Hashing.sha256().newHasher().putString(type.getCode(), StandardCharsets.UTF_8);
+        this.values.forEach((name, value) -> hasher.putChar('\n').putString(name, StandardCharsets.UTF_8)
+                .putChar('=').putString(value == null ? "" : value, StandardCharsets.UTF_8));
+        this.fingerprint = hasher.hash().toString();
+    }
+
+    public Integer getStorageSourceId() {
+        return storageSourceId;
+    }
+
+    public StorageTypeEnum getType() {
+        return type;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public String getString(String name) {
+        return values.get(name);
+    }
+
+    public String getString(String name, String defaultValue) {
+        String value = values.get(name);
+        return StringUtils.hasText(value) ? value : defaultValue;
+    }
+
+    /**
+     * @throws IllegalArgumentException 配置项为空
+     */
+    public String getRequired(String name) {
+        String value = values.get(name);
+        if (!StringUtils.hasText(value)) {
+            throw new IllegalArgumentException("存储源 " + storageSourceId + " 缺少配置项: " + name);
+        }
+        return value;
+    }
+
+    public int getInt(String name, int defaultValue) {
+        String value = values.get(name);
+        return StringUtils.hasText(value) ? Integer.parseInt(value.trim()) : defaultValue;
+    }
+
+    public boolean getBoolean(String name, boolean defaultValue) {
+        String value = values.get(name);
+        return StringUtils.hasText(value) ? Boolean.parseBoolean(value.trim()) : defaultValue;
+    }
+}
\ No newline at end of file
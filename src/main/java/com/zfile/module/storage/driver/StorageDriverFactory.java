@@ -0,0 +1,24 @@
+package com.zfile.module.storage.driver;
+
+import com.zfile.module.storage.storageenum.StorageTypeEnum;
+
+/**
+ * 存储驱动工厂
+ * 每种存储类型一个实现，声明为 Spring Bean 后由 {@link StorageDriverRegistry} 自动发现
+ */
+public interface StorageDriverFactory {
+
+    /**
+     * @return 支持的存储类型
+     */
+    StorageTypeEnum getType();
+
+    /**
+     * 根据配置创建驱动，驱动内部的客户端在此创建，之后被所有请求复用
+     *
+     * @param config 存储源配置
+     * @return 存储驱动
+     * @throws IllegalArgumentException 配置不完整或不正确
+     */
+    StorageDriver create(StorageDriverConfig config);
+}
\ No newline at end of file
@@ -0,0 +1,324 @@
+package com.zfile.module.storage.driver;
+
+import com.alibaba.fastjson2.JSON;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.zfile.module.storage.config.StorageListingCacheProperties;
+import com.zfile.module.storage.entity.StorageSource;
+import com.zfile.module.storage.entity.StorageSourceConfig;
+import com.zfile.module.storage.mapper.StorageSourceConfigMapper;
+import com.zfile.module.storage.mapper.StorageSourceMapper;
+import com.zfile.module.storage.storageenum.StorageTypeEnum;
+import com.zfile.module.user.entity.UserStorageSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 存储驱动注册表
+ * 每个存储源只创建一次驱动，SDK 客户端、HTTP 连接池和 SSH 会话在所有请求之间复用。
+ * 存储源配置修改后通过 Redis 发布订阅通知所有节点，配置指纹变化时才重建驱动；
+ * 被替换的旧驱动延迟关闭，正在进行的下载等操作不会被中断。
+ * 远程存储源的驱动附带目录列表缓存，本节点写入后的失效同样通过 Redis 发布订阅通知其他节点。
+ */
+@Slf4j
+@Component
+public class StorageDriverRegistry {
+
+    /**
+     * 存储源配置变更通知频道，消息内容为存储源ID
+     */
+    private static final String CHANGED_CHANNEL = "zfile:storage:source-changed";
+
+    /**
+     * 目录列表失效通知频道，消息内容为 {@link ListingInvalidation} 的 JSON
+     */
+    private static final String LISTING_INVALIDATED_CHANNEL = "zfile:storage:listing-invalidated";
+
+    private final Map<StorageTypeEnum, StorageDriverFactory> factories = new EnumMap<>(StorageTypeEnum.class);
+
+    /**
+     * 存储源ID -> 已创建的驱动
+     */
+    private final Map<Integer, DriverHolder> drivers = new ConcurrentHashMap<>();
+
+    private final StorageSourceMapper storageSourceMapper;
+
+    private final StorageSourceConfigMapper storageSourceConfigMapper;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final ScheduledExecutorService retireExecutor;
+
+    private final ExecutorService listingRefreshExecutor;
+
+    private final StorageListingCacheProperties listingCacheProperties;
+
+    private final long retireDelayMillis;
+
+    private final Counter buildCounter;
+
+    @Autowired
+    public StorageDriverRegistry(List<StorageDriverFactory> factoryList,
+                                 StorageSourceMapper storageSourceMapper,
+                                 StorageSourceConfigMapper storageSourceConfigMapper,
+                                 StringRedisTemplate stringRedisTemplate,
+                                 RedisMessageListenerContainer listenerContainer,
+                                 MeterRegistry meterRegistry,
+                                 StorageListingCacheProperties listingCacheProperties,
+                                 @Value("${zfile.storage.driver.retire-delay:60000}") long retireDelayMillis) {
+        for (StorageDriverFactory factory : factoryList) {
+            factories.put(factory.getType(), factory);
+        }
+        this.storageSourceMapper = storageSourceMapper;
+        this.storageSourceConfigMapper = storageSourceConfigMapper;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.retireDelayMillis = retireDelayMillis;
+        this.listingCacheProperties = listingCacheProperties;
+        this.retireExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "storage-driver-retire");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.listingRefreshExecutor = Executors.newFixedThreadPool(listingCacheProperties.getRefreshThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "storage-listing-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("zfile.storage.driver.active", drivers, Map::size).register(meterRegistry);
+        this.buildCounter = Counter.builder("zfile.storage.driver.builds").register(meterRegistry);
+
+        listenerContainer.addMessageListener((message, pattern) -> {
+            try {
+                refresh(Integer.valueOf(new String(message.getBody(), StandardCharsets.UTF_8)));
+            } catch (Exception e) {
+                log.warn("处理存储源变更通知失败", e);
+            }
+        }, new ChannelTopic(CHANGED_CHANNEL));
+        listenerContainer.addMessageListener((message, pattern) -> {
+            try {
+                ListingInvalidation invalidation = JSON.parseObject(
+                        new String(message.getBody(), StandardCharsets.UTF_8), ListingInvalidation.class);
+                DriverHolder holder = drivers.get(invalidation.storageSourceId());
+                if (holder != null && holder.listingCache != null) {
+                    holder.listingCache.invalidateLocal(invalidation.path(), invalidation.recursive());
+                }
+            } catch (Exception e) {
+                log.warn("处理目录列表失效通知失败", e);
+            }
+        }, new ChannelTopic(LISTING_INVALIDATED_CHANNEL));
+    }
+
+    /**
+     * 获取存储源的驱动，首次访问时创建
+     *
+     * @param storageSourceId 存储源ID
+     * @return 存储驱动
+     * @throws IllegalArgumentException 存储源不存在、未启用或配置不正确
+     */
+    public StorageDriver getDriver(Integer storageSourceId) {
+        DriverHolder holder = getHolder(storageSourceId);
+        // 通过带缓存的包装访问，写入后目录列表缓存同样会失效
+        return holder.listingCache == null ? holder.driver : new ScopedStorageDriver(holder.driver, "", holder.listingCache);
+    }
+
+    /**
+     * 获取限定在用户存储源根路径下的驱动
+     *
+     * @param userStorageSource 用户存储源
+     * @return 存储驱动
+     */
+    public ScopedStorageDriver getDriver(UserStorageSource userStorageSource) {
+        if (!Boolean.TRUE.equals(userStorageSource.getEnable())) {
+            throw new IllegalArgumentException("用户存储源未启用: " + userStorageSource.getId());
+        }
+        DriverHolder holder = getHolder(userStorageSource.getStorageSourceId());
+        return new ScopedStorageDriver(holder.driver, userStorageSource.getRootPath(), holder.listingCache);
+    }
+
+    /**
+     * 通知所有节点存储源配置已修改，应在事务提交后调用
+     *
+     * @param storageSourceId 存储源ID
+     */
+    public void notifyChanged(Integer storageSourceId) {
+        refresh(storageSourceId);
+        try {
+            stringRedisTemplate.convertAndSend(CHANGED_CHANNEL, String.valueOf(storageSourceId));
+        } catch (Exception e) {
+            // 其他节点会在定期检查时发现配置变化
+            log.warn("发布存储源变更通知失败，存储源ID: {}", storageSourceId, e);
+        }
+    }
+
+    /**
+     * 重新读取存储源配置，配置指纹变化或存储源被禁用、删除时替换驱动
+     *
+     * @param storageSourceId 存储源ID
+     */
+    public void refresh(Integer storageSourceId) {
+        DriverHolder current = drivers.get(storageSourceId);
+        if (current == null) {
+            // 本节点尚未使用该存储源，下次访问时按最新配置创建
+            return;
+        }
+        StorageDriverConfig config;
+        try {
+            config = loadConfig(storageSourceId);
+        } catch (IllegalArgumentException e) {
+            if (drivers.remove(storageSourceId, current)) {
+                retire(current);
+                log.info("存储源已不可用，移除驱动，存储源ID: {}，原因: {}", storageSourceId, e.getMessage());
+            }
+            return;
+        }
+        if (config.getFingerprint().equals(current.config.getFingerprint())) {
+            return;
+        }
+        DriverHolder replacement = build(config);
+        if (drivers.replace(storageSourceId, current, replacement)) {
+            retire(current);
+            log.info("存储源配置已修改，重建驱动，存储源ID: {}", storageSourceId);
+        } else {
+            replacement.driver.close();
+        }
+    }
+
+    /**
+     * 定期检查已创建驱动的配置，兜底处理丢失的变更通知和直接修改数据库的情况
+     */
+    @Scheduled(fixedDelayString = "${zfile.storage.driver.check-interval:300000}",
+            initialDelayString = "${zfile.storage.driver.check-interval:300000}")
+    public void refreshAll() {
+        for (Integer storageSourceId : drivers.keySet()) {
+            try {
+                refresh(storageSourceId);
+            } catch (Exception e) {
+                log.warn("检查存储源配置失败，存储源ID: {}", storageSourceId, e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        retireExecutor.shutdownNow();
+        listingRefreshExecutor.shutdownNow();
+        drivers.values().forEach(holder -> closeQuietly(holder.driver));
+        drivers.clear();
+    }
+
+    private DriverHolder getHolder(Integer storageSourceId) {
+        DriverHolder holder = drivers.get(storageSourceId);
+        if (holder != null) {
+            return holder;
+        }
+        return drivers.computeIfAbsent(storageSourceId, id -> build(loadConfig(id)));
+    }
+
+    private StorageDriverConfig loadConfig(Integer storageSourceId) {
+        StorageSource storageSource = storageSourceMapper.selectById(storageSourceId);
+        if (storageSource == null) {
+            throw new IllegalArgumentException("存储源不存在: " + storageSourceId);
+        }
+        if (!Boolean.TRUE.equals(storageSource.getEnable())) {
+            throw new IllegalArgumentException("存储源未启用: " + storageSourceId);
+        }
+        if (storageSource.getType() == null) {
+            throw new IllegalArgumentException("存储源类型无效: " + storageSourceId);
+        }
+        QueryWrapper<StorageSourceConfig> queryWrapper = new QueryWrapper<>();
+        queryWrapper.eq("storage_id", storageSourceId);
+        Map<String, String> values = new HashMap<>();
+        for (StorageSourceConfig item : storageSourceConfigMapper.selectList(queryWrapper)) {
+            values.put(item.getName(), item.getValue());
+        }
+        return new StorageDriverConfig(storageSourceId, storageSource.getType(), values);
+    }
+
+    private DriverHolder build(StorageDriverConfig config) {
+        StorageDriverFactory factory = factories.get(config.getType());
+        if (factory == null) {
+            throw new IllegalArgumentException("不支持的存储类型: " + config.getType());
+        }
+        StorageDriver driver = factory.create(config);
+        buildCounter.increment();
+        log.info("已创建存储驱动，存储源ID: {}，类型: {}", config.getStorageSourceId(), config.getType().getCode());
+        return new DriverHolder(config, driver, buildListingCache(config, driver));
+    }
+
+    /**
+     * 创建目录列表缓存，本地存储读取目录的开销很小，不缓存
+     */
+    private StorageListingCache buildListingCache(StorageDriverConfig config, StorageDriver driver) {
+        if (!listingCacheProperties.isEnabled() || config.getType() == StorageTypeEnum.LOCAL) {
+            return null;
+        }
+        int ttlSeconds = config.getInt("listingCacheTtl", (int) listingCacheProperties.getTtl().toSeconds());
+        if (ttlSeconds <= 0) {
+            return null;
+        }
+        int staleTtlSeconds = config.getInt("listingCacheStaleTtl", (int) listingCacheProperties.getStaleTtl().toSeconds());
+        Integer storageSourceId = config.getStorageSourceId();
+        return new StorageListingCache(driver, Duration.ofSeconds(ttlSeconds), Duration.ofSeconds(Math.max(staleTtlSeconds, 0)),
+                listingCacheProperties.getMaximumItems(), listingRefreshExecutor,
+                (path, recursive) -> publishListingInvalidation(new ListingInvalidation(storageSourceId, path, recursive)));
+    }
+
+    private void publishListingInvalidation(ListingInvalidation invalidation) {
+        try {
+            stringRedisTemplate.convertAndSend(LISTING_INVALIDATED_CHANNEL, JSON.toJSONString(invalidation));
+        } catch (Exception e) {
+            // 其他节点的缓存最迟在 ttl + staleTtl 后过期
+            log.warn("发布目录列表失效通知失败，存储源ID: {}，路径: {}", invalidation.storageSourceId(), invalidation.path(), e);
+        }
+    }
+
+    private void retire(DriverHolder holder) {
+        retireExecutor.schedule(() -> closeQuietly(holder.driver), retireDelayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private static void closeQuietly(StorageDriver driver) {
+        try {
+            driver.close();
+        } catch (Exception e) {
+            log.warn("关闭存储驱动失败", e);
+        }
+    }
+
+    /**
+     * @param config       驱动配置
+     * @param driver       存储驱动
+     * @param listingCache 目录列表缓存，未启用时为空
+     */
+    private record DriverHolder(StorageDriverConfig config, StorageDriver driver, StorageListingCache listingCache) {
+    }
+
+    /**
+     * @param storageSourceId 存储源ID
+     * @param path            相对存储源根目录的路径
+     * @param recursive       是否包含子目录
+     */
+    record ListingInvalidation(Integer storageSourceId, String path, boolean recursive) {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.zfile.module.storage.driver;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * 存储驱动返回的文件信息
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "存储文件信息")
+public class StorageFileItem implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "文件名")
+    private String name;
+
+    @Schema(description = "相对存储源根目录的路径")
+    private String path;
+
+    @Schema(description = "是否目录")
+    private boolean folder;
+
+    @Schema(description = "文件大小（字节），目录为 0")
+    private long size;
+
+    @Schema(description = "最后修改时间戳（毫秒），未知时为 0")
+    private long lastModified;
+}
\ No newline at end of file
@@ -0,0 +1,182 @@
+package com.zfile.module.storage.driver;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.zfile.module.storage.util.StoragePathUtil;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * 存储源目录列表缓存
+ * 每个远程存储源一个实例，随驱动一起创建和替换，键为相对存储源根目录的路径。
+ * 列表超过 ttl 后仍返回旧列表，同时在后台重新读取；超过 ttl + staleTtl 后同步读取。
+ * 缓存的条目总数超过上限时淘汰最久未访问的目录。
+ * 应用自己的写入通过 {@link #invalidate} 使受影响的目录失效，并通知其他节点。
+ * 失效时正在进行的读取（包括后台刷新）完成后会把失效前的列表重新放入缓存，
+ * 因此每次读取记录开始时的失效序号，使用时发现该路径在读取开始后又被失效过则丢弃重新读取。
+ */
+public class StorageListingCache {
+
+    private final LoadingCache<String, Listing> cache;
+
+    /**
+     * 失效序号，每次失效加一
+     */
+    private final AtomicLong invalidationSequence = new AtomicLong();
+
+    /**
+     * 路径最近一次失效的序号，只需保留到失效前开始的读取全部完成，按列表的最长保留时间过期
+     */
+    private final Cache<String, Long> invalidations;
+
+    /**
+     * 目录及其所有子目录最近一次失效的序号
+     */
+    private final Cache<String, Long> subtreeInvalidations;
+
+    private final BiConsumer<String, Boolean> publisher;
+
+    /**
+     * @param driver          存储驱动
+     * @param ttl             列表直接使用的时间
+     * @param staleTtl        超过 ttl 后还允许返回旧列表的时间
+     * @param maximumItems    缓存的文件条目总数上限
+     * @param refreshExecutor 后台刷新线程池
+     * @param publisher       通知其他节点失效的方法，参数为路径和是否包含子目录
+     */
+    public StorageListingCache(StorageDriver driver, Duration ttl, Duration staleTtl, long maximumItems,
+                               Executor refreshExecutor, BiConsumer<String, Boolean> publisher) {
+        this.publisher = publisher;
+        CacheLoader<String, Listing> loader = new CacheLoader<>() {
+            @Override
+            public Listing load(String path) throws IOException {
+                // 先取序号再读取，读取开始后发生的失效都会大于该序号
+                long sequence = invalidationSequence.get();
+                return new Listing(List.copyOf(driver.list(path)), sequence);
+            }
+        };
+        this.invalidations = CacheBuilder.newBuilder()
+                .expireAfterWrite(ttl.plus(staleTtl))
+                .build();
+        this.subtreeInvalidations = CacheBuilder.newBuilder()
+                .expireAfterWrite(ttl.plus(staleTtl))
+                .build();
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(maximumItems)
+                .weigher((String path, Listing listing) -> listing.items().size() + 1)
+                .refreshAfterWrite(ttl)
+                .expireAfterWrite(ttl.plus(staleTtl))
+                .build(CacheLoader.asyncReloading(loader, refreshExecutor));
+    }
+
+    /**
+     * 列出目录，返回的条目是副本，调用方可以修改
+     *
+     * @param path 相对存储源根目录的路径
+     * @return 目录下的文件和子目录
+     */
+    public List<StorageFileItem> list(String path) throws IOException {
+        String normalized = StoragePathUtil.normalize(path);
+        Listing listing = load(normalized);
+        if (isInvalidatedSince(normalized, listing.sequence())) {
+            cache.asMap().remove(normalized, listing);
+            listing = load(normalized);
+        }
+        List<StorageFileItem> copies = new ArrayList<>(listing.items().size());
+        for (StorageFileItem item : listing.items()) {
+            copies.add(new StorageFileItem(item.getName(), item.getPath(), item.isFolder(), item.getSize(), item.getLastModified()));
+        }
+        return copies;
+    }
+
+    private Listing load(String path) throws IOException {
+        try {
+            return cache.get(path);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException("列出目录失败: " + path, e.getCause());
+        } catch (UncheckedExecutionException e) {
+            throw new IOException("列出目录失败: " + path, e.getCause());
+        }
+    }
+
+    /**
+     * 路径或其上级目录的整个子树在序号之后是否被失效过
+     */
+    private boolean isInvalidatedSince(String path, long sequence) {
+        Long invalidated = invalidations.getIfPresent(path);
+        if (invalidated != null && invalidated > sequence) {
+            return true;
+        }
+        String current = path;
+        while (true) {
+            invalidated = subtreeInvalidations.getIfPresent(current);
+            if (invalidated != null && invalidated > sequence) {
+                return true;
+            }
+            if (current.isEmpty()) {
+                return false;
+            }
+            current = StoragePathUtil.parent(current);
+        }
+    }
+
+    /**
+     * 文件或目录被修改后使受影响的列表失效，并通知其他节点
+     *
+     * @param path      被修改的路径
+     * @param recursive 是否包含该路径下的所有子目录，删除目录或复制目录时使用
+     */
+    public void invalidate(String path, boolean recursive) {
+        String normalized = StoragePathUtil.normalize(path);
+        invalidateLocal(normalized, recursive);
+        publisher.accept(normalized, recursive);
+    }
+
+    /**
+     * 只使本节点的列表失效，处理其他节点的通知时使用
+     *
+     * @param path      被修改的路径
+     * @param recursive 是否包含该路径下的所有子目录
+     */
+    public void invalidateLocal(String path, boolean recursive) {
+        String normalized = StoragePathUtil.normalize(path);
+        // 先记录失效序号再清除缓存，清除后开始的读取取到的序号不小于此序号
+        long sequence = invalidationSequence.incrementAndGet();
+        invalidations.put(normalized, sequence);
+        cache.invalidate(normalized);
+        // 对象存储写入文件时会隐式创建中间目录，所有上级目录的列表都可能变化
+        String current = normalized;
+        while (!current.isEmpty()) {
+            current = StoragePathUtil.parent(current);
+            invalidations.put(current, sequence);
+            cache.invalidate(current);
+        }
+        if (recursive) {
+            subtreeInvalidations.put(normalized, sequence);
+            String prefix = normalized.isEmpty() ? "" : normalized + "/";
+            cache.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+        }
+    }
+
+    /**
+     * 缓存的目录列表
+     *
+     * @param items    目录下的文件和子目录
+     * @param sequence 开始读取时的失效序号
+     */
+    private record Listing(List<StorageFileItem> items, long sequence) {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,29 @@
+package com.zfile.module.storage.driver.impl;
+
+import com.zfile.module.storage.driver.StorageDriver;
+import com.zfile.module.storage.driver.StorageDriverConfig;
+import com.zfile.module.storage.driver.StorageDriverFactory;
+import com.zfile.module.storage.storageenum.StorageTypeEnum;
+import org.springframework.stereotype.Component;
+
+/**
+ * 阿里云 OSS 存储驱动工厂
+ * OSS 兼容 S3 接口，复用 S3 驱动，使用虚拟主机风格访问存储桶。
+ * 配置项: endpoint（如 oss-cn-hangzhou.aliyuncs.com）, region, bucketName, accessKey, secretKey, basePath
+ */
+@Component
+public class AliyunOssStorageDriverFactory implements StorageDriverFactory {
+
+    @Override
+    public StorageTypeEnum getType() {
+        return StorageTypeEnum.ALIYUN;
+    }
+
+    @Override
+    public StorageDriver create(StorageDriverConfig config) {
+        config.getRequired("endpoint");
+        return new S3StorageDriver(getType(), S3StorageDriverFactory.buildClient(config, false),
+                S3StorageDriverFactory.buildPresigner(config, false),
+                config.getRequired("bucketName"), config.getString("basePath", ""));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,175 @@
+package com.zfile.module.storage.driver.impl;
+
+import com.google.common.io.ByteStreams;
+import com.zfile.module.storage.driver.StorageDriver;
+import com.zfile.module.storage.driver.StorageFileItem;
+import com.zfile.module.storage.storageenum.StorageTypeEnum;
+import com.zfile.module.storage.util.StoragePathUtil;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 本地磁盘存储驱动
+ */
+public class LocalStorageDriver implements StorageDriver {
+
+    private final Path basePath;
+
+    public LocalStorageDriver(Path basePath) {
+        this.basePath = basePath.toAbsolutePath().normalize();
+    }
+
+    public Path getBasePath() {
+        return basePath;
+    }
+
+    @Override
+    public StorageTypeEnum getType() {
+        return StorageTypeEnum.LOCAL;
+    }
+
+    @Override
+    public List<StorageFileItem> list(String path) throws IOException {
+        String normalized = StoragePathUtil.normalize(path);
+        Path directory = resolve(normalized);
+        List<StorageFileItem> items = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return items;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path child : stream) {
+                BasicFileAttributes attributes = Files.readAttributes(child, BasicFileAttributes.class);
+                items.add(toItem(StoragePathUtil.join(normalized, child.getFileName().toString()), attributes));
+            }
+        }
+        return items;
+    }
+
+    @Override
+    public StorageFileItem stat(String path) throws IOException {
+        String normalized = StoragePathUtil.normalize(path);
+        try {
+            return toItem(normalized, Files.readAttributes(resolve(normalized), BasicFileAttributes.class));
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public InputStream read(String path, long offset, long length) throws IOException {
+        FileChannel channel = FileChannel.open(resolve(path), StandardOpenOption.READ);
+        try {
+            channel.position(offset);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        InputStream input = Channels.newInputStream(channel);
+        return length < 0 ? input : ByteStreams.limit(input, length);
+    }
+
+    @Override
+    public void write(String path, InputStream input, long size) throws IOException {
+        Path target = resolve(path);
+        Files.createDirectories(target.getParent());
+        // 先写临时文件再原子替换，写入中断时不会留下不完整的目标文件
+        Path temp = Files.createTempFile(target.getParent(), ".upload-", ".tmp");
+        try {
+            Files.copy(input, temp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public Path getLocalPath(String path) {
+        return resolve(path);
+    }
+
+    @Override
+    public void moveFrom(String path, Path localFile) throws IOException {
+        Path target = resolve(path);
+        Files.createDirectories(target.getParent());
+        try {
+            // 同一文件系统上只是重命名
+            Files.move(localFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            // 跨文件系统时退化为复制，仍然先写临时文件保证目标完整
+            try (InputStream input = Files.newInputStream(localFile)) {
+                write(path, input, Files.size(localFile));
+            }
+            Files.deleteIfExists(localFile);
+        }
+    }
+
+    @Override
+    public void delete(String path) throws IOException {
+        Path target = resolve(path);
+        if (!Files.exists(target)) {
+            return;
+        }
+        Files.walkFileTree(target, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                if (exc != null) {
+                    throw exc;
+                }
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    @Override
+    public void copy(String sourcePath, String targetPath) throws IOException {
+        Path target = resolve(targetPath);
+        Files.createDirectories(target.getParent());
+        Files.copy(resolve(sourcePath), target, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @Override
+    public void close() {
+        // 本地存储没有需要释放的资源
+    }
+
+    /**
+     * @param path 相对路径
+     * @return 磁盘上的绝对路径
+     */
+    public Path resolve(String path) {
+        String normalized = StoragePathUtil.normalize(path);
+        Path resolved = normalized.isEmpty() ? basePath : basePath.resolve(normalized).normalize();
+        if (!resolved.startsWith(basePath)) {
+            throw new IllegalArgumentException("路径超出存储源目录: " + path);
+        }
+        return resolved;
+    }
+
+    private static StorageFileItem toItem(String path, BasicFileAttributes attributes) {
+        boolean folder = attributes.isDirectory();
+        return new StorageFileItem(StoragePathUtil.name(path), path, folder,
+                folder ? 0 : attributes.size(), attributes.lastModifiedTime().toMillis());
+    }
+}
\ No newline at end of file
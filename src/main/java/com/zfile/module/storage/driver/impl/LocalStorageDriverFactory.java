@@ -0,0 +1,36 @@
+package com.zfile.module.storage.driver.impl;
+
+import com.zfile.module.storage.driver.StorageDriver;
+import com.zfile.module.storage.driver.StorageDriverConfig;
+import com.zfile.module.storage.driver.StorageDriverFactory;
+import com.zfile.module.storage.storageenum.StorageTypeEnum;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 本地存储驱动工厂
+ * 配置项: filePath 存储目录
+ */
+@Component
+public class LocalStorageDriverFactory implements StorageDriverFactory {
+
+    @Override
+    public StorageTypeEnum getType() {
+        return StorageTypeEnum.LOCAL;
+    }
+
+    @Override
+    public StorageDriver create(StorageDriverConfig config) {
+        Path basePath = Path.of(config.getRequired("filePath"));
+        try {
+            Files.createDirectories(basePath);
+        } catch (IOException e) {
+            throw new UncheckedIOException("创建本地存储目录失败: " + basePath, e);
+        }
+        return new LocalStorageDriver(basePath);
+    }
+}
\ No newline at end of file
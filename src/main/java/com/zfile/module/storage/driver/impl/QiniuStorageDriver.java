@@ -0,0 +1,239 @@
+package com.zfile.module.storage.driver.impl;
+
+import com.qiniu.common.QiniuException;
+import com.qiniu.storage.BucketManager;
+import com.qiniu.storage.UploadManager;
+import com.qiniu.storage.model.FileInfo;
+import com.qiniu.storage.model.FileListing;
+import com.qiniu.util.Auth;
+import com.zfile.module.storage.driver.PresignedUrlDriver;
+import com.zfile.module.storage.driver.StorageDriver;
+import com.zfile.module.storage.driver.StorageFileItem;
+import com.zfile.module.storage.storageenum.StorageTypeEnum;
+import com.zfile.module.storage.util.StoragePathUtil;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 七牛云存储驱动
+ * 管理接口使用 BucketManager，下载通过私有链接直接请求 CDN 域名，HTTP 客户端和连接池由存储源内所有请求共用
+ */
+public class QiniuStorageDriver implements StorageDriver, PresignedUrlDriver {
+
+    /**
+     * 文件不存在的错误码
+     */
+    private static final int NOT_FOUND_CODE = 612;
+
+    private static final int LIST_LIMIT = 1000;
+
+    /**
+     * 私有下载链接有效期（秒），只在服务端内部使用，无需太长
+     */
+    private static final long DOWNLOAD_URL_EXPIRE_SECONDS = 300;
+
+    private final Auth auth;
+
+    private final BucketManager bucketManager;
+
+    private final UploadManager uploadManager;
+
+    private final OkHttpClient httpClient;
+
+    private final String bucket;
+
+    private final String domain;
+
+    private final String basePath;
+
+    public QiniuStorageDriver(Auth auth, BucketManager bucketManager, UploadManager uploadManager,
+                              OkHttpClient httpClient, String bucket, String domain, String basePath) {
+        this.auth = auth;
+        this.bucketManager = bucketManager;
+        this.uploadManager = uploadManager;
+        this.httpClient = httpClient;
+        this.bucket = bucket;
+        this.domain = domain.endsWith("/") ? domain.substring(0, domain.length() - 1) : domain;
+        this.basePath = StoragePathUtil.normalize(basePath);
+    }
+
+    public Auth getAuth() {
+        return auth;
+    }
+
+    public String getDomain() {
+        return domain;
+    }
+
+    @Override
+    public StorageTypeEnum getType() {
+        return StorageTypeEnum.QINIU;
+    }
+
+    @Override
+    public List<StorageFileItem> list(String path) throws IOException {
+        String normalized = StoragePathUtil.normalize(path);
+        String prefix = folderPrefix(normalized);
+        List<StorageFileItem> items = new ArrayList<>();
+        String marker = null;
+        do {
+            FileListing listing = bucketManager.listFiles(bucket, prefix, marker, LIST_LIMIT, "/");
+            if (listing.commonPrefixes != null) {
+                for (String commonPrefix : listing.commonPrefixes) {
+                    String name = commonPrefix.substring(prefix.length(), commonPrefix.length() - 1);
+                    items.add(new StorageFileItem(name, StoragePathUtil.join(normalized, name), true, 0, 0));
+                }
+            }
+            if (listing.items != null) {
+                for (FileInfo fileInfo : listing.items) {
+                    String name = fileInfo.key.substring(prefix.length());
+                    if (!name.isEmpty()) {
+                        items.add(toItem(StoragePathUtil.join(normalized, name), fileInfo));
+                    }
+                }
+            }
+            marker = listing.isEOF() ? null : listing.marker;
+        } while (marker != null);
+        return items;
+    }
+
+    @Override
+    public StorageFileItem stat(String path) throws IOException {
+        String normalized = StoragePathUtil.normalize(path);
+        if (!normalized.isEmpty()) {
+            try {
+                return toItem(normalized, bucketManager.stat(bucket, key(normalized)));
+            } catch (QiniuException e) {
+                if (e.code() != NOT_FOUND_CODE) {
+                    throw e;
+                }
+            }
+        }
+        FileListing listing = bucketManager.listFiles(bucket, folderPrefix(normalized), null, 1, null);
+        if (listing.items == null || listing.items.length == 0) {
+            return null;
+        }
+        return new StorageFileItem(StoragePathUtil.name(normalized), normalized, true, 0, 0);
+    }
+
+    @Override
+    public InputStream read(String path, long offset, long length) throws IOException {
+        Request.Builder request = new Request.Builder().url(privateDownloadUrl(path, DOWNLOAD_URL_EXPIRE_SECONDS));
+        if (offset > 0 || length >= 0) {
+            request.header("Range", "bytes=" + offset + "-" + (length >= 0 ? String.valueOf(offset + length - 1) : ""));
+        }
+        Response response = httpClient.newCall(request.build()).execute();
+        if (!response.isSuccessful() || response.body() == null) {
+            response.close();
+            throw new IOException("读取七牛云文件失败: " + path + ", HTTP " + response.code());
+        }
+        if ((offset > 0 || length >= 0) && response.code() != 206) {
+            response.close();
+            throw new IOException("七牛云下载域名不支持 Range 请求: " + path);
+        }
+        return new FilterInputStream(response.body().byteStream()) {
+            @Override
+            public void close() {
+                response.close();
+            }
+        };
+    }
+
+    @Override
+    public void write(String path, InputStream input, long size) throws IOException {
+        String key = key(path);
+        // 指定 key 的上传凭证允许覆盖同名文件
+        uploadManager.put(input, key, auth.uploadToken(bucket, key), null, null);
+    }
+
+    @Override
+    public void delete(String path) throws IOException {
+        String normalized = StoragePathUtil.normalize(path);
+        if (!normalized.isEmpty()) {
+            try {
+                bucketManager.delete(bucket, key(normalized));
+            } catch (QiniuException e) {
+                if (e.code() != NOT_FOUND_CODE) {
+                    throw e;
+                }
+            }
+        }
+        String prefix = folderPrefix(normalized);
+        String marker = null;
+        do {
+            FileListing listing = bucketManager.listFiles(bucket, prefix, marker, LIST_LIMIT, null);
+            if (listing.items != null && listing.items.length > 0) {
+                BucketManager.BatchOperations operations = new BucketManager.BatchOperations();
+                for (FileInfo fileInfo : listing.items) {
+                    operations.addDeleteOp(bucket, fileInfo.key);
+                }
+                bucketManager.batch(operations);
+            }
+            marker = listing.isEOF() ? null : listing.marker;
+        } while (marker != null);
+    }
+
+    @Override
+    public void copy(String sourcePath, String targetPath) throws IOException {
+        bucketManager.copy(bucket, key(sourcePath), bucket, key(targetPath), true);
+    }
+
+    @Override
+    public String presignDownloadUrl(String path, String fileName, boolean inline, Duration expiration) {
+        String url = baseUrl(path);
+        if (!inline) {
+            // attname 参数让 CDN 以附件方式返回并指定保存的文件名，需要参与签名
+            url += "?attname=" + encode(fileName);
+        }
+        return auth.privateDownloadUrl(url, expiration.toSeconds());
+    }
+
+    @Override
+    public void close() {
+        httpClient.dispatcher().executorService().shutdown();
+        httpClient.connectionPool().evictAll();
+    }
+
+    /**
+     * 生成私有下载链接
+     *
+     * @param path          相对路径
+     * @param expireSeconds 有效期（秒）
+     * @return 下载链接
+     */
+    public String privateDownloadUrl(String path, long expireSeconds) {
+        return auth.privateDownloadUrl(baseUrl(path), expireSeconds);
+    }
+
+    public String key(String path) {
+        return StoragePathUtil.join(basePath, path);
+    }
+
+    private String baseUrl(String path) {
+        return domain + "/" + encode(key(path)).replace("%2F", "/");
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+
+    private String folderPrefix(String normalizedPath) {
+        String key = key(normalizedPath);
+        return key.isEmpty() ? "" : key + "/";
+    }
+
+    private static StorageFileItem toItem(String path, FileInfo fileInfo) {
+        // putTime 单位为 100 纳秒
+        return new StorageFileItem(StoragePathUtil.name(path), path, false, fileInfo.fsize, fileInfo.putTime / 10000);
+    }
+}
\ No newline at end of file
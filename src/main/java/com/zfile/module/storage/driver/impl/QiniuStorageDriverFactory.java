@@ -0,0 +1,41 @@
+package com.zfile.module.storage.driver.impl;
+
+import com.qiniu.storage.BucketManager;
+import com.qiniu.storage.Configuration;
+import com.qiniu.storage.Region;
+import com.qiniu.storage.UploadManager;
+import com.qiniu.util.Auth;
+import com.zfile.module.storage.driver.StorageDriver;
+import com.zfile.module.storage.driver.StorageDriverConfig;
+import com.zfile.module.storage.driver.StorageDriverFactory;
+import com.zfile.module.storage.storageenum.StorageTypeEnum;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 七牛云存储驱动工厂
+ * 配置项: accessKey, secretKey, bucketName, domain（下载域名，含协议）, basePath, maxConnections
+ */
+@Component
+public class QiniuStorageDriverFactory implements StorageDriverFactory {
+
+    @Override
+    public StorageTypeEnum getType() {
+        return StorageTypeEnum.QINIU;
+    }
+
+    @Override
+    public StorageDriver create(StorageDriverConfig config) {
+        Auth auth = Auth.create(config.getRequired("accessKey"), config.getRequired("secretKey"));
+        Configuration configuration = new Configuration(Region.autoRegion());
+        OkHttpClient httpClient = new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(config.getInt("maxConnections", 32), 5, TimeUnit.MINUTES))
+                .build();
+        return new QiniuStorageDriver(auth, new BucketManager(auth, configuration), new UploadManager(configuration),
+                httpClient, config.getRequired("bucketName"), config.getRequired("domain"),
+                config.getString("basePath", ""));
+    }
+}
\ No newline at end of file
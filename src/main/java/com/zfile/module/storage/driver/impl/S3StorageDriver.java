@@ -0,0 +1,277 @@
+package com.zfile.module.storage.driver.impl;
+
+import com.zfile.module.storage.driver.MultipartUploadDriver;
+import com.zfile.module.storage.driver.PresignedUrlDriver;
+import com.zfile.module.storage.driver.StorageDriver;
+import com.zfile.module.storage.driver.StorageFileItem;
+import com.zfile.module.storage.storageenum.StorageTypeEnum;
+import com.zfile.module.storage.util.StoragePathUtil;
+import org.springframework.http.ContentDisposition;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CommonPrefix;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.Delete;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.NoSuchUploadException;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.S3Object;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+
+/**
+ * S3 协议对象存储驱动，也用于阿里云 OSS 等兼容 S3 接口的存储
+ * S3Client 内部维护 HTTP 连接池，整个存储源共用一个客户端；签名下载链接在本地计算，不发送请求
+ */
+public class S3StorageDriver implements StorageDriver, MultipartUploadDriver, PresignedUrlDriver {
+
+    /**
+     * DeleteObjects 单次最多删除的对象数
+     */
+    private static final int DELETE_BATCH_SIZE = 1000;
+
+    private final StorageTypeEnum type;
+
+    private final S3Client client;
+
+    private final S3Presigner presigner;
+
+    private final String bucket;
+
+    private final String basePath;
+
+    public S3StorageDriver(StorageTypeEnum type, S3Client client, S3Presigner presigner, String bucket, String basePath) {
+        this.type = type;
+        this.client = client;
+        this.presigner = presigner;
+        this.bucket = bucket;
+        this.basePath = StoragePathUtil.normalize(basePath);
+    }
+
+    public S3Client getClient() {
+        return client;
+    }
+
+    public String getBucket() {
+        return bucket;
+    }
+
+    @Override
+    public StorageTypeEnum getType() {
+        return type;
+    }
+
+    @Override
+    public List<StorageFileItem> list(String path) throws IOException {
+        String normalized = StoragePathUtil.normalize(path);
+        String prefix = folderPrefix(normalized);
+        List<StorageFileItem> items = new ArrayList<>();
+        try {
+            ListObjectsV2Request request = ListObjectsV2Request.builder()
+                    .bucket(bucket).prefix(prefix).delimiter("/").build();
+            for (ListObjectsV2Response response : client.listObjectsV2Paginator(request)) {
+                for (CommonPrefix commonPrefix : response.commonPrefixes()) {
+                    String name = commonPrefix.prefix().substring(prefix.length(), commonPrefix.prefix().length() - 1);
+                    items.add(new StorageFileItem(name, StoragePathUtil.join(normalized, name), true, 0, 0));
+                }
+                for (S3Object object : response.contents()) {
+                    String name = object.key().substring(prefix.length());
+                    // 跳过目录占位对象
+                    if (name.isEmpty()) {
+                        continue;
+                    }
+                    items.add(new StorageFileItem(name, StoragePathUtil.join(normalized, name), false,
+                            object.size(), object.lastModified().toEpochMilli()));
+                }
+            }
+            return items;
+        } catch (SdkException e) {
+            throw new IOException("列出对象存储目录失败: " + normalized, e);
+        }
+    }
+
+    @Override
+    public StorageFileItem stat(String path) throws IOException {
+        String normalized = StoragePathUtil.normalize(path);
+        try {
+            if (!normalized.isEmpty()) {
+                try {
+                    HeadObjectResponse response = client.headObject(builder -> builder.bucket(bucket).key(key(normalized)));
+                    return new StorageFileItem(StoragePathUtil.name(normalized), normalized, false,
+                            response.contentLength(), response.lastModified().toEpochMilli());
+                } catch (NoSuchKeyException e) {
+                    // 不是文件，继续判断是否为目录
+                } catch (S3Exception e) {
+                    if (e.statusCode() != 404) {
+                        throw e;
+                    }
+                }
+            }
+            ListObjectsV2Response response = client.listObjectsV2(builder -> builder
+                    .bucket(bucket).prefix(folderPrefix(normalized)).maxKeys(1));
+            if (response.keyCount() == null || response.keyCount() == 0) {
+                return null;
+            }
+            return new StorageFileItem(StoragePathUtil.name(normalized), normalized, true, 0, 0);
+        } catch (SdkException e) {
+            throw new IOException("获取对象信息失败: " + normalized, e);
+        }
+    }
+
+    @Override
+    public InputStream read(String path, long offset, long length) throws IOException {
+        GetObjectRequest.Builder request = GetObjectRequest.builder().bucket(bucket).key(key(path));
+        if (offset > 0 || length >= 0) {
+            request.range("bytes=" + offset + "-" + (length >= 0 ? String.valueOf(offset + length - 1) : ""));
+        }
+        try {
+            return client.getObject(request.build());
+        } catch (SdkException e) {
+            throw new IOException("读取对象失败: " + path, e);
+        }
+    }
+
+    @Override
+    public void write(String path, InputStream input, long size) throws IOException {
+        try {
+            client.putObject(builder -> builder.bucket(bucket).key(key(path)).contentLength(size),
+                    RequestBody.fromInputStream(input, size));
+        } catch (SdkException e) {
+            throw new IOException("写入对象失败: " + path, e);
+        }
+    }
+
+    @Override
+    public void delete(String path) throws IOException {
+        String normalized = StoragePathUtil.normalize(path);
+        try {
+            if (!normalized.isEmpty()) {
+                client.deleteObject(builder -> builder.bucket(bucket).key(key(normalized)));
+            }
+            // 对象存储没有真正的目录，按前缀批量删除目录下的对象
+            List<ObjectIdentifier> batch = new ArrayList<>(DELETE_BATCH_SIZE);
+            ListObjectsV2Request request = ListObjectsV2Request.builder()
+                    .bucket(bucket).prefix(folderPrefix(normalized)).build();
+            for (S3Object object : client.listObjectsV2Paginator(request).contents()) {
+                batch.add(ObjectIdentifier.builder().key(object.key()).build());
+                if (batch.size() == DELETE_BATCH_SIZE) {
+                    deleteBatch(batch);
+                }
+            }
+            if (!batch.isEmpty()) {
+                deleteBatch(batch);
+            }
+        } catch (SdkException e) {
+            throw new IOException("删除对象失败: " + normalized, e);
+        }
+    }
+
+    @Override
+    public void copy(String sourcePath, String targetPath) throws IOException {
+        try {
+            // 服务端复制，数据不经过应用
+            client.copyObject(builder -> builder
+                    .sourceBucket(bucket).sourceKey(key(sourcePath))
+                    .destinationBucket(bucket).destinationKey(key(targetPath)));
+        } catch (SdkException e) {
+            throw new IOException("复制对象失败: " + sourcePath + " -> " + targetPath, e);
+        }
+    }
+
+    @Override
+    public String createMultipartUpload(String path) throws IOException {
+        try {
+            return client.createMultipartUpload(builder -> builder.bucket(bucket).key(key(path))).uploadId();
+        } catch (SdkException e) {
+            throw new IOException("创建分段上传失败: " + path, e);
+        }
+    }
+
+    @Override
+    public String uploadPart(String path, String uploadId, int partNumber, InputStream input, long size) throws IOException {
+        try {
+            return client.uploadPart(builder -> builder.bucket(bucket).key(key(path))
+                            .uploadId(uploadId).partNumber(partNumber).contentLength(size),
+                    RequestBody.fromInputStream(input, size)).eTag();
+        } catch (SdkException e) {
+            throw new IOException("上传分段失败: " + path + "#" + partNumber, e);
+        }
+    }
+
+    @Override
+    public void completeMultipartUpload(String path, String uploadId, SortedMap<Integer, String> partETags) throws IOException {
+        List<CompletedPart> parts = partETags.entrySet().stream()
+                .map(entry -> CompletedPart.builder().partNumber(entry.getKey()).eTag(entry.getValue()).build())
+                .toList();
+        try {
+            client.completeMultipartUpload(builder -> builder.bucket(bucket).key(key(path)).uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build()));
+        } catch (SdkException e) {
+            throw new IOException("完成分段上传失败: " + path, e);
+        }
+    }
+
+    @Override
+    public void abortMultipartUpload(String path, String uploadId) throws IOException {
+        try {
+            client.abortMultipartUpload(builder -> builder.bucket(bucket).key(key(path)).uploadId(uploadId));
+        } catch (NoSuchUploadException e) {
+            // 已完成或已取消
+        } catch (SdkException e) {
+            throw new IOException("取消分段上传失败: " + path, e);
+        }
+    }
+
+    @Override
+    public String presignDownloadUrl(String path, String fileName, boolean inline, Duration expiration) throws IOException {
+        ContentDisposition.Builder disposition = inline ? ContentDisposition.inline() : ContentDisposition.attachment();
+        String contentDisposition = disposition.filename(fileName, StandardCharsets.UTF_8).build().toString();
+        try {
+            return presigner.presignGetObject(builder -> builder
+                    .signatureDuration(expiration)
+                    .getObjectRequest(request -> request.bucket(bucket).key(key(path))
+                            .responseContentDisposition(contentDisposition))).url().toString();
+        } catch (SdkException e) {
+            throw new IOException("生成签名下载链接失败: " + path, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        client.close();
+        presigner.close();
+    }
+
+    /**
+     * @param path 相对路径
+     * @return 对象 key
+     */
+    public String key(String path) {
+        return StoragePathUtil.join(basePath, path);
+    }
+
+    private String folderPrefix(String normalizedPath) {
+        String key = key(normalizedPath);
+        return key.isEmpty() ? "" : key + "/";
+    }
+
+    private void deleteBatch(List<ObjectIdentifier> batch) {
+        client.deleteObjects(builder -> builder.bucket(bucket)
+                .delete(Delete.builder().objects(batch).quiet(true).build()));
+        batch.clear();
+    }
+}
\ No newline at end of file
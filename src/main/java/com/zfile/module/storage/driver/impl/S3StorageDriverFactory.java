@@ -0,0 +1,96 @@
+package com.zfile.module.storage.driver.impl;
+
+import com.zfile.module.storage.driver.StorageDriver;
+import com.zfile.module.storage.driver.StorageDriverConfig;
+import com.zfile.module.storage.driver.StorageDriverFactory;
+import com.zfile.module.storage.storageenum.StorageTypeEnum;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.net.URI;
+
+/**
+ * S3 协议存储驱动工厂
+ * 配置项: endpoint, region, bucketName, accessKey, secretKey, basePath, pathStyle
+ */
+@Component
+public class S3StorageDriverFactory implements StorageDriverFactory {
+
+    @Override
+    public StorageTypeEnum getType() {
+        return StorageTypeEnum.S3;
+    }
+
+    @Override
+    public StorageDriver create(StorageDriverConfig config) {
+        boolean pathStyle = config.getBoolean("pathStyle", true);
+        return new S3StorageDriver(getType(), buildClient(config, pathStyle), buildPresigner(config, pathStyle),
+                config.getRequired("bucketName"), config.getString("basePath", ""));
+    }
+
+    /**
+     * 创建 S3 客户端，同一存储源的所有请求共用该客户端及其连接池
+     *
+     * @param config    存储源配置
+     * @param pathStyle 是否使用路径风格访问存储桶
+     * @return S3 客户端
+     */
+    static S3Client buildClient(StorageDriverConfig config, boolean pathStyle) {
+        S3ClientBuilder builder = S3Client.builder()
+                .region(region(config))
+                .credentialsProvider(credentialsProvider(config))
+                .serviceConfiguration(S3Configuration.builder()
+                        .pathStyleAccessEnabled(pathStyle)
+                        // 部分兼容存储不返回分块校验和，关闭校验避免误报
+                        .checksumValidationEnabled(false)
+                        .build());
+        URI endpoint = endpoint(config);
+        if (endpoint != null) {
+            builder.endpointOverride(endpoint);
+        }
+        return builder.build();
+    }
+
+    /**
+     * 创建签名下载链接生成器，与客户端使用相同的地址和凭证
+     *
+     * @param config    存储源配置
+     * @param pathStyle 是否使用路径风格访问存储桶
+     * @return 签名生成器
+     */
+    static S3Presigner buildPresigner(StorageDriverConfig config, boolean pathStyle) {
+        S3Presigner.Builder builder = S3Presigner.builder()
+                .region(region(config))
+                .credentialsProvider(credentialsProvider(config))
+                .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(pathStyle).build());
+        URI endpoint = endpoint(config);
+        if (endpoint != null) {
+            builder.endpointOverride(endpoint);
+        }
+        return builder.build();
+    }
+
+    private static Region region(StorageDriverConfig config) {
+        return Region.of(config.getString("region", "us-east-1"));
+    }
+
+    private static StaticCredentialsProvider credentialsProvider(StorageDriverConfig config) {
+        return StaticCredentialsProvider.create(AwsBasicCredentials.create(
+                config.getRequired("accessKey"), config.getRequired("secretKey")));
+    }
+
+    private static URI endpoint(StorageDriverConfig config) {
+        String endpoint = config.getString("endpoint");
+        if (!StringUtils.hasText(endpoint)) {
+            return null;
+        }
+        return URI.create(endpoint.contains("://") ? endpoint : "https://" + endpoint);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,270 @@
+package com.zfile.module.storage.driver.impl;
+
+import com.jcraft.jsch.ChannelSftp;
+import com.jcraft.jsch.JSch;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.pool2.BasePooledObjectFactory;
+import org.apache.commons.pool2.PooledObject;
+import org.apache.commons.pool2.impl.DefaultPooledObject;
+import org.apache.commons.pool2.impl.GenericObjectPool;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SFTP 通道池
+ * 每个存储源一个池。一个 SSH 会话上复用多个 SFTP 通道，会话数不超过 maxSessions，
+ * 只有在所有会话的通道都用满时才建立新会话，避免每次操作都重新进行密钥交换和认证。
+ * 空闲通道超时后被回收，会话上的通道全部回收后断开会话；会话开启 keepalive，
+ * 借出时校验通道和会话仍然连接。
+ */
+@Slf4j
+public class SftpChannelPool implements Closeable {
+
+    private final JSch jsch;
+
+    private final Options options;
+
+    private final GenericObjectPool<ChannelSftp> pool;
+
+    /**
+     * 已建立和正在连接的会话，访问时持有 this 锁
+     */
+    private final List<SessionHolder> sessions = new ArrayList<>();
+
+    /**
+     * 是否已关闭，访问时持有 this 锁
+     */
+    private boolean closed;
+
+    /**
+     * 通道 -> 所属会话
+     */
+    private final Map<ChannelSftp, SessionHolder> owners = new ConcurrentHashMap<>();
+
+    public SftpChannelPool(JSch jsch, Options options) {
+        this.jsch = jsch;
+        this.options = options;
+
+        int maxTotal = options.maxSessions() * options.channelsPerSession();
+        GenericObjectPoolConfig<ChannelSftp> config = new GenericObjectPoolConfig<>();
+        config.setMaxTotal(maxTotal);
+        config.setMaxIdle(maxTotal);
+        config.setMinIdle(0);
+        config.setMaxWait(options.borrowTimeout());
+        config.setTestOnBorrow(true);
+        config.setTestWhileIdle(true);
+        config.setMinEvictableIdleDuration(options.idleTimeout());
+        config.setTimeBetweenEvictionRuns(Duration.ofSeconds(30));
+        config.setJmxEnabled(false);
+        this.pool = new GenericObjectPool<>(new ChannelFactory(), config);
+    }
+
+    /**
+     * 借出一个已连接的通道，用完后必须调用 {@link #release(ChannelSftp)}
+     */
+    public ChannelSftp borrow() throws IOException {
+        try {
+            return pool.borrowObject();
+        } catch (Exception e) {
+            throw new IOException("获取 SFTP 通道失败: " + options.host() + ":" + options.port(), e);
+        }
+    }
+
+    /**
+     * 归还通道，通道已断开时直接销毁
+     */
+    public void release(ChannelSftp channel) {
+        if (channel.isConnected() && !channel.isClosed()) {
+            pool.returnObject(channel);
+            return;
+        }
+        try {
+            pool.invalidateObject(channel);
+        } catch (Exception e) {
+            log.debug("销毁 SFTP 通道失败", e);
+        }
+    }
+
+    public int getActiveCount() {
+        return pool.getNumActive();
+    }
+
+    public int getIdleCount() {
+        return pool.getNumIdle();
+    }
+
+    public synchronized int getSessionCount() {
+        return sessions.size();
+    }
+
+    @Override
+    public void close() {
+        pool.close();
+        synchronized (this) {
+            closed = true;
+            sessions.stream().filter(holder -> holder.session != null).forEach(holder -> holder.session.disconnect());
+            sessions.clear();
+        }
+    }
+
+    /**
+     * 为新通道分配会话：优先使用通道最少且未满的已连接会话，都满时在上限内新建会话。
+     * 新建会话时只在锁内占用名额，SSH 握手在锁外进行，连接慢或不可达的主机不会阻塞其他借出和归还；
+     * 连接失败时退回名额
+     */
+    private SessionHolder acquireSlot() throws JSchException {
+        SessionHolder holder = reserveSlot();
+        if (holder.session != null) {
+            return holder;
+        }
+
+        Session session;
+        try {
+            session = openSession();
+        } catch (JSchException | RuntimeException e) {
+            synchronized (this) {
+                sessions.remove(holder);
+            }
+            throw e;
+        }
+        synchronized (this) {
+            if (closed) {
+                session.disconnect();
+                throw new JSchException("SFTP 通道池已关闭: " + options.host() + ":" + options.port());
+            }
+            holder.session = session;
+        }
+        return holder;
+    }
+
+    /**
+     * 在锁内选择会话或占用新会话的名额，返回的会话为空时由调用方在锁外建立连接
+     */
+    private synchronized SessionHolder reserveSlot() throws JSchException {
+        if (closed) {
+            throw new JSchException("SFTP 通道池已关闭: " + options.host() + ":" + options.port());
+        }
+        sessions.removeIf(holder -> {
+            boolean broken = holder.session != null && !holder.session.isConnected() && holder.channels == 0;
+            if (broken) {
+                holder.session.disconnect();
+            }
+            return broken;
+        });
+
+        SessionHolder target = null;
+        for (SessionHolder holder : sessions) {
+            if (holder.session != null && holder.session.isConnected() && holder.channels < options.channelsPerSession()
+                    && (target == null || holder.channels < target.channels)) {
+                target = holder;
+            }
+        }
+        if (target == null) {
+            if (sessions.size() >= options.maxSessions()) {
+                throw new JSchException("SFTP 会话数已达上限: " + options.maxSessions());
+            }
+            target = new SessionHolder();
+            sessions.add(target);
+        }
+        target.channels++;
+        return target;
+    }
+
+    private synchronized void releaseSlot(SessionHolder holder) {
+        holder.channels--;
+        if (holder.channels <= 0) {
+            holder.session.disconnect();
+            sessions.remove(holder);
+            log.debug("SFTP 会话已无通道，断开连接: {}:{}", options.host(), options.port());
+        }
+    }
+
+    private Session openSession() throws JSchException {
+        Session session = jsch.getSession(options.username(), options.host(), options.port());
+        if (options.password() != null) {
+            session.setPassword(options.password());
+        }
+        if (!options.strictHostKeyChecking()) {
+            // 未配置 known_hosts 时不校验主机密钥
+            session.setConfig("StrictHostKeyChecking", "no");
+        }
+        // 定期发送 keepalive，连接失效时会话会被 JSch 断开，借出校验随即发现
+        session.setServerAliveInterval(options.keepAliveInterval());
+        session.setServerAliveCountMax(3);
+        session.connect(options.timeout());
+        log.info("已建立 SFTP 会话: {}@{}:{}", options.username(), options.host(), options.port());
+        return session;
+    }
+
+    /**
+     * 通道池配置
+     *
+     * @param maxSessions        最大会话数
+     * @param channelsPerSession 每个会话最多同时打开的通道数，不能超过服务端 MaxSessions（OpenSSH 默认 10）
+     * @param keepAliveInterval  keepalive 间隔（毫秒）
+     * @param idleTimeout        通道空闲多久后回收
+     * @param borrowTimeout      通道全部借出时的最长等待时间
+     */
+    public record Options(String host, int port, String username, String password, int timeout,
+                          boolean strictHostKeyChecking, int maxSessions, int channelsPerSession,
+                          int keepAliveInterval, Duration idleTimeout, Duration borrowTimeout) {
+    }
+
+    private static class SessionHolder {
+
+        /**
+         * 连接建立前为空，在 this 锁内赋值
+         */
+        private Session session;
+
+        private int channels;
+    }
+
+    private class ChannelFactory extends BasePooledObjectFactory<ChannelSftp> {
+
+        @Override
+        public ChannelSftp create() throws Exception {
+            SessionHolder holder = acquireSlot();
+            try {
+                ChannelSftp channel = (ChannelSftp) holder.session.openChannel("sftp");
+                channel.connect(options.timeout());
+                owners.put(channel, holder);
+                return channel;
+            } catch (JSchException e) {
+                releaseSlot(holder);
+                throw e;
+            }
+        }
+
+        @Override
+        public PooledObject<ChannelSftp> wrap(ChannelSftp channel) {
+            return new DefaultPooledObject<>(channel);
+        }
+
+        @Override
+        public boolean validateObject(PooledObject<ChannelSftp> pooledObject) {
+            ChannelSftp channel = pooledObject.getObject();
+            SessionHolder holder = owners.get(channel);
+            return holder != null && holder.session.isConnected() && channel.isConnected() && !channel.isClosed();
+        }
+
+        @Override
+        public void destroyObject(PooledObject<ChannelSftp> pooledObject) {
+            ChannelSftp channel = pooledObject.getObject();
+            channel.disconnect();
+            SessionHolder holder = owners.remove(channel);
+            if (holder != null) {
+                releaseSlot(holder);
+            }
+        }
+    }
+}
\ No newline at end of file
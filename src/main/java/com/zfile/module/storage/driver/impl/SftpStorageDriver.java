@@ -0,0 +1,219 @@
+package com.zfile.module.storage.driver.impl;
+
+import com.google.common.io.ByteStreams;
+import com.jcraft.jsch.ChannelSftp;
+import com.jcraft.jsch.SftpATTRS;
+import com.jcraft.jsch.SftpException;
+import com.zfile.module.storage.driver.StorageDriver;
+import com.zfile.module.storage.driver.StorageFileItem;
+import com.zfile.module.storage.storageenum.StorageTypeEnum;
+import com.zfile.module.storage.util.StoragePathUtil;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SFTP 存储驱动
+ * 操作在从 {@link SftpChannelPool} 借出的通道上执行，SSH 会话和通道在操作之间复用
+ */
+public class SftpStorageDriver implements StorageDriver {
+
+    private final SftpChannelPool channelPool;
+
+    private final String basePath;
+
+    public SftpStorageDriver(SftpChannelPool channelPool, String basePath) {
+        this.channelPool = channelPool;
+        this.basePath = "/" + StoragePathUtil.normalize(basePath);
+    }
+
+    public SftpChannelPool getChannelPool() {
+        return channelPool;
+    }
+
+    @Override
+    public StorageTypeEnum getType() {
+        return StorageTypeEnum.SFTP;
+    }
+
+    @Override
+    public List<StorageFileItem> list(String path) throws IOException {
+        String normalized = StoragePathUtil.normalize(path);
+        return execute(channel -> {
+            List<StorageFileItem> items = new ArrayList<>();
+            try {
+                for (ChannelSftp.LsEntry entry : channel.ls(remotePath(normalized))) {
+                    String name = entry.getFilename();
+                    if (".".equals(name) || "..".equals(name)) {
+                        continue;
+                    }
+                    items.add(toItem(StoragePathUtil.join(normalized, name), entry.getAttrs()));
+                }
+            } catch (SftpException e) {
+                if (e.id != ChannelSftp.SSH_FX_NO_SUCH_FILE) {
+                    throw e;
+                }
+            }
+            return items;
+        });
+    }
+
+    @Override
+    public StorageFileItem stat(String path) throws IOException {
+        String normalized = StoragePathUtil.normalize(path);
+        return execute(channel -> {
+            try {
+                return toItem(normalized, channel.stat(remotePath(normalized)));
+            } catch (SftpException e) {
+                if (e.id == ChannelSftp.SSH_FX_NO_SUCH_FILE) {
+                    return null;
+                }
+                throw e;
+            }
+        });
+    }
+
+    @Override
+    public InputStream read(String path, long offset, long length) throws IOException {
+        ChannelSftp channel = openChannel();
+        try {
+            InputStream input = new FilterInputStream(channel.get(remotePath(path), null, offset)) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        releaseChannel(channel);
+                    }
+                }
+            };
+            return length < 0 ? input : ByteStreams.limit(input, length);
+        } catch (SftpException e) {
+            releaseChannel(channel);
+            throw new IOException("读取 SFTP 文件失败: " + path, e);
+        }
+    }
+
+    @Override
+    public void write(String path, InputStream input, long size) throws IOException {
+        String normalized = StoragePathUtil.normalize(path);
+        execute(channel -> {
+            mkdirs(channel, StoragePathUtil.parent(normalized));
+            channel.put(input, remotePath(normalized), ChannelSftp.OVERWRITE);
+            return null;
+        });
+    }
+
+    @Override
+    public void delete(String path) throws IOException {
+        String normalized = StoragePathUtil.normalize(path);
+        execute(channel -> {
+            try {
+                deleteRecursively(channel, remotePath(normalized), channel.stat(remotePath(normalized)));
+            } catch (SftpException e) {
+                if (e.id != ChannelSftp.SSH_FX_NO_SUCH_FILE) {
+                    throw e;
+                }
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void copy(String sourcePath, String targetPath) throws IOException {
+        // SFTP 没有服务端复制，在两个通道之间流式转发
+        String normalizedTarget = StoragePathUtil.normalize(targetPath);
+        try (InputStream input = read(sourcePath, 0, -1)) {
+            execute(channel -> {
+                mkdirs(channel, StoragePathUtil.parent(normalizedTarget));
+                channel.put(input, remotePath(normalizedTarget), ChannelSftp.OVERWRITE);
+                return null;
+            });
+        }
+    }
+
+    @Override
+    public void close() {
+        channelPool.close();
+    }
+
+    /**
+     * 从通道池借出一个通道执行操作，完成后归还
+     */
+    protected <T> T execute(SftpCallback<T> callback) throws IOException {
+        ChannelSftp channel = openChannel();
+        try {
+            return callback.doInChannel(channel);
+        } catch (SftpException e) {
+            throw new IOException("SFTP 操作失败: " + e.getMessage(), e);
+        } finally {
+            releaseChannel(channel);
+        }
+    }
+
+    protected ChannelSftp openChannel() throws IOException {
+        return channelPool.borrow();
+    }
+
+    protected void releaseChannel(ChannelSftp channel) {
+        channelPool.release(channel);
+    }
+
+    private String remotePath(String path) {
+        String normalized = StoragePathUtil.normalize(path);
+        if (normalized.isEmpty()) {
+            return basePath;
+        }
+        return basePath.endsWith("/") ? basePath + normalized : basePath + "/" + normalized;
+    }
+
+    private void mkdirs(ChannelSftp channel, String directory) throws SftpException {
+        if (directory.isEmpty()) {
+            return;
+        }
+        String current = "";
+        for (String segment : directory.split("/")) {
+            current = StoragePathUtil.join(current, segment);
+            try {
+                channel.stat(remotePath(current));
+            } catch (SftpException e) {
+                if (e.id != ChannelSftp.SSH_FX_NO_SUCH_FILE) {
+                    throw e;
+                }
+                channel.mkdir(remotePath(current));
+            }
+        }
+    }
+
+    private void deleteRecursively(ChannelSftp channel, String remotePath, SftpATTRS attrs) throws SftpException {
+        if (!attrs.isDir()) {
+            channel.rm(remotePath);
+            return;
+        }
+        for (ChannelSftp.LsEntry entry : channel.ls(remotePath)) {
+            String name = entry.getFilename();
+            if (!".".equals(name) && !"..".equals(name)) {
+                deleteRecursively(channel, remotePath + "/" + name, entry.getAttrs());
+            }
+        }
+        channel.rmdir(remotePath);
+    }
+
+    private static StorageFileItem toItem(String path, SftpATTRS attrs) {
+        boolean folder = attrs.isDir();
+        return new StorageFileItem(StoragePathUtil.name(path), path, folder,
+                folder ? 0 : attrs.getSize(), attrs.getMTime() * 1000L);
+    }
+
+    /**
+     * SFTP 通道回调
+     */
+    @FunctionalInterface
+    protected interface SftpCallback<T> {
+
+        T doInChannel(ChannelSftp channel) throws SftpException, IOException;
+    }
+}
\ No newline at end of file
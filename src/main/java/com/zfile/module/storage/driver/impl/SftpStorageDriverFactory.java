@@ -0,0 +1,58 @@
+package com.zfile.module.storage.driver.impl;
+
+import com.jcraft.jsch.JSch;
+import com.jcraft.jsch.JSchException;
+import com.zfile.module.storage.driver.StorageDriver;
+import com.zfile.module.storage.driver.StorageDriverConfig;
+import com.zfile.module.storage.driver.StorageDriverFactory;
+import com.zfile.module.storage.storageenum.StorageTypeEnum;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * SFTP 存储驱动工厂
+ * 配置项: host, port, username, password, privateKey, passphrase, knownHosts, basePath, timeout（毫秒），
+ * 通道池配置 maxSessions, channelsPerSession, keepAliveInterval（毫秒）, idleTimeout（毫秒）, borrowTimeout（毫秒）
+ */
+@Component
+public class SftpStorageDriverFactory implements StorageDriverFactory {
+
+    @Override
+    public StorageTypeEnum getType() {
+        return StorageTypeEnum.SFTP;
+    }
+
+    @Override
+    public StorageDriver create(StorageDriverConfig config) {
+        JSch jsch = new JSch();
+        try {
+            String privateKey = config.getString("privateKey");
+            if (StringUtils.hasText(privateKey)) {
+                String passphrase = config.getString("passphrase");
+                jsch.addIdentity("zfile-storage-" + config.getStorageSourceId(),
+                        privateKey.getBytes(StandardCharsets.UTF_8), null,
+                        passphrase == null ? null : passphrase.getBytes(StandardCharsets.UTF_8));
+            }
+            String knownHosts = config.getString("knownHosts");
+            if (StringUtils.hasText(knownHosts)) {
+                jsch.setKnownHosts(knownHosts);
+            }
+        } catch (JSchException e) {
+            throw new IllegalArgumentException("SFTP 密钥或 known_hosts 配置无效", e);
+        }
+        SftpChannelPool.Options options = new SftpChannelPool.Options(
+                config.getRequired("host"), config.getInt("port", 22),
+                config.getRequired("username"), config.getString("password"),
+                config.getInt("timeout", 10000), StringUtils.hasText(config.getString("knownHosts")),
+                Math.max(1, config.getInt("maxSessions", 4)),
+                // 复制文件时同时占用两个通道
+                Math.max(2, config.getInt("channelsPerSession", 8)),
+                config.getInt("keepAliveInterval", 30000),
+                Duration.ofMillis(config.getInt("idleTimeout", 300000)),
+                Duration.ofMillis(config.getInt("borrowTimeout", 10000)));
+        return new SftpStorageDriver(new SftpChannelPool(jsch, options), config.getString("basePath", "/"));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,160 @@
+package com.zfile.module.storage.driver.impl;
+
+import com.github.sardine.DavResource;
+import com.github.sardine.Sardine;
+import com.github.sardine.impl.SardineException;
+import com.zfile.module.storage.driver.StorageDriver;
+import com.zfile.module.storage.driver.StorageFileItem;
+import com.zfile.module.storage.storageenum.StorageTypeEnum;
+import com.zfile.module.storage.util.StoragePathUtil;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * WebDAV 存储驱动
+ * Sardine 内部使用带连接池的 HttpClient，存储源内所有请求共用一个实例
+ */
+public class WebDavStorageDriver implements StorageDriver {
+
+    private static final int NOT_FOUND = 404;
+
+    private final Sardine sardine;
+
+    /**
+     * 服务地址，不以 / 结尾
+     */
+    private final String baseUrl;
+
+    private final String basePath;
+
+    public WebDavStorageDriver(Sardine sardine, String baseUrl, String basePath) {
+        this.sardine = sardine;
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.basePath = StoragePathUtil.normalize(basePath);
+    }
+
+    @Override
+    public StorageTypeEnum getType() {
+        return StorageTypeEnum.WEBDAV;
+    }
+
+    @Override
+    public List<StorageFileItem> list(String path) throws IOException {
+        String normalized = StoragePathUtil.normalize(path);
+        List<StorageFileItem> items = new ArrayList<>();
+        List<DavResource> resources;
+        try {
+            resources = sardine.list(url(normalized, true), 1);
+        } catch (SardineException e) {
+            if (e.getStatusCode() == NOT_FOUND) {
+                return items;
+            }
+            throw e;
+        }
+        // 第一个元素是目录本身
+        for (DavResource resource : resources.subList(Math.min(1, resources.size()), resources.size())) {
+            items.add(toItem(StoragePathUtil.join(normalized, resource.getName()), resource));
+        }
+        return items;
+    }
+
+    @Override
+    public StorageFileItem stat(String path) throws IOException {
+        String normalized = StoragePathUtil.normalize(path);
+        try {
+            List<DavResource> resources = sardine.list(url(normalized, false), 0);
+            return resources.isEmpty() ? null : toItem(normalized, resources.get(0));
+        } catch (SardineException e) {
+            if (e.getStatusCode() == NOT_FOUND) {
+                return null;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public InputStream read(String path, long offset, long length) throws IOException {
+        if (offset <= 0 && length < 0) {
+            return sardine.get(url(path, false));
+        }
+        String range = "bytes=" + offset + "-" + (length >= 0 ? String.valueOf(offset + length - 1) : "");
+        return sardine.get(url(path, false), Map.of("Range", range));
+    }
+
+    @Override
+    public void write(String path, InputStream input, long size) throws IOException {
+        String normalized = StoragePathUtil.normalize(path);
+        mkdirs(StoragePathUtil.parent(normalized));
+        sardine.put(url(normalized, false), input, (String) null, true, size);
+    }
+
+    @Override
+    public void delete(String path) throws IOException {
+        String normalized = StoragePathUtil.normalize(path);
+        try {
+            // WebDAV 的 DELETE 会递归删除目录
+            sardine.delete(url(normalized, false));
+        } catch (SardineException e) {
+            if (e.getStatusCode() != NOT_FOUND) {
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public void copy(String sourcePath, String targetPath) throws IOException {
+        String normalizedTarget = StoragePathUtil.normalize(targetPath);
+        mkdirs(StoragePathUtil.parent(normalizedTarget));
+        sardine.copy(url(sourcePath, false), url(normalizedTarget, false), true);
+    }
+
+    @Override
+    public void close() {
+        try {
+            sardine.shutdown();
+        } catch (IOException e) {
+            // 关闭连接池失败不影响后续使用新的客户端
+        }
+    }
+
+    private void mkdirs(String directory) throws IOException {
+        if (directory.isEmpty()) {
+            return;
+        }
+        String current = "";
+        for (String segment : directory.split("/")) {
+            current = StoragePathUtil.join(current, segment);
+            String url = url(current, true);
+            if (!sardine.exists(url)) {
+                sardine.createDirectory(url);
+            }
+        }
+    }
+
+    private String url(String path, boolean directory) {
+        String key = StoragePathUtil.join(basePath, path);
+        StringBuilder builder = new StringBuilder(baseUrl);
+        for (String segment : key.split("/")) {
+            if (!segment.isEmpty()) {
+                builder.append('/').append(URLEncoder.encode(segment, StandardCharsets.UTF_8).replace("+", "%20"));
+            }
+        }
+        if (directory || key.isEmpty()) {
+            builder.append('/');
+        }
+        return builder.toString();
+    }
+
+    private static StorageFileItem toItem(String path, DavResource resource) {
+        boolean folder = resource.isDirectory();
+        long size = folder || resource.getContentLength() == null ? 0 : resource.getContentLength();
+        long lastModified = resource.getModified() == null ? 0 : resource.getModified().getTime();
+        return new StorageFileItem(StoragePathUtil.name(path), path, folder, size, lastModified);
+    }
+}
\ No newline at end of file
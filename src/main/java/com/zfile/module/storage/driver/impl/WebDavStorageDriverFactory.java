@@ -0,0 +1,33 @@
+package com.zfile.module.storage.driver.impl;
+
+import com.github.sardine.Sardine;
+import com.github.sardine.SardineFactory;
+import com.zfile.module.storage.driver.StorageDriver;
+import com.zfile.module.storage.driver.StorageDriverConfig;
+import com.zfile.module.storage.driver.StorageDriverFactory;
+import com.zfile.module.storage.storageenum.StorageTypeEnum;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+
+/**
+ * WebDAV 存储驱动工厂
+ * 配置项: url, username, password, basePath
+ */
+@Component
+public class WebDavStorageDriverFactory implements StorageDriverFactory {
+
+    @Override
+    public StorageTypeEnum getType() {
+        return StorageTypeEnum.WEBDAV;
+    }
+
+    @Override
+    public StorageDriver create(StorageDriverConfig config) {
+        String url = config.getRequired("url");
+        Sardine sardine = SardineFactory.begin(config.getString("username"), config.getString("password"));
+        // 首次请求即携带认证信息，省去每个连接一次 401 往返
+        sardine.enablePreemptiveAuthentication(URI.create(url).getHost());
+        return new WebDavStorageDriver(sardine, url, config.getString("basePath", ""));
+    }
+}
\ No newline at end of file
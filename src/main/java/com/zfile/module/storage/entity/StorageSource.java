@@ -0,0 +1,52 @@
+package com.zfile.module.storage.entity;
+
+import com.baomidou.mybatisplus.annotation.FieldFill;
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.zfile.module.storage.storageenum.StorageTypeEnum;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 存储源表
+ * @TableName storage_source
+ */
+@TableName(value = "storage_source")
+@Data
+@Schema(description = "存储源")
+public class StorageSource implements Serializable {
+
+    @Serial
+    @TableField(exist = false)
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "存储源ID")
+    @TableId(type = IdType.AUTO)
+    private Integer id;
+
+    @Schema(description = "存储源名称")
+    private String name;
+
+    @Schema(description = "存储类型")
+    private StorageTypeEnum type;
+
+    @Schema(description = "是否启用")
+    private Boolean enable;
+
+    @Schema(description = "排序")
+    private Integer orderNum;
+
+    @Schema(description = "创建时间")
+    @TableField(fill = FieldFill.INSERT)
+    private LocalDateTime createTime;
+
+    @Schema(description = "更新时间")
+    @TableField(fill = FieldFill.INSERT_UPDATE)
+    private LocalDateTime updateTime;
+}
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.zfile.module.storage.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * 存储源配置表，每行一个配置项
+ * @TableName storage_source_config
+ */
+@TableName(value = "storage_source_config")
+@Data
+@Schema(description = "存储源配置项")
+public class StorageSourceConfig implements Serializable {
+
+    @Serial
+    @TableField(exist = false)
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "ID")
+    @TableId(type = IdType.AUTO)
+    private Integer id;
+
+    @Schema(description = "存储源ID")
+    private Integer storageId;
+
+    @Schema(description = "配置项名称")
+    private String name;
+
+    @Schema(description = "配置项值")
+    private String value;
+}
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.zfile.module.storage.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.zfile.module.storage.entity.StorageSourceConfig;
+
+/**
+ * 针对表【storage_source_config(存储源配置表)】的数据库操作Mapper
+ */
+public interface StorageSourceConfigMapper extends BaseMapper<StorageSourceConfig> {
+}
\ No newline at end of file
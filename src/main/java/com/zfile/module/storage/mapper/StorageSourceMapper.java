@@ -0,0 +1,10 @@
+package com.zfile.module.storage.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.zfile.module.storage.entity.StorageSource;
+
+/**
+ * 针对表【storage_source(存储源表)】的数据库操作Mapper
+ */
+public interface StorageSourceMapper extends BaseMapper<StorageSource> {
+}
\ No newline at end of file
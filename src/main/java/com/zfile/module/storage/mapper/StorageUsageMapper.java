@@ -0,0 +1,92 @@
+package com.zfile.module.storage.mapper;
+
+import com.zfile.module.storage.model.StorageUsageItem;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+
+/**
+ * 针对表【storage_usage(存储用量计数表)】和【storage_quota(用户存储配额表)】的数据库操作Mapper
+ */
+public interface StorageUsageMapper {
+
+    /**
+     * 在计数分片上累加用量，行不存在时插入
+     *
+     * @param userId          用户ID
+     * @param storageSourceId 用户存储源ID
+     * @param category        文件分类编码
+     * @param stripe          计数分片
+     * @param usedSize        已用空间增量
+     * @param itemCount       文件数增量
+     * @return 影响行数
+     */
+    @Insert("INSERT INTO storage_usage (user_id, storage_source_id, category, stripe, used_size, item_count) "
+            + "VALUES (#{userId}, #{storageSourceId}, #{category}, #{stripe}, #{usedSize}, #{itemCount}) "
+            + "ON DUPLICATE KEY UPDATE used_size = used_size + #{usedSize}, item_count = item_count + #{itemCount}")
+    int addUsage(@Param("userId") Integer userId, @Param("storageSourceId") Integer storageSourceId,
+                 @Param("category") String category, @Param("stripe") int stripe,
+                 @Param("usedSize") long usedSize, @Param("itemCount") long itemCount);
+
+    /**
+     * 查询用户的用量，合并各计数分片
+     *
+     * @param userId 用户ID
+     * @return 按存储源和分类汇总的用量
+     */
+    @Select("SELECT storage_source_id, category, CAST(SUM(used_size) AS SIGNED) AS used_size, "
+            + "CAST(SUM(item_count) AS SIGNED) AS item_count FROM storage_usage WHERE user_id = #{userId} "
+            + "GROUP BY storage_source_id, category")
+    List<StorageUsageItem> selectUserUsage(@Param("userId") Integer userId);
+
+    /**
+     * 查询用户的已用空间
+     *
+     * @param userId 用户ID
+     * @return 已用空间（字节）
+     */
+    @Select("SELECT CAST(COALESCE(SUM(used_size), 0) AS SIGNED) FROM storage_usage WHERE user_id = #{userId}")
+    long selectUsedSize(@Param("userId") Integer userId);
+
+    /**
+     * 锁定用户的全部计数行，对账期间新的增量等待对账事务提交
+     *
+     * @param userId 用户ID
+     * @return 计数行数
+     */
+    @Select("SELECT COUNT(*) FROM storage_usage WHERE user_id = #{userId} FOR UPDATE")
+    int lockUserUsage(@Param("userId") Integer userId);
+
+    /**
+     * 删除用户的全部计数行
+     *
+     * @param userId 用户ID
+     * @return 删除行数
+     */
+    @Delete("DELETE FROM storage_usage WHERE user_id = #{userId}")
+    int deleteUserUsage(@Param("userId") Integer userId);
+
+    /**
+     * 按用户ID顺序查询有计数或有文件的用户，对账任务分批遍历
+     *
+     * @param afterUserId 上一批最后一个用户ID
+     * @param limit       最多返回条数
+     * @return 用户ID列表
+     */
+    @Select("SELECT user_id FROM (SELECT user_id FROM storage_usage WHERE user_id > #{afterUserId} "
+            + "UNION SELECT DISTINCT user_id FROM file_info WHERE user_id > #{afterUserId}) u "
+            + "ORDER BY user_id LIMIT #{limit}")
+    List<Integer> selectUserIdsAfter(@Param("afterUserId") Integer afterUserId, @Param("limit") int limit);
+
+    /**
+     * 查询用户的存储配额
+     *
+     * @param userId 用户ID
+     * @return 配额（字节），没有单独设置时返回 null
+     */
+    @Select("SELECT quota_size FROM storage_quota WHERE user_id = #{userId}")
+    Long selectQuota(@Param("userId") Integer userId);
+}
\ No newline at end of file
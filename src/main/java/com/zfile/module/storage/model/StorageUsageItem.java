@@ -0,0 +1,12 @@
+package com.zfile.module.storage.model;
+
+/**
+ * 存储用量计数，各计数分片已合并
+ *
+ * @param storageSourceId 用户存储源ID，文件没有所属存储源时为 0
+ * @param category        文件分类编码
+ * @param usedSize        已用空间（字节）
+ * @param itemCount       文件数，folder 分类为文件夹数
+ */
+public record StorageUsageItem(Integer storageSourceId, String category, Long usedSize, Long itemCount) {
+}
\ No newline at end of file
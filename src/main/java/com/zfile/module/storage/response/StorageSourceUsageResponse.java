@@ -0,0 +1,27 @@
+package com.zfile.module.storage.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+@Data
+@Schema(description = "单个存储源的存储用量")
+public class StorageSourceUsageResponse implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "用户存储源ID")
+    private Integer storageSourceId;
+
+    @Schema(description = "已用空间（字节）")
+    private Long usedSize;
+
+    @Schema(description = "文件数")
+    private Long fileCount;
+
+    @Schema(description = "文件夹数")
+    private Long folderCount;
+}
\ No newline at end of file
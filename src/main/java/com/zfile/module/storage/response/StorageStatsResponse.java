@@ -0,0 +1,34 @@
+package com.zfile.module.storage.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+@Schema(description = "用户存储用量统计")
+public class StorageStatsResponse implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "已用空间（字节）")
+    private Long totalUsed;
+
+    @Schema(description = "存储配额（字节）")
+    private Long totalQuota;
+
+    @Schema(description = "文件数")
+    private Long fileCount;
+
+    @Schema(description = "文件夹数")
+    private Long folderCount;
+
+    @Schema(description = "按文件分类统计")
+    private List<TypeStatsResponse> typeStats;
+
+    @Schema(description = "按存储源统计")
+    private List<StorageSourceUsageResponse> sourceStats;
+}
\ No newline at end of file
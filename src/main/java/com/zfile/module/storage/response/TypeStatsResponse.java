@@ -0,0 +1,24 @@
+package com.zfile.module.storage.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+@Data
+@Schema(description = "按文件分类统计的存储用量")
+public class TypeStatsResponse implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "文件分类：image, video, audio, document, archive, other")
+    private String type;
+
+    @Schema(description = "文件数")
+    private Long count;
+
+    @Schema(description = "已用空间（字节）")
+    private Long size;
+}
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.zfile.module.storage.service;
+
+import com.baomidou.mybatisplus.extension.service.IService;
+import com.zfile.module.storage.entity.StorageSource;
+
+import java.util.Map;
+
+/**
+ * 针对表【storage_source(存储源表)】的数据库操作Service
+ */
+public interface StorageSourceService extends IService<StorageSource> {
+
+    /**
+     * 查询存储源的全部配置项
+     *
+     * @param storageSourceId 存储源ID
+     * @return 配置项名称 -> 配置项值
+     */
+    Map<String, String> getStorageSourceConfig(Integer storageSourceId);
+
+    /**
+     * 保存存储源配置，覆盖同名配置项，提交后通知各节点按新配置重建驱动
+     *
+     * @param storageSourceId 存储源ID
+     * @param config          配置项名称 -> 配置项值
+     */
+    void saveStorageSourceConfig(Integer storageSourceId, Map<String, String> config);
+
+    /**
+     * 启用或禁用存储源，提交后通知各节点
+     *
+     * @param storageSourceId 存储源ID
+     * @param enable          是否启用
+     * @return 是否更新成功
+     */
+    boolean updateStorageSourceEnable(Integer storageSourceId, Boolean enable);
+}
\ No newline at end of file
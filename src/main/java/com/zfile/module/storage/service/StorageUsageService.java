@@ -0,0 +1,82 @@
+package com.zfile.module.storage.service;
+
+import com.zfile.module.file.model.ContentUsage;
+import com.zfile.module.storage.response.StorageStatsResponse;
+import com.zfile.module.storage.response.TypeStatsResponse;
+
+import java.util.List;
+
+/**
+ * 存储用量和配额Service
+ * 用量计数与 file_info 的增删在同一事务中更新，统计时不需要扫描 file_info
+ */
+public interface StorageUsageService {
+
+    /**
+     * 累加用量，需要在新增、删除、恢复 file_info 的事务中调用，与文件记录一起提交或回滚
+     *
+     * @param userId        用户ID
+     * @param contentUsages 用量增量，减少时为负数
+     */
+    void addUsage(Integer userId, List<ContentUsage> contentUsages);
+
+    /**
+     * 查询用户的存储用量统计
+     *
+     * @param userId 用户ID
+     * @return 用量统计
+     */
+    StorageStatsResponse getStorageStats(Integer userId);
+
+    /**
+     * 按文件分类查询用户的存储用量，不包含文件夹
+     *
+     * @param userId 用户ID
+     * @return 各分类的用量
+     */
+    List<TypeStatsResponse> listTypeStats(Integer userId);
+
+    /**
+     * 查询用户的存储配额
+     *
+     * @param userId 用户ID
+     * @return 配额（字节）
+     */
+    long getQuota(Integer userId);
+
+    /**
+     * 检查剩余空间并预留配额，在上传开始、接收文件内容之前调用
+     * 同一预留ID再次预留时替换原来的大小
+     *
+     * @param userId        用户ID
+     * @param reservationId 预留ID，如上传会话ID
+     * @param size          预留字节数
+     * @throws IllegalArgumentException 剩余空间不足
+     */
+    void reserveQuota(Integer userId, String reservationId, long size);
+
+    /**
+     * 释放预留的配额，文件记录已保存或上传放弃时调用
+     *
+     * @param userId        用户ID
+     * @param reservationId 预留ID
+     */
+    void releaseQuota(Integer userId, String reservationId);
+
+    /**
+     * 按 file_info 重新计算用户的用量，修正计数偏差并合并计数分片
+     *
+     * @param userId 用户ID
+     * @return 是否发现并修正了偏差
+     */
+    boolean reconcileUsage(Integer userId);
+
+    /**
+     * 按用户ID顺序查询需要对账的用户
+     *
+     * @param afterUserId 上一批最后一个用户ID
+     * @param limit       最多返回条数
+     * @return 用户ID列表
+     */
+    List<Integer> listUsageUserIds(Integer afterUserId, int limit);
+}
\ No newline at end of file
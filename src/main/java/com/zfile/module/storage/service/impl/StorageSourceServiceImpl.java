@@ -0,0 +1,129 @@
+package com.zfile.module.storage.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.zfile.module.storage.driver.StorageDriverRegistry;
+import com.zfile.module.storage.entity.StorageSource;
+import com.zfile.module.storage.entity.StorageSourceConfig;
+import com.zfile.module.storage.mapper.StorageSourceConfigMapper;
+import com.zfile.module.storage.mapper.StorageSourceMapper;
+import com.zfile.module.storage.service.StorageSourceService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 针对表【storage_source(存储源表)】的数据库操作Service实现
+ */
+@Service
+public class StorageSourceServiceImpl extends ServiceImpl<StorageSourceMapper, StorageSource>
+        implements StorageSourceService {
+
+    private static final Logger log = LoggerFactory.getLogger(StorageSourceServiceImpl.class);
+
+    private final StorageSourceConfigMapper storageSourceConfigMapper;
+
+    private final StorageDriverRegistry storageDriverRegistry;
+
+    @Autowired
+    public StorageSourceServiceImpl(StorageSourceConfigMapper storageSourceConfigMapper,
+                                    StorageDriverRegistry storageDriverRegistry) {
+        this.storageSourceConfigMapper = storageSourceConfigMapper;
+        this.storageDriverRegistry = storageDriverRegistry;
+    }
+
+    @Override
+    public Map<String, String> getStorageSourceConfig(Integer storageSourceId) {
+        try {
+            QueryWrapper<StorageSourceConfig> queryWrapper = new QueryWrapper<>();
+            queryWrapper.eq("storage_id", storageSourceId);
+            Map<String, String> config = new HashMap<>();
+            for (StorageSourceConfig item : storageSourceConfigMapper.selectList(queryWrapper)) {
+                config.put(item.getName(), item.getValue());
+            }
+            return config;
+        } catch (Exception e) {
+            log.error("查询存储源配置时发生异常，存储源ID: {}", storageSourceId, e);
+            throw new RuntimeException("查询存储源配置失败", e);
+        }
+    }
+
+    @Override
+    public void saveStorageSourceConfig(Integer storageSourceId, Map<String, String> config) {
+        try {
+            if (storageSourceId == null || this.getById(storageSourceId) == null) {
+                throw new IllegalArgumentException("存储源不存在: " + storageSourceId);
+            }
+
+            QueryWrapper<StorageSourceConfig> queryWrapper = new QueryWrapper<>();
+            queryWrapper.eq("storage_id", storageSourceId);
+            Map<String, StorageSourceConfig> existing = storageSourceConfigMapper.selectList(queryWrapper).stream()
+                    .collect(Collectors.toMap(StorageSourceConfig::getName, Function.identity()));
+
+            for (Map.Entry<String, String> entry : config.entrySet()) {
+                StorageSourceConfig item = existing.get(entry.getKey());
+                if (item == null) {
+                    item = new StorageSourceConfig();
+                    item.setStorageId(storageSourceId);
+                    item.setName(entry.getKey());
+                    item.setValue(entry.getValue());
+                    storageSourceConfigMapper.insert(item);
+                } else if (!Objects.equals(item.getValue(), entry.getValue())) {
+                    item.setValue(entry.getValue());
+                    storageSourceConfigMapper.updateById(item);
+                }
+            }
+
+            log.info("存储源配置已保存，存储源ID: {}，配置项: {}", storageSourceId, config.keySet());
+            notifyChangedAfterCommit(storageSourceId);
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("保存存储源配置时发生异常，存储源ID: {}", storageSourceId, e);
+            throw new RuntimeException("保存存储源配置失败", e);
+        }
+    }
+
+    @Override
+    public boolean updateStorageSourceEnable(Integer storageSourceId, Boolean enable) {
+        try {
+            StorageSource storageSource = new StorageSource();
+            storageSource.setId(storageSourceId);
+            storageSource.setEnable(enable);
+            boolean result = this.updateById(storageSource);
+            if (result) {
+                log.info("存储源 {} 已{}", storageSourceId, Boolean.TRUE.equals(enable) ? "启用" : "禁用");
+                notifyChangedAfterCommit(storageSourceId);
+            }
+            return result;
+        } catch (Exception e) {
+            log.error("更新存储源启用状态时发生异常，存储源ID: {}", storageSourceId, e);
+            throw new RuntimeException("更新存储源启用状态失败", e);
+        }
+    }
+
+    /**
+     * 事务提交后再通知，避免其他节点读到未提交的旧配置
+     */
+    private void notifyChangedAfterCommit(Integer storageSourceId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            storageDriverRegistry.notifyChanged(storageSourceId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                storageDriverRegistry.notifyChanged(storageSourceId);
+            }
+        });
+    }
+}
\ No newline at end of file
@@ -0,0 +1,286 @@
+package com.zfile.module.storage.service.impl;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.zfile.module.file.mapper.FileInfoMapper;
+import com.zfile.module.file.model.ContentUsage;
+import com.zfile.module.storage.config.StorageUsageProperties;
+import com.zfile.module.storage.mapper.StorageUsageMapper;
+import com.zfile.module.storage.model.StorageUsageItem;
+import com.zfile.module.storage.response.StorageSourceUsageResponse;
+import com.zfile.module.storage.response.StorageStatsResponse;
+import com.zfile.module.storage.response.TypeStatsResponse;
+import com.zfile.module.storage.service.StorageUsageService;
+import com.zfile.module.storage.storageenum.FileCategoryEnum;
+import com.zfile.module.storage.usage.QuotaReservationStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 存储用量和配额Service实现
+ * 用量按 用户 + 存储源 + 文件分类 计数，增量在文件记录所在的事务中写入。
+ * 写入频繁的用户把增量随机分散到多个计数分片，并发上传不会在同一行上排队等锁；
+ * 读取时合并各分片，对账任务定期按 file_info 修正偏差并把分片合并回 0 号分片。
+ * 上传中文件的配额预留在 Redis 中，开始上传时检查，不等文件内容写完
+ */
+@Service
+public class StorageUsageServiceImpl implements StorageUsageService {
+
+    private static final Logger log = LoggerFactory.getLogger(StorageUsageServiceImpl.class);
+
+    /**
+     * 文件没有所属存储源时计入的存储源ID
+     */
+    private static final int NO_STORAGE_SOURCE = 0;
+
+    /**
+     * 计数行按主键顺序更新，同时更新多行的事务之间不会互相死锁
+     */
+    private static final Comparator<UsageKey> KEY_ORDER =
+            Comparator.comparing(UsageKey::storageSourceId).thenComparing(UsageKey::category);
+
+    private final StorageUsageMapper storageUsageMapper;
+
+    private final FileInfoMapper fileInfoMapper;
+
+    private final QuotaReservationStore quotaReservationStore;
+
+    private final StorageUsageProperties properties;
+
+    /**
+     * 用户ID -> 当前统计窗口内的用量更新次数
+     */
+    private final Cache<Integer, AtomicInteger> recentUpdates;
+
+    @Autowired
+    public StorageUsageServiceImpl(StorageUsageMapper storageUsageMapper,
+                                   FileInfoMapper fileInfoMapper,
+                                   QuotaReservationStore quotaReservationStore,
+                                   StorageUsageProperties properties) {
+        this.storageUsageMapper = storageUsageMapper;
+        this.fileInfoMapper = fileInfoMapper;
+        this.quotaReservationStore = quotaReservationStore;
+        this.properties = properties;
+        this.recentUpdates = CacheBuilder.newBuilder()
+                .maximumSize(10000)
+                .expireAfterWrite(properties.getHotWindow())
+                .build();
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void addUsage(Integer userId, List<ContentUsage> contentUsages) {
+        Map<UsageKey, long[]> deltas = aggregate(contentUsages);
+        if (deltas.isEmpty()) {
+            return;
+        }
+        int stripe = chooseStripe(userId);
+        deltas.forEach((key, delta) -> storageUsageMapper.addUsage(userId, key.storageSourceId(), key.category(),
+                stripe, delta[0], delta[1]));
+    }
+
+    @Override
+    public StorageStatsResponse getStorageStats(Integer userId) {
+        StorageStatsResponse response = toStats(storageUsageMapper.selectUserUsage(userId));
+        response.setTotalQuota(getQuota(userId));
+        return response;
+    }
+
+    @Override
+    public List<TypeStatsResponse> listTypeStats(Integer userId) {
+        return toStats(storageUsageMapper.selectUserUsage(userId)).getTypeStats();
+    }
+
+    @Override
+    public long getQuota(Integer userId) {
+        Long quota = storageUsageMapper.selectQuota(userId);
+        return quota != null ? quota : properties.getDefaultQuota().toBytes();
+    }
+
+    @Override
+    public void reserveQuota(Integer userId, String reservationId, long size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("文件大小无效: " + size);
+        }
+        long available = getQuota(userId) - storageUsageMapper.selectUsedSize(userId);
+        boolean reserved;
+        try {
+            reserved = quotaReservationStore.reserve(userId, reservationId, size, available);
+        } catch (DataAccessException e) {
+            // Redis 不可用时只按已用空间检查，不计入其他上传中的文件
+            log.warn("预留存储配额失败，只按已用空间检查，用户ID: {}，原因: {}", userId, e.getMessage());
+            reserved = size <= available;
+        }
+        if (!reserved) {
+            log.info("存储空间不足，用户ID: {}，需要: {}，可用: {}", userId, size, Math.max(available, 0));
+            throw new IllegalArgumentException("存储空间不足");
+        }
+    }
+
+    @Override
+    public void releaseQuota(Integer userId, String reservationId) {
+        try {
+            quotaReservationStore.release(userId, reservationId);
+        } catch (DataAccessException e) {
+            // 未释放的预留到期后自动失效
+            log.warn("释放存储配额预留失败，用户ID: {}，预留ID: {}，原因: {}", userId, reservationId, e.getMessage());
+        }
+    }
+
+    /**
+     * 先锁定用户的全部计数行再读取 file_info：
+     * 已写入增量的事务提交前对账等待，对账提交前新的增量等待，计数与文件记录始终对应同一时刻
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public boolean reconcileUsage(Integer userId) {
+        int rows = storageUsageMapper.lockUserUsage(userId);
+        Map<UsageKey, long[]> recorded = new TreeMap<>(KEY_ORDER);
+        for (StorageUsageItem item : storageUsageMapper.selectUserUsage(userId)) {
+            long usedSize = item.usedSize() == null ? 0 : item.usedSize();
+            long itemCount = item.itemCount() == null ? 0 : item.itemCount();
+            if (usedSize != 0 || itemCount != 0) {
+                recorded.put(new UsageKey(item.storageSourceId(), item.category()), new long[]{usedSize, itemCount});
+            }
+        }
+        Map<UsageKey, long[]> actual = aggregate(fileInfoMapper.selectUserContentUsage(userId));
+
+        boolean drifted = !sameUsage(recorded, actual);
+        if (!drifted && rows == recorded.size()) {
+            return false;
+        }
+        storageUsageMapper.deleteUserUsage(userId);
+        actual.forEach((key, usage) -> storageUsageMapper.addUsage(userId, key.storageSourceId(), key.category(),
+                0, usage[0], usage[1]));
+        if (drifted) {
+            log.warn("存储用量计数存在偏差，已按文件记录修正，用户ID: {}，修正前: {}，修正后: {}",
+                    userId, describe(recorded), describe(actual));
+        }
+        return drifted;
+    }
+
+    @Override
+    public List<Integer> listUsageUserIds(Integer afterUserId, int limit) {
+        return storageUsageMapper.selectUserIdsAfter(afterUserId, limit);
+    }
+
+    /**
+     * 选择本次写入的计数分片，写入不频繁的用户只使用 0 号分片
+     */
+    private int chooseStripe(Integer userId) {
+        int stripes = properties.getStripes();
+        if (stripes <= 1) {
+            return 0;
+        }
+        AtomicInteger updates = recentUpdates.asMap().computeIfAbsent(userId, key -> new AtomicInteger());
+        return updates.incrementAndGet() > properties.getHotThreshold() ? ThreadLocalRandom.current().nextInt(stripes) : 0;
+    }
+
+    /**
+     * 按存储源和文件分类合并用量，去掉合并后为 0 的项
+     */
+    private static Map<UsageKey, long[]> aggregate(List<ContentUsage> contentUsages) {
+        Map<UsageKey, long[]> result = new TreeMap<>(KEY_ORDER);
+        for (ContentUsage contentUsage : contentUsages) {
+            Integer storageSourceId = contentUsage.storageSourceId() == null ? NO_STORAGE_SOURCE : contentUsage.storageSourceId();
+            String category = FileCategoryEnum.fromContentType(contentUsage.folder(), contentUsage.contentType()).getCode();
+            long[] usage = result.computeIfAbsent(new UsageKey(storageSourceId, category), key -> new long[2]);
+            usage[0] += contentUsage.usedSize() == null ? 0 : contentUsage.usedSize();
+            usage[1] += contentUsage.itemCount() == null ? 0 : contentUsage.itemCount();
+        }
+        result.values().removeIf(usage -> usage[0] == 0 && usage[1] == 0);
+        return result;
+    }
+
+    private static boolean sameUsage(Map<UsageKey, long[]> left, Map<UsageKey, long[]> right) {
+        if (!left.keySet().equals(right.keySet())) {
+            return false;
+        }
+        for (Map.Entry<UsageKey, long[]> entry : left.entrySet()) {
+            if (!Arrays.equals(entry.getValue(), right.get(entry.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String describe(Map<UsageKey, long[]> usage) {
+        long usedSize = 0;
+        long itemCount = 0;
+        for (long[] value : usage.values()) {
+            usedSize += value[0];
+            itemCount += value[1];
+        }
+        return usedSize + " 字节 / " + itemCount + " 项";
+    }
+
+    private static StorageStatsResponse toStats(List<StorageUsageItem> items) {
+        long totalUsed = 0;
+        long fileCount = 0;
+        long folderCount = 0;
+        Map<FileCategoryEnum, TypeStatsResponse> typeStats = new EnumMap<>(FileCategoryEnum.class);
+        Map<Integer, StorageSourceUsageResponse> sourceStats = new TreeMap<>();
+        for (StorageUsageItem item : items) {
+            long usedSize = item.usedSize() == null ? 0 : item.usedSize();
+            long itemCount = item.itemCount() == null ? 0 : item.itemCount();
+            FileCategoryEnum category = FileCategoryEnum.fromCode(item.category());
+            if (category == null) {
+                category = FileCategoryEnum.OTHER;
+            }
+            StorageSourceUsageResponse source = sourceStats.computeIfAbsent(item.storageSourceId(), id -> {
+                StorageSourceUsageResponse sourceUsage = new StorageSourceUsageResponse();
+                sourceUsage.setStorageSourceId(id);
+                sourceUsage.setUsedSize(0L);
+                sourceUsage.setFileCount(0L);
+                sourceUsage.setFolderCount(0L);
+                return sourceUsage;
+            });
+            source.setUsedSize(source.getUsedSize() + usedSize);
+            if (category == FileCategoryEnum.FOLDER) {
+                folderCount += itemCount;
+                source.setFolderCount(source.getFolderCount() + itemCount);
+                continue;
+            }
+            totalUsed += usedSize;
+            fileCount += itemCount;
+            source.setFileCount(source.getFileCount() + itemCount);
+            TypeStatsResponse type = typeStats.computeIfAbsent(category, c -> {
+                TypeStatsResponse typeUsage = new TypeStatsResponse();
+                typeUsage.setType(c.getCode());
+                typeUsage.setCount(0L);
+                typeUsage.setSize(0L);
+                return typeUsage;
+            });
+            type.setCount(type.getCount() + itemCount);
+            type.setSize(type.getSize() + usedSize);
+        }
+
+        StorageStatsResponse response = new StorageStatsResponse();
+        response.setTotalUsed(totalUsed);
+        response.setFileCount(fileCount);
+        response.setFolderCount(folderCount);
+        response.setTypeStats(new ArrayList<>(typeStats.values()));
+        response.setSourceStats(new ArrayList<>(sourceStats.values()));
+        return response;
+    }
+
+    /**
+     * 计数行的业务主键，不含分片
+     */
+    private record UsageKey(Integer storageSourceId, String category) {
+    }
+}
\ No newline at end of file
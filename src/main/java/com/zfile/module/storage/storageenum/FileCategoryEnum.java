@@ -0,0 +1,107 @@
+package com.zfile.module.storage.storageenum;
+
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 文件分类，存储用量按分类统计
+ * 分类规则修改后需要同步修改 V7__storage_usage.sql 中的回填语句，已有计数由对账任务修正
+ */
+public enum FileCategoryEnum {
+
+    FOLDER("folder", "文件夹"),
+
+    IMAGE("image", "图片"),
+
+    VIDEO("video", "视频"),
+
+    AUDIO("audio", "音频"),
+
+    DOCUMENT("document", "文档"),
+
+    ARCHIVE("archive", "压缩包"),
+
+    OTHER("other", "其他");
+
+    private static final Set<String> DOCUMENT_TYPES = Set.of(
+            "application/pdf", "application/msword", "application/rtf");
+
+    private static final Set<String> DOCUMENT_TYPE_PREFIXES = Set.of(
+            "application/vnd.ms-", "application/vnd.openxmlformats-officedocument.", "application/vnd.oasis.opendocument.");
+
+    private static final Set<String> ARCHIVE_TYPES = Set.of(
+            "application/zip", "application/x-zip-compressed", "application/vnd.rar", "application/x-rar-compressed",
+            "application/x-7z-compressed", "application/gzip", "application/x-gzip", "application/x-tar",
+            "application/x-bzip2", "application/x-xz", "application/java-archive");
+
+    private final String code;
+
+    private final String description;
+
+    FileCategoryEnum(String code, String description) {
+        this.code = code;
+        this.description = description;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * 根据编码获取文件分类
+     *
+     * @param code 分类编码
+     * @return 文件分类，编码无效时返回 null
+     */
+    public static FileCategoryEnum fromCode(String code) {
+        for (FileCategoryEnum category : values()) {
+            if (category.code.equalsIgnoreCase(code)) {
+                return category;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 根据 MIME 类型判断文件分类
+     *
+     * @param folder      是否文件夹
+     * @param contentType MIME 类型，可为空
+     * @return 文件分类
+     */
+    public static FileCategoryEnum fromContentType(boolean folder, String contentType) {
+        if (folder) {
+            return FOLDER;
+        }
+        if (contentType == null) {
+            return OTHER;
+        }
+        String type = contentType.toLowerCase(Locale.ROOT);
+        int semicolon = type.indexOf(';');
+        if (semicolon >= 0) {
+            type = type.substring(0, semicolon).trim();
+        }
+        if (type.startsWith("image/")) {
+            return IMAGE;
+        }
+        if (type.startsWith("video/")) {
+            return VIDEO;
+        }
+        if (type.startsWith("audio/")) {
+            return AUDIO;
+        }
+        if (type.startsWith("text/") || DOCUMENT_TYPES.contains(type)) {
+            return DOCUMENT;
+        }
+        for (String prefix : DOCUMENT_TYPE_PREFIXES) {
+            if (type.startsWith(prefix)) {
+                return DOCUMENT;
+            }
+        }
+        return ARCHIVE_TYPES.contains(type) ? ARCHIVE : OTHER;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,74 @@
+package com.zfile.module.storage.storageenum;
+
+import com.baomidou.mybatisplus.annotation.EnumValue;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * 存储类型
+ */
+public enum StorageTypeEnum {
+
+    /**
+     * 本地磁盘
+     */
+    LOCAL("local", "本地存储"),
+
+    /**
+     * S3 协议兼容的对象存储
+     */
+    S3("s3", "S3 协议对象存储"),
+
+    /**
+     * 阿里云 OSS，通过 S3 兼容接口访问
+     */
+    ALIYUN("aliyun", "阿里云 OSS"),
+
+    /**
+     * 七牛云 Kodo
+     */
+    QINIU("qiniu", "七牛云"),
+
+    /**
+     * SFTP
+     */
+    SFTP("sftp", "SFTP"),
+
+    /**
+     * WebDAV
+     */
+    WEBDAV("webdav", "WebDAV");
+
+    @EnumValue
+    @JsonValue
+    private final String code;
+
+    private final String description;
+
+    StorageTypeEnum(String code, String description) {
+        this.code = code;
+        this.description = description;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * 根据编码获取存储类型
+     *
+     * @param code 类型编码
+     * @return 存储类型，编码无效时返回 null
+     */
+    public static StorageTypeEnum fromCode(String code) {
+        for (StorageTypeEnum type : values()) {
+            if (type.code.equalsIgnoreCase(code)) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
\ No newline at end of file
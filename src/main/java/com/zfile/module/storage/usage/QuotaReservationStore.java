@@ -0,0 +1,85 @@
+package com.zfile.module.storage.usage;
+
+import com.zfile.module.storage.config.StorageUsageProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 上传中文件的配额预留，保存在 Redis 中，所有节点共享
+ * 每个用户一个哈希，字段为预留ID（上传会话ID等），值为 预留字节数:过期时间戳。
+ * 检查剩余空间和写入预留在同一个 Lua 脚本中执行，同一用户同时开始的多个上传不会一起超出配额
+ */
+@Component
+public class QuotaReservationStore {
+
+    private static final String KEY_PREFIX = "zfile:storage:quota-reserved:";
+
+    /**
+     * KEYS[1] 预留哈希；ARGV 依次为 预留ID、预留字节数、可用字节数（配额减已用）、当前时间戳、过期时间戳、哈希过期毫秒数。
+     * 顺带清理已过期的预留，同一预留ID重复预留时替换原来的大小
+     */
+    private static final DefaultRedisScript<Long> RESERVE_SCRIPT = new DefaultRedisScript<>("""
+            local now = tonumber(ARGV[4])
+            local reserved = 0
+            local entries = redis.call('HGETALL', KEYS[1])
+            for i = 1, #entries, 2 do
+              local sep = string.find(entries[i + 1], ':', 1, true)
+              local size = tonumber(string.sub(entries[i + 1], 1, sep - 1))
+              local expireAt = tonumber(string.sub(entries[i + 1], sep + 1))
+              if expireAt <= now then
+                redis.call('HDEL', KEYS[1], entries[i])
+              elseif entries[i] ~= ARGV[1] then
+                reserved = reserved + size
+              end
+            end
+            if reserved + tonumber(ARGV[2]) > tonumber(ARGV[3]) then
+              return 0
+            end
+            redis.call('HSET', KEYS[1], ARGV[1], ARGV[2] .. ':' .. ARGV[5])
+            redis.call('PEXPIRE', KEYS[1], ARGV[6])
+            return 1
+            """, Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final StorageUsageProperties properties;
+
+    @Autowired
+    public QuotaReservationStore(StringRedisTemplate stringRedisTemplate, StorageUsageProperties properties) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.properties = properties;
+    }
+
+    /**
+     * 预留配额
+     *
+     * @param userId        用户ID
+     * @param reservationId 预留ID
+     * @param size          预留字节数
+     * @param available     配额减去已用空间后的字节数
+     * @return 是否预留成功，与其他未过期的预留合计超出可用空间时返回 false
+     */
+    public boolean reserve(Integer userId, String reservationId, long size, long available) {
+        long now = System.currentTimeMillis();
+        long ttl = properties.getReservationTtl().toMillis();
+        Long result = stringRedisTemplate.execute(RESERVE_SCRIPT, List.of(key(userId)), reservationId,
+                String.valueOf(size), String.valueOf(available), String.valueOf(now), String.valueOf(now + ttl),
+                String.valueOf(ttl));
+        return Long.valueOf(1).equals(result);
+    }
+
+    /**
+     * 释放预留，文件已登记或上传放弃时调用
+     */
+    public void release(Integer userId, String reservationId) {
+        stringRedisTemplate.opsForHash().delete(key(userId), reservationId);
+    }
+
+    private static String key(Integer userId) {
+        return KEY_PREFIX + userId;
+    }
+}
\ No newline at end of file
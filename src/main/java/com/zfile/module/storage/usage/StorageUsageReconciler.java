@@ -0,0 +1,83 @@
+package com.zfile.module.storage.usage;
+
+import com.zfile.module.storage.config.StorageUsageProperties;
+import com.zfile.module.storage.service.StorageUsageService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 存储用量对账任务
+ * 每次按用户ID顺序处理一批用户，遍历到最后一个用户后从头开始；进度保存在 Redis 中，
+ * 多节点部署时由抢到锁的节点执行，各节点接力完成一轮遍历。
+ * 进程在文件记录提交后崩溃、手工修改数据库等原因造成的计数偏差由对账修正
+ */
+@Slf4j
+@Component
+public class StorageUsageReconciler {
+
+    private static final String LOCK_KEY = "zfile:storage:usage:reconcile-lock";
+
+    private static final String CURSOR_KEY = "zfile:storage:usage:reconcile-cursor";
+
+    private final StorageUsageService storageUsageService;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final StorageUsageProperties properties;
+
+    @Autowired
+    public StorageUsageReconciler(StorageUsageService storageUsageService,
+                                  StringRedisTemplate stringRedisTemplate,
+                                  StorageUsageProperties properties) {
+        this.storageUsageService = storageUsageService;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.properties = properties;
+    }
+
+    @Scheduled(fixedDelayString = "${zfile.storage.usage.reconcile-interval:60000}",
+            initialDelayString = "${zfile.storage.usage.reconcile-interval:60000}")
+    public void reconcile() {
+        try {
+            if (!Boolean.TRUE.equals(stringRedisTemplate.opsForValue()
+                    .setIfAbsent(LOCK_KEY, "1", properties.getReconcileInterval(), TimeUnit.MILLISECONDS))) {
+                return;
+            }
+        } catch (Exception e) {
+            log.warn("获取存储用量对账锁失败: {}", e.getMessage());
+            return;
+        }
+
+        try {
+            String cursor = stringRedisTemplate.opsForValue().get(CURSOR_KEY);
+            int afterUserId = cursor == null ? 0 : Integer.parseInt(cursor);
+            int batchSize = properties.getReconcileBatchSize();
+            List<Integer> userIds = storageUsageService.listUsageUserIds(afterUserId, batchSize);
+
+            int fixed = 0;
+            for (Integer userId : userIds) {
+                try {
+                    if (storageUsageService.reconcileUsage(userId)) {
+                        fixed++;
+                    }
+                } catch (Exception e) {
+                    log.warn("存储用量对账失败，用户ID: {}，原因: {}", userId, e.getMessage());
+                }
+            }
+            int nextCursor = userIds.size() < batchSize ? 0 : userIds.get(userIds.size() - 1);
+            stringRedisTemplate.opsForValue().set(CURSOR_KEY, String.valueOf(nextCursor));
+            if (fixed > 0) {
+                log.info("存储用量对账完成，检查 {} 个用户，修正 {} 个", userIds.size(), fixed);
+            }
+        } catch (Exception e) {
+            log.error("存储用量对账时发生异常", e);
+        } finally {
+            stringRedisTemplate.delete(LOCK_KEY);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,73 @@
+package com.zfile.module.storage.util;
+
+import org.springframework.util.StringUtils;
+
+/**
+ * 存储路径工具
+ * 驱动内部统一使用 / 分隔、不以 / 开头和结尾的相对路径，空字符串表示根目录
+ */
+public final class StoragePathUtil {
+
+    private StoragePathUtil() {
+    }
+
+    /**
+     * 规范化路径，去掉多余的分隔符和 "."
+     *
+     * @param path 原始路径
+     * @return 规范化后的相对路径
+     * @throws IllegalArgumentException 路径包含 ".."
+     */
+    public static String normalize(String path) {
+        if (!StringUtils.hasText(path)) {
+            return "";
+        }
+        StringBuilder builder = new StringBuilder(path.length());
+        for (String segment : path.replace('\\', '/').split("/")) {
+            if (segment.isEmpty() || ".".equals(segment)) {
+                continue;
+            }
+            if ("..".equals(segment)) {
+                throw new IllegalArgumentException("路径不能包含 ..: " + path);
+            }
+            if (!builder.isEmpty()) {
+                builder.append('/');
+            }
+            builder.append(segment);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 拼接路径
+     *
+     * @param parent 父路径
+     * @param child  子路径
+     * @return 规范化后的路径
+     */
+    public static String join(String parent, String child) {
+        String normalizedParent = normalize(parent);
+        String normalizedChild = normalize(child);
+        if (normalizedParent.isEmpty()) {
+            return normalizedChild;
+        }
+        return normalizedChild.isEmpty() ? normalizedParent : normalizedParent + "/" + normalizedChild;
+    }
+
+    /**
+     * @param path 规范化后的路径
+     * @return 父目录路径，根目录的父目录为空字符串
+     */
+    public static String parent(String path) {
+        int index = path.lastIndexOf('/');
+        return index < 0 ? "" : path.substring(0, index);
+    }
+
+    /**
+     * @param path 规范化后的路径
+     * @return 文件名
+     */
+    public static String name(String path) {
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.zfile.module.user.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 密码哈希配置
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "zfile.security.password-hash")
+public class PasswordHashProperties {
+
+    /**
+     * PBKDF2 迭代次数，调整后已有密码会在用户下次登录时自动重新哈希
+     */
+    private int iterations = 120000;
+
+    /**
+     * 派生密钥长度（位）
+     */
+    private int keyLength = 256;
+
+    /**
+     * 哈希线程数，默认与 CPU 核数一致
+     */
+    private int poolSize = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * 等待队列长度，队列已满时立即拒绝
+     */
+    private int queueCapacity = 64;
+
+    /**
+     * 分享访问密码校验的线程数，匿名请求使用单独的线程池，不占用登录和注册的哈希线程
+     */
+    private int sharePoolSize = Math.max(1, Runtime.getRuntime().availableProcessors() / 4);
+
+    /**
+     * 分享访问密码校验的等待队列长度
+     */
+    private int shareQueueCapacity = 16;
+
+    /**
+     * 单次哈希的最长等待时间
+     */
+    private Duration timeout = Duration.ofSeconds(5);
+}
@@ -1,21 +1,37 @@
 package com.zfile.module.user.controller;
 
+import com.alibaba.fastjson2.JSON;
+import com.baomidou.dynamic.datasource.toolkit.DynamicDataSourceContextHolder;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.github.xiaoymin.knife4j.annotations.ApiSort;
+import com.zfile.common.datasource.ReadWriteRoutingProperties;
+import com.zfile.common.export.ExportFormat;
+import com.zfile.common.request.CursorPageRequest;
+import com.zfile.common.result.CursorPageResult;
 import com.zfile.common.result.PageResult;
 import com.zfile.common.result.Result;
+import com.zfile.module.auth.springsecurity.cache.PrincipalCache;
+import com.zfile.module.auth.springsecurity.token.TokenVersionRegistry;
 import com.zfile.module.user.entity.User;
 import com.zfile.module.user.request.UserAddRequest;
 import com.zfile.module.user.request.UserPageRequest;
 import com.zfile.module.user.request.UserUpdateRequest;
+import com.zfile.module.user.response.UserImportResponse;
 import com.zfile.module.user.response.UserResponse;
 import com.zfile.module.user.convert.UserConvert;
+import com.zfile.module.user.service.UserCursorPageService;
+import com.zfile.module.user.service.UserExportService;
+import com.zfile.module.user.service.UserImportService;
+import com.zfile.module.user.service.UserSearchService;
 import com.zfile.module.user.service.UserService;
+import com.zfile.module.user.userenum.UserImportFormatEnum;
 import com.zfile.module.user.userenum.UserStatusEnum;
 import com.zfile.module.user.userenum.UserPermissionEnum;
+import com.zfile.module.user.util.PasswordHashEngine;
 import com.zfile.module.user.util.PasswordUtil;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -23,7 +39,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.validation.annotation.Validated;
 
+import java.io.InputStream;
 import java.util.List;
+import java.util.Objects;
 
 @Tag(name = "用户接口")
 @Slf4j
@@ -34,12 +52,40 @@ import java.util.List;
 public class UserController {
     //构造器中注入
     private final UserService userService;
+
+    private final UserCursorPageService userCursorPageService;
+
+    private final UserExportService userExportService;
+
+    private final UserSearchService userSearchService;
+
+    private final UserImportService userImportService;
+
+    private final PrincipalCache principalCache;
+
+    private final TokenVersionRegistry tokenVersionRegistry;
+
+    private final PasswordHashEngine passwordHashEngine;
+
+    private final ReadWriteRoutingProperties routingProperties;
     
     private static final Logger logger = LoggerFactory.getLogger(UserController.class);
 
     @Autowired
-    public UserController(UserService userService) {
+    public UserController(UserService userService, UserCursorPageService userCursorPageService,
+                          UserExportService userExportService, UserSearchService userSearchService,
+                          UserImportService userImportService, PrincipalCache principalCache,
+                          TokenVersionRegistry tokenVersionRegistry, PasswordHashEngine passwordHashEngine,
+                          ReadWriteRoutingProperties routingProperties) {
         this.userService = userService;
+        this.userCursorPageService = userCursorPageService;
+        this.userExportService = userExportService;
+        this.userSearchService = userSearchService;
+        this.userImportService = userImportService;
+        this.principalCache = principalCache;
+        this.tokenVersionRegistry = tokenVersionRegistry;
+        this.passwordHashEngine = passwordHashEngine;
+        this.routingProperties = routingProperties;
     }
 
 
@@ -61,7 +107,7 @@ public class UserController {
             // 处理密码加密和加盐
             if (userAddRequest.getPassword() != null && !userAddRequest.getPassword().isEmpty()) {
                 String salt = PasswordUtil.generateSalt();
-                String encodedPassword = PasswordUtil.encodePassword(userAddRequest.getPassword(), salt);
+                String encodedPassword = passwordHashEngine.encode(userAddRequest.getPassword(), salt);
                 user.setPassword(encodedPassword);
                 user.setSalt(salt);
             }
@@ -90,6 +136,34 @@ public class UserController {
         }
     }
 
+    /**
+     * 批量导入用户
+     * 请求体为 CSV（首行表头 username,nickname,password,enable,defaultPermissions）
+     * 或 JSON（数组或每行一个对象），返回逐行导入结果
+     */
+    @Operation(summary = "批量导入用户")
+    @PostMapping("/import")
+    public Result<?> importUsers(@RequestParam(value = "format", defaultValue = "csv") String format,
+                                 InputStream inputStream) {
+        try {
+            logger.info("开始批量导入用户，格式: {}", format);
+
+            UserImportFormatEnum importFormat = UserImportFormatEnum.fromCode(format);
+            if (importFormat == null) {
+                logger.warn("批量导入用户时格式无效: {}", format);
+                return Result.fail("不支持的导入格式: " + format);
+            }
+
+            UserImportResponse userImportResponse = userImportService.importUsers(inputStream, importFormat);
+            logger.info("批量导入用户完成，总行数: {}, 成功: {}, 失败: {}", userImportResponse.getTotal(),
+                    userImportResponse.getSuccessCount(), userImportResponse.getFailureCount());
+            return Result.success(userImportResponse, userImportResponse.getTotal());
+        } catch (Exception e) {
+            logger.error("批量导入用户时发生异常，格式: {}", format, e);
+            return Result.fail("导入失败: " + e.getMessage());
+        }
+    }
+
     /**
      * 根据ID删除用户
      */
@@ -104,8 +178,13 @@ public class UserController {
                 return Result.fail("用户ID不能为空");
             }
             
+            User existingUser = userService.getUserById(id);
             boolean remove = userService.removeById(id);
             if (remove) {
+                if (existingUser != null) {
+                    principalCache.evict(existingUser.getUsername());
+                }
+                tokenVersionRegistry.bump(id);
                 logger.info("用户删除成功，ID: {}", id);
                 return Result.success(); // 不需要返回数据的成功操作
             } else {
@@ -170,13 +249,23 @@ public class UserController {
             if (userUpdateRequest.getPassword() != null && !userUpdateRequest.getPassword().isEmpty()) {
                 // 处理密码加密和加盐
                 String salt = PasswordUtil.generateSalt();
-                String encodedPassword = PasswordUtil.encodePassword(userUpdateRequest.getPassword(), salt);
+                String encodedPassword = passwordHashEngine.encode(userUpdateRequest.getPassword(), salt);
                 user.setPassword(encodedPassword);
                 user.setSalt(salt);
             }
             
+            User existingUser = getUserFromMaster(userUpdateRequest.getId());
             boolean update = userService.updateById(user);
             if (update) {
+                // 用户名、状态或权限可能已变更，清除新旧用户名对应的认证缓存
+                if (existingUser != null) {
+                    principalCache.evict(existingUser.getUsername());
+                }
+                principalCache.evict(user.getUsername());
+                // 影响认证的字段发生变化时，使该用户已签发的令牌失效
+                if (isAuthenticationChanged(existingUser, userUpdateRequest)) {
+                    tokenVersionRegistry.bump(userUpdateRequest.getId());
+                }
                 logger.info("用户更新成功，ID: {}", userUpdateRequest.getId());
                 return Result.success(); // 不需要返回数据的成功操作
             } else {
@@ -247,6 +336,60 @@ public class UserController {
         }
     }
 
+    /**
+     * 流式导出所有用户
+     * 逐行写入响应流，不在内存中组装完整列表，适合用户量较大时替代 /list
+     */
+    @Operation(summary = "流式导出所有用户")
+    @GetMapping("/export")
+    public void exportUsers(@RequestParam(value = "format", required = false) String format,
+                            HttpServletResponse response) {
+        try {
+            logger.info("开始流式导出用户，格式: {}", format);
+
+            ExportFormat exportFormat = ExportFormat.fromCode(format);
+            response.setContentType(exportFormat.getContentType());
+            response.setHeader("Content-Disposition", "attachment; filename=users." + exportFormat.getCode());
+
+            long rowCount = userExportService.exportUsers(exportFormat, response.getOutputStream());
+            logger.info("流式导出用户成功，共导出 {} 条记录", rowCount);
+        } catch (Exception e) {
+            logger.error("流式导出用户时发生异常，格式: {}", format, e);
+            writeExportFailure(response, "导出失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 用户名或昵称前缀自动补全
+     */
+    @Operation(summary = "用户名或昵称前缀自动补全")
+    @GetMapping("/suggest")
+    public Result<?> suggestUsers(@RequestParam("prefix") String prefix,
+                                  @RequestParam(value = "limit", defaultValue = "10") Integer limit) {
+        try {
+            logger.info("开始用户自动补全，前缀: {}, 条数: {}", prefix, limit);
+
+            if (prefix == null || prefix.trim().isEmpty()) {
+                logger.warn("用户自动补全时前缀为空");
+                return Result.fail("前缀不能为空");
+            }
+
+            List<User> userList = userSearchService.listUserSuggestions(prefix, limit);
+            List<UserResponse> userResponseList = UserConvert.INSTANCE.convertToUserResponseList(userList);
+
+            logger.info("用户自动补全成功，前缀: {}，共查询到 {} 条记录", prefix, userList.size());
+            // 根据返回数据条数，分配使用哪个result
+            if (userList.isEmpty()) {
+                return Result.success(); // 没有数据也返回成功
+            } else {
+                return Result.success(userResponseList, (long) userList.size()); // 返回多条数据及数量
+            }
+        } catch (Exception e) {
+            logger.error("用户自动补全时发生异常，前缀: {}", prefix, e);
+            return Result.fail("查询失败: " + e.getMessage());
+        }
+    }
+
     /**
      * 根据用户名查询用户
      */
@@ -341,17 +484,29 @@ public class UserController {
     
     /**
      * 分页查询用户
+     * 传入 cursor 或 cursorMode=true 时按游标分页，返回 nextCursor 用于查询下一页
      */
     @Operation(summary = "分页查询用户")
     @GetMapping("/page")
-    public Result<?> pageUsers(UserPageRequest userPageRequest) {
+    public Result<?> pageUsers(UserPageRequest userPageRequest, CursorPageRequest cursorPageRequest) {
         try {
-            logger.info("开始分页查询用户，请求参数: {}", userPageRequest);
+            logger.info("开始分页查询用户，请求参数: {}, 游标参数: {}", userPageRequest, cursorPageRequest);
             
             if (userPageRequest == null) {
                 userPageRequest = new UserPageRequest(); // 使用默认参数
                 logger.debug("分页查询参数为空，使用默认参数");
             }
+
+            if (cursorPageRequest != null && cursorPageRequest.cursorEnabled()) {
+                CursorPageResult<User> userCursorPage = userCursorPageService.pageUsersByCursor(userPageRequest, cursorPageRequest);
+                // 构造游标分页结果
+                CursorPageResult<UserResponse> cursorPageResult = UserConvert.INSTANCE.convertToPageResult(userCursorPage);
+
+                logger.info("游标分页查询用户成功，本页记录数: {}, 是否还有下一页: {}",
+                        userCursorPage.getList().size(), userCursorPage.getHasMore());
+                // 跳过总数统计时 dataCount 为空
+                return Result.success(cursorPageResult, userCursorPage.getTotal());
+            }
             
             IPage<User> userIPage = userService.pageUsers(userPageRequest);
             // 构造分页结果
@@ -397,4 +552,54 @@ public class UserController {
             return Result.fail("删除失败: " + e.getMessage());
         }
     }
+
+    /**
+     * 判断用户名、密码、启用状态或权限是否发生变化
+     */
+    private boolean isAuthenticationChanged(User existingUser, UserUpdateRequest userUpdateRequest) {
+        if (existingUser == null) {
+            return true;
+        }
+        boolean usernameChanged = userUpdateRequest.getUsername() != null
+                && !userUpdateRequest.getUsername().equals(existingUser.getUsername());
+        boolean passwordChanged = userUpdateRequest.getPassword() != null
+                && !userUpdateRequest.getPassword().isEmpty();
+        boolean enableChanged = userUpdateRequest.getEnable() != null
+                && !Objects.equals(userUpdateRequest.getEnable(), existingUser.getEnable());
+        boolean permissionsChanged = userUpdateRequest.getDefaultPermissions() != null
+                && !Objects.equals(userUpdateRequest.getDefaultPermissions(), existingUser.getDefaultPermissions());
+        return usernameChanged || passwordChanged || enableChanged || permissionsChanged;
+    }
+
+    /**
+     * 从主库读取用户的当前数据
+     * 更新前的快照用于判断认证信息是否变更，从库存在复制延迟时可能读到与请求相同的旧值而漏掉令牌失效
+     */
+    private User getUserFromMaster(Integer id) {
+        if (!routingProperties.isEnabled()) {
+            return userService.getUserById(id);
+        }
+        DynamicDataSourceContextHolder.push(routingProperties.getMaster());
+        try {
+            return userService.getUserById(id);
+        } finally {
+            DynamicDataSourceContextHolder.poll();
+        }
+    }
+
+    /**
+     * 导出尚未开始输出时返回失败结果，已经开始输出则只能中断响应
+     */
+    private void writeExportFailure(HttpServletResponse response, String msg) {
+        if (response.isCommitted()) {
+            return;
+        }
+        try {
+            response.reset();
+            response.setContentType("application/json;charset=UTF-8");
+            response.getWriter().println(JSON.toJSONString(Result.fail(msg)));
+        } catch (Exception e) {
+            logger.warn("写入导出失败结果时发生异常", e);
+        }
+    }
 }
\ No newline at end of file
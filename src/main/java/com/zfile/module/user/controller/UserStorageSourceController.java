@@ -1,18 +1,25 @@
 package com.zfile.module.user.controller;
 
+import com.alibaba.fastjson2.JSON;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.github.xiaoymin.knife4j.annotations.ApiSort;
+import com.zfile.common.export.ExportFormat;
+import com.zfile.common.request.CursorPageRequest;
+import com.zfile.common.result.CursorPageResult;
 import com.zfile.common.result.PageResult;
 import com.zfile.common.result.Result;
 import com.zfile.module.user.entity.UserStorageSource;
 import com.zfile.module.user.request.UserStorageSourceAddRequest;
 import com.zfile.module.user.request.UserStorageSourcePageRequest;
 import com.zfile.module.user.request.UserStorageSourceUpdateRequest;
+import com.zfile.module.user.userenum.DownloadModeEnum;
 import com.zfile.module.user.response.UserStorageSourceResponse;
 import com.zfile.module.user.convert.UserStorageSourceConvert;
+import com.zfile.module.user.service.UserExportService;
 import com.zfile.module.user.service.UserStorageSourceService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,12 +38,16 @@ import java.util.List;
 public class UserStorageSourceController {
     //构造器中注入
     private final UserStorageSourceService userStorageSourceService;
+
+    private final UserExportService userExportService;
     
     private static final Logger logger = LoggerFactory.getLogger(UserStorageSourceController.class);
 
     @Autowired
-    public UserStorageSourceController(UserStorageSourceService userStorageSourceService) {
+    public UserStorageSourceController(UserStorageSourceService userStorageSourceService,
+                                       UserExportService userExportService) {
         this.userStorageSourceService = userStorageSourceService;
+        this.userExportService = userExportService;
     }
 
     /**
@@ -117,6 +128,10 @@ public class UserStorageSourceController {
             
             UserStorageSource userStorageSource = UserStorageSourceConvert.INSTANCE.convertToUserStorageSource(userStorageSourceUpdateRequest);
             boolean update = userStorageSourceService.updateById(userStorageSource);
+            if (update && userStorageSourceUpdateRequest.getDownloadMode() != null) {
+                userStorageSourceService.updateDownloadMode(userStorageSourceUpdateRequest.getId(),
+                        DownloadModeEnum.fromCode(userStorageSourceUpdateRequest.getDownloadMode()));
+            }
             if (update) {
                 logger.info("用户存储源更新成功，ID: {}", userStorageSourceUpdateRequest.getId());
                 return Result.success(); // 不需要返回数据的成功操作
@@ -188,6 +203,30 @@ public class UserStorageSourceController {
         }
     }
 
+    /**
+     * 流式导出用户存储源
+     * 逐行写入响应流，不在内存中组装完整列表，适合数据量较大时替代 /list
+     */
+    @Operation(summary = "流式导出用户存储源")
+    @GetMapping("/export")
+    public void exportUserStorageSources(@RequestParam(value = "userId", required = false) Integer userId,
+                                         @RequestParam(value = "format", required = false) String format,
+                                         HttpServletResponse response) {
+        try {
+            logger.info("开始流式导出用户存储源，用户ID: {}, 格式: {}", userId, format);
+
+            ExportFormat exportFormat = ExportFormat.fromCode(format);
+            response.setContentType(exportFormat.getContentType());
+            response.setHeader("Content-Disposition", "attachment; filename=user-storage-sources." + exportFormat.getCode());
+
+            long rowCount = userExportService.exportUserStorageSources(userId, exportFormat, response.getOutputStream());
+            logger.info("流式导出用户存储源成功，共导出 {} 条记录", rowCount);
+        } catch (Exception e) {
+            logger.error("流式导出用户存储源时发生异常，用户ID: {}, 格式: {}", userId, format, e);
+            writeExportFailure(response, "导出失败: " + e.getMessage());
+        }
+    }
+
     /**
      * 根据用户ID查询用户存储源
      */
@@ -249,17 +288,32 @@ public class UserStorageSourceController {
 
     /**
      * 分页查询用户存储源
+     * 传入 cursor 或 cursorMode=true 时按游标分页，返回 nextCursor 用于查询下一页
      */
     @Operation(summary = "分页查询用户存储源")
     @GetMapping("/page")
-    public Result<?> pageUserStorageSources(UserStorageSourcePageRequest userStorageSourcePageRequest) {
+    public Result<?> pageUserStorageSources(UserStorageSourcePageRequest userStorageSourcePageRequest,
+                                            CursorPageRequest cursorPageRequest) {
         try {
-            logger.info("开始分页查询用户存储源，请求参数: {}", userStorageSourcePageRequest);
+            logger.info("开始分页查询用户存储源，请求参数: {}, 游标参数: {}", userStorageSourcePageRequest, cursorPageRequest);
             
             if (userStorageSourcePageRequest == null) {
                 userStorageSourcePageRequest = new UserStorageSourcePageRequest(); // 使用默认参数
                 logger.debug("分页查询参数为空，使用默认参数");
             }
+
+            if (cursorPageRequest != null && cursorPageRequest.cursorEnabled()) {
+                CursorPageResult<UserStorageSource> userStorageSourceCursorPage =
+                        userStorageSourceService.pageUserStorageSourcesByCursor(userStorageSourcePageRequest, cursorPageRequest);
+                // 构造游标分页结果
+                CursorPageResult<UserStorageSourceResponse> cursorPageResult = userStorageSourceCursorPage.convert(
+                        UserStorageSourceConvert.INSTANCE::convertToUserStorageSourceResponseList);
+
+                logger.info("游标分页查询用户存储源成功，本页记录数: {}, 是否还有下一页: {}",
+                        userStorageSourceCursorPage.getList().size(), userStorageSourceCursorPage.getHasMore());
+                // 跳过总数统计时 dataCount 为空
+                return Result.success(cursorPageResult, userStorageSourceCursorPage.getTotal());
+            }
             
             IPage<UserStorageSource> userStorageSourceIPage = userStorageSourceService.pageUserStorageSources(userStorageSourcePageRequest);
             // 构造分页结果
@@ -305,4 +359,20 @@ public class UserStorageSourceController {
             return Result.fail("删除失败: " + e.getMessage());
         }
     }
+
+    /**
+     * 导出尚未开始输出时返回失败结果，已经开始输出则只能中断响应
+     */
+    private void writeExportFailure(HttpServletResponse response, String msg) {
+        if (response.isCommitted()) {
+            return;
+        }
+        try {
+            response.reset();
+            response.setContentType("application/json;charset=UTF-8");
+            response.getWriter().println(JSON.toJSONString(Result.fail(msg)));
+        } catch (Exception e) {
+            logger.warn("写入导出失败结果时发生异常", e);
+        }
+    }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.zfile.module.user.convert;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.zfile.common.result.CursorPageResult;
 import com.zfile.common.result.PageResult;
 import com.zfile.module.user.entity.User;
 import com.zfile.module.user.request.UserAddRequest;
@@ -77,4 +78,12 @@ public interface UserConvert {
     @Mapping(target = "totalPages", source = "pages")
     @Mapping(target = "list", source = "records")
     PageResult<UserResponse> convertToPageResult(IPage<User> userIPage);
+
+    /**
+     * 将游标分页结果转换为 UserResponse 的游标分页结果
+     *
+     * @param userCursorPageResult 用户游标分页结果
+     * @return CursorPageResult 游标分页结果
+     */
+    CursorPageResult<UserResponse> convertToPageResult(CursorPageResult<User> userCursorPageResult);
 }
\ No newline at end of file
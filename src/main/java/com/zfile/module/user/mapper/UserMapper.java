@@ -3,8 +3,12 @@ package com.zfile.module.user.mapper;
 import com.zfile.module.user.entity.User;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.ResultMap;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.session.ResultHandler;
 
 import java.util.List;
 
@@ -37,4 +41,37 @@ public interface UserMapper extends BaseMapper<User> {
     @Select("SELECT id,username,nickname,password,enable,create_time,update_time,default_permissions,salt FROM user WHERE enable = #{enable}")
     @ResultMap("BaseResultMap")
     List<User> listUsersByEnableStatus(Integer enable);
+
+    /**
+     * 流式查询全部用户，不查询密码和盐值
+     * fetchSize 为 Integer.MIN_VALUE 时 MySQL 驱动逐行返回结果，不会把整个结果集读入内存
+     *
+     * @param handler 逐行处理结果
+     */
+    @Select("SELECT id,username,nickname,enable,create_time,update_time,default_permissions FROM user ORDER BY id")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    @ResultMap("BaseResultMap")
+    void streamUsers(ResultHandler<User> handler);
+
+    /**
+     * 按用户名前缀查询，走 uk_user_username 范围扫描
+     *
+     * @param prefix 已转义 LIKE 通配符的前缀
+     * @param limit  最多返回条数
+     * @return 用户列表，只包含ID、用户名和昵称
+     */
+    @Select("SELECT id,username,nickname FROM user WHERE username LIKE CONCAT(#{prefix}, '%') ORDER BY username LIMIT #{limit}")
+    @ResultMap("BaseResultMap")
+    List<User> listUsersByUsernamePrefix(@Param("prefix") String prefix, @Param("limit") int limit);
+
+    /**
+     * 按昵称前缀查询，走 idx_user_nickname 范围扫描
+     *
+     * @param prefix 已转义 LIKE 通配符的前缀
+     * @param limit  最多返回条数
+     * @return 用户列表，只包含ID、用户名和昵称
+     */
+    @Select("SELECT id,username,nickname FROM user WHERE nickname LIKE CONCAT(#{prefix}, '%') ORDER BY nickname LIMIT #{limit}")
+    @ResultMap("BaseResultMap")
+    List<User> listUsersByNicknamePrefix(@Param("prefix") String prefix, @Param("limit") int limit);
 }
\ No newline at end of file
@@ -2,6 +2,10 @@ package com.zfile.module.user.mapper;
 
 import com.zfile.module.user.entity.UserStorageSource;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.session.ResultHandler;
 
 /**
 * @author zhang
@@ -11,4 +15,30 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 */
 public interface UserStorageSourceMapper extends BaseMapper<UserStorageSource> {
 
+    /**
+     * 流式查询用户存储源，MySQL 驱动逐行返回结果
+     *
+     * @param userId  用户ID，为空时查询全部
+     * @param handler 逐行处理结果
+     */
+    void streamUserStorageSources(@Param("userId") Integer userId, ResultHandler<UserStorageSource> handler);
+
+    /**
+     * 查询下载方式
+     *
+     * @param id 用户存储源ID
+     * @return 下载方式编码，用户存储源不存在时返回 null
+     */
+    @Select("SELECT download_mode FROM user_storage_source WHERE id = #{id}")
+    String selectDownloadMode(@Param("id") Integer id);
+
+    /**
+     * 修改下载方式
+     *
+     * @param id           用户存储源ID
+     * @param downloadMode 下载方式编码
+     * @return 影响行数
+     */
+    @Update("UPDATE user_storage_source SET download_mode = #{downloadMode} WHERE id = #{id}")
+    int updateDownloadMode(@Param("id") Integer id, @Param("downloadMode") String downloadMode);
 }
@@ -0,0 +1,40 @@
+package com.zfile.module.user.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * 批量导入用户的单行数据
+ * CSV 表头与字段名一致：username,nickname,password,enable,defaultPermissions
+ */
+@Data
+@Schema(description = "批量导入用户的单行数据")
+public class UserImportRow implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "用户名")
+    private String username;
+
+    @Schema(description = "昵称")
+    private String nickname;
+
+    @Schema(description = "用户密码")
+    private String password;
+
+    /**
+     * 1/0 或 true/false，为空时默认启用
+     */
+    @Schema(description = "是否启用，1/0 或 true/false，为空时默认启用")
+    private String enable;
+
+    /**
+     * 权限编码，为空时默认访客
+     */
+    @Schema(description = "默认权限编码：admin/user/guest/anonymous，为空时默认访客")
+    private String defaultPermissions;
+}
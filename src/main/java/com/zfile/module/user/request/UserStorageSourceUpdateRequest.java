@@ -6,6 +6,7 @@ import org.hibernate.validator.constraints.Length;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
 
 @Data
 @Schema(description = "更新用户存储源请求")
@@ -35,4 +36,8 @@ public class UserStorageSourceUpdateRequest {
     @Schema(description = "权限列表")
     @Length(max = 255, message = "权限列表长度不能超过255个字符")
     private String permissions;
+
+    @Schema(description = "下载方式：proxy 服务端转发，redirect 重定向到签名链接，为空时不修改")
+    @Pattern(regexp = "proxy|redirect", message = "下载方式只能是 proxy 或 redirect")
+    private String downloadMode;
 }
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.zfile.module.user.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量导入用户结果
+ */
+@Data
+@Schema(description = "批量导入用户结果")
+public class UserImportResponse implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "总行数")
+    private Long total = 0L;
+
+    @Schema(description = "成功行数")
+    private Long successCount = 0L;
+
+    @Schema(description = "失败行数")
+    private Long failureCount = 0L;
+
+    @Schema(description = "逐行结果")
+    private List<UserImportRowResult> rows = new ArrayList<>();
+}
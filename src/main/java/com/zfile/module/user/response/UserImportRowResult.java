@@ -0,0 +1,33 @@
+package com.zfile.module.user.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * 批量导入用户的单行结果
+ */
+@Data
+@Schema(description = "批量导入用户的单行结果")
+public class UserImportRowResult implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "行号，从 1 开始，不含 CSV 表头")
+    private Long rowNumber;
+
+    @Schema(description = "用户名")
+    private String username;
+
+    @Schema(description = "是否导入成功")
+    private Boolean success;
+
+    @Schema(description = "导入成功时的用户ID")
+    private Integer userId;
+
+    @Schema(description = "失败原因")
+    private String message;
+}
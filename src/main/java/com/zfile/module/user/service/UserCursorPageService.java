@@ -0,0 +1,22 @@
+package com.zfile.module.user.service;
+
+import com.zfile.common.request.CursorPageRequest;
+import com.zfile.common.result.CursorPageResult;
+import com.zfile.module.user.entity.User;
+import com.zfile.module.user.request.UserPageRequest;
+
+/**
+ * 用户游标分页Service
+ * 按ID降序以 id < 上一页最后一条ID 的方式翻页，避免深分页时 LIMIT offset 逐页变慢
+ */
+public interface UserCursorPageService {
+
+    /**
+     * 游标分页查询用户
+     *
+     * @param userPageRequest   查询条件，只使用其中的每页大小和过滤条件，忽略当前页
+     * @param cursorPageRequest 游标参数
+     * @return 游标分页结果
+     */
+    CursorPageResult<User> pageUsersByCursor(UserPageRequest userPageRequest, CursorPageRequest cursorPageRequest);
+}
\ No newline at end of file
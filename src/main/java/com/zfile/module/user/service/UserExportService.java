@@ -0,0 +1,34 @@
+package com.zfile.module.user.service;
+
+import com.zfile.common.export.ExportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 用户数据流式导出Service
+ * 逐行读取数据库结果并写入输出流，内存占用与导出行数无关
+ */
+public interface UserExportService {
+
+    /**
+     * 导出全部用户，不包含密码和盐值
+     *
+     * @param format       导出格式
+     * @param outputStream 输出流，由调用方负责关闭
+     * @return 导出行数
+     * @throws IOException 写入输出流失败
+     */
+    long exportUsers(ExportFormat format, OutputStream outputStream) throws IOException;
+
+    /**
+     * 导出用户存储源
+     *
+     * @param userId       用户ID，为空时导出全部
+     * @param format       导出格式
+     * @param outputStream 输出流，由调用方负责关闭
+     * @return 导出行数
+     * @throws IOException 写入输出流失败
+     */
+    long exportUserStorageSources(Integer userId, ExportFormat format, OutputStream outputStream) throws IOException;
+}
\ No newline at end of file
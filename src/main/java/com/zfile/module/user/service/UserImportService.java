@@ -0,0 +1,24 @@
+package com.zfile.module.user.service;
+
+import com.zfile.module.user.response.UserImportResponse;
+import com.zfile.module.user.userenum.UserImportFormatEnum;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 批量导入用户Service
+ */
+public interface UserImportService {
+
+    /**
+     * 流式读取并分批导入用户
+     * 每批先用一条 IN 查询排除已存在的用户名，再并行哈希密码并批量插入；单行失败不影响其他行
+     *
+     * @param inputStream 导入数据
+     * @param format      数据格式
+     * @return 逐行导入结果
+     * @throws IOException 读取导入数据失败
+     */
+    UserImportResponse importUsers(InputStream inputStream, UserImportFormatEnum format) throws IOException;
+}
@@ -0,0 +1,21 @@
+package com.zfile.module.user.service;
+
+import com.zfile.module.user.entity.User;
+
+import java.util.List;
+
+/**
+ * 用户搜索Service
+ */
+public interface UserSearchService {
+
+    /**
+     * 按用户名或昵称前缀查询候选用户，用于管理端输入时自动补全
+     * 用户名匹配的结果排在昵称匹配之前
+     *
+     * @param prefix 前缀
+     * @param limit  最多返回条数
+     * @return 候选用户，只包含ID、用户名和昵称
+     */
+    List<User> listUserSuggestions(String prefix, int limit);
+}
\ No newline at end of file
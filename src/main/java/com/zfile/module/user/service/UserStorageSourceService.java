@@ -2,8 +2,11 @@ package com.zfile.module.user.service;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.service.IService;
+import com.zfile.common.request.CursorPageRequest;
+import com.zfile.common.result.CursorPageResult;
 import com.zfile.module.user.entity.UserStorageSource;
 import com.zfile.module.user.request.UserStorageSourcePageRequest;
+import com.zfile.module.user.userenum.DownloadModeEnum;
 
 import java.util.List;
 
@@ -45,4 +48,31 @@ public interface UserStorageSourceService extends IService<UserStorageSource> {
      * @return 分页结果
      */
     IPage<UserStorageSource> pageUserStorageSources(UserStorageSourcePageRequest userStorageSourcePageRequest);
+
+    /**
+     * 游标分页查询用户存储源，按ID降序以 id < 上一页最后一条ID 的方式翻页
+     *
+     * @param userStorageSourcePageRequest 查询条件，只使用其中的每页大小和过滤条件，忽略当前页
+     * @param cursorPageRequest            游标参数
+     * @return 游标分页结果
+     */
+    CursorPageResult<UserStorageSource> pageUserStorageSourcesByCursor(UserStorageSourcePageRequest userStorageSourcePageRequest,
+                                                                       CursorPageRequest cursorPageRequest);
+
+    /**
+     * 获取用户存储源的下载方式
+     *
+     * @param id 用户存储源ID
+     * @return 下载方式，未配置或配置无效时为 {@link DownloadModeEnum#PROXY}
+     */
+    DownloadModeEnum getDownloadMode(Integer id);
+
+    /**
+     * 修改用户存储源的下载方式
+     *
+     * @param id           用户存储源ID
+     * @param downloadMode 下载方式
+     * @return 是否修改成功
+     */
+    boolean updateDownloadMode(Integer id, DownloadModeEnum downloadMode);
 }
\ No newline at end of file
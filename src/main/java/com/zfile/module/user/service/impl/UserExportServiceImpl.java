@@ -0,0 +1,69 @@
+package com.zfile.module.user.service.impl;
+
+import com.zfile.common.export.ExportFormat;
+import com.zfile.common.export.ExportRowWriter;
+import com.zfile.module.user.convert.UserConvert;
+import com.zfile.module.user.convert.UserStorageSourceConvert;
+import com.zfile.module.user.entity.User;
+import com.zfile.module.user.entity.UserStorageSource;
+import com.zfile.module.user.mapper.UserMapper;
+import com.zfile.module.user.mapper.UserStorageSourceMapper;
+import com.zfile.module.user.service.UserExportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 用户数据流式导出Service实现
+ */
+@Service
+public class UserExportServiceImpl implements UserExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserExportServiceImpl.class);
+
+    private static final List<String> USER_CSV_HEADERS = List.of(
+            "id", "username", "nickname", "enable", "defaultPermissions", "createTime", "updateTime");
+
+    private static final List<String> USER_STORAGE_SOURCE_CSV_HEADERS = List.of(
+            "id", "userId", "storageSourceId", "rootPath", "enable", "permissions", "createTime", "updateTime");
+
+    private final UserMapper userMapper;
+
+    private final UserStorageSourceMapper userStorageSourceMapper;
+
+    @Autowired
+    public UserExportServiceImpl(UserMapper userMapper, UserStorageSourceMapper userStorageSourceMapper) {
+        this.userMapper = userMapper;
+        this.userStorageSourceMapper = userStorageSourceMapper;
+    }
+
+    @Override
+    public long exportUsers(ExportFormat format, OutputStream outputStream) throws IOException {
+        ExportRowWriter<User> rowWriter = new ExportRowWriter<>(outputStream, format, USER_CSV_HEADERS,
+                UserConvert.INSTANCE::convertToUserResponse,
+                user -> Arrays.asList(user.getId(), user.getUsername(), user.getNickname(), user.getEnable(),
+                        user.getDefaultPermissions(), user.getCreateTime(), user.getUpdateTime()));
+        userMapper.streamUsers(rowWriter);
+        long rowCount = rowWriter.finish();
+        log.debug("流式导出用户完成，格式: {}, 行数: {}", format, rowCount);
+        return rowCount;
+    }
+
+    @Override
+    public long exportUserStorageSources(Integer userId, ExportFormat format, OutputStream outputStream) throws IOException {
+        ExportRowWriter<UserStorageSource> rowWriter = new ExportRowWriter<>(outputStream, format, USER_STORAGE_SOURCE_CSV_HEADERS,
+                UserStorageSourceConvert.INSTANCE::convertToUserStorageSourceResponse,
+                source -> Arrays.asList(source.getId(), source.getUserId(), source.getStorageSourceId(), source.getRootPath(),
+                        source.getEnable(), source.getPermissions(), source.getCreateTime(), source.getUpdateTime()));
+        userStorageSourceMapper.streamUserStorageSources(userId, rowWriter);
+        long rowCount = rowWriter.finish();
+        log.debug("流式导出用户存储源完成，用户ID: {}, 格式: {}, 行数: {}", userId, format, rowCount);
+        return rowCount;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,365 @@
+package com.zfile.module.user.service.impl;
+
+import cn.hutool.core.text.csv.CsvReadConfig;
+import cn.hutool.core.text.csv.CsvReader;
+import cn.hutool.core.text.csv.CsvUtil;
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONReader;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.zfile.module.user.config.PasswordHashProperties;
+import com.zfile.module.user.entity.User;
+import com.zfile.module.user.mapper.UserMapper;
+import com.zfile.module.user.request.UserImportRow;
+import com.zfile.module.user.response.UserImportResponse;
+import com.zfile.module.user.response.UserImportRowResult;
+import com.zfile.module.user.service.UserImportService;
+import com.zfile.module.user.service.UserService;
+import com.zfile.module.user.userenum.UserImportFormatEnum;
+import com.zfile.module.user.userenum.UserPermissionEnum;
+import com.zfile.module.user.userenum.UserStatusEnum;
+import com.zfile.module.user.util.PasswordHashEngine;
+import com.zfile.module.user.util.PasswordUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PushbackReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * 批量导入用户Service实现
+ */
+@Service
+public class UserImportServiceImpl implements UserImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserImportServiceImpl.class);
+
+    /**
+     * 每批处理的行数，也是 saveBatch 的批大小
+     */
+    private static final int BATCH_SIZE = 500;
+
+    private static final int MAX_USERNAME_LENGTH = 255;
+
+    private final UserService userService;
+
+    private final UserMapper userMapper;
+
+    private final PasswordHashEngine passwordHashEngine;
+
+    private final PasswordHashProperties passwordHashProperties;
+
+    @Autowired
+    public UserImportServiceImpl(UserService userService, UserMapper userMapper,
+                                 PasswordHashEngine passwordHashEngine, PasswordHashProperties passwordHashProperties) {
+        this.userService = userService;
+        this.userMapper = userMapper;
+        this.passwordHashEngine = passwordHashEngine;
+        this.passwordHashProperties = passwordHashProperties;
+    }
+
+    /**
+     * 不在外层开启事务，每批由 saveBatch 单独提交，单批失败不会回滚已导入的批次
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public UserImportResponse importUsers(InputStream inputStream, UserImportFormatEnum format) throws IOException {
+        UserImportResponse response = new UserImportResponse();
+        Set<String> seenUsernames = new HashSet<>();
+        List<PendingRow> batch = new ArrayList<>(BATCH_SIZE);
+
+        Consumer<UserImportRow> collector = row -> {
+            response.setTotal(response.getTotal() + 1);
+            batch.add(new PendingRow(response.getTotal(), row));
+            if (batch.size() >= BATCH_SIZE) {
+                importBatch(batch, seenUsernames, response);
+                batch.clear();
+            }
+        };
+
+        try (PushbackReader reader = new PushbackReader(
+                new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8)), 1)) {
+            skipBom(reader);
+            if (format == UserImportFormatEnum.CSV) {
+                readCsv(reader, collector);
+            } else {
+                readJson(reader, collector);
+            }
+        }
+        if (!batch.isEmpty()) {
+            importBatch(batch, seenUsernames, response);
+        }
+
+        log.info("批量导入用户完成，总行数: {}, 成功: {}, 失败: {}",
+                response.getTotal(), response.getSuccessCount(), response.getFailureCount());
+        return response;
+    }
+
+    private void readCsv(Reader reader, Consumer<UserImportRow> collector) {
+        CsvReader csvReader = CsvUtil.getReader(CsvReadConfig.defaultConfig()
+                .setContainsHeader(true)
+                .setSkipEmptyRows(true)
+                .setTrimField(true));
+        csvReader.read(reader, csvRow -> {
+            UserImportRow row = new UserImportRow();
+            row.setUsername(csvRow.getByName("username"));
+            row.setNickname(csvRow.getByName("nickname"));
+            row.setPassword(csvRow.getByName("password"));
+            row.setEnable(csvRow.getByName("enable"));
+            row.setDefaultPermissions(csvRow.getByName("defaultPermissions"));
+            collector.accept(row);
+        });
+    }
+
+    /**
+     * 支持 JSON 数组和每行一个 JSON 对象两种写法
+     */
+    private void readJson(PushbackReader reader, Consumer<UserImportRow> collector) throws IOException {
+        int first = skipWhitespace(reader);
+        if (first == '[') {
+            JSONReader jsonReader = JSONReader.of(reader);
+            jsonReader.nextIfMatch('[');
+            while (!jsonReader.nextIfMatch(']')) {
+                collector.accept(jsonReader.read(UserImportRow.class));
+            }
+            return;
+        }
+
+        BufferedReader lineReader = new BufferedReader(reader);
+        String line;
+        while ((line = lineReader.readLine()) != null) {
+            if (!line.isBlank()) {
+                collector.accept(JSON.parseObject(line, UserImportRow.class));
+            }
+        }
+    }
+
+    private void importBatch(List<PendingRow> batch, Set<String> seenUsernames, UserImportResponse response) {
+        // 校验单行数据并排除文件内重复的用户名
+        List<PendingRow> candidates = new ArrayList<>(batch.size());
+        for (PendingRow pending : batch) {
+            String error = validate(pending);
+            if (error == null && !seenUsernames.add(pending.username.toLowerCase(Locale.ROOT))) {
+                error = "导入数据中用户名重复";
+            }
+            if (error != null) {
+                pending.fail(error);
+            } else {
+                candidates.add(pending);
+            }
+        }
+
+        // 一条 IN 查询排除数据库中已存在的用户名
+        if (!candidates.isEmpty()) {
+            List<String> usernames = candidates.stream().map(pending -> pending.username).toList();
+            Set<String> existing = new HashSet<>();
+            for (User user : userMapper.selectList(new QueryWrapper<User>().select("username").in("username", usernames))) {
+                existing.add(user.getUsername().toLowerCase(Locale.ROOT));
+            }
+            candidates.removeIf(pending -> {
+                if (existing.contains(pending.username.toLowerCase(Locale.ROOT))) {
+                    pending.fail("用户名已存在");
+                    return true;
+                }
+                return false;
+            });
+        }
+
+        hashPasswords(candidates);
+        saveUsers(candidates.stream().filter(pending -> pending.result.getSuccess() == null).toList());
+
+        for (PendingRow pending : batch) {
+            response.getRows().add(pending.result);
+            if (Boolean.TRUE.equals(pending.result.getSuccess())) {
+                response.setSuccessCount(response.getSuccessCount() + 1);
+            } else {
+                response.setFailureCount(response.getFailureCount() + 1);
+            }
+        }
+    }
+
+    /**
+     * 在密码哈希线程池中并行哈希
+     * 同时提交的任务数不超过线程数，给登录请求保留等待队列
+     */
+    private void hashPasswords(List<PendingRow> candidates) {
+        int window = Math.max(1, passwordHashProperties.getPoolSize());
+        for (int start = 0; start < candidates.size(); start += window) {
+            List<PendingRow> group = candidates.subList(start, Math.min(start + window, candidates.size()));
+            List<CompletableFuture<String>> futures = new ArrayList<>(group.size());
+            for (PendingRow pending : group) {
+                try {
+                    futures.add(passwordHashEngine.encodeAsync(pending.row.getPassword(), pending.user.getSalt()));
+                } catch (RejectedExecutionException e) {
+                    futures.add(null);
+                }
+            }
+            for (int i = 0; i < group.size(); i++) {
+                PendingRow pending = group.get(i);
+                CompletableFuture<String> future = futures.get(i);
+                // 原始密码不再需要
+                pending.row.setPassword(null);
+                if (future == null) {
+                    pending.fail("系统繁忙，密码哈希被拒绝");
+                    continue;
+                }
+                try {
+                    pending.user.setPassword(future.join());
+                } catch (CompletionException e) {
+                    log.warn("导入用户时密码哈希失败，用户名: {}", pending.username, e.getCause());
+                    pending.fail("密码哈希失败");
+                }
+            }
+        }
+    }
+
+    private void saveUsers(List<PendingRow> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        List<User> users = rows.stream().map(pending -> pending.user).toList();
+        try {
+            userService.saveBatch(users, BATCH_SIZE);
+            rows.forEach(PendingRow::succeed);
+            return;
+        } catch (DuplicateKeyException e) {
+            // 查重之后有并发写入了相同用户名，逐行插入找出冲突的行
+            log.warn("批量插入用户时用户名冲突，改为逐行插入: {}", e.getMessage());
+        }
+
+        for (PendingRow pending : rows) {
+            try {
+                pending.user.setId(null);
+                userService.save(pending.user);
+                pending.succeed();
+            } catch (DuplicateKeyException e) {
+                pending.fail("用户名已存在");
+            } catch (Exception e) {
+                log.error("导入用户时插入失败，用户名: {}", pending.username, e);
+                pending.fail("保存失败: " + e.getMessage());
+            }
+        }
+    }
+
+    private String validate(PendingRow pending) {
+        UserImportRow row = pending.row;
+        if (row == null) {
+            return "数据为空";
+        }
+        if (!StringUtils.hasText(pending.username)) {
+            return "用户名不能为空";
+        }
+        if (pending.username.length() > MAX_USERNAME_LENGTH) {
+            return "用户名过长";
+        }
+        if (!StringUtils.hasText(row.getPassword())) {
+            return "密码不能为空";
+        }
+
+        UserStatusEnum enable = parseEnable(row.getEnable());
+        if (enable == null) {
+            return "无效的启用状态: " + row.getEnable();
+        }
+        UserPermissionEnum permission = StringUtils.hasText(row.getDefaultPermissions())
+                ? UserPermissionEnum.fromCode(row.getDefaultPermissions().trim()) : UserPermissionEnum.GUEST;
+        if (permission == null) {
+            return "无效的默认权限: " + row.getDefaultPermissions();
+        }
+
+        User user = new User();
+        user.setUsername(pending.username);
+        user.setNickname(StringUtils.hasText(row.getNickname()) ? row.getNickname().trim() : null);
+        user.setSalt(PasswordUtil.generateSalt());
+        user.setEnable(enable);
+        user.setDefaultPermissions(permission);
+        pending.user = user;
+        return null;
+    }
+
+    private UserStatusEnum parseEnable(String value) {
+        if (!StringUtils.hasText(value)) {
+            return UserStatusEnum.ENABLE;
+        }
+        String text = value.trim();
+        if ("true".equalsIgnoreCase(text)) {
+            return UserStatusEnum.ENABLE;
+        }
+        if ("false".equalsIgnoreCase(text)) {
+            return UserStatusEnum.DISABLE;
+        }
+        for (UserStatusEnum status : UserStatusEnum.values()) {
+            if (String.valueOf(status.getCode()).equals(text)) {
+                return status;
+            }
+        }
+        return null;
+    }
+
+    private static void skipBom(PushbackReader reader) throws IOException {
+        int ch = reader.read();
+        if (ch != -1 && ch != '\uFEFF') {
+            reader.unread(ch);
+        }
+    }
+
+    private static int skipWhitespace(PushbackReader reader) throws IOException {
+        int ch;
+        do {
+            ch = reader.read();
+        } while (ch != -1 && Character.isWhitespace(ch));
+        if (ch != -1) {
+            reader.unread(ch);
+        }
+        return ch;
+    }
+
+    /**
+     * 一行待导入的数据及其处理结果
+     */
+    private static final class PendingRow {
+
+        private final UserImportRow row;
+
+        private final String username;
+
+        private final UserImportRowResult result = new UserImportRowResult();
+
+        private User user;
+
+        private PendingRow(long rowNumber, UserImportRow row) {
+            this.row = row;
+            this.username = row != null && row.getUsername() != null ? row.getUsername().trim() : null;
+            result.setRowNumber(rowNumber);
+            result.setUsername(username);
+        }
+
+        private void succeed() {
+            result.setSuccess(true);
+            result.setUserId(user.getId());
+        }
+
+        private void fail(String message) {
+            result.setSuccess(false);
+            result.setMessage(message);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,66 @@
+package com.zfile.module.user.service.impl;
+
+import com.zfile.module.user.entity.User;
+import com.zfile.module.user.mapper.UserMapper;
+import com.zfile.module.user.service.UserSearchService;
+import com.zfile.module.user.util.UserSearchUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 用户搜索Service实现
+ */
+@Service
+public class UserSearchServiceImpl implements UserSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserSearchServiceImpl.class);
+
+    /**
+     * 单次自动补全最多返回的条数
+     */
+    private static final int MAX_SUGGESTIONS = 50;
+
+    private final UserMapper userMapper;
+
+    @Autowired
+    public UserSearchServiceImpl(UserMapper userMapper) {
+        this.userMapper = userMapper;
+    }
+
+    @Override
+    public List<User> listUserSuggestions(String prefix, int limit) {
+        try {
+            if (!StringUtils.hasText(prefix)) {
+                return List.of();
+            }
+            int size = Math.max(1, Math.min(limit, MAX_SUGGESTIONS));
+            String escapedPrefix = UserSearchUtil.escapeLike(prefix.trim());
+
+            // 两次查询分别走 uk_user_username 和 idx_user_nickname 的范围扫描
+            Map<Integer, User> suggestions = new LinkedHashMap<>();
+            for (User user : userMapper.listUsersByUsernamePrefix(escapedPrefix, size)) {
+                suggestions.put(user.getId(), user);
+            }
+            if (suggestions.size() < size) {
+                for (User user : userMapper.listUsersByNicknamePrefix(escapedPrefix, size)) {
+                    suggestions.putIfAbsent(user.getId(), user);
+                }
+            }
+
+            List<User> result = new ArrayList<>(suggestions.values());
+            log.debug("用户自动补全完成，前缀: {}, 结果数: {}", prefix, result.size());
+            return result.size() > size ? result.subList(0, size) : result;
+        } catch (Exception e) {
+            log.error("用户自动补全时发生异常，前缀: {}", prefix, e);
+            throw new RuntimeException("查询用户失败", e);
+        }
+    }
+}
\ No newline at end of file
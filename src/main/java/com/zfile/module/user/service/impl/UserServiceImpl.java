@@ -4,12 +4,20 @@ import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.zfile.common.request.CursorPageRequest;
+import com.zfile.common.result.CursorPageResult;
+import com.zfile.common.util.CursorCodec;
+import com.zfile.module.auth.springsecurity.cache.PrincipalCache;
+import com.zfile.module.auth.springsecurity.token.TokenVersionRegistry;
 import com.zfile.module.user.entity.User;
 import com.zfile.module.user.request.UserAddRequest;
 import com.zfile.module.user.request.UserPageRequest;
+import com.zfile.module.user.service.UserCursorPageService;
 import com.zfile.module.user.service.UserService;
 import com.zfile.module.user.mapper.UserMapper;
+import com.zfile.module.user.util.PasswordHashEngine;
 import com.zfile.module.user.util.PasswordUtil;
+import com.zfile.module.user.util.UserSearchUtil;
 import com.zfile.module.user.userenum.UserStatusEnum;
 import com.zfile.module.user.userenum.UserPermissionEnum;
 import org.slf4j.Logger;
@@ -28,14 +36,25 @@ import java.util.List;
 */
 @Service
 public class UserServiceImpl extends ServiceImpl<UserMapper, User>
-    implements UserService{
+    implements UserService, UserCursorPageService {
     
     private static final Logger log = LoggerFactory.getLogger(UserServiceImpl.class);
 
     private final UserMapper userMapper;
+
+    private final PrincipalCache principalCache;
+
+    private final TokenVersionRegistry tokenVersionRegistry;
+
+    private final PasswordHashEngine passwordHashEngine;
+
     @Autowired
-    public UserServiceImpl(UserMapper userMapper) {
+    public UserServiceImpl(UserMapper userMapper, PrincipalCache principalCache,
+                           TokenVersionRegistry tokenVersionRegistry, PasswordHashEngine passwordHashEngine) {
         this.userMapper = userMapper;
+        this.principalCache = principalCache;
+        this.tokenVersionRegistry = tokenVersionRegistry;
+        this.passwordHashEngine = passwordHashEngine;
     }
 
     @Override
@@ -72,8 +91,8 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User>
             User user = userMapper.getUserByUsername(username);
             
             if (user != null) {
-                // 验证密码 (使用PasswordUtil中的matches方法)
-                if (PasswordUtil.matches(password, user.getPassword(), user.getSalt())) {
+                // 验证密码 (兼容PasswordUtil生成的旧格式密码)
+                if (passwordHashEngine.matches(password, user.getPassword(), user.getSalt())) {
                     log.debug("用户 {} 登录成功", username);
                     return user;
                 } else {
@@ -129,7 +148,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User>
             
             // 生成盐值和加密密码
             String salt = PasswordUtil.generateSalt();
-            String encodedPassword = PasswordUtil.encodePassword(userAddRequest.getPassword(), salt);
+            String encodedPassword = passwordHashEngine.encode(userAddRequest.getPassword(), salt);
             
             newUser.setPassword(encodedPassword);
             newUser.setSalt(salt);
@@ -197,9 +216,13 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User>
                 return false;
             }
             
+            // 删除前记录用户名，用于清除认证缓存
+            List<String> usernames = this.listByIds(ids).stream().map(User::getUsername).toList();
             boolean result = this.removeBatchByIds(ids);
             
             if (result) {
+                principalCache.evictAfterCommit(usernames);
+                tokenVersionRegistry.bumpAfterCommit(ids);
                 log.info("成功删除 {} 个用户，IDs: {}", ids.size(), ids);
             } else {
                 log.warn("删除用户失败，IDs: {}", ids);
@@ -221,11 +244,16 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User>
                 return false;
             }
             
+            User existingUser = userMapper.getUserByUsername(username);
             QueryWrapper<User> queryWrapper = new QueryWrapper<>();
             queryWrapper.eq("username", username);
             boolean result = this.remove(queryWrapper);
             
             if (result) {
+                principalCache.evictAfterCommit(List.of(username));
+                if (existingUser != null) {
+                    tokenVersionRegistry.bumpAfterCommit(List.of(existingUser.getId()));
+                }
                 log.info("成功删除用户名为 {} 的用户", username);
             } else {
                 log.warn("删除用户名为 {} 的用户失败，用户可能不存在", username);
@@ -250,27 +278,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User>
             IPage<User> page = new Page<>(userPageRequest.getCurrentPage(), userPageRequest.getPageSize());
             
             // 构建查询条件
-            QueryWrapper<User> queryWrapper = new QueryWrapper<>();
-            
-            // 用户名模糊查询
-            if (StringUtils.hasText(userPageRequest.getUsername())) {
-                queryWrapper.like("username", userPageRequest.getUsername());
-            }
-            
-            // 昵称模糊查询
-            if (StringUtils.hasText(userPageRequest.getNickname())) {
-                queryWrapper.like("nickname", userPageRequest.getNickname());
-            }
-            
-            // 启用状态查询
-            if (userPageRequest.getEnable() != null) {
-                queryWrapper.eq("enable", userPageRequest.getEnable());
-            }
-            
-            // 权限状态查询
-            if (userPageRequest.getDefaultPermissions() != null) {
-                queryWrapper.eq("default_permissions", userPageRequest.getDefaultPermissions());
-            }
+            QueryWrapper<User> queryWrapper = buildPageQueryWrapper(userPageRequest);
 
             // 按ID降序排列
             queryWrapper.orderByDesc("id");
@@ -285,4 +293,76 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User>
             throw new RuntimeException("分页查询用户失败", e);
         }
     }
+
+    @Override
+    public CursorPageResult<User> pageUsersByCursor(UserPageRequest userPageRequest, CursorPageRequest cursorPageRequest) {
+        try {
+            if (userPageRequest == null) {
+                userPageRequest = new UserPageRequest();
+            }
+            if (cursorPageRequest == null) {
+                cursorPageRequest = new CursorPageRequest();
+            }
+            int pageSize = userPageRequest.getPageSize() == null || userPageRequest.getPageSize() <= 0
+                    ? 10 : userPageRequest.getPageSize();
+
+            // 总数统计与游标位置无关，只按过滤条件统计
+            Long total = null;
+            if (!Boolean.TRUE.equals(cursorPageRequest.getSkipCount())) {
+                total = userMapper.selectCount(buildPageQueryWrapper(userPageRequest));
+            }
+
+            QueryWrapper<User> queryWrapper = buildPageQueryWrapper(userPageRequest);
+            Long lastId = CursorCodec.decode(cursorPageRequest.getCursor());
+            if (lastId != null) {
+                queryWrapper.lt("id", lastId);
+            }
+            // 多查一条用于判断是否还有下一页
+            queryWrapper.orderByDesc("id").last("LIMIT " + (pageSize + 1));
+
+            List<User> records = userMapper.selectList(queryWrapper);
+            CursorPageResult<User> result = CursorPageResult.fromRecords(records, pageSize, User::getId, total);
+            log.debug("游标分页查询用户完成，每页大小: {}, 是否还有下一页: {}, 总记录数: {}",
+                     pageSize, result.getHasMore(), total);
+
+            return result;
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("游标分页查询用户时发生异常，请求参数: {}, 游标参数: {}", userPageRequest, cursorPageRequest, e);
+            throw new RuntimeException("分页查询用户失败", e);
+        }
+    }
+
+    /**
+     * 构建分页查询的过滤条件，不包含排序
+     *
+     * @param userPageRequest 分页查询参数
+     * @return 查询条件
+     */
+    private QueryWrapper<User> buildPageQueryWrapper(UserPageRequest userPageRequest) {
+        QueryWrapper<User> queryWrapper = new QueryWrapper<>();
+        
+        // 用户名包含查询，使用全文索引
+        if (StringUtils.hasText(userPageRequest.getUsername())) {
+            UserSearchUtil.applyContains(queryWrapper, "username", userPageRequest.getUsername());
+        }
+        
+        // 昵称包含查询，使用全文索引
+        if (StringUtils.hasText(userPageRequest.getNickname())) {
+            UserSearchUtil.applyContains(queryWrapper, "nickname", userPageRequest.getNickname());
+        }
+        
+        // 启用状态查询
+        if (userPageRequest.getEnable() != null) {
+            queryWrapper.eq("enable", userPageRequest.getEnable());
+        }
+        
+        // 权限状态查询
+        if (userPageRequest.getDefaultPermissions() != null) {
+            queryWrapper.eq("default_permissions", userPageRequest.getDefaultPermissions());
+        }
+
+        return queryWrapper;
+    }
 }
\ No newline at end of file
@@ -4,10 +4,14 @@ import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.zfile.common.request.CursorPageRequest;
+import com.zfile.common.result.CursorPageResult;
+import com.zfile.common.util.CursorCodec;
 import com.zfile.module.user.entity.UserStorageSource;
 import com.zfile.module.user.mapper.UserStorageSourceMapper;
 import com.zfile.module.user.request.UserStorageSourcePageRequest;
 import com.zfile.module.user.service.UserStorageSourceService;
+import com.zfile.module.user.userenum.DownloadModeEnum;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -103,22 +107,7 @@ public class UserStorageSourceServiceImpl extends ServiceImpl<UserStorageSourceM
             IPage<UserStorageSource> page = new Page<>(userStorageSourcePageRequest.getCurrentPage(), userStorageSourcePageRequest.getPageSize());
             
             // 构建查询条件
-            QueryWrapper<UserStorageSource> queryWrapper = new QueryWrapper<>();
-            
-            // 用户ID查询
-            if (userStorageSourcePageRequest.getUserId() != null) {
-                queryWrapper.eq("user_id", userStorageSourcePageRequest.getUserId());
-            }
-            
-            // 存储源ID查询
-            if (userStorageSourcePageRequest.getStorageSourceId() != null) {
-                queryWrapper.eq("storage_source_id", userStorageSourcePageRequest.getStorageSourceId());
-            }
-            
-            // 启用状态查询
-            if (userStorageSourcePageRequest.getEnable() != null) {
-                queryWrapper.eq("enable", userStorageSourcePageRequest.getEnable());
-            }
+            QueryWrapper<UserStorageSource> queryWrapper = buildPageQueryWrapper(userStorageSourcePageRequest);
 
             // 按ID降序排列
             queryWrapper.orderByDesc("id");
@@ -133,4 +122,100 @@ public class UserStorageSourceServiceImpl extends ServiceImpl<UserStorageSourceM
             throw new RuntimeException("分页查询用户存储源失败", e);
         }
     }
+
+    @Override
+    public CursorPageResult<UserStorageSource> pageUserStorageSourcesByCursor(UserStorageSourcePageRequest userStorageSourcePageRequest,
+                                                                             CursorPageRequest cursorPageRequest) {
+        try {
+            if (userStorageSourcePageRequest == null) {
+                userStorageSourcePageRequest = new UserStorageSourcePageRequest();
+            }
+            if (cursorPageRequest == null) {
+                cursorPageRequest = new CursorPageRequest();
+            }
+            int pageSize = userStorageSourcePageRequest.getPageSize() == null || userStorageSourcePageRequest.getPageSize() <= 0
+                    ? 10 : userStorageSourcePageRequest.getPageSize();
+
+            // 总数统计与游标位置无关，只按过滤条件统计
+            Long total = null;
+            if (!Boolean.TRUE.equals(cursorPageRequest.getSkipCount())) {
+                total = this.count(buildPageQueryWrapper(userStorageSourcePageRequest));
+            }
+
+            QueryWrapper<UserStorageSource> queryWrapper = buildPageQueryWrapper(userStorageSourcePageRequest);
+            Long lastId = CursorCodec.decode(cursorPageRequest.getCursor());
+            if (lastId != null) {
+                queryWrapper.lt("id", lastId);
+            }
+            // 多查一条用于判断是否还有下一页
+            queryWrapper.orderByDesc("id").last("LIMIT " + (pageSize + 1));
+
+            List<UserStorageSource> records = this.list(queryWrapper);
+            CursorPageResult<UserStorageSource> result = CursorPageResult.fromRecords(records, pageSize, UserStorageSource::getId, total);
+            log.debug("游标分页查询用户存储源完成，每页大小: {}, 是否还有下一页: {}, 总记录数: {}",
+                     pageSize, result.getHasMore(), total);
+
+            return result;
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("游标分页查询用户存储源时发生异常，请求参数: {}, 游标参数: {}", userStorageSourcePageRequest, cursorPageRequest, e);
+            throw new RuntimeException("分页查询用户存储源失败", e);
+        }
+    }
+
+    @Override
+    public DownloadModeEnum getDownloadMode(Integer id) {
+        try {
+            DownloadModeEnum downloadMode = DownloadModeEnum.fromCode(this.baseMapper.selectDownloadMode(id));
+            return downloadMode == null ? DownloadModeEnum.PROXY : downloadMode;
+        } catch (Exception e) {
+            log.error("查询用户存储源下载方式时发生异常，ID: {}", id, e);
+            throw new RuntimeException("查询用户存储源下载方式失败", e);
+        }
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public boolean updateDownloadMode(Integer id, DownloadModeEnum downloadMode) {
+        try {
+            if (id == null || downloadMode == null) {
+                log.warn("修改用户存储源下载方式时参数为空，ID: {}，下载方式: {}", id, downloadMode);
+                return false;
+            }
+            boolean result = this.baseMapper.updateDownloadMode(id, downloadMode.getCode()) > 0;
+            log.info("修改用户存储源下载方式，ID: {}，下载方式: {}，结果: {}", id, downloadMode.getCode(), result);
+            return result;
+        } catch (Exception e) {
+            log.error("修改用户存储源下载方式时发生异常，ID: {}", id, e);
+            throw new RuntimeException("修改用户存储源下载方式失败", e);
+        }
+    }
+
+    /**
+     * 构建分页查询的过滤条件，不包含排序
+     *
+     * @param userStorageSourcePageRequest 分页查询参数
+     * @return 查询条件
+     */
+    private QueryWrapper<UserStorageSource> buildPageQueryWrapper(UserStorageSourcePageRequest userStorageSourcePageRequest) {
+        QueryWrapper<UserStorageSource> queryWrapper = new QueryWrapper<>();
+        
+        // 用户ID查询
+        if (userStorageSourcePageRequest.getUserId() != null) {
+            queryWrapper.eq("user_id", userStorageSourcePageRequest.getUserId());
+        }
+        
+        // 存储源ID查询
+        if (userStorageSourcePageRequest.getStorageSourceId() != null) {
+            queryWrapper.eq("storage_source_id", userStorageSourcePageRequest.getStorageSourceId());
+        }
+        
+        // 启用状态查询
+        if (userStorageSourcePageRequest.getEnable() != null) {
+            queryWrapper.eq("enable", userStorageSourcePageRequest.getEnable());
+        }
+
+        return queryWrapper;
+    }
 }
\ No newline at end of file
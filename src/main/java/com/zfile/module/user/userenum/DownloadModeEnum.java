@@ -0,0 +1,42 @@
+package com.zfile.module.user.userenum;
+
+/**
+ * 用户存储源的文件下载方式
+ */
+public enum DownloadModeEnum {
+
+    /**
+     * 服务端读取文件后转发给客户端
+     */
+    PROXY("proxy"),
+
+    /**
+     * 重定向到存储服务的签名下载链接
+     */
+    REDIRECT("redirect");
+
+    private final String code;
+
+    DownloadModeEnum(String code) {
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * 根据编码获取下载方式
+     *
+     * @param code 下载方式编码
+     * @return 下载方式，编码无效时返回 null
+     */
+    public static DownloadModeEnum fromCode(String code) {
+        for (DownloadModeEnum mode : values()) {
+            if (mode.code.equalsIgnoreCase(code)) {
+                return mode;
+            }
+        }
+        return null;
+    }
+}
\ No newline at end of file
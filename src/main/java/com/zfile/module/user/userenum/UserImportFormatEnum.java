@@ -0,0 +1,42 @@
+package com.zfile.module.user.userenum;
+
+/**
+ * 批量导入用户的数据格式
+ */
+public enum UserImportFormatEnum {
+
+    /**
+     * CSV，首行为表头
+     */
+    CSV("csv"),
+
+    /**
+     * JSON 数组或每行一个 JSON 对象（NDJSON）
+     */
+    JSON("json");
+
+    private final String code;
+
+    UserImportFormatEnum(String code) {
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * 根据编码获取导入格式
+     *
+     * @param code 格式编码
+     * @return 导入格式，编码无效时返回 null
+     */
+    public static UserImportFormatEnum fromCode(String code) {
+        for (UserImportFormatEnum format : values()) {
+            if (format.code.equalsIgnoreCase(code)) {
+                return format;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,231 @@
+package com.zfile.module.user.util;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.zfile.module.user.config.PasswordHashProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 密码哈希引擎
+ * 新密码使用带版本前缀的 PBKDF2 格式: $pbkdf2-sha256$迭代次数$哈希值(Base64)，盐值仍保存在 salt 字段中。
+ * 没有版本前缀的旧密码交给 PasswordUtil 校验，并在登录成功后按当前参数重新哈希。
+ * 所有哈希计算都在有界线程池中执行，队列已满时立即拒绝，避免登录或注册高峰占满请求线程；
+ * 分享访问密码由匿名请求触发，在另一个较小的线程池中校验，不影响登录。
+ */
+@Component
+public class PasswordHashEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordHashEngine.class);
+
+    /**
+     * 当前哈希格式前缀
+     */
+    private static final String PBKDF2_PREFIX = "$pbkdf2-sha256$";
+
+    private static final String PBKDF2_ALGORITHM = "PBKDF2WithHmacSHA256";
+
+    private final PasswordHashProperties properties;
+
+    private final ThreadPoolExecutor executor;
+
+    private final ThreadPoolExecutor shareExecutor;
+
+    private final Counter rejectedCounter;
+
+    @Autowired
+    public PasswordHashEngine(PasswordHashProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.executor = new ThreadPoolExecutor(
+                properties.getPoolSize(), properties.getPoolSize(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                new ThreadFactoryBuilder().setNameFormat("password-hash-%d").setDaemon(true).build(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.shareExecutor = new ThreadPoolExecutor(
+                properties.getSharePoolSize(), properties.getSharePoolSize(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getShareQueueCapacity()),
+                new ThreadFactoryBuilder().setNameFormat("share-password-hash-%d").setDaemon(true).build(),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("zfile.password.hash.queue", executor, e -> e.getQueue().size())
+                .register(meterRegistry);
+        Gauge.builder("zfile.password.hash.share.queue", shareExecutor, e -> e.getQueue().size())
+                .register(meterRegistry);
+        Gauge.builder("zfile.password.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("zfile.password.hash.rejected")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 使用当前参数对密码进行哈希
+     *
+     * @param rawPassword 原始密码
+     * @param salt        盐值
+     * @return 带版本前缀的密码哈希
+     * @throws RejectedExecutionException 线程池繁忙或等待超时
+     */
+    public String encode(String rawPassword, String salt) {
+        return await(executor, () -> doEncode(rawPassword, salt, properties.getIterations()));
+    }
+
+    /**
+     * 异步哈希密码，用于批量场景
+     *
+     * @param rawPassword 原始密码
+     * @param salt        盐值
+     * @return 密码哈希
+     */
+    public CompletableFuture<String> encodeAsync(String rawPassword, String salt) {
+        try {
+            return CompletableFuture.supplyAsync(
+                    () -> doEncode(rawPassword, salt, properties.getIterations()), executor);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw e;
+        }
+    }
+
+    /**
+     * 校验密码，兼容旧格式
+     *
+     * @param rawPassword     原始密码
+     * @param encodedPassword 数据库中的密码哈希
+     * @param salt            盐值
+     * @return 是否匹配
+     * @throws RejectedExecutionException 线程池繁忙或等待超时
+     */
+    public boolean matches(String rawPassword, String encodedPassword, String salt) {
+        if (rawPassword == null || encodedPassword == null) {
+            return false;
+        }
+        return await(executor, () -> doMatches(rawPassword, encodedPassword, salt));
+    }
+
+    /**
+     * 校验分享访问密码，在分享专用的线程池中执行
+     *
+     * @param rawPassword     原始密码
+     * @param encodedPassword 分享的密码哈希
+     * @param salt            盐值
+     * @return 是否匹配
+     * @throws RejectedExecutionException 线程池繁忙或等待超时
+     */
+    public boolean matchesSharePassword(String rawPassword, String encodedPassword, String salt) {
+        if (rawPassword == null || encodedPassword == null) {
+            return false;
+        }
+        return await(shareExecutor, () -> doMatches(rawPassword, encodedPassword, salt));
+    }
+
+    /**
+     * 判断密码是否需要按当前参数重新哈希
+     *
+     * @param encodedPassword 数据库中的密码哈希
+     * @return 旧格式或迭代次数与当前配置不一致时返回 true
+     */
+    public boolean needsRehash(String encodedPassword) {
+        if (encodedPassword == null || !encodedPassword.startsWith(PBKDF2_PREFIX)) {
+            return true;
+        }
+        return parseIterations(encodedPassword) != properties.getIterations();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        shareExecutor.shutdown();
+    }
+
+    private boolean doMatches(String rawPassword, String encodedPassword, String salt) {
+        if (!encodedPassword.startsWith(PBKDF2_PREFIX)) {
+            // 旧格式密码
+            return PasswordUtil.matches(rawPassword, encodedPassword, salt);
+        }
+        int iterations = parseIterations(encodedPassword);
+        if (iterations <= 0) {
+            log.warn("无法识别的密码哈希格式");
+            return false;
+        }
+        String expected = doEncode(rawPassword, salt, iterations);
+        return MessageDigest.isEqual(expected.getBytes(StandardCharsets.UTF_8),
+                encodedPassword.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 读取 PBKDF2 哈希中的迭代次数
+     *
+     * @return 迭代次数，格式无法识别时返回 -1
+     */
+    private static int parseIterations(String encodedPassword) {
+        String[] parts = encodedPassword.substring(PBKDF2_PREFIX.length()).split("\\$", 2);
+        if (parts.length != 2) {
+            return -1;
+        }
+        try {
+            int iterations = Integer.parseInt(parts[0]);
+            return iterations > 0 ? iterations : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private String doEncode(String rawPassword, String salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(rawPassword.toCharArray(), salt.getBytes(StandardCharsets.UTF_8),
+                iterations, properties.getKeyLength());
+        try {
+            byte[] hash = SecretKeyFactory.getInstance(PBKDF2_ALGORITHM).generateSecret(spec).getEncoded();
+            return PBKDF2_PREFIX + iterations + "$" + Base64.getEncoder().encodeToString(hash);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("密码哈希计算失败", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    private <T> T await(ThreadPoolExecutor pool, Callable<T> task) {
+        Future<T> future;
+        try {
+            future = pool.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            log.warn("密码哈希线程池已满，拒绝本次请求");
+            throw e;
+        }
+        try {
+            return future.get(properties.getTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejectedCounter.increment();
+            throw new RejectedExecutionException("密码哈希等待超时", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("密码哈希被中断", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("密码哈希计算失败", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.zfile.module.user.util;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+
+/**
+ * 用户搜索工具类
+ * 包含搜索使用 ngram 全文索引（见 db/migration/V1__user_search_index.sql），前缀搜索使用普通索引
+ */
+public final class UserSearchUtil {
+
+    /**
+     * 与 MySQL ngram_token_size 保持一致，短于该长度的关键字无法使用全文索引
+     */
+    private static final int NGRAM_TOKEN_SIZE = 2;
+
+    private UserSearchUtil() {
+    }
+
+    /**
+     * 添加包含关键字的查询条件
+     * 关键字按短语在 ngram 全文索引中匹配，结果与 LIKE '%关键字%' 一致但不需要全表扫描
+     *
+     * @param queryWrapper 查询条件
+     * @param column       全文索引列，只能传入代码中的常量
+     * @param keyword      关键字
+     */
+    public static void applyContains(QueryWrapper<?> queryWrapper, String column, String keyword) {
+        // 短语中不能包含双引号
+        String term = keyword.trim().replace("\"", "");
+        if (term.isEmpty()) {
+            return;
+        }
+        if (term.codePointCount(0, term.length()) < NGRAM_TOKEN_SIZE) {
+            queryWrapper.like(column, term);
+            return;
+        }
+        queryWrapper.apply("MATCH(" + column + ") AGAINST({0} IN BOOLEAN MODE)", "\"" + term + "\"");
+    }
+
+    /**
+     * 转义 LIKE 通配符，用于拼接前缀查询
+     *
+     * @param prefix 前缀
+     * @return 转义后的前缀
+     */
+    public static String escapeLike(String prefix) {
+        return prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,5 @@
+-- ----------------------------
+-- 缩略图按内容 MD5 生成和缓存，MD5 未知的文件无法生成缩略图，清除此前写入的缩略图地址
+-- ----------------------------
+
+UPDATE `file_info` SET `thumbnail_url` = NULL WHERE `file_md5` IS NULL AND `thumbnail_url` IS NOT NULL;
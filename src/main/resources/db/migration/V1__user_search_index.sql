@@ -0,0 +1,13 @@
+-- ----------------------------
+-- 用户搜索索引
+-- username / nickname 的包含搜索使用 ngram 全文索引，替代 LIKE '%关键字%' 全表扫描
+-- nickname 前缀索引用于管理端自动补全，username 前缀补全使用已有的 uk_user_username
+-- ----------------------------
+
+-- 关闭停用词过滤，否则包含停用词的 ngram 分词不会进入索引，导致部分关键字搜不到
+SET SESSION innodb_ft_enable_stopword = OFF;
+
+-- InnoDB 一条语句只能创建一个全文索引
+ALTER TABLE `user` ADD FULLTEXT INDEX `ft_user_username` (`username`) WITH PARSER ngram;
+ALTER TABLE `user` ADD FULLTEXT INDEX `ft_user_nickname` (`nickname`) WITH PARSER ngram;
+ALTER TABLE `user` ADD INDEX `idx_user_nickname` (`nickname`);
\ No newline at end of file
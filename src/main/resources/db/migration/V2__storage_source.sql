@@ -0,0 +1,27 @@
+-- ----------------------------
+-- 存储源
+-- storage_source、storage_source_config 由 init.sql 创建，这里只调整存储驱动依赖的列和约束：
+-- user_storage_source.storage_source_id 关联 storage_source.id
+-- 各类存储的连接参数以键值对形式保存在 storage_source_config，同一存储源的配置项名称唯一
+-- ----------------------------
+
+-- 原来为空的启用状态按未启用处理，与 StorageDriverRegistry 的判断一致
+UPDATE `storage_source` SET `enable` = b'0' WHERE `enable` IS NULL;
+UPDATE `storage_source` SET `order_num` = 0 WHERE `order_num` IS NULL;
+
+ALTER TABLE `storage_source`
+  MODIFY COLUMN `enable` BIT(1) NOT NULL DEFAULT b'1' COMMENT '是否启用',
+  MODIFY COLUMN `order_num` INT NOT NULL DEFAULT 0 COMMENT '排序';
+
+-- 没有存储源或名称的配置项无法使用；同名配置项只保留最后写入的一条
+DELETE FROM `storage_source_config` WHERE `storage_id` IS NULL OR `name` IS NULL;
+DELETE c1 FROM `storage_source_config` c1
+  JOIN `storage_source_config` c2
+    ON c1.`storage_id` = c2.`storage_id` AND c1.`name` = c2.`name` AND c1.`id` < c2.`id`;
+
+-- 唯一索引以 storage_id 开头，可替代原来的 storage_id 单列索引
+ALTER TABLE `storage_source_config`
+  MODIFY COLUMN `storage_id` INT NOT NULL COMMENT '存储源ID',
+  MODIFY COLUMN `name` VARCHAR(255) NOT NULL COMMENT '配置项名称',
+  DROP INDEX `idx_storage_source_config_storage_id`,
+  ADD UNIQUE KEY `uk_storage_source_config` (`storage_id`, `name`);
@@ -0,0 +1,38 @@
+-- ----------------------------
+-- 文件信息
+-- 在设计文档的基础上增加 storage_source_id，记录文件所在的用户存储源（user_storage_source.id），
+-- storage_path 为相对该用户存储源根路径的路径；user_id 与 user.id 类型保持一致
+-- ----------------------------
+
+CREATE TABLE IF NOT EXISTS `file_info` (
+  `id` BIGINT NOT NULL AUTO_INCREMENT COMMENT '文件ID',
+  `file_name` VARCHAR(255) NOT NULL COMMENT '文件名',
+  `file_path` VARCHAR(1000) NOT NULL COMMENT '文件路径（相对路径）',
+  `file_size` BIGINT NOT NULL DEFAULT 0 COMMENT '文件大小（字节）',
+  `file_type` VARCHAR(50) DEFAULT NULL COMMENT '文件类型（扩展名）',
+  `content_type` VARCHAR(100) DEFAULT NULL COMMENT 'MIME类型',
+  `file_md5` VARCHAR(32) DEFAULT NULL COMMENT '文件MD5值（用于秒传）',
+  `storage_type` VARCHAR(20) NOT NULL COMMENT '存储类型：local, s3, aliyun, qiniu, sftp, webdav',
+  `storage_source_id` INT DEFAULT NULL COMMENT '用户存储源ID',
+  `storage_path` VARCHAR(1000) DEFAULT NULL COMMENT '实际存储路径',
+  `parent_id` BIGINT DEFAULT 0 COMMENT '父文件夹ID，0表示根目录',
+  `is_folder` TINYINT DEFAULT 0 COMMENT '是否文件夹：0-否，1-是',
+  `user_id` INT NOT NULL COMMENT '所属用户ID',
+  `thumbnail_url` VARCHAR(255) DEFAULT NULL COMMENT '缩略图URL（图片/视频）',
+  `duration` INT DEFAULT NULL COMMENT '时长（秒，音视频文件）',
+  `status` TINYINT DEFAULT 1 COMMENT '状态：0-上传中，1-正常，2-损坏',
+  `download_count` INT DEFAULT 0 COMMENT '下载次数',
+  `is_public` TINYINT DEFAULT 0 COMMENT '是否公开：0-私有，1-公开',
+  `password` VARCHAR(20) DEFAULT NULL COMMENT '访问密码',
+  `create_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  `update_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  `deleted` TINYINT DEFAULT 0 COMMENT '逻辑删除：0-未删除，1-已删除',
+  PRIMARY KEY (`id`),
+  KEY `idx_user_id` (`user_id`),
+  KEY `idx_parent_id` (`parent_id`),
+  KEY `idx_file_md5` (`file_md5`),
+  KEY `idx_file_path` (`file_path`(255)),
+  KEY `idx_create_time` (`create_time`),
+  KEY `idx_deleted` (`deleted`),
+  KEY `idx_user_parent_deleted` (`user_id`, `parent_id`, `deleted`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='文件信息表';
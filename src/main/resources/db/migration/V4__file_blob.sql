@@ -0,0 +1,24 @@
+-- ----------------------------
+-- 文件内容（秒传）
+-- 内容相同（MD5 与大小一致）且位于同一存储源的文件共用一份物理文件，ref_count 为引用它的 file_info 行数，
+-- 降为 0 时删除物理文件。storage_source_id 为 storage_source.id，storage_path 相对存储源根目录，
+-- 因此不同用户的存储源只要底层是同一个存储源就可以共用
+-- ----------------------------
+
+CREATE TABLE IF NOT EXISTS `file_blob` (
+  `id` BIGINT NOT NULL AUTO_INCREMENT COMMENT 'ID',
+  `file_md5` CHAR(32) NOT NULL COMMENT '文件MD5值',
+  `file_size` BIGINT NOT NULL COMMENT '文件大小（字节）',
+  `storage_source_id` INT NOT NULL COMMENT '存储源ID',
+  `storage_path` VARCHAR(1000) NOT NULL COMMENT '物理文件路径，相对存储源根目录',
+  `ref_count` INT NOT NULL DEFAULT 1 COMMENT '引用数',
+  `create_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  `update_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_file_blob_content` (`file_md5`, `file_size`, `storage_source_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='文件内容表';
+
+-- blob_id 不为空时文件内容由 file_blob 定位；秒传创建的文件没有自己的物理文件，storage_path 为空
+ALTER TABLE `file_info`
+  ADD COLUMN `blob_id` BIGINT DEFAULT NULL COMMENT '文件内容ID' AFTER `storage_path`,
+  ADD KEY `idx_blob_id` (`blob_id`);
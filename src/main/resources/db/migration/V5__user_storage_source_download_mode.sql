@@ -0,0 +1,9 @@
+-- ----------------------------
+-- 用户存储源下载方式
+-- proxy: 文件内容由服务端读取后转发给客户端，适用于存储服务不能从公网访问的情况
+-- redirect: 302 重定向到存储服务的签名下载链接，客户端直接从存储服务下载，仅 S3、OSS、七牛云支持，
+-- 其他存储类型即使配置为 redirect 也按 proxy 处理
+-- ----------------------------
+
+ALTER TABLE `user_storage_source`
+  ADD COLUMN `download_mode` VARCHAR(16) NOT NULL DEFAULT 'proxy' COMMENT '下载方式：proxy, redirect' AFTER `permissions`;
@@ -0,0 +1,27 @@
+-- ----------------------------
+-- 文件夹层级索引（物化路径）
+-- ancestor_path 为从根目录到父文件夹的所有文件夹ID，形如 /12/57/，根目录下的文件为 /。
+-- 文件夹 F 的子树为 ancestor_path LIKE 'F.ancestor_path + F.id + /%' 的行，
+-- 移动、删除、统计大小、列出子树都只需一条语句，走 (user_id, ancestor_path) 索引的范围扫描。
+-- 路径只包含数字和 /，使用 ascii 字符集使整列可以建索引
+-- ----------------------------
+
+ALTER TABLE `file_info`
+  ADD COLUMN `ancestor_path` VARCHAR(1000) CHARACTER SET ascii NOT NULL DEFAULT '/' COMMENT '祖先文件夹ID路径' AFTER `parent_id`,
+  ADD KEY `idx_user_ancestor_path` (`user_id`, `ancestor_path`);
+
+-- 按 parent_id 回填已有数据
+UPDATE `file_info` f
+  JOIN (
+    WITH RECURSIVE `tree` (`id`, `ancestor_path`) AS (
+      SELECT `id`, CAST('/' AS CHAR(1000) CHARACTER SET ascii)
+      FROM `file_info`
+      WHERE `parent_id` IS NULL OR `parent_id` = 0
+      UNION ALL
+      SELECT c.`id`, CONCAT(t.`ancestor_path`, c.`parent_id`, '/')
+      FROM `file_info` c
+      JOIN `tree` t ON c.`parent_id` = t.`id`
+    )
+    SELECT `id`, `ancestor_path` FROM `tree`
+  ) t ON f.`id` = t.`id`
+SET f.`ancestor_path` = t.`ancestor_path`;
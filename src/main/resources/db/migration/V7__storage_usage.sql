@@ -0,0 +1,59 @@
+-- ----------------------------
+-- 存储用量计数
+-- 按 用户 + 用户存储源 + 文件分类 记录已用空间和文件数，与 file_info 的增删在同一事务中增量更新，
+-- 统计页面只需读取该用户的几十行，不再对 file_info 求和。
+-- 同一用户短时间内大量写入时，增量分散到多个计数分片（stripe），避免所有上传事务争抢同一行的行锁；
+-- 读取时对各分片求和，定期对账任务按 file_info 重新计算并把分片合并回 0 号分片。
+-- storage_source_id 为 user_storage_source.id，文件没有所属存储源时为 0
+-- ----------------------------
+
+CREATE TABLE IF NOT EXISTS `storage_usage` (
+  `user_id` INT NOT NULL COMMENT '用户ID',
+  `storage_source_id` INT NOT NULL DEFAULT 0 COMMENT '用户存储源ID',
+  `category` VARCHAR(16) CHARACTER SET ascii NOT NULL COMMENT '文件分类：folder, image, video, audio, document, archive, other',
+  `stripe` TINYINT UNSIGNED NOT NULL DEFAULT 0 COMMENT '计数分片',
+  `used_size` BIGINT NOT NULL DEFAULT 0 COMMENT '已用空间（字节）',
+  `item_count` BIGINT NOT NULL DEFAULT 0 COMMENT '文件数，folder 分类为文件夹数',
+  `update_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (`user_id`, `storage_source_id`, `category`, `stripe`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='存储用量计数表';
+
+-- ----------------------------
+-- 用户存储配额，没有记录的用户使用 zfile.storage.usage.default-quota
+-- ----------------------------
+
+CREATE TABLE IF NOT EXISTS `storage_quota` (
+  `user_id` INT NOT NULL COMMENT '用户ID',
+  `quota_size` BIGINT NOT NULL COMMENT '存储配额（字节）',
+  `create_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  `update_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (`user_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='用户存储配额表';
+
+-- 按已有文件回填，分类规则与 FileCategoryEnum 一致
+INSERT INTO `storage_usage` (`user_id`, `storage_source_id`, `category`, `stripe`, `used_size`, `item_count`)
+SELECT `user_id`, `storage_source_id`, `category`, 0, SUM(`file_size`), COUNT(*)
+FROM (
+  SELECT `user_id`,
+         COALESCE(`storage_source_id`, 0) AS `storage_source_id`,
+         CASE
+           WHEN `is_folder` = 1 THEN 'folder'
+           WHEN `content_type` LIKE 'image/%' THEN 'image'
+           WHEN `content_type` LIKE 'video/%' THEN 'video'
+           WHEN `content_type` LIKE 'audio/%' THEN 'audio'
+           WHEN `content_type` LIKE 'text/%'
+             OR `content_type` IN ('application/pdf', 'application/msword', 'application/rtf')
+             OR `content_type` LIKE 'application/vnd.ms-%'
+             OR `content_type` LIKE 'application/vnd.openxmlformats-officedocument.%'
+             OR `content_type` LIKE 'application/vnd.oasis.opendocument.%' THEN 'document'
+           WHEN `content_type` IN ('application/zip', 'application/x-zip-compressed', 'application/vnd.rar',
+                                   'application/x-rar-compressed', 'application/x-7z-compressed', 'application/gzip',
+                                   'application/x-gzip', 'application/x-tar', 'application/x-bzip2', 'application/x-xz',
+                                   'application/java-archive') THEN 'archive'
+           ELSE 'other'
+         END AS `category`,
+         COALESCE(`file_size`, 0) AS `file_size`
+  FROM `file_info`
+  WHERE `deleted` = 0
+) f
+GROUP BY `user_id`, `storage_source_id`, `category`;
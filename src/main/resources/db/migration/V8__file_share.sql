@@ -0,0 +1,25 @@
+-- ----------------------------
+-- 文件分享
+-- share_code 为公开链接中的分享码；password 为访问密码哈希，格式与 user.password 相同，盐值保存在 salt 中；
+-- view_count 由 Redis 中的访问计数定期写回，可能落后于实际访问次数
+-- ----------------------------
+
+CREATE TABLE IF NOT EXISTS `file_share` (
+  `id` BIGINT NOT NULL AUTO_INCREMENT COMMENT '分享ID',
+  `share_code` VARCHAR(16) NOT NULL COMMENT '分享码',
+  `file_id` BIGINT NOT NULL COMMENT '分享的文件或文件夹ID',
+  `user_id` INT NOT NULL COMMENT '分享者用户ID',
+  `password` VARCHAR(128) DEFAULT NULL COMMENT '访问密码哈希，为空表示不需要密码',
+  `salt` VARCHAR(64) DEFAULT NULL COMMENT '访问密码盐值',
+  `expire_time` DATETIME DEFAULT NULL COMMENT '过期时间，为空表示永久有效',
+  `max_access_count` INT DEFAULT NULL COMMENT '最大访问次数，为空表示不限制',
+  `view_count` INT NOT NULL DEFAULT 0 COMMENT '访问次数',
+  `download_count` INT NOT NULL DEFAULT 0 COMMENT '下载次数',
+  `create_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  `update_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  `deleted` TINYINT DEFAULT 0 COMMENT '逻辑删除：0-未删除，1-已删除',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_share_code` (`share_code`),
+  KEY `idx_user_id` (`user_id`, `id`),
+  KEY `idx_file_id` (`file_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='文件分享表';
@@ -0,0 +1,6 @@
+-- ----------------------------
+-- 回收站清理按删除时间查询已逻辑删除的文件，逻辑删除时 update_time 即为删除时间
+-- ----------------------------
+
+ALTER TABLE `file_info`
+  ADD KEY `idx_deleted_update_time` (`deleted`, `update_time`);
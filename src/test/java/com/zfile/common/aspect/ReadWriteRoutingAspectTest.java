@@ -0,0 +1,85 @@
+package com.zfile.common.aspect;
+
+import com.baomidou.dynamic.datasource.toolkit.DynamicDataSourceContextHolder;
+import com.zfile.common.datasource.ReadWriteRoutingProperties;
+import com.zfile.common.datasource.ReadYourWritesTracker;
+import com.zfile.common.datasource.ReplicaLagMonitor;
+import com.zfile.common.datasource.WriteTrackingInnerInterceptor;
+import com.zfile.module.user.service.UserSearchService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 读写分离路由测试
+ */
+class ReadWriteRoutingAspectTest {
+
+    private ReadWriteRoutingProperties properties;
+
+    private ReadYourWritesTracker readYourWritesTracker;
+
+    private ReadWriteRoutingAspect aspect;
+
+    @BeforeEach
+    void setUp() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        properties = new ReadWriteRoutingProperties();
+        readYourWritesTracker = new ReadYourWritesTracker(properties);
+        ReplicaLagMonitor replicaLagMonitor = mock(ReplicaLagMonitor.class);
+        when(replicaLagMonitor.isReplicaAvailable()).thenReturn(true);
+        aspect = new ReadWriteRoutingAspect(properties, readYourWritesTracker, replicaLagMonitor,
+                new TransactionAspect().serviceTransactionAttributeSource(), new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        DynamicDataSourceContextHolder.clear();
+    }
+
+    @Test
+    void readWithoutWriteGoesToReplica() throws Throwable {
+        assertEquals(properties.getReplica(), routeRead());
+    }
+
+    @Test
+    void readAfterInheritedWriteGoesToMaster() throws Throwable {
+        // IService.updateById 等继承方法不经过切面，只有写语句经过 MyBatis 插件
+        new WriteTrackingInnerInterceptor(readYourWritesTracker).beforeUpdate(null, null, null);
+
+        assertEquals(properties.getMaster(), routeRead());
+    }
+
+    /**
+     * 通过切面执行一次查询方法，返回执行时选定的数据源
+     */
+    private String routeRead() throws Throwable {
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        MethodSignature signature = mock(MethodSignature.class);
+        when(joinPoint.getSignature()).thenReturn(signature);
+        when(signature.getMethod()).thenReturn(
+                UserSearchService.class.getMethod("listUserSuggestions", String.class, int.class));
+        when(joinPoint.getTarget()).thenReturn(mock(UserSearchService.class));
+
+        AtomicReference<String> routed = new AtomicReference<>();
+        when(joinPoint.proceed()).thenAnswer(invocation -> {
+            routed.set(DynamicDataSourceContextHolder.peek());
+            return null;
+        });
+        aspect.route(joinPoint);
+        return routed.get();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,98 @@
+package com.zfile.module.auth.springsecurity.cache;
+
+import com.zfile.module.auth.springsecurity.LoginUser;
+import com.zfile.module.user.userenum.UserPermissionEnum;
+import com.zfile.module.user.userenum.UserStatusEnum;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.listener.Topic;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 认证主体缓存跨节点失效测试
+ */
+class PrincipalCacheTest {
+
+    private static final String USERNAME = "alice";
+
+    private StringRedisTemplate stringRedisTemplate;
+
+    private MessageListener invalidateListener;
+
+    private PrincipalCache principalCache;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        RedisTemplate<String, Object> redisTemplate = mock(RedisTemplate.class);
+        ValueOperations<String, Object> valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        stringRedisTemplate = mock(StringRedisTemplate.class);
+        RedisMessageListenerContainer listenerContainer = mock(RedisMessageListenerContainer.class);
+
+        principalCache = new PrincipalCache(redisTemplate, stringRedisTemplate, listenerContainer,
+                new SimpleMeterRegistry(), 3600, 100);
+
+        ArgumentCaptor<MessageListener> listenerCaptor = ArgumentCaptor.forClass(MessageListener.class);
+        verify(listenerContainer).addMessageListener(listenerCaptor.capture(), any(Topic.class));
+        invalidateListener = listenerCaptor.getValue();
+    }
+
+    @Test
+    void remoteEvictInvalidatesLocalEntry() {
+        AtomicInteger loads = new AtomicInteger();
+        Function<String, UserDetails> loader = username -> {
+            loads.incrementAndGet();
+            return new LoginUser(1, username, "secret", UserPermissionEnum.USER, UserStatusEnum.ENABLE, 0);
+        };
+
+        principalCache.get(USERNAME, loader);
+        principalCache.get(USERNAME, loader);
+        assertEquals(1, loads.get());
+
+        // 其他节点执行 evict 后发布的通知，按 StringRedisTemplate 的序列化方式编码后投递给本节点
+        ArgumentCaptor<String> channelCaptor = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object> payloadCaptor = ArgumentCaptor.forClass(Object.class);
+        principalCache.evict(USERNAME);
+        verify(stringRedisTemplate).convertAndSend(channelCaptor.capture(), payloadCaptor.capture());
+
+        // 先让本节点重新缓存，再模拟收到远端通知
+        principalCache.get(USERNAME, loader);
+        assertEquals(2, loads.get());
+
+        @SuppressWarnings("unchecked")
+        RedisSerializer<Object> serializer = (RedisSerializer<Object>) new StringRedisTemplate().getValueSerializer();
+        byte[] body = serializer.serialize(payloadCaptor.getValue());
+        invalidateListener.onMessage(new DefaultMessage(
+                channelCaptor.getValue().getBytes(StandardCharsets.UTF_8), body), null);
+
+        principalCache.get(USERNAME, loader);
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void evictPublishesPlainUsername() {
+        principalCache.evict(USERNAME);
+        verify(stringRedisTemplate).convertAndSend(eq("zfile:auth:principal:invalidate"), eq(USERNAME));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,82 @@
+package com.zfile.module.file.download;
+
+import com.zfile.module.file.entity.FileInfo;
+import com.zfile.module.file.model.StorageObjectLocation;
+import com.zfile.module.storage.driver.StorageDriver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 范围下载测试
+ */
+class RangeDownloadWriterTest {
+
+    private static final String CONTENT = "0123456789";
+
+    @TempDir
+    Path tempDir;
+
+    private final RangeDownloadWriter writer = new RangeDownloadWriter();
+
+    private FileInfo fileInfo;
+
+    private StorageObjectLocation location;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path file = Files.writeString(tempDir.resolve("a.bin"), CONTENT, StandardCharsets.US_ASCII);
+        StorageDriver driver = mock(StorageDriver.class);
+        when(driver.getLocalPath("a.bin")).thenReturn(file);
+        location = new StorageObjectLocation(driver, "a.bin");
+        fileInfo = new FileInfo();
+        fileInfo.setFileName("a.bin");
+        fileInfo.setFileSize((long) CONTENT.length());
+        fileInfo.setFileMd5("0123456789abcdef0123456789abcdef");
+    }
+
+    @Test
+    void overlappingRangesLargerThanFileReturnWholeFile() throws Exception {
+        MockHttpServletResponse response = download("bytes=0-,0-,0-");
+
+        assertEquals(200, response.getStatus());
+        assertEquals(CONTENT, response.getContentAsString());
+    }
+
+    @Test
+    void adjacentRangesAreMergedIntoSinglePart() throws Exception {
+        MockHttpServletResponse response = download("bytes=4-5,0-1,2-3");
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 0-5/10", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals("012345", response.getContentAsString());
+    }
+
+    @Test
+    void disjointRangesUseMultipart() throws Exception {
+        MockHttpServletResponse response = download("bytes=0-1,5-6");
+
+        assertEquals(206, response.getStatus());
+        assertTrue(response.getContentType().startsWith("multipart/byteranges"));
+    }
+
+    private MockHttpServletResponse download(String range) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/files/1/download");
+        request.addHeader(HttpHeaders.RANGE, range);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        writer.write(fileInfo, location, false, request, response);
+        return response;
+    }
+}
\ No newline at end of file
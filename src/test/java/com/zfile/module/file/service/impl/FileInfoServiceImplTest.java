@@ -0,0 +1,120 @@
+package com.zfile.module.file.service.impl;
+
+import com.zfile.module.file.entity.FileBlob;
+import com.zfile.module.file.entity.FileInfo;
+import com.zfile.module.file.mapper.FileBlobMapper;
+import com.zfile.module.file.mapper.FileInfoMapper;
+import com.zfile.module.file.search.FileSearchIndex;
+import com.zfile.module.share.service.FileShareService;
+import com.zfile.module.storage.driver.StorageDriver;
+import com.zfile.module.storage.driver.StorageDriverRegistry;
+import com.zfile.module.storage.service.StorageUsageService;
+import com.zfile.module.user.service.UserStorageSourceService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 回收站清理测试
+ */
+class FileInfoServiceImplTest {
+
+    private static final long BLOB_ID = 10L;
+
+    private static final int STORAGE_SOURCE_ID = 3;
+
+    private static final String BLOB_PATH = "blob/ab/abcdef";
+
+    private final AtomicInteger refCount = new AtomicInteger(2);
+
+    private final Set<Long> blobRows = new HashSet<>(Set.of(BLOB_ID));
+
+    private final Map<Long, FileInfo> deletedRows = new HashMap<>();
+
+    private StorageDriver storageDriver;
+
+    private FileInfoServiceImpl fileInfoService;
+
+    @BeforeEach
+    void setUp() {
+        FileBlobMapper fileBlobMapper = mock(FileBlobMapper.class);
+        FileBlob fileBlob = new FileBlob();
+        fileBlob.setId(BLOB_ID);
+        fileBlob.setStorageSourceId(STORAGE_SOURCE_ID);
+        fileBlob.setStoragePath(BLOB_PATH);
+        when(fileBlobMapper.selectById(BLOB_ID)).thenAnswer(invocation -> blobRows.contains(BLOB_ID) ? fileBlob : null);
+        when(fileBlobMapper.decrementRefCount(BLOB_ID))
+                .thenAnswer(invocation -> refCount.getAndUpdate(count -> count > 0 ? count - 1 : count) > 0 ? 1 : 0);
+        when(fileBlobMapper.deleteUnreferenced(BLOB_ID))
+                .thenAnswer(invocation -> refCount.get() == 0 && blobRows.remove(BLOB_ID) ? 1 : 0);
+
+        storageDriver = mock(StorageDriver.class);
+        StorageDriverRegistry storageDriverRegistry = mock(StorageDriverRegistry.class);
+        when(storageDriverRegistry.getDriver(STORAGE_SOURCE_ID)).thenReturn(storageDriver);
+
+        FileBlobServiceImpl fileBlobService = new FileBlobServiceImpl(storageDriverRegistry);
+        ReflectionTestUtils.setField(fileBlobService, "baseMapper", fileBlobMapper);
+
+        FileInfoMapper fileInfoMapper = mock(FileInfoMapper.class);
+        when(fileInfoMapper.selectDeletedForUpdate(anyLong()))
+                .thenAnswer(invocation -> deletedRows.get(invocation.<Long>getArgument(0)));
+        when(fileInfoMapper.deletePurged(anyLong()))
+                .thenAnswer(invocation -> deletedRows.remove(invocation.<Long>getArgument(0)) != null ? 1 : 0);
+
+        fileInfoService = new FileInfoServiceImpl(mock(UserStorageSourceService.class), fileBlobService,
+                storageDriverRegistry, mock(StorageUsageService.class), mock(FileSearchIndex.class),
+                mock(FileShareService.class));
+        ReflectionTestUtils.setField(fileInfoService, "baseMapper", fileInfoMapper);
+    }
+
+    @Test
+    void purgingLastOwnerRemovesSharedContent() throws Exception {
+        deletedRows.put(1L, deletedFile(1L, 1));
+        deletedRows.put(2L, deletedFile(2L, 2));
+
+        assertTrue(fileInfoService.purgeDeletedFile(1L));
+        assertEquals(1, refCount.get());
+        verify(storageDriver, never()).delete(BLOB_PATH);
+
+        assertTrue(fileInfoService.purgeDeletedFile(2L));
+        assertEquals(0, refCount.get());
+        assertFalse(blobRows.contains(BLOB_ID));
+        verify(storageDriver, times(1)).delete(BLOB_PATH);
+    }
+
+    @Test
+    void purgingTwiceReleasesOnce() {
+        deletedRows.put(1L, deletedFile(1L, 1));
+        deletedRows.put(2L, deletedFile(2L, 2));
+
+        assertTrue(fileInfoService.purgeDeletedFile(1L));
+        assertFalse(fileInfoService.purgeDeletedFile(1L));
+        assertEquals(1, refCount.get());
+    }
+
+    private static FileInfo deletedFile(Long id, Integer userId) {
+        FileInfo fileInfo = new FileInfo();
+        fileInfo.setId(id);
+        fileInfo.setUserId(userId);
+        fileInfo.setIsFolder(0);
+        fileInfo.setBlobId(BLOB_ID);
+        fileInfo.setDeleted(1);
+        return fileInfo;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,74 @@
+package com.zfile.module.storage.driver;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 目录列表缓存失效测试
+ */
+class StorageListingCacheTest {
+
+    private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void tearDown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    @Test
+    void invalidateDuringRefreshDropsStaleListing() throws Exception {
+        AtomicReference<String> remote = new AtomicReference<>("old.txt");
+        CountDownLatch refreshStarted = new CountDownLatch(1);
+        CountDownLatch releaseRefresh = new CountDownLatch(1);
+        Thread testThread = Thread.currentThread();
+
+        StorageDriver driver = mock(StorageDriver.class);
+        when(driver.list(anyString())).thenAnswer(invocation -> {
+            // 读取开始时取到的是旧内容，后台刷新在失效完成前阻塞
+            List<StorageFileItem> items = List.of(item(remote.get()));
+            if (Thread.currentThread() != testThread) {
+                refreshStarted.countDown();
+                releaseRefresh.await();
+            }
+            return items;
+        });
+
+        StorageListingCache cache = new StorageListingCache(driver, Duration.ofMillis(1), Duration.ofMinutes(5),
+                1000, refreshExecutor, (path, recursive) -> {
+        });
+        assertEquals("old.txt", cache.list("docs").get(0).getName());
+
+        // 超过 ttl 后读取触发后台刷新，刷新读到旧内容后阻塞
+        Thread.sleep(5);
+        cache.list("docs");
+        assertTrue(refreshStarted.await(5, TimeUnit.SECONDS));
+
+        // 刷新进行中写入新文件并使列表失效
+        remote.set("new.txt");
+        cache.invalidateLocal("docs/new.txt", false);
+        releaseRefresh.countDown();
+        // 单线程执行器中排在刷新之后的任务完成时，刷新结果已经放入缓存
+        refreshExecutor.submit(() -> {
+        }).get(5, TimeUnit.SECONDS);
+
+        assertEquals("new.txt", cache.list("docs").get(0).getName());
+    }
+
+    private static StorageFileItem item(String name) {
+        return new StorageFileItem(name, "docs/" + name, false, 1, 0);
+    }
+}
\ No newline at end of file